@@ -0,0 +1,85 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.pronoia.junit.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * Helpers for creating the files and directory trees used by the benchmarks.
+ */
+final class BenchmarkFiles {
+  static final String BENCHMARK_DIRECTORY = "target/benchmark-files";
+
+  private BenchmarkFiles() {}
+
+  /**
+   * Create a body of approximately the requested size made of 64 character lines.
+   *
+   * @param size the size of the body in bytes
+   *
+   * @return the body
+   */
+  static String body(int size) {
+    StringBuilder builder = new StringBuilder(size);
+    int line = 0;
+    while (builder.length() < size) {
+      String text = String.format("%063d\n", line++);
+      builder.append(text, 0, Math.min(text.length(), size - builder.length()));
+    }
+    return builder.toString();
+  }
+
+  /**
+   * Populate a directory with a tree of files.
+   *
+   * Directories never contain more than fanOut entries - when entryCount exceeds fanOut the files are spread across
+   * fanOut child directories, recursively.
+   *
+   * @param directory  the root of the tree
+   * @param entryCount the number of files to create
+   * @param fanOut     the maximum number of entries in a directory
+   * @param body       the content of each file
+   */
+  static void populate(File directory, int entryCount, int fanOut, byte[] body) throws IOException {
+    if (!directory.isDirectory() && !directory.mkdirs()) {
+      throw new IOException("Failed to create directory " + directory);
+    }
+
+    if (entryCount <= fanOut) {
+      for (int i = 0; i < entryCount; ++i) {
+        Files.write(new File(directory, String.format("out-%d.csv", i)).toPath(), body);
+      }
+      return;
+    }
+
+    int perChild = (entryCount + fanOut - 1) / fanOut;
+    int remaining = entryCount;
+    for (int i = 0; remaining > 0; ++i) {
+      int count = Math.min(perChild, remaining);
+      populate(new File(directory, String.format("dir-%d", i)), count, fanOut, body);
+      remaining -= count;
+    }
+  }
+
+  static byte[] bytes(int size) {
+    return body(size).getBytes(StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,187 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.pronoia.junit.benchmarks;
+
+import com.pronoia.junit.asserts.file.DirectoryAssert;
+import com.pronoia.junit.asserts.file.FileAssert;
+import com.pronoia.junit.file.TestDirectory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for the directory and file assertions.
+ *
+ * The directory under test contains fanOut files named out-N.csv and one child directory, so every benchmarked
+ * assertion passes.  The directory assertions only read metadata, so the fan-out files are empty and only out-0.csv,
+ * the subject of the file assertions, holds fileSize bytes - this keeps the default parameter matrix on disk small.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DirectoryAssertBenchmark {
+  static final String CHILD_DIRECTORY_NAME = "child";
+  static final String EXISTING_FILE_NAME = "out-0.csv";
+  static final String MISSING_FILE_NAME = "missing.csv";
+
+  @Param({"10", "1000", "100000"})
+  int fanOut;
+
+  @Param({"0", "4096", "1048576"})
+  int fileSize;
+
+  File directory;
+  TestDirectory testDirectory;
+  File existingFile;
+  File copyOfExistingFile;
+  long lineCount;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    directory = new File(BenchmarkFiles.BENCHMARK_DIRECTORY, "directory-asserts");
+    testDirectory = new TestDirectory(directory);
+    testDirectory.initialize();
+
+    BenchmarkFiles.populate(directory, fanOut, fanOut, BenchmarkFiles.bytes(0));
+    testDirectory.newDirectory(CHILD_DIRECTORY_NAME);
+
+    existingFile = new File(directory, EXISTING_FILE_NAME);
+    Files.write(existingFile.toPath(), BenchmarkFiles.bytes(fileSize));
+    copyOfExistingFile = new File(BenchmarkFiles.BENCHMARK_DIRECTORY, "copy.csv");
+    Files.copy(existingFile.toPath(), copyOfExistingFile.toPath());
+    lineCount = FileUtils.readLines(existingFile, "UTF-8").size();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    FileUtils.deleteDirectory(directory);
+    FileUtils.deleteQuietly(copyOfExistingFile);
+  }
+
+  @Benchmark
+  public void assertDirectoryExists() {
+    DirectoryAssert.assertDirectoryExists(directory);
+  }
+
+  @Benchmark
+  public void assertDirectoryNotEmpty() {
+    DirectoryAssert.assertDirectoryNotEmpty(directory);
+  }
+
+  @Benchmark
+  public void assertDirectoryChildCountEquals() {
+    DirectoryAssert.assertDirectoryChildCountEquals(directory, fanOut + 1);
+  }
+
+  @Benchmark
+  public void assertDirectoryChildFileCountEquals() {
+    DirectoryAssert.assertDirectoryChildFileCountEquals(directory, fanOut);
+  }
+
+  @Benchmark
+  public void assertDirectoryChildDirectoryCountEquals() {
+    DirectoryAssert.assertDirectoryChildDirectoryCountEquals(directory, 1);
+  }
+
+  @Benchmark
+  public void assertDirectoryContainsFile() {
+    DirectoryAssert.assertDirectoryContainsFile(directory, EXISTING_FILE_NAME);
+  }
+
+  @Benchmark
+  public void assertDirectoryNotContainsFile() {
+    DirectoryAssert.assertDirectoryNotContainsFile(directory, MISSING_FILE_NAME);
+  }
+
+  @Benchmark
+  public void assertDirectoryContainsDirectory() {
+    DirectoryAssert.assertDirectoryContainsDirectory(directory, CHILD_DIRECTORY_NAME);
+  }
+
+  @Benchmark
+  public void assertDirectoryNotContainsDirectory() {
+    DirectoryAssert.assertDirectoryNotContainsDirectory(directory, MISSING_FILE_NAME);
+  }
+
+  @Benchmark
+  public void assertDirectoryContainsFilesMatching() {
+    DirectoryAssert.assertDirectoryContainsFilesMatching(directory, "out-*.csv", fanOut);
+  }
+
+  @Benchmark
+  public void assertDirectoryNotContainsFilesMatching() {
+    DirectoryAssert.assertDirectoryNotContainsFilesMatching(directory, "*.tmp");
+  }
+
+  @Benchmark
+  public void assertDirectoryAllFilesMatch() {
+    DirectoryAssert.assertDirectoryAllFilesMatch(directory, "regex:out-[0-9]+\\.csv");
+  }
+
+  @Benchmark
+  public void verify() {
+    testDirectory.verify()
+        .containsFile(EXISTING_FILE_NAME)
+        .notContainsFile(MISSING_FILE_NAME)
+        .containsDirectory(CHILD_DIRECTORY_NAME)
+        .fileCount(fanOut)
+        .directoryCount(1)
+        .noFilesMatching("*.tmp")
+        .run();
+  }
+
+  @Benchmark
+  public void assertFileAppearsWithin() {
+    DirectoryAssert.assertFileAppearsWithin(directory, EXISTING_FILE_NAME, 1, TimeUnit.SECONDS);
+  }
+
+  @Benchmark
+  public void assertFileSize() {
+    FileAssert.assertFileSize(existingFile, fileSize);
+  }
+
+  @Benchmark
+  public void assertLineCount() {
+    FileAssert.assertLineCount(existingFile, lineCount);
+  }
+
+  @Benchmark
+  public void assertFileLinesEqual() {
+    FileAssert.assertFileLinesEqual(copyOfExistingFile, existingFile);
+  }
+}
@@ -0,0 +1,123 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.pronoia.junit.benchmarks;
+
+import com.pronoia.junit.file.TestDirectory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for creating, reading, copying and deleting files through a {@link TestDirectory}.
+ *
+ * The operations run in a directory that already contains fanOut files.  Operations that create a file also delete
+ * it so the directory does not grow during a run.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FileOperationBenchmark {
+  static final String NEW_FILE_NAME = "new.txt";
+  static final String READ_FILE_NAME = "read.txt";
+
+  @Param({"0", "1024", "1048576"})
+  int fileSize;
+
+  @Param({"10", "1000", "100000"})
+  int fanOut;
+
+  File directory;
+  TestDirectory testDirectory;
+  File sourceFile;
+  String body;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    directory = new File(BenchmarkFiles.BENCHMARK_DIRECTORY, "file-operations");
+    testDirectory = new TestDirectory(directory);
+    testDirectory.initialize();
+
+    BenchmarkFiles.populate(directory, fanOut, fanOut, BenchmarkFiles.bytes(0));
+
+    body = BenchmarkFiles.body(fileSize);
+    testDirectory.newFileWithBody(READ_FILE_NAME, body);
+
+    sourceFile = new File(BenchmarkFiles.BENCHMARK_DIRECTORY, "source.txt");
+    Files.write(sourceFile.toPath(), BenchmarkFiles.bytes(fileSize));
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    FileUtils.deleteDirectory(directory);
+    FileUtils.deleteQuietly(sourceFile);
+  }
+
+  @Benchmark
+  public void newFile() {
+    testDirectory.newFile(NEW_FILE_NAME);
+    testDirectory.deleteFile(NEW_FILE_NAME);
+  }
+
+  @Benchmark
+  public void newFileWithBody() {
+    testDirectory.newFileWithBody(NEW_FILE_NAME, body);
+    testDirectory.deleteFile(NEW_FILE_NAME);
+  }
+
+  @Benchmark
+  public void copyFile() {
+    testDirectory.copyFile(sourceFile, NEW_FILE_NAME);
+    testDirectory.deleteFile(NEW_FILE_NAME);
+  }
+
+  @Benchmark
+  public File getFile() {
+    return testDirectory.getFile(READ_FILE_NAME);
+  }
+
+  @Benchmark
+  public String readFile() {
+    return testDirectory.readFile(READ_FILE_NAME);
+  }
+
+  @Benchmark
+  public List<String> readFileLines() {
+    return testDirectory.readFileLines(READ_FILE_NAME);
+  }
+}
@@ -0,0 +1,92 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.pronoia.junit.benchmarks;
+
+import com.pronoia.junit.file.TestDirectory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for initializing and cleaning up a populated {@link TestDirectory}.
+ *
+ * Each iteration populates a fresh tree and measures a single call, so the results are reported as single shot times.
+ * The default entry counts stop at 100,000 so a full run stays around 100 MB on disk - larger trees can be requested
+ * explicitly, e.g. -p entryCount=1000000 -p fileSize=0.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TestDirectoryLifecycleBenchmark {
+  @Param({"10", "1000", "100000"})
+  int entryCount;
+
+  @Param({"10", "1000"})
+  int fanOut;
+
+  @Param({"0", "1024"})
+  int fileSize;
+
+  File directory;
+  TestDirectory testDirectory;
+
+  @Setup(Level.Trial)
+  public void createTestDirectory() {
+    directory = new File(BenchmarkFiles.BENCHMARK_DIRECTORY, "lifecycle");
+    testDirectory = new TestDirectory(directory);
+  }
+
+  @Setup(Level.Iteration)
+  public void populate() throws IOException {
+    BenchmarkFiles.populate(directory, entryCount, fanOut, BenchmarkFiles.bytes(fileSize));
+  }
+
+  @TearDown(Level.Trial)
+  public void deleteTestDirectory() throws IOException {
+    FileUtils.deleteDirectory(directory);
+  }
+
+  @Benchmark
+  public void cleanup() {
+    testDirectory.cleanup();
+  }
+
+  @Benchmark
+  public void initialize() {
+    testDirectory.initialize();
+  }
+}
@@ -23,14 +23,35 @@ import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.io.File;
-import java.util.Arrays;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Assertions for {@link File} objects referring to directories in the filesystem.
+ * Assertions for {@link File} and {@link Path} objects referring to directories in the filesystem.
+ *
+ * The {@link Path} methods are the implementation - they read the attributes of each entry with a single call to
+ * {@link Files#readAttributes(Path, Class, java.nio.file.LinkOption...)}.  The {@link File} methods are adapters.
  */
 public final class DirectoryAssert {
   static final Logger LOG = LoggerFactory.getLogger(DirectoryAssert.class);
@@ -68,8 +89,18 @@ public final class DirectoryAssert {
    * @param directory expected directory
    */
   public static void assertDirectoryExists(final File directory) {
-    assertTrue( String.format("Directory %s does not exist", directory), directory.exists());
-    assertTrue( String.format("%s does not refer to a directory", directory), directory.isDirectory());
+    assertDirectoryExists(directory.toPath());
+  }
+
+  /**
+   * Asserts that a {@link Path} exists and refers to a directory.
+   *
+   * @param directory expected directory
+   */
+  public static void assertDirectoryExists(final Path directory) {
+    BasicFileAttributes attributes = readAttributes(directory);
+    assertTrue( String.format("Directory %s does not exist", directory), attributes != null);
+    assertTrue( String.format("%s does not refer to a directory", directory), attributes.isDirectory());
   }
 
   /**
@@ -78,7 +109,16 @@ public final class DirectoryAssert {
    * @param directory expected directory
    */
   public static void assertDirectoryNotExists(final File directory) {
-    assertFalse( String.format("%s exists", directory), directory.exists());
+    assertDirectoryNotExists(directory.toPath());
+  }
+
+  /**
+   * Asserts that a {@link Path} does not exist.
+   *
+   * @param directory expected directory
+   */
+  public static void assertDirectoryNotExists(final Path directory) {
+    assertFalse( String.format("%s exists", directory), Files.exists(directory));
   }
 
   /**
@@ -100,9 +140,25 @@ public final class DirectoryAssert {
    * @param directory expected directory
    */
   public static void assertDirectoryIsEmpty(final File directory) {
+    assertDirectoryIsEmpty(directory.toPath());
+  }
+
+  /**
+   * Asserts that a {@link Path} exists, refers to a directory and does not contain any children.
+   *
+   * @param directory expected directory
+   */
+  public static void assertDirectoryIsEmpty(final Path directory) {
     assertDirectoryExists(directory);
 
-    List<String> directoryEntries = Arrays.asList(directory.list());
+    List<String> directoryEntries = new ArrayList<>();
+    try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+      for (Path entry : entries) {
+        directoryEntries.add(entry.getFileName().toString());
+      }
+    } catch (IOException ioEx) {
+      throw new IllegalStateException(String.format("Failed to read the entries of directory %s", directory), ioEx);
+    }
     assertTrue( String.format("Directory %s is not empty - contains %s", directory, directoryEntries), directoryEntries.isEmpty());
   }
 
@@ -125,9 +181,24 @@ public final class DirectoryAssert {
    * @param directory expected directory
    */
   public static void assertDirectoryNotEmpty(final File directory) {
+    assertDirectoryNotEmpty(directory.toPath());
+  }
+
+  /**
+   * Asserts that a {@link Path} exists, refers to a directory and contains children.
+   *
+   * @param directory expected directory
+   */
+  public static void assertDirectoryNotEmpty(final Path directory) {
     assertDirectoryExists(directory);
 
-    assertTrue( String.format("Directory %s is empty", directory), directory.list().length > 0);
+    boolean found;
+    try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+      found = entries.iterator().hasNext();
+    } catch (IOException ioEx) {
+      throw new IllegalStateException(String.format("Failed to read the entries of directory %s", directory), ioEx);
+    }
+    assertTrue( String.format("Directory %s is empty", directory), found);
   }
 
   /**
@@ -149,9 +220,19 @@ public final class DirectoryAssert {
    * @param expectedChildCount expected number of children in directory
    */
   public static void assertDirectoryChildCountEquals(final File directory, int expectedChildCount) {
+    assertDirectoryChildCountEquals(directory.toPath(), expectedChildCount);
+  }
+
+  /**
+   * Asserts that a {@link Path} exists, refers to a directory and contains a specific number of children.
+   *
+   * @param directory expected directory
+   * @param expectedChildCount expected number of children in directory
+   */
+  public static void assertDirectoryChildCountEquals(final Path directory, int expectedChildCount) {
     assertDirectoryExists(directory);
 
-    assertEquals( String.format("Unexpected number of children in directory %s", directory), expectedChildCount, directory.list().length);
+    assertEquals( String.format("Unexpected number of children in directory %s", directory), expectedChildCount, countChildren(directory, ANY_CHILD));
   }
 
   /**
@@ -173,16 +254,19 @@ public final class DirectoryAssert {
    * @param expectedFileCount expected number of files in directory
    */
   public static void assertDirectoryChildFileCountEquals(final File directory, int expectedFileCount) {
-    assertDirectoryExists(directory);
+    assertDirectoryChildFileCountEquals(directory.toPath(), expectedFileCount);
+  }
 
-    int actual = 0;
-    for (File child : directory.listFiles()) {
-      if (child.isFile()) {
-        ++actual;
-      }
-    }
+  /**
+   * Asserts that a {@link Path} exists, refers to a directory and contains a specific number of files.
+   *
+   * @param directory expected directory
+   * @param expectedFileCount expected number of files in directory
+   */
+  public static void assertDirectoryChildFileCountEquals(final Path directory, int expectedFileCount) {
+    assertDirectoryExists(directory);
 
-    assertEquals( String.format("Unexpected number of files in directory %s", directory), expectedFileCount, actual);
+    assertEquals( String.format("Unexpected number of files in directory %s", directory), expectedFileCount, countChildren(directory, FILE_CHILD));
   }
 
   /**
@@ -204,16 +288,19 @@ public final class DirectoryAssert {
    * @param expectedDirectoryCount expected number of child directories in directory
    */
   public static void assertDirectoryChildDirectoryCountEquals(final File directory, int expectedDirectoryCount) {
-    assertDirectoryExists(directory);
+    assertDirectoryChildDirectoryCountEquals(directory.toPath(), expectedDirectoryCount);
+  }
 
-    int actual = 0;
-    for (File child : directory.listFiles()) {
-      if (child.isDirectory()) {
-        ++actual;
-      }
-    }
+  /**
+   * Asserts that a {@link Path} exists, refers to a directory and contains a specific number of child directories.
+   *
+   * @param directory expected directory
+   * @param expectedDirectoryCount expected number of child directories in directory
+   */
+  public static void assertDirectoryChildDirectoryCountEquals(final Path directory, int expectedDirectoryCount) {
+    assertDirectoryExists(directory);
 
-    assertEquals( String.format("Unexpected number of files in directory %s", directory), expectedDirectoryCount, actual);
+    assertEquals( String.format("Unexpected number of files in directory %s", directory), expectedDirectoryCount, countChildren(directory, DIRECTORY_CHILD));
   }
 
   /**
@@ -235,11 +322,21 @@ public final class DirectoryAssert {
    * @param fileName expected file name
    */
   public static void assertDirectoryContainsFile(final File directory, final String fileName) {
+    assertDirectoryContainsFile(directory.toPath(), fileName);
+  }
+
+  /**
+   * Asserts that a file exists in a {@link Path} directory and is a file.
+   *
+   * @param directory directory to check for file
+   * @param fileName expected file name
+   */
+  public static void assertDirectoryContainsFile(final Path directory, final String fileName) {
     assertDirectoryExists(directory);
 
-    File expected = new File(directory, fileName);
-    assertTrue( String.format("File %s does not exist in directory %s", fileName, directory), expected.exists());
-    assertTrue( String.format("%s in directory %s does not refer to a file", fileName, directory), expected.isFile());
+    BasicFileAttributes attributes = readAttributes(directory.resolve(fileName));
+    assertTrue( String.format("File %s does not exist in directory %s", fileName, directory), attributes != null);
+    assertTrue( String.format("%s in directory %s does not refer to a file", fileName, directory), attributes.isRegularFile());
   }
 
   /**
@@ -261,11 +358,21 @@ public final class DirectoryAssert {
    * @param fileName expected file name
    */
   public static void assertDirectoryNotContainsFile(final File directory, final String fileName) {
+    assertDirectoryNotContainsFile(directory.toPath(), fileName);
+  }
+
+  /**
+   * Asserts that a file does not exist in a {@link Path} directory.
+   *
+   * @param directory directory to check for file
+   * @param fileName expected file name
+   */
+  public static void assertDirectoryNotContainsFile(final Path directory, final String fileName) {
     assertDirectoryExists(directory);
 
-    File expected = new File(directory, fileName);
-    if (expected.exists()) {
-      if (expected.isFile()) {
+    BasicFileAttributes attributes = readAttributes(directory.resolve(fileName));
+    if (attributes != null) {
+      if (attributes.isRegularFile()) {
         fail( String.format("File %s exists in directory %s", fileName, directory));
       } else {
         LOG.warn("The directory {} contains {}, but it is not a file", directory, fileName);
@@ -292,11 +399,21 @@ public final class DirectoryAssert {
    * @param directoryName expected directory name
    */
   public static void assertDirectoryContainsDirectory(final File directory, final String directoryName) {
+    assertDirectoryContainsDirectory(directory.toPath(), directoryName);
+  }
+
+  /**
+   * Asserts that a directory exists in a {@link Path} directory and is a directory.
+   *
+   * @param directory directory to check for file
+   * @param directoryName expected directory name
+   */
+  public static void assertDirectoryContainsDirectory(final Path directory, final String directoryName) {
     assertDirectoryExists(directory);
 
-    File expected = new File(directory, directoryName);
-    assertTrue( String.format("Directory %s does not exist in directory %s", directoryName, directory), expected.exists());
-    assertTrue( String.format("%s in directory %s does not refer to a directory", directoryName, directory), expected.isDirectory());
+    BasicFileAttributes attributes = readAttributes(directory.resolve(directoryName));
+    assertTrue( String.format("Directory %s does not exist in directory %s", directoryName, directory), attributes != null);
+    assertTrue( String.format("%s in directory %s does not refer to a directory", directoryName, directory), attributes.isDirectory());
   }
 
   /**
@@ -318,11 +435,21 @@ public final class DirectoryAssert {
    * @param directoryName expected directory name
    */
   public static void assertDirectoryNotContainsDirectory(final File directory, final String directoryName) {
+    assertDirectoryNotContainsDirectory(directory.toPath(), directoryName);
+  }
+
+  /**
+   * Asserts that a directory does not exist in a {@link Path} directory.
+   *
+   * @param directory directory to check for file
+   * @param directoryName expected directory name
+   */
+  public static void assertDirectoryNotContainsDirectory(final Path directory, final String directoryName) {
     assertDirectoryExists(directory);
 
-    File expected = new File(directory, directoryName);
-    if (expected.exists()) {
-      if (expected.isDirectory()) {
+    BasicFileAttributes attributes = readAttributes(directory.resolve(directoryName));
+    if (attributes != null) {
+      if (attributes.isDirectory()) {
         fail( String.format("Directory %s exists in directory %s", directoryName, directory));
       } else {
         LOG.warn("The directory {} contains {}, but it is not a directory", directory, directoryName);
@@ -330,4 +457,539 @@ public final class DirectoryAssert {
     }
   }
 
+  /**
+   * Asserts that a directory contains a specific number of files with names matching a pattern.
+   *
+   * @param directoryName directory to check for files
+   * @param pattern glob or regex file name pattern (see {@link PathMatchers#compile(String)})
+   * @param expectedCount expected number of matching files
+   */
+  public static void assertDirectoryContainsFilesMatching(final String directoryName, final String pattern, int expectedCount) {
+    assertDirectoryExists(directoryName);
+
+    assertDirectoryContainsFilesMatching(new File(directoryName), pattern, expectedCount);
+  }
+
+  /**
+   * Asserts that a directory contains a specific number of files with names matching a pattern.
+   *
+   * @param directory directory to check for files
+   * @param pattern glob or regex file name pattern (see {@link PathMatchers#compile(String)})
+   * @param expectedCount expected number of matching files
+   */
+  public static void assertDirectoryContainsFilesMatching(final File directory, final String pattern, int expectedCount) {
+    assertDirectoryContainsFilesMatching(directory.toPath(), pattern, expectedCount);
+  }
+
+  /**
+   * Asserts that a {@link Path} directory contains a specific number of files with names matching a pattern.
+   *
+   * @param directory directory to check for files
+   * @param pattern glob or regex file name pattern (see {@link PathMatchers#compile(String)})
+   * @param expectedCount expected number of matching files
+   */
+  public static void assertDirectoryContainsFilesMatching(final Path directory, final String pattern, int expectedCount) {
+    assertDirectoryExists(directory);
+
+    PathMatcher matcher = PathMatchers.compile(pattern);
+
+    int actual = 0;
+    try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+      for (Path entry : entries) {
+        if (matcher.matches(entry.getFileName()) && Files.isRegularFile(entry)) {
+          ++actual;
+        }
+      }
+    } catch (IOException ioEx) {
+      throw new IllegalStateException(String.format("Failed to read the entries of directory %s", directory), ioEx);
+    }
+
+    assertEquals( String.format("Unexpected number of files matching %s in directory %s", pattern, directory), expectedCount, actual);
+  }
+
+  /**
+   * Asserts that a directory does not contain any files with names matching a pattern.
+   *
+   * @param directoryName directory to check for files
+   * @param pattern glob or regex file name pattern (see {@link PathMatchers#compile(String)})
+   */
+  public static void assertDirectoryNotContainsFilesMatching(final String directoryName, final String pattern) {
+    assertDirectoryExists(directoryName);
+
+    assertDirectoryNotContainsFilesMatching(new File(directoryName), pattern);
+  }
+
+  /**
+   * Asserts that a directory does not contain any files with names matching a pattern.
+   *
+   * @param directory directory to check for files
+   * @param pattern glob or regex file name pattern (see {@link PathMatchers#compile(String)})
+   */
+  public static void assertDirectoryNotContainsFilesMatching(final File directory, final String pattern) {
+    assertDirectoryNotContainsFilesMatching(directory.toPath(), pattern);
+  }
+
+  /**
+   * Asserts that a {@link Path} directory does not contain any files with names matching a pattern.
+   *
+   * @param directory directory to check for files
+   * @param pattern glob or regex file name pattern (see {@link PathMatchers#compile(String)})
+   */
+  public static void assertDirectoryNotContainsFilesMatching(final Path directory, final String pattern) {
+    assertDirectoryExists(directory);
+
+    PathMatcher matcher = PathMatchers.compile(pattern);
+
+    try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+      for (Path entry : entries) {
+        if (matcher.matches(entry.getFileName()) && Files.isRegularFile(entry)) {
+          fail( String.format("File %s matching %s exists in directory %s", entry.getFileName(), pattern, directory));
+        }
+      }
+    } catch (IOException ioEx) {
+      throw new IllegalStateException(String.format("Failed to read the entries of directory %s", directory), ioEx);
+    }
+  }
+
+  /**
+   * Asserts that the names of all files in a directory match a pattern.
+   *
+   * @param directoryName directory to check for files
+   * @param pattern glob or regex file name pattern (see {@link PathMatchers#compile(String)})
+   */
+  public static void assertDirectoryAllFilesMatch(final String directoryName, final String pattern) {
+    assertDirectoryExists(directoryName);
+
+    assertDirectoryAllFilesMatch(new File(directoryName), pattern);
+  }
+
+  /**
+   * Asserts that the names of all files in a directory match a pattern.
+   *
+   * @param directory directory to check for files
+   * @param pattern glob or regex file name pattern (see {@link PathMatchers#compile(String)})
+   */
+  public static void assertDirectoryAllFilesMatch(final File directory, final String pattern) {
+    assertDirectoryAllFilesMatch(directory.toPath(), pattern);
+  }
+
+  /**
+   * Asserts that the names of all files in a {@link Path} directory match a pattern.
+   *
+   * @param directory directory to check for files
+   * @param pattern glob or regex file name pattern (see {@link PathMatchers#compile(String)})
+   */
+  public static void assertDirectoryAllFilesMatch(final Path directory, final String pattern) {
+    assertDirectoryExists(directory);
+
+    PathMatcher matcher = PathMatchers.compile(pattern);
+
+    try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+      for (Path entry : entries) {
+        if (!matcher.matches(entry.getFileName()) && Files.isRegularFile(entry)) {
+          fail( String.format("File %s in directory %s does not match %s", entry.getFileName(), directory, pattern));
+        }
+      }
+    } catch (IOException ioEx) {
+      throw new IllegalStateException(String.format("Failed to read the entries of directory %s", directory), ioEx);
+    }
+  }
+
+  /**
+   * Asserts that a directory contains all of the expected files, and may contain others.
+   *
+   * @param directoryName directory to check for files
+   * @param fileNames expected file names
+   */
+  public static void assertDirectoryContainsAllFiles(final String directoryName, final Collection<String> fileNames) {
+    assertDirectoryExists(directoryName);
+
+    assertDirectoryContainsAllFiles(new File(directoryName), fileNames);
+  }
+
+  /**
+   * Asserts that a directory contains all of the expected files, and may contain others.
+   *
+   * @param directory directory to check for files
+   * @param fileNames expected file names
+   */
+  public static void assertDirectoryContainsAllFiles(final File directory, final Collection<String> fileNames) {
+    assertDirectoryContainsAllFiles(directory.toPath(), fileNames);
+  }
+
+  /**
+   * Asserts that a {@link Path} directory contains all of the expected files, and may contain others.
+   *
+   * The directory is listed once into a hash set, so the cost does not grow with the number of expected files the
+   * way repeated calls to {@link #assertDirectoryContainsFile(Path, String)} do.  Every missing file is reported in a
+   * single assertion message.
+   *
+   * @param directory directory to check for files
+   * @param fileNames expected file names
+   */
+  public static void assertDirectoryContainsAllFiles(final Path directory, final Collection<String> fileNames) {
+    checkFileNames(fileNames);
+    assertDirectoryExists(directory);
+
+    Set<String> actual = listFileNames(directory);
+    Set<String> missing = new TreeSet<>();
+    for (String fileName : fileNames) {
+      if (!actual.contains(fileName)) {
+        missing.add(fileName);
+      }
+    }
+
+    assertTrue( String.format("Directory %s is missing %d of %d expected files - %s", directory, missing.size(), new HashSet<>(fileNames).size(), missing), missing.isEmpty());
+  }
+
+  /**
+   * Asserts that a directory contains exactly the expected files - no file is missing and no other file exists.
+   *
+   * @param directoryName directory to check for files
+   * @param fileNames expected file names
+   */
+  public static void assertDirectoryContainsExactlyFiles(final String directoryName, final Collection<String> fileNames) {
+    assertDirectoryExists(directoryName);
+
+    assertDirectoryContainsExactlyFiles(new File(directoryName), fileNames);
+  }
+
+  /**
+   * Asserts that a directory contains exactly the expected files - no file is missing and no other file exists.
+   *
+   * @param directory directory to check for files
+   * @param fileNames expected file names
+   */
+  public static void assertDirectoryContainsExactlyFiles(final File directory, final Collection<String> fileNames) {
+    assertDirectoryContainsExactlyFiles(directory.toPath(), fileNames);
+  }
+
+  /**
+   * Asserts that a {@link Path} directory contains exactly the expected files - no file is missing and no other file
+   * exists.  Child directories are ignored.
+   *
+   * @param directory directory to check for files
+   * @param fileNames expected file names
+   *
+   * @see #assertDirectoryContainsAllFiles(Path, Collection)
+   */
+  public static void assertDirectoryContainsExactlyFiles(final Path directory, final Collection<String> fileNames) {
+    checkFileNames(fileNames);
+    assertDirectoryExists(directory);
+
+    Set<String> actual = listFileNames(directory);
+    Set<String> missing = new TreeSet<>();
+    for (String fileName : new HashSet<>(fileNames)) {
+      if (!actual.remove(fileName)) {
+        missing.add(fileName);
+      }
+    }
+
+    Set<String> unexpected = new TreeSet<>(actual);
+    assertTrue( String.format("Directory %s does not contain exactly the expected files - missing %s, unexpected %s", directory, missing, unexpected),
+        missing.isEmpty() && unexpected.isEmpty());
+  }
+
+  /**
+   * Asserts that a directory does not contain any of the specified files.
+   *
+   * @param directoryName directory to check for files
+   * @param fileNames unexpected file names
+   */
+  public static void assertDirectoryContainsNoneOf(final String directoryName, final Collection<String> fileNames) {
+    assertDirectoryExists(directoryName);
+
+    assertDirectoryContainsNoneOf(new File(directoryName), fileNames);
+  }
+
+  /**
+   * Asserts that a directory does not contain any of the specified files.
+   *
+   * @param directory directory to check for files
+   * @param fileNames unexpected file names
+   */
+  public static void assertDirectoryContainsNoneOf(final File directory, final Collection<String> fileNames) {
+    assertDirectoryContainsNoneOf(directory.toPath(), fileNames);
+  }
+
+  /**
+   * Asserts that a {@link Path} directory does not contain any of the specified files.
+   *
+   * @param directory directory to check for files
+   * @param fileNames unexpected file names
+   *
+   * @see #assertDirectoryContainsAllFiles(Path, Collection)
+   */
+  public static void assertDirectoryContainsNoneOf(final Path directory, final Collection<String> fileNames) {
+    checkFileNames(fileNames);
+    assertDirectoryExists(directory);
+
+    Set<String> actual = listFileNames(directory);
+    Set<String> present = new TreeSet<>();
+    for (String fileName : fileNames) {
+      if (actual.contains(fileName)) {
+        present.add(fileName);
+      }
+    }
+
+    assertTrue( String.format("Directory %s contains %d unexpected files - %s", directory, present.size(), present), present.isEmpty());
+  }
+
+  /**
+   * Asserts that no file in a directory with a name matching a pattern contains a match for a regular expression.
+   *
+   * @param directory directory to check for files
+   * @param pattern glob or regex file name pattern (see {@link PathMatchers#compile(String)})
+   * @param contentPattern the regular expression
+   *
+   * @see #assertNoFileContains(Path, String, Pattern, Charset)
+   */
+  public static void assertNoFileContains(final File directory, final String pattern, final Pattern contentPattern) {
+    assertNoFileContains(directory.toPath(), pattern, contentPattern, Charset.defaultCharset());
+  }
+
+  /**
+   * Asserts that no file in a {@link Path} directory with a name matching a pattern contains a match for a regular
+   * expression, using the default charset.
+   *
+   * @param directory directory to check for files
+   * @param pattern glob or regex file name pattern (see {@link PathMatchers#compile(String)})
+   * @param contentPattern the regular expression
+   *
+   * @see #assertNoFileContains(Path, String, Pattern, Charset)
+   */
+  public static void assertNoFileContains(final Path directory, final String pattern, final Pattern contentPattern) {
+    assertNoFileContains(directory, pattern, contentPattern, Charset.defaultCharset());
+  }
+
+  /**
+   * Asserts that no file in a {@link Path} directory with a name matching a pattern contains a match for a regular
+   * expression.
+   *
+   * The files are scanned in parallel on the common {@link ForkJoinPool}, each in overlapping chunks that stop at the
+   * first match (see {@link FileAssert#assertFileNotContains(Path, Pattern, Charset)}).  Every file that contains a
+   * match is reported in a single assertion message.
+   *
+   * @param directory directory to check for files
+   * @param pattern glob or regex file name pattern (see {@link PathMatchers#compile(String)})
+   * @param contentPattern the regular expression
+   * @param charset the charset of the files
+   */
+  public static void assertNoFileContains(final Path directory, final String pattern, final Pattern contentPattern, final Charset charset) {
+    if (contentPattern == null) {
+      throw new IllegalArgumentException("Pattern argument cannot be null");
+    }
+    assertDirectoryExists(directory);
+
+    PathMatcher matcher = PathMatchers.compile(pattern);
+    List<Path> files = new ArrayList<>();
+    try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+      for (Path entry : entries) {
+        if (matcher.matches(entry.getFileName()) && Files.isRegularFile(entry)) {
+          files.add(entry);
+        }
+      }
+    } catch (IOException ioEx) {
+      throw new IllegalStateException(String.format("Failed to read the entries of directory %s", directory), ioEx);
+    }
+
+    Map<String, Long> matches = new ConcurrentSkipListMap<>();
+    ForkJoinPool.commonPool().invoke(new RecursiveAction() {
+      @Override
+      protected void compute() {
+        invokeAll(files.stream().map(file -> new RecursiveAction() {
+          @Override
+          protected void compute() {
+            try {
+              long offset = PatternScanner.find(file, contentPattern, charset);
+              if (offset >= 0) {
+                matches.put(file.getFileName().toString(), offset);
+              }
+            } catch (IOException ioEx) {
+              throw new IllegalStateException(String.format("Failed to search file %s for %s", file, contentPattern), ioEx);
+            }
+          }
+        }).collect(Collectors.toList()));
+      }
+    });
+
+    List<String> report = new ArrayList<>(matches.size());
+    for (Map.Entry<String, Long> match : matches.entrySet()) {
+      report.add(match.getKey() + " at character " + match.getValue());
+    }
+    assertTrue( String.format("%d of %d files matching %s in directory %s contain a match for %s - %s", matches.size(), files.size(), pattern, directory, contentPattern, report),
+        matches.isEmpty());
+  }
+
+  /**
+   * Asserts that a file appears in a directory before a timeout elapses.
+   *
+   * The assertion returns as soon as the file exists, so it can replace fixed sleeps in tests of asynchronous
+   * file producers.
+   *
+   * @param directory directory to watch for the file
+   * @param fileName expected file name
+   * @param timeout the maximum time to wait
+   * @param unit the unit of the timeout argument
+   */
+  public static void assertFileAppearsWithin(final File directory, final String fileName, long timeout, TimeUnit unit) {
+    assertFileAppearsWithin(directory.toPath(), fileName, timeout, unit);
+  }
+
+  /**
+   * Asserts that a file appears in a {@link Path} directory before a timeout elapses.
+   *
+   * @param directory directory to watch for the file
+   * @param fileName expected file name
+   * @param timeout the maximum time to wait
+   * @param unit the unit of the timeout argument
+   *
+   * @see #assertFileAppearsWithin(File, String, long, TimeUnit)
+   */
+  public static void assertFileAppearsWithin(final Path directory, final String fileName, long timeout, TimeUnit unit) {
+    assertDirectoryExists(directory);
+
+    final Path expected = directory.resolve(fileName);
+    if (!DirectoryWatch.await(directory, () -> Files.isRegularFile(expected), timeout, unit)) {
+      fail( String.format("File %s did not appear in directory %s within %d %s", fileName, directory, timeout, unit));
+    }
+  }
+
+  /**
+   * Asserts that a file is removed from a directory before a timeout elapses.
+   *
+   * @param directory directory to watch for the file
+   * @param fileName file name
+   * @param timeout the maximum time to wait
+   * @param unit the unit of the timeout argument
+   */
+  public static void assertFileDisappearsWithin(final File directory, final String fileName, long timeout, TimeUnit unit) {
+    assertFileDisappearsWithin(directory.toPath(), fileName, timeout, unit);
+  }
+
+  /**
+   * Asserts that a file is removed from a {@link Path} directory before a timeout elapses.
+   *
+   * @param directory directory to watch for the file
+   * @param fileName file name
+   * @param timeout the maximum time to wait
+   * @param unit the unit of the timeout argument
+   */
+  public static void assertFileDisappearsWithin(final Path directory, final String fileName, long timeout, TimeUnit unit) {
+    assertDirectoryExists(directory);
+
+    final Path expected = directory.resolve(fileName);
+    if (!DirectoryWatch.await(directory, () -> !Files.exists(expected), timeout, unit)) {
+      fail( String.format("File %s did not disappear from directory %s within %d %s", fileName, directory, timeout, unit));
+    }
+  }
+
+  /**
+   * Asserts that a directory contains a specific number of children before a timeout elapses.
+   *
+   * @param directory directory to watch
+   * @param expectedChildCount expected number of children in directory
+   * @param timeout the maximum time to wait
+   * @param unit the unit of the timeout argument
+   */
+  public static void assertChildCountReachesWithin(final File directory, int expectedChildCount, long timeout, TimeUnit unit) {
+    assertChildCountReachesWithin(directory.toPath(), expectedChildCount, timeout, unit);
+  }
+
+  /**
+   * Asserts that a {@link Path} directory contains a specific number of children before a timeout elapses.
+   *
+   * @param directory directory to watch
+   * @param expectedChildCount expected number of children in directory
+   * @param timeout the maximum time to wait
+   * @param unit the unit of the timeout argument
+   */
+  public static void assertChildCountReachesWithin(final Path directory, int expectedChildCount, long timeout, TimeUnit unit) {
+    assertDirectoryExists(directory);
+
+    if (!DirectoryWatch.await(directory, () -> childCount(directory) == expectedChildCount, timeout, unit)) {
+      fail( String.format("Directory %s did not reach %d children within %d %s - contains %d", directory, expectedChildCount, timeout, unit, childCount(directory)));
+    }
+  }
+
+  static int childCount(final File directory) {
+    return childCount(directory.toPath());
+  }
+
+  static int childCount(final Path directory) {
+    try {
+      return countChildren(directory, ANY_CHILD);
+    } catch (IllegalStateException readEx) {
+      return 0;
+    }
+  }
+
+  static final int ANY_CHILD = 0;
+  static final int FILE_CHILD = 1;
+  static final int DIRECTORY_CHILD = 2;
+
+  static int countChildren(final Path directory, int childType) {
+    int count = 0;
+    try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+      for (Path entry : entries) {
+        if (childType == ANY_CHILD) {
+          ++count;
+        } else {
+          BasicFileAttributes attributes = readAttributes(entry);
+          if (attributes != null && (childType == FILE_CHILD ? attributes.isRegularFile() : attributes.isDirectory())) {
+            ++count;
+          }
+        }
+      }
+    } catch (IOException ioEx) {
+      throw new IllegalStateException(String.format("Failed to read the entries of directory %s", directory), ioEx);
+    }
+
+    return count;
+  }
+
+  static void checkFileNames(final Collection<String> fileNames) {
+    if (fileNames == null) {
+      throw new IllegalArgumentException("File names argument cannot be null");
+    }
+  }
+
+  /**
+   * List the names of the files in a directory with a single pass over its entries.
+   *
+   * @param directory the directory
+   *
+   * @return the names of the regular files in the directory
+   */
+  static Set<String> listFileNames(final Path directory) {
+    Set<String> fileNames = new HashSet<>();
+    try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+      for (Path entry : entries) {
+        BasicFileAttributes attributes = readAttributes(entry);
+        if (attributes != null && attributes.isRegularFile()) {
+          fileNames.add(entry.getFileName().toString());
+        }
+      }
+    } catch (IOException ioEx) {
+      throw new IllegalStateException(String.format("Failed to read the entries of directory %s", directory), ioEx);
+    }
+
+    return fileNames;
+  }
+
+  /**
+   * Read the basic attributes of a path with a single filesystem call.
+   *
+   * @param path the path
+   *
+   * @return the attributes, or null if the path does not exist
+   */
+  static BasicFileAttributes readAttributes(final Path path) {
+    try {
+      return Files.readAttributes(path, BasicFileAttributes.class);
+    } catch (IOException readEx) {
+      return null;
+    }
+  }
+
 }
@@ -0,0 +1,499 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.pronoia.junit.asserts.file;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A batch of directory assertions that are evaluated together.
+ *
+ * Checks are collected by the builder methods and nothing touches the filesystem until {@link #run()} is called.  Each
+ * directory involved is then listed exactly once, every check registered for that directory is evaluated against the
+ * same listing, and all failures are reported together in a single {@link AssertionError}.
+ *
+ * Example:
+ * <pre>
+ *   testDirectory.verify()
+ *       .containsFile("summary.txt")
+ *       .fileCount(3)
+ *       .noFilesMatching("*.tmp")
+ *       .inChildDirectory("archive")
+ *       .filesMatching("out-*.csv", 2)
+ *       .run();
+ * </pre>
+ */
+public final class DirectoryVerification {
+  final Path rootDirectory;
+  final Path directory;
+  final Map<Path, List<Check>> checks;
+
+  /**
+   * Create a new verification for the specified directory.
+   *
+   * @param directory the directory to verify
+   */
+  public DirectoryVerification(final File directory) {
+    this(directory != null ? directory.toPath() : null);
+  }
+
+  /**
+   * Create a new verification for the specified directory.
+   *
+   * @param directory the directory to verify
+   */
+  public DirectoryVerification(final Path directory) {
+    if (directory == null) {
+      throw new IllegalArgumentException("Directory argument cannot be null");
+    }
+
+    this.rootDirectory = directory;
+    this.directory = rootDirectory;
+    this.checks = new LinkedHashMap<>();
+  }
+
+  DirectoryVerification(DirectoryVerification root, Path directory) {
+    this.rootDirectory = root.rootDirectory;
+    this.directory = directory;
+    this.checks = root.checks;
+  }
+
+  /**
+   * Direct subsequent checks to a child directory of the root directory.
+   *
+   * @param childDirectoryName the name of the child directory
+   *
+   * @return a verification builder for the child directory sharing this batch of checks
+   */
+  public DirectoryVerification inChildDirectory(final String childDirectoryName) {
+    if (childDirectoryName == null || childDirectoryName.isEmpty()) {
+      throw new IllegalArgumentException("Child directory name argument cannot be null or empty");
+    }
+
+    return new DirectoryVerification(this, rootDirectory.resolve(childDirectoryName));
+  }
+
+  /**
+   * Direct subsequent checks back to the root directory.
+   *
+   * @return a verification builder for the root directory sharing this batch of checks
+   */
+  public DirectoryVerification inRootDirectory() {
+    return new DirectoryVerification(this, rootDirectory);
+  }
+
+  /**
+   * Check that the directory does not contain any children.
+   *
+   * @return this verification builder
+   */
+  public DirectoryVerification isEmpty() {
+    return childCount(0);
+  }
+
+  /**
+   * Check that the directory contains children.
+   *
+   * @return this verification builder
+   */
+  public DirectoryVerification notEmpty() {
+    return addCheck(new Check() {
+      boolean found;
+
+      @Override
+      void reset() {
+        found = false;
+      }
+
+      @Override
+      void accept(Path name, BasicFileAttributes attributes) {
+        found = true;
+      }
+
+      @Override
+      String failure(Path directory) {
+        return found ? null : String.format("Directory %s is empty", directory);
+      }
+    });
+  }
+
+  /**
+   * Check that the directory contains a file.
+   *
+   * @param fileName expected file name
+   *
+   * @return this verification builder
+   */
+  public DirectoryVerification containsFile(final String fileName) {
+    return addCheck(new NamedEntryCheck(fileName) {
+      @Override
+      String failure(Path directory) {
+        if (attributes == null) {
+          return String.format("File %s does not exist in directory %s", fileName, directory);
+        } else if (!attributes.isRegularFile()) {
+          return String.format("%s in directory %s does not refer to a file", fileName, directory);
+        }
+        return null;
+      }
+    });
+  }
+
+  /**
+   * Check that the directory does not contain a file.
+   *
+   * @param fileName file name
+   *
+   * @return this verification builder
+   */
+  public DirectoryVerification notContainsFile(final String fileName) {
+    return addCheck(new NamedEntryCheck(fileName) {
+      @Override
+      String failure(Path directory) {
+        if (attributes != null && attributes.isRegularFile()) {
+          return String.format("File %s exists in directory %s", fileName, directory);
+        }
+        return null;
+      }
+    });
+  }
+
+  /**
+   * Check that the directory contains a child directory.
+   *
+   * @param childDirectoryName expected child directory name
+   *
+   * @return this verification builder
+   */
+  public DirectoryVerification containsDirectory(final String childDirectoryName) {
+    return addCheck(new NamedEntryCheck(childDirectoryName) {
+      @Override
+      String failure(Path directory) {
+        if (attributes == null) {
+          return String.format("Directory %s does not exist in directory %s", childDirectoryName, directory);
+        } else if (!attributes.isDirectory()) {
+          return String.format("%s in directory %s does not refer to a directory", childDirectoryName, directory);
+        }
+        return null;
+      }
+    });
+  }
+
+  /**
+   * Check that the directory does not contain a child directory.
+   *
+   * @param childDirectoryName child directory name
+   *
+   * @return this verification builder
+   */
+  public DirectoryVerification notContainsDirectory(final String childDirectoryName) {
+    return addCheck(new NamedEntryCheck(childDirectoryName) {
+      @Override
+      String failure(Path directory) {
+        if (attributes != null && attributes.isDirectory()) {
+          return String.format("Directory %s exists in directory %s", childDirectoryName, directory);
+        }
+        return null;
+      }
+    });
+  }
+
+  /**
+   * Check that the directory contains a specific number of children.
+   *
+   * @param expectedChildCount expected number of children
+   *
+   * @return this verification builder
+   */
+  public DirectoryVerification childCount(final int expectedChildCount) {
+    return addCheck(new CountCheck(expectedChildCount, "children") {
+      @Override
+      boolean counts(Path name, BasicFileAttributes attributes) {
+        return true;
+      }
+    });
+  }
+
+  /**
+   * Check that the directory contains a specific number of files.
+   *
+   * @param expectedFileCount expected number of files
+   *
+   * @return this verification builder
+   */
+  public DirectoryVerification fileCount(final int expectedFileCount) {
+    return addCheck(new CountCheck(expectedFileCount, "files") {
+      @Override
+      boolean counts(Path name, BasicFileAttributes attributes) {
+        return attributes.isRegularFile();
+      }
+    });
+  }
+
+  /**
+   * Check that the directory contains a specific number of child directories.
+   *
+   * @param expectedDirectoryCount expected number of child directories
+   *
+   * @return this verification builder
+   */
+  public DirectoryVerification directoryCount(final int expectedDirectoryCount) {
+    return addCheck(new CountCheck(expectedDirectoryCount, "child directories") {
+      @Override
+      boolean counts(Path name, BasicFileAttributes attributes) {
+        return attributes.isDirectory();
+      }
+    });
+  }
+
+  /**
+   * Check that the directory contains a specific number of files with names matching a pattern.
+   *
+   * @param pattern glob or regex file name pattern (see {@link PathMatchers#compile(String)})
+   * @param expectedCount expected number of matching files
+   *
+   * @return this verification builder
+   */
+  public DirectoryVerification filesMatching(final String pattern, final int expectedCount) {
+    final PathMatcher matcher = PathMatchers.compile(pattern);
+
+    return addCheck(new CountCheck(expectedCount, "files matching " + pattern) {
+      @Override
+      boolean counts(Path name, BasicFileAttributes attributes) {
+        return attributes.isRegularFile() && matcher.matches(name);
+      }
+    });
+  }
+
+  /**
+   * Check that the directory does not contain any files with names matching a pattern.
+   *
+   * @param pattern glob or regex file name pattern (see {@link PathMatchers#compile(String)})
+   *
+   * @return this verification builder
+   */
+  public DirectoryVerification noFilesMatching(final String pattern) {
+    final PathMatcher matcher = PathMatchers.compile(pattern);
+
+    return addCheck(new Check() {
+      Path match;
+
+      @Override
+      void reset() {
+        match = null;
+      }
+
+      @Override
+      void accept(Path name, BasicFileAttributes attributes) {
+        if (match == null && attributes.isRegularFile() && matcher.matches(name)) {
+          match = name;
+        }
+      }
+
+      @Override
+      String failure(Path directory) {
+        return match == null ? null : String.format("File %s matching %s exists in directory %s", match, pattern, directory);
+      }
+    });
+  }
+
+  /**
+   * Check that the names of all files in the directory match a pattern.
+   *
+   * @param pattern glob or regex file name pattern (see {@link PathMatchers#compile(String)})
+   *
+   * @return this verification builder
+   */
+  public DirectoryVerification allFilesMatch(final String pattern) {
+    final PathMatcher matcher = PathMatchers.compile(pattern);
+
+    return addCheck(new Check() {
+      Path mismatch;
+
+      @Override
+      void reset() {
+        mismatch = null;
+      }
+
+      @Override
+      void accept(Path name, BasicFileAttributes attributes) {
+        if (mismatch == null && attributes.isRegularFile() && !matcher.matches(name)) {
+          mismatch = name;
+        }
+      }
+
+      @Override
+      String failure(Path directory) {
+        return mismatch == null ? null : String.format("File %s in directory %s does not match %s", mismatch, directory, pattern);
+      }
+    });
+  }
+
+  /**
+   * Evaluate all of the collected checks, listing each directory involved once.
+   *
+   * A verification can be run repeatedly - the state of every check is reset at the start of each run, so each run
+   * reflects the current contents of the directories.
+   *
+   * @throws AssertionError describing every failed check if any of the checks fail
+   */
+  public void run() {
+    List<String> failures = new ArrayList<>();
+    int checkCount = 0;
+
+    for (Map.Entry<Path, List<Check>> directoryChecks : checks.entrySet()) {
+      checkCount += directoryChecks.getValue().size();
+      for (Check check : directoryChecks.getValue()) {
+        check.reset();
+      }
+      String directoryFailure = scan(directoryChecks.getKey(), directoryChecks.getValue());
+      if (directoryFailure != null) {
+        failures.add(directoryFailure);
+        continue;
+      }
+
+      for (Check check : directoryChecks.getValue()) {
+        String failure = check.failure(directoryChecks.getKey());
+        if (failure != null) {
+          failures.add(failure);
+        }
+      }
+    }
+
+    if (!failures.isEmpty()) {
+      StringBuilder message = new StringBuilder(String.format("%d of %d directory checks failed", failures.size(), checkCount));
+      for (String failure : failures) {
+        message.append(System.lineSeparator()).append("  ").append(failure);
+      }
+      throw new AssertionError(message.toString());
+    }
+  }
+
+  DirectoryVerification addCheck(Check check) {
+    List<Check> directoryChecks = checks.get(directory);
+    if (directoryChecks == null) {
+      directoryChecks = new ArrayList<>();
+      checks.put(directory, directoryChecks);
+    }
+    directoryChecks.add(check);
+
+    return this;
+  }
+
+  static String scan(Path directory, List<Check> directoryChecks) {
+    if (!Files.exists(directory)) {
+      return String.format("Directory %s does not exist", directory);
+    } else if (!Files.isDirectory(directory)) {
+      return String.format("%s does not refer to a directory", directory);
+    }
+
+    try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+      for (Path entry : entries) {
+        BasicFileAttributes attributes;
+        try {
+          attributes = Files.readAttributes(entry, BasicFileAttributes.class);
+        } catch (NoSuchFileException removedEx) {
+          continue;
+        }
+
+        Path name = entry.getFileName();
+        for (Check check : directoryChecks) {
+          check.accept(name, attributes);
+        }
+      }
+    } catch (IOException ioEx) {
+      throw new IllegalStateException(String.format("Failed to read the entries of directory %s", directory), ioEx);
+    }
+
+    return null;
+  }
+
+  abstract static class Check {
+    abstract void reset();
+
+    abstract void accept(Path name, BasicFileAttributes attributes);
+
+    abstract String failure(Path directory);
+  }
+
+  abstract static class NamedEntryCheck extends Check {
+    final String entryName;
+    BasicFileAttributes attributes;
+
+    NamedEntryCheck(String entryName) {
+      if (entryName == null || entryName.isEmpty()) {
+        throw new IllegalArgumentException("Entry name argument cannot be null or empty");
+      }
+      this.entryName = entryName;
+    }
+
+    @Override
+    void reset() {
+      attributes = null;
+    }
+
+    @Override
+    void accept(Path name, BasicFileAttributes attributes) {
+      if (entryName.equals(name.toString())) {
+        this.attributes = attributes;
+      }
+    }
+  }
+
+  abstract static class CountCheck extends Check {
+    final int expected;
+    final String description;
+    int actual;
+
+    CountCheck(int expected, String description) {
+      this.expected = expected;
+      this.description = description;
+    }
+
+    abstract boolean counts(Path name, BasicFileAttributes attributes);
+
+    @Override
+    void reset() {
+      actual = 0;
+    }
+
+    @Override
+    void accept(Path name, BasicFileAttributes attributes) {
+      if (counts(name, attributes)) {
+        ++actual;
+      }
+    }
+
+    @Override
+    String failure(Path directory) {
+      if (actual == expected) {
+        return null;
+      }
+      return String.format("Unexpected number of %s in directory %s expected:<%d> but was:<%d>", description, directory, expected, actual);
+    }
+  }
+}
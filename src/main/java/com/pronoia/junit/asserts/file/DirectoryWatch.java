@@ -0,0 +1,121 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.pronoia.junit.asserts.file;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Waits for a condition on the contents of a directory to become true.
+ *
+ * The condition is re-evaluated whenever the {@link WatchService} reports a change in the directory.  Because watch
+ * services are not available on every filesystem (and some implementations poll internally with long intervals), the
+ * condition is also re-evaluated on an adaptive polling interval that starts small and backs off while nothing
+ * changes.
+ */
+final class DirectoryWatch {
+  static final Logger LOG = LoggerFactory.getLogger(DirectoryWatch.class);
+
+  static final long MIN_POLL_INTERVAL_MILLIS = 5;
+  static final long MAX_POLL_INTERVAL_MILLIS = 250;
+
+  private DirectoryWatch() {}
+
+  /**
+   * Wait for a condition to become true.
+   *
+   * @param directory the directory to watch for changes
+   * @param condition the condition to evaluate
+   * @param timeout   the maximum time to wait
+   * @param unit      the unit of the timeout argument
+   *
+   * @return true if the condition became true before the timeout elapsed
+   */
+  static boolean await(final Path directory, final BooleanSupplier condition, long timeout, TimeUnit unit) {
+    if (unit == null) {
+      throw new IllegalArgumentException("Time unit argument cannot be null");
+    }
+
+    WatchService watchService = null;
+    try {
+      watchService = directory.getFileSystem().newWatchService();
+      directory.register(watchService, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY);
+    } catch (IOException | UnsupportedOperationException watchEx) {
+      LOG.debug("WatchService is not available for directory {} - falling back to polling", directory, watchEx);
+      closeQuietly(watchService);
+      watchService = null;
+    }
+
+    try {
+      final long deadline = System.nanoTime() + unit.toNanos(timeout);
+      long pollInterval = MIN_POLL_INTERVAL_MILLIS;
+
+      while (!condition.getAsBoolean()) {
+        long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+        if (remainingMillis <= 0) {
+          return condition.getAsBoolean();
+        }
+
+        long waitMillis = Math.min(pollInterval, remainingMillis);
+        if (watchService != null) {
+          WatchKey key = watchService.poll(waitMillis, TimeUnit.MILLISECONDS);
+          if (key != null) {
+            key.pollEvents();
+            key.reset();
+            pollInterval = MIN_POLL_INTERVAL_MILLIS;
+            continue;
+          }
+        } else {
+          Thread.sleep(waitMillis);
+        }
+        pollInterval = Math.min(pollInterval * 2, MAX_POLL_INTERVAL_MILLIS);
+      }
+
+      return true;
+    } catch (InterruptedException interruptedEx) {
+      Thread.currentThread().interrupt();
+      return condition.getAsBoolean();
+    } catch (ClosedWatchServiceException closedEx) {
+      return condition.getAsBoolean();
+    } finally {
+      closeQuietly(watchService);
+    }
+  }
+
+  static void closeQuietly(WatchService watchService) {
+    if (watchService != null) {
+      try {
+        watchService.close();
+      } catch (IOException closeEx) {
+        LOG.debug("Ignoring exception closing WatchService", closeEx);
+      }
+    }
+  }
+}
@@ -17,15 +17,30 @@
 
 package com.pronoia.junit.asserts.file;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.regex.Pattern;
 
 /**
- * Assertions for {@link File} objects referring to files in the filesystem.
+ * Assertions for {@link File} and {@link Path} objects referring to files in the filesystem.
  */
 public final class FileAssert {
+  public static final int DEFAULT_MAX_DIFF_HUNKS = 10;
+
+  static final int LINE_COUNT_BUFFER_SIZE = 64 * 1024;
+  static final ThreadLocal<ByteBuffer> LINE_COUNT_BUFFER = ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(LINE_COUNT_BUFFER_SIZE));
 
   private FileAssert() {}
   /**
@@ -47,8 +62,16 @@ public final class FileAssert {
    * @param file expected file
    */
   public static void assertFileExists(final File file) {
-    assertTrue( String.format("File %s does not exist", file), file.exists());
-    assertTrue( String.format("%s does not refer to a file", file), file.isFile());
+    assertFileExists(file.toPath());
+  }
+
+  /**
+   * Asserts that a {@link Path} exists and refers to a file.
+   *
+   * @param file expected file
+   */
+  public static void assertFileExists(final Path file) {
+    readFileAttributes(file);
   }
 
   /**
@@ -69,6 +92,328 @@ public final class FileAssert {
    * @param file expected file
    */
   public static void assertFileNotExists(final File file) {
-    assertFalse( String.format("%s exists", file), file.exists());
+    assertFileNotExists(file.toPath());
+  }
+
+  /**
+   * Asserts that a {@link Path} does not exist.
+   *
+   * @param file expected file
+   */
+  public static void assertFileNotExists(final Path file) {
+    assertFalse( String.format("%s exists", file), Files.exists(file));
+  }
+
+  /**
+   * Asserts that two text files contain the same lines, using the default charset.
+   *
+   * @param expected file with the expected content
+   * @param actual file with the actual content
+   *
+   * @see #assertFileLinesEqual(File, File, Charset, int)
+   */
+  public static void assertFileLinesEqual(final File expected, final File actual) {
+    assertFileLinesEqual(expected, actual, Charset.defaultCharset(), DEFAULT_MAX_DIFF_HUNKS);
+  }
+
+  /**
+   * Asserts that two text files contain the same lines.
+   *
+   * The comparison runs in bounded memory, so it is suitable for very large files.  The common prefix and suffix are
+   * compared as raw bytes, and only the region in between is decoded and diffed.  On failure the assertion message
+   * contains a unified diff excerpt of at most maxHunks hunks.
+   *
+   * @param expected file with the expected content
+   * @param actual file with the actual content
+   * @param charset the charset used to decode the differing lines
+   * @param maxHunks the maximum number of diff hunks to include in the assertion message
+   */
+  public static void assertFileLinesEqual(final File expected, final File actual, final Charset charset, int maxHunks) {
+    assertFileLinesEqual(expected.toPath(), actual.toPath(), charset, maxHunks);
+  }
+
+  /**
+   * Asserts that two text files contain the same lines, using the default charset.
+   *
+   * @param expected file with the expected content
+   * @param actual file with the actual content
+   *
+   * @see #assertFileLinesEqual(Path, Path, Charset, int)
+   */
+  public static void assertFileLinesEqual(final Path expected, final Path actual) {
+    assertFileLinesEqual(expected, actual, Charset.defaultCharset(), DEFAULT_MAX_DIFF_HUNKS);
+  }
+
+  /**
+   * Asserts that two text files contain the same lines.
+   *
+   * @param expected file with the expected content
+   * @param actual file with the actual content
+   * @param charset the charset used to decode the differing lines
+   * @param maxHunks the maximum number of diff hunks to include in the assertion message
+   *
+   * @see #assertFileLinesEqual(File, File, Charset, int)
+   */
+  public static void assertFileLinesEqual(final Path expected, final Path actual, final Charset charset, int maxHunks) {
+    assertFileExists(expected);
+    assertFileExists(actual);
+
+    String differences;
+    try {
+      differences = new LineDiff(expected, actual, charset, maxHunks).diff();
+    } catch (IOException ioEx) {
+      throw new IllegalStateException(String.format("Failed to compare file %s to file %s", expected, actual), ioEx);
+    }
+
+    if (differences != null) {
+      fail(differences);
+    }
+  }
+
+  /**
+   * Asserts that a {@link File} exists, refers to a file and has a specific size.
+   *
+   * @param file expected file
+   * @param expectedSize expected size of the file in bytes
+   */
+  public static void assertFileSize(final File file, long expectedSize) {
+    assertFileSize(file.toPath(), expectedSize);
+  }
+
+  /**
+   * Asserts that a {@link Path} exists, refers to a file and has a specific size.
+   *
+   * @param file expected file
+   * @param expectedSize expected size of the file in bytes
+   */
+  public static void assertFileSize(final Path file, long expectedSize) {
+    BasicFileAttributes attributes = readFileAttributes(file);
+
+    assertEquals( String.format("Unexpected size of file %s", file), expectedSize, attributes.size());
+  }
+
+  /**
+   * Asserts that a {@link File} exists, refers to a file and is at least a specific size.
+   *
+   * @param file expected file
+   * @param minimumSize minimum size of the file in bytes
+   */
+  public static void assertFileSizeAtLeast(final File file, long minimumSize) {
+    assertFileSizeAtLeast(file.toPath(), minimumSize);
+  }
+
+  /**
+   * Asserts that a {@link Path} exists, refers to a file and is at least a specific size.
+   *
+   * @param file expected file
+   * @param minimumSize minimum size of the file in bytes
+   */
+  public static void assertFileSizeAtLeast(final Path file, long minimumSize) {
+    long actual = readFileAttributes(file).size();
+    assertTrue( String.format("Size of file %s is %d bytes - expected at least %d bytes", file, actual, minimumSize), actual >= minimumSize);
+  }
+
+  /**
+   * Asserts that a {@link File} exists, refers to a file and contains a specific number of lines.
+   *
+   * Lines are counted from the raw bytes of the file without decoding them, so the assertion is cheap for large files.
+   * Lines are terminated by '\n' (a preceding '\r' is part of the terminator), and a final line without a terminator is
+   * counted.  This matches the number of lines returned by
+   * {@link org.apache.commons.io.FileUtils#readLines(File, Charset)} for single-byte and UTF-8 encoded files, unless the
+   * file uses a lone '\r' as a line terminator - readLines also splits on a lone '\r', this count does not.
+   *
+   * @param file expected file
+   * @param expectedLineCount expected number of lines
+   */
+  public static void assertLineCount(final File file, long expectedLineCount) {
+    assertLineCount(file.toPath(), expectedLineCount);
+  }
+
+  /**
+   * Asserts that a {@link Path} exists, refers to a file and contains a specific number of lines.
+   *
+   * @param file expected file
+   * @param expectedLineCount expected number of lines
+   *
+   * @see #assertLineCount(File, long)
+   */
+  public static void assertLineCount(final Path file, long expectedLineCount) {
+    assertFileExists(file);
+
+    assertEquals( String.format("Unexpected number of lines in file %s", file), expectedLineCount, countLines(file));
+  }
+
+  /**
+   * Asserts that a {@link File} exists, refers to a file and contains a number of lines within a range.
+   *
+   * @param file expected file
+   * @param minimumLineCount minimum number of lines (inclusive)
+   * @param maximumLineCount maximum number of lines (inclusive)
+   *
+   * @see #assertLineCount(File, long)
+   */
+  public static void assertLineCountBetween(final File file, long minimumLineCount, long maximumLineCount) {
+    assertLineCountBetween(file.toPath(), minimumLineCount, maximumLineCount);
+  }
+
+  /**
+   * Asserts that a {@link Path} exists, refers to a file and contains a number of lines within a range.
+   *
+   * @param file expected file
+   * @param minimumLineCount minimum number of lines (inclusive)
+   * @param maximumLineCount maximum number of lines (inclusive)
+   *
+   * @see #assertLineCount(File, long)
+   */
+  public static void assertLineCountBetween(final Path file, long minimumLineCount, long maximumLineCount) {
+    if (minimumLineCount > maximumLineCount) {
+      throw new IllegalArgumentException(String.format("Minimum line count argument %d cannot be greater than the maximum line count argument %d", minimumLineCount, maximumLineCount));
+    }
+
+    assertFileExists(file);
+
+    long actual = countLines(file);
+    assertTrue( String.format("File %s contains %d lines - expected between %d and %d lines", file, actual, minimumLineCount, maximumLineCount),
+        actual >= minimumLineCount && actual <= maximumLineCount);
+  }
+
+  /**
+   * Asserts that a {@link File} contains a match for a regular expression, using the default charset.
+   *
+   * @param file expected file
+   * @param pattern the regular expression
+   *
+   * @see #assertFileContains(Path, Pattern, Charset)
+   */
+  public static void assertFileContains(final File file, final Pattern pattern) {
+    assertFileContains(file.toPath(), pattern, Charset.defaultCharset());
+  }
+
+  /**
+   * Asserts that a {@link Path} contains a match for a regular expression, using the default charset.
+   *
+   * @param file expected file
+   * @param pattern the regular expression
+   *
+   * @see #assertFileContains(Path, Pattern, Charset)
+   */
+  public static void assertFileContains(final Path file, final Pattern pattern) {
+    assertFileContains(file, pattern, Charset.defaultCharset());
+  }
+
+  /**
+   * Asserts that a {@link Path} contains a match for a regular expression.
+   *
+   * The file is scanned in fixed-size chunks that overlap by a few kilobytes, and the scan stops at the first match.
+   * Only the text of a match that is still undecided at the end of a chunk is kept while the next chunk is read, so
+   * the file is not read into memory as a whole unless the first match extends to its end.
+   *
+   * @param file expected file
+   * @param pattern the regular expression
+   * @param charset the charset of the file
+   */
+  public static void assertFileContains(final Path file, final Pattern pattern, final Charset charset) {
+    assertTrue( String.format("File %s does not contain a match for %s", file, pattern), find(file, pattern, charset) >= 0);
+  }
+
+  /**
+   * Asserts that a {@link File} does not contain a match for a regular expression, using the default charset.
+   *
+   * @param file expected file
+   * @param pattern the regular expression
+   *
+   * @see #assertFileNotContains(Path, Pattern, Charset)
+   */
+  public static void assertFileNotContains(final File file, final Pattern pattern) {
+    assertFileNotContains(file.toPath(), pattern, Charset.defaultCharset());
+  }
+
+  /**
+   * Asserts that a {@link Path} does not contain a match for a regular expression, using the default charset.
+   *
+   * @param file expected file
+   * @param pattern the regular expression
+   *
+   * @see #assertFileNotContains(Path, Pattern, Charset)
+   */
+  public static void assertFileNotContains(final Path file, final Pattern pattern) {
+    assertFileNotContains(file, pattern, Charset.defaultCharset());
+  }
+
+  /**
+   * Asserts that a {@link Path} does not contain a match for a regular expression.
+   *
+   * @param file expected file
+   * @param pattern the regular expression
+   * @param charset the charset of the file
+   *
+   * @see #assertFileContains(Path, Pattern, Charset)
+   */
+  public static void assertFileNotContains(final Path file, final Pattern pattern, final Charset charset) {
+    long offset = find(file, pattern, charset);
+    assertTrue( String.format("File %s contains a match for %s at character %d", file, pattern, offset), offset < 0);
+  }
+
+  static long find(final Path file, final Pattern pattern, final Charset charset) {
+    if (pattern == null) {
+      throw new IllegalArgumentException("Pattern argument cannot be null");
+    }
+    assertFileExists(file);
+
+    try {
+      return PatternScanner.find(file, pattern, charset);
+    } catch (IOException ioEx) {
+      throw new IllegalStateException(String.format("Failed to search file %s for %s", file, pattern), ioEx);
+    }
+  }
+
+  /**
+   * Assert that a path exists and refers to a file, reading its attributes with a single filesystem call.
+   *
+   * @param file expected file
+   *
+   * @return the attributes of the file
+   */
+  static BasicFileAttributes readFileAttributes(final Path file) {
+    BasicFileAttributes attributes = DirectoryAssert.readAttributes(file);
+    assertTrue( String.format("File %s does not exist", file), attributes != null);
+    assertTrue( String.format("%s does not refer to a file", file), attributes.isRegularFile());
+
+    return attributes;
+  }
+
+  /**
+   * Count the lines in a file by scanning its raw bytes for '\n'.
+   *
+   * A direct buffer is used rather than a memory mapping so the file can be deleted immediately afterwards on every
+   * platform.  The buffer is allocated once per thread and reused, because direct memory is only released by the
+   * garbage collector.
+   *
+   * @param path the file
+   *
+   * @return the number of lines in the file
+   */
+  static long countLines(final Path path) {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      ByteBuffer buffer = LINE_COUNT_BUFFER.get();
+      buffer.clear();
+      long lineCount = 0;
+      byte last = '\n';
+      while (channel.read(buffer) > 0) {
+        buffer.flip();
+        int limit = buffer.limit();
+        for (int i = 0; i < limit; ++i) {
+          if (buffer.get(i) == '\n') {
+            ++lineCount;
+          }
+        }
+        last = buffer.get(limit - 1);
+        buffer.clear();
+      }
+
+      return last == '\n' ? lineCount : lineCount + 1;
+    } catch (IOException ioEx) {
+      throw new IllegalStateException(String.format("Failed to count the lines in file %s", path), ioEx);
+    }
   }
 }
@@ -0,0 +1,439 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.pronoia.junit.asserts.file;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.io.input.BoundedInputStream;
+
+/**
+ * A bounded-memory line diff for large text files.
+ *
+ * The common prefix and suffix of the two files are skipped by comparing raw bytes in fixed-size blocks, so identical
+ * regions are never decoded.  Only the region in between is decoded into lines, and it is diffed in windows of at
+ * most {@link #windowLines} lines from each file.  Each window is resynchronized on the last matching line, so memory
+ * use depends on the window size rather than the file size.  The result is rendered as a unified diff excerpt capped
+ * at a maximum number of hunks.
+ */
+final class LineDiff {
+  static final int DEFAULT_CONTEXT_LINES = 3;
+  static final int DEFAULT_WINDOW_LINES = 1000;
+  static final int BLOCK_SIZE = 64 * 1024;
+
+  final Path expected;
+  final Path actual;
+  final Charset charset;
+  final int maxHunks;
+
+  int contextLines = DEFAULT_CONTEXT_LINES;
+  int windowLines = DEFAULT_WINDOW_LINES;
+
+  LineDiff(Path expected, Path actual, Charset charset, int maxHunks) {
+    if (charset == null) {
+      throw new IllegalArgumentException("Charset argument cannot be null");
+    } else if (maxHunks < 1) {
+      throw new IllegalArgumentException(String.format("Maximum hunks argument must be greater than zero - %d", maxHunks));
+    }
+
+    this.expected = expected;
+    this.actual = actual;
+    this.charset = charset;
+    this.maxHunks = maxHunks;
+  }
+
+  /**
+   * Compare the files.
+   *
+   * @return null if the files are identical, otherwise a description of the differences
+   *
+   * @throws IOException if either file cannot be read
+   */
+  String diff() throws IOException {
+    try (FileChannel expectedChannel = FileChannel.open(expected, StandardOpenOption.READ);
+         FileChannel actualChannel = FileChannel.open(actual, StandardOpenOption.READ)) {
+      final long expectedSize = expectedChannel.size();
+      final long actualSize = actualChannel.size();
+
+      // Skip the common prefix, remembering the start of the last few complete lines for leading context
+      ByteBuffer expectedBuffer = ByteBuffer.allocate(BLOCK_SIZE);
+      ByteBuffer actualBuffer = ByteBuffer.allocate(BLOCK_SIZE);
+      ArrayDeque<Long> contextLineStarts = new ArrayDeque<>(contextLines + 1);
+      long position = 0;
+      long lineStart = 0;
+      long prefixLines = 0;
+      scan:
+      while (true) {
+        int expectedCount = read(expectedChannel, expectedBuffer, position, BLOCK_SIZE);
+        int actualCount = read(actualChannel, actualBuffer, position, BLOCK_SIZE);
+        int count = Math.min(expectedCount, actualCount);
+        for (int i = 0; i < count; ++i) {
+          byte b = expectedBuffer.get(i);
+          if (b != actualBuffer.get(i)) {
+            break scan;
+          } else if (b == '\n') {
+            ++prefixLines;
+            contextLineStarts.addLast(lineStart);
+            if (contextLineStarts.size() > contextLines) {
+              contextLineStarts.removeFirst();
+            }
+            lineStart = position + i + 1;
+          }
+        }
+        position += count;
+        if (count < BLOCK_SIZE) {
+          break;
+        }
+      }
+
+      if (position == expectedSize && position == actualSize) {
+        return null;
+      }
+      final long prefixEnd = lineStart;
+
+      // Skip the common suffix, without overlapping the prefix
+      long maxSuffix = Math.min(expectedSize, actualSize) - prefixEnd;
+      long suffix = 0;
+      suffixScan:
+      while (suffix < maxSuffix) {
+        int length = (int) Math.min(BLOCK_SIZE, maxSuffix - suffix);
+        read(expectedChannel, expectedBuffer, expectedSize - suffix - length, length);
+        read(actualChannel, actualBuffer, actualSize - suffix - length, length);
+        for (int i = length - 1; i >= 0; --i) {
+          if (expectedBuffer.get(i) != actualBuffer.get(i)) {
+            suffix += length - 1 - i;
+            break suffixScan;
+          }
+        }
+        suffix += length;
+      }
+
+      // The suffix must start at the beginning of a line in both files
+      if (suffix > 0 && !(isLineStart(expectedChannel, expectedSize - suffix, prefixEnd) && isLineStart(actualChannel, actualSize - suffix, prefixEnd))) {
+        suffix = trimToLineStart(expectedChannel, expectedSize - suffix, suffix);
+      }
+
+      HunkWriter writer = new HunkWriter(prefixLines + 1);
+      for (String line : readLines(expectedChannel, contextLineStarts.isEmpty() ? prefixEnd : contextLineStarts.getFirst(), prefixEnd, contextLines)) {
+        writer.leading(line);
+      }
+
+      try (BufferedReader expectedReader = open(expectedChannel, prefixEnd, expectedSize - suffix - prefixEnd);
+           BufferedReader actualReader = open(actualChannel, prefixEnd, actualSize - suffix - prefixEnd)) {
+        diffRegion(expectedReader, actualReader, writer);
+      }
+
+      if (!writer.truncated) {
+        for (String line : readLines(expectedChannel, expectedSize - suffix, expectedSize, contextLines)) {
+          writer.equal(line);
+        }
+      }
+      writer.close();
+
+      StringBuilder message = new StringBuilder();
+      if (writer.hunkCount == 0) {
+        message.append(String.format("Files %s and %s differ only in line terminators", expected, actual));
+      } else {
+        message.append(String.format("Files %s and %s differ", expected, actual))
+            .append(System.lineSeparator()).append("--- ").append(expected)
+            .append(System.lineSeparator()).append("+++ ").append(actual)
+            .append(writer.output);
+        if (writer.truncated) {
+          message.append(System.lineSeparator()).append(String.format("... diff truncated after %d hunks", writer.hunkCount));
+        }
+      }
+
+      return message.toString();
+    }
+  }
+
+  void diffRegion(BufferedReader expectedReader, BufferedReader actualReader, HunkWriter writer) throws IOException {
+    List<String> expectedWindow = new ArrayList<>(windowLines);
+    List<String> actualWindow = new ArrayList<>(windowLines);
+    boolean expectedDone = false;
+    boolean actualDone = false;
+
+    while (!writer.truncated) {
+      expectedDone = fill(expectedReader, expectedWindow, expectedDone);
+      actualDone = fill(actualReader, actualWindow, actualDone);
+      if (expectedWindow.isEmpty() && actualWindow.isEmpty()) {
+        break;
+      }
+
+      char[] operations = operations(expectedWindow, actualWindow);
+
+      // Unless both regions are exhausted, only commit up to the last matching line and carry the rest forward
+      int commit = operations.length;
+      if (!(expectedDone && actualDone)) {
+        for (int i = operations.length - 1; i >= 0; --i) {
+          if (operations[i] == '=') {
+            commit = i + 1;
+            break;
+          }
+        }
+      }
+
+      int expectedIndex = 0;
+      int actualIndex = 0;
+      for (int i = 0; i < commit && !writer.truncated; ++i) {
+        switch (operations[i]) {
+          case '=':
+            writer.equal(expectedWindow.get(expectedIndex++));
+            ++actualIndex;
+            break;
+          case '-':
+            writer.removed(expectedWindow.get(expectedIndex++));
+            break;
+          default:
+            writer.added(actualWindow.get(actualIndex++));
+        }
+      }
+      expectedWindow.subList(0, expectedIndex).clear();
+      actualWindow.subList(0, actualIndex).clear();
+    }
+  }
+
+  boolean fill(BufferedReader reader, List<String> window, boolean done) throws IOException {
+    while (!done && window.size() < windowLines) {
+      String line = reader.readLine();
+      if (line == null) {
+        return true;
+      }
+      window.add(line);
+    }
+    return done;
+  }
+
+  /**
+   * Compute a longest-common-subsequence edit script for two windows of lines.
+   *
+   * @return the operations - '=' for a common line, '-' for a line only in the expected window and '+' for a line
+   *     only in the actual window
+   */
+  static char[] operations(List<String> expectedLines, List<String> actualLines) {
+    final int n = expectedLines.size();
+    final int m = actualLines.size();
+    int[][] lcs = new int[n + 1][m + 1];
+    for (int i = n - 1; i >= 0; --i) {
+      for (int j = m - 1; j >= 0; --j) {
+        lcs[i][j] = expectedLines.get(i).equals(actualLines.get(j)) ? lcs[i + 1][j + 1] + 1 : Math.max(lcs[i + 1][j], lcs[i][j + 1]);
+      }
+    }
+
+    char[] operations = new char[n + m - lcs[0][0]];
+    int index = 0;
+    int i = 0;
+    int j = 0;
+    while (i < n && j < m) {
+      if (expectedLines.get(i).equals(actualLines.get(j))) {
+        operations[index++] = '=';
+        ++i;
+        ++j;
+      } else if (lcs[i + 1][j] >= lcs[i][j + 1]) {
+        operations[index++] = '-';
+        ++i;
+      } else {
+        operations[index++] = '+';
+        ++j;
+      }
+    }
+    while (i++ < n) {
+      operations[index++] = '-';
+    }
+    while (j++ < m) {
+      operations[index++] = '+';
+    }
+
+    return operations;
+  }
+
+  static boolean isLineStart(FileChannel channel, long position, long prefixEnd) throws IOException {
+    if (position == prefixEnd) {
+      return true;
+    }
+
+    ByteBuffer buffer = ByteBuffer.allocate(1);
+    return read(channel, buffer, position - 1, 1) == 1 && buffer.get(0) == '\n';
+  }
+
+  static long trimToLineStart(FileChannel channel, long suffixStart, long suffix) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(BLOCK_SIZE);
+    long offset = 0;
+    while (offset < suffix) {
+      int count = read(channel, buffer, suffixStart + offset, (int) Math.min(BLOCK_SIZE, suffix - offset));
+      for (int i = 0; i < count; ++i) {
+        if (buffer.get(i) == '\n') {
+          return suffix - (offset + i + 1);
+        }
+      }
+      offset += count;
+    }
+    return 0;
+  }
+
+  List<String> readLines(FileChannel channel, long start, long end, int maxLines) throws IOException {
+    List<String> lines = new ArrayList<>(maxLines);
+    try (BufferedReader reader = open(channel, start, end - start)) {
+      String line;
+      while (lines.size() < maxLines && (line = reader.readLine()) != null) {
+        lines.add(line);
+      }
+    }
+    return lines;
+  }
+
+  BufferedReader open(FileChannel channel, long start, long length) throws IOException {
+    // Closing the reader must not close the shared channel
+    BoundedInputStream bounded = new BoundedInputStream(Channels.newInputStream(channel.position(start)), length);
+    bounded.setPropagateClose(false);
+    return new BufferedReader(new InputStreamReader(bounded, charset));
+  }
+
+  static int read(FileChannel channel, ByteBuffer buffer, long position, int length) throws IOException {
+    buffer.clear();
+    buffer.limit(length);
+    while (buffer.hasRemaining()) {
+      int count = channel.read(buffer, position + buffer.position());
+      if (count < 0) {
+        break;
+      }
+    }
+    return buffer.position();
+  }
+
+  /**
+   * Renders committed diff operations as unified diff hunks.
+   */
+  final class HunkWriter {
+    final StringBuilder output = new StringBuilder();
+    final ArrayDeque<String> pending = new ArrayDeque<>();
+
+    long expectedLine;
+    long actualLine;
+
+    StringBuilder hunk;
+    long hunkExpectedStart;
+    long hunkActualStart;
+    int hunkExpectedCount;
+    int hunkActualCount;
+    int trailing;
+
+    int hunkCount;
+    boolean truncated;
+
+    HunkWriter(long firstLine) {
+      this.expectedLine = firstLine;
+      this.actualLine = firstLine;
+    }
+
+    void leading(String line) {
+      pending.addLast(line);
+      if (pending.size() > contextLines) {
+        pending.removeFirst();
+      }
+    }
+
+    void equal(String line) {
+      ++expectedLine;
+      ++actualLine;
+      if (hunk != null && trailing < contextLines) {
+        appendLine(' ', line);
+        ++hunkExpectedCount;
+        ++hunkActualCount;
+        ++trailing;
+        return;
+      }
+
+      pending.addLast(line);
+      if (pending.size() > contextLines) {
+        if (hunk != null) {
+          flushHunk();
+        }
+        pending.removeFirst();
+      }
+    }
+
+    void removed(String line) {
+      change();
+      if (!truncated) {
+        appendLine('-', line);
+        ++hunkExpectedCount;
+        ++expectedLine;
+      }
+    }
+
+    void added(String line) {
+      change();
+      if (!truncated) {
+        appendLine('+', line);
+        ++hunkActualCount;
+        ++actualLine;
+      }
+    }
+
+    void change() {
+      if (hunk == null) {
+        if (hunkCount >= maxHunks) {
+          truncated = true;
+          return;
+        }
+        hunk = new StringBuilder();
+        hunkExpectedStart = expectedLine - pending.size();
+        hunkActualStart = actualLine - pending.size();
+        hunkExpectedCount = 0;
+        hunkActualCount = 0;
+      }
+
+      for (String line : pending) {
+        appendLine(' ', line);
+        ++hunkExpectedCount;
+        ++hunkActualCount;
+      }
+      pending.clear();
+      trailing = 0;
+    }
+
+    void appendLine(char prefix, String line) {
+      hunk.append(System.lineSeparator()).append(prefix).append(line);
+    }
+
+    void flushHunk() {
+      output.append(System.lineSeparator())
+          .append(String.format("@@ -%d,%d +%d,%d @@", hunkExpectedStart, hunkExpectedCount, hunkActualStart, hunkActualCount))
+          .append(hunk);
+      hunk = null;
+      ++hunkCount;
+    }
+
+    void close() {
+      if (hunk != null) {
+        flushHunk();
+      }
+    }
+  }
+}
@@ -0,0 +1,53 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.pronoia.junit.asserts.file;
+
+import java.nio.file.FileSystems;
+import java.nio.file.PathMatcher;
+
+/**
+ * Utilities for compiling file name patterns into {@link PathMatcher} objects.
+ *
+ * Patterns use the syntax of {@link java.nio.file.FileSystem#getPathMatcher(String)}.  A pattern without a
+ * "glob:" or "regex:" prefix is treated as a glob.
+ */
+public final class PathMatchers {
+  public static final String GLOB_SYNTAX = "glob:";
+  public static final String REGEX_SYNTAX = "regex:";
+
+  private PathMatchers() {}
+
+  /**
+   * Compile a file name pattern into a {@link PathMatcher}.
+   *
+   * @param pattern the glob or regex pattern, optionally prefixed with "glob:" or "regex:"
+   *
+   * @return the compiled {@link PathMatcher}
+   */
+  public static PathMatcher compile(final String pattern) {
+    if (pattern == null || pattern.isEmpty()) {
+      throw new IllegalArgumentException("Pattern argument cannot be null or empty");
+    }
+
+    if (pattern.startsWith(GLOB_SYNTAX) || pattern.startsWith(REGEX_SYNTAX)) {
+      return FileSystems.getDefault().getPathMatcher(pattern);
+    }
+
+    return FileSystems.getDefault().getPathMatcher(GLOB_SYNTAX + pattern);
+  }
+}
@@ -0,0 +1,114 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.pronoia.junit.asserts.file;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Searches a file for a regular expression without reading the whole file into memory.
+ *
+ * The file is decoded in chunks of {@link #CHUNK_SIZE} characters, and the last {@link #OVERLAP} characters of each
+ * chunk (plus one character of context) are carried into the next one, so a match that starts near the end of a chunk
+ * is searched again with the text that follows it.  The scan stops at the first match.
+ *
+ * A match is only reported once the matcher did not need to read past the end of the chunk to decide it, so greedy
+ * patterns such as {@code (?s)ERROR.*} and lookahead such as {@code foo(?!bar)} are decided on the full text.  The text
+ * from the start of an undecided match is kept, and the buffer grows (doubling) until the match is decided, so the
+ * memory used is bounded by the extent of the first match.  A pattern that can only match across a chunk boundary
+ * without matching a prefix in the first chunk - e.g. {@code (?s)ERROR.*FATAL} with the two words in different chunks
+ * - is only found if the match is not longer than the overlap.
+ *
+ * The matcher uses transparent, non-anchoring bounds: '^', '$' and lookaround only match at the real start and end of
+ * the file (or at line terminators in {@link Pattern#MULTILINE} mode), not at the chunk boundaries.
+ */
+final class PatternScanner {
+  static final int CHUNK_SIZE = 64 * 1024;
+  static final int OVERLAP = 4 * 1024;
+
+  private PatternScanner() {}
+
+  /**
+   * Find the first match of a pattern in a file.
+   *
+   * @param path    the file
+   * @param pattern the pattern
+   * @param charset the charset of the file
+   *
+   * @return the character offset of the first match, or -1 if the pattern does not match
+   */
+  static long find(Path path, Pattern pattern, Charset charset) throws IOException {
+    try (InputStream input = Files.newInputStream(path)) {
+      return find(new InputStreamReader(input, charset), pattern);
+    }
+  }
+
+  static long find(Reader reader, Pattern pattern) throws IOException {
+    char[] buffer = new char[OVERLAP + CHUNK_SIZE];
+    int length = 0;
+    long offset = 0;
+
+    while (true) {
+      boolean last = false;
+      while (length < buffer.length) {
+        int read = reader.read(buffer, length, buffer.length - length);
+        if (read < 0) {
+          last = true;
+          break;
+        }
+        length += read;
+      }
+
+      Matcher matcher = pattern.matcher(CharBuffer.wrap(buffer, 0, length)).useTransparentBounds(true).useAnchoringBounds(false);
+      // The first character of a carried chunk only provides context for lookbehind and line anchors
+      matcher.region(offset == 0 ? 0 : 1, length);
+      int keepFrom = Math.max(0, length - OVERLAP - 1);
+      if (matcher.find()) {
+        // find() also reports hitting the end for attempts at earlier positions, so repeat the match at its own position
+        int matchStart = matcher.start();
+        matcher.region(matchStart, length);
+        matcher.lookingAt();
+        if (last || (matcher.end() < length && !matcher.hitEnd())) {
+          return offset + matchStart;
+        }
+        // The match read to the end of the chunk - keep it (and one character of context) to decide it with more text
+        keepFrom = Math.min(keepFrom, Math.max(0, matchStart - 1));
+      } else if (last) {
+        return -1;
+      }
+
+      int kept = length - keepFrom;
+      char[] next = buffer;
+      if (buffer.length - kept < CHUNK_SIZE) {
+        next = new char[Math.max(buffer.length * 2, kept + CHUNK_SIZE)];
+      }
+      System.arraycopy(buffer, keepFrom, next, 0, kept);
+      buffer = next;
+      offset += keepFrom;
+      length = kept;
+    }
+  }
+}
@@ -41,7 +41,7 @@ public final class TestDirectoryAssert {
    * @param testDirectory test directory to test
    */
   public static void assertIsEmpty(final TestDirectory testDirectory) {
-    DirectoryAssert.assertDirectoryIsEmpty(testDirectory.toFile());
+    DirectoryAssert.assertDirectoryIsEmpty(testDirectory.toPath());
   }
 
   /**
@@ -50,7 +50,7 @@ public final class TestDirectoryAssert {
    * @param testDirectory test directory to test
    */
   public static void assertNotEmpty(final TestDirectory testDirectory) {
-    DirectoryAssert.assertDirectoryNotEmpty(testDirectory.toFile());
+    DirectoryAssert.assertDirectoryNotEmpty(testDirectory.toPath());
   }
 
   /**
@@ -60,7 +60,7 @@ public final class TestDirectoryAssert {
    * @param expectedChildCount expected number of children in directory
    */
   public static void assertChildCountEquals(final TestDirectory testDirectory, int expectedChildCount) {
-    DirectoryAssert.assertDirectoryChildCountEquals(testDirectory.toFile(), expectedChildCount);
+    DirectoryAssert.assertDirectoryChildCountEquals(testDirectory.toPath(), expectedChildCount);
   }
 
   /**
@@ -70,7 +70,7 @@ public final class TestDirectoryAssert {
    * @param expectedFileCount expected number of files in directory
    */
   public static void assertFileCountEquals(final TestDirectory testDirectory, int expectedFileCount) {
-    DirectoryAssert.assertDirectoryChildFileCountEquals(testDirectory.toFile(), expectedFileCount);
+    DirectoryAssert.assertDirectoryChildFileCountEquals(testDirectory.toPath(), expectedFileCount);
   }
 
   /**
@@ -80,7 +80,7 @@ public final class TestDirectoryAssert {
    * @param expectedDirectoryCount expected number of child directories in directory
    */
   public static void assertChildDirectoryCountEquals(final TestDirectory testDirectory, int expectedDirectoryCount) {
-    DirectoryAssert.assertDirectoryChildFileCountEquals(testDirectory.toFile(), expectedDirectoryCount);
+    DirectoryAssert.assertDirectoryChildFileCountEquals(testDirectory.toPath(), expectedDirectoryCount);
   }
 
   /**
@@ -90,7 +90,7 @@ public final class TestDirectoryAssert {
    * @param fileName expected file name
    */
   public static void assertContainsFile(final TestDirectory testDirectory, final String fileName) {
-    DirectoryAssert.assertDirectoryContainsFile(testDirectory.toFile(), fileName);
+    DirectoryAssert.assertDirectoryContainsFile(testDirectory.toPath(), fileName);
   }
 
   /**
@@ -100,7 +100,7 @@ public final class TestDirectoryAssert {
    * @param fileName expected file name
    */
   public static void assertNotContainsFile(final TestDirectory testDirectory, final String fileName) {
-    DirectoryAssert.assertDirectoryNotContainsFile(testDirectory.toFile(), fileName);
+    DirectoryAssert.assertDirectoryNotContainsFile(testDirectory.toPath(), fileName);
   }
 
   /**
@@ -110,7 +110,7 @@ public final class TestDirectoryAssert {
    * @param directoryName expected directory name
    */
   public static void assertContainsDirectory(final TestDirectory testDirectory, final String directoryName) {
-    DirectoryAssert.assertDirectoryContainsDirectory(testDirectory.toFile(), directoryName);
+    DirectoryAssert.assertDirectoryContainsDirectory(testDirectory.toPath(), directoryName);
   }
 
   /**
@@ -120,7 +120,7 @@ public final class TestDirectoryAssert {
    * @param directoryName expected directory name
    */
   public static void assertNotContainsDirectory(final TestDirectory testDirectory, final String directoryName) {
-    DirectoryAssert.assertDirectoryNotContainsDirectory(testDirectory.toFile(), directoryName);
+    DirectoryAssert.assertDirectoryNotContainsDirectory(testDirectory.toPath(), directoryName);
   }
 
 }
@@ -0,0 +1,145 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.pronoia.junit.file;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Extracts ZIP and JAR archives, caching the extracted trees in a {@link FixtureCache} keyed by the archive content.
+ *
+ * The entries are read from the central directory of the archive and inflated in parallel through the random access
+ * provided by {@link ZipFile}.  The first extraction of an archive populates the cache, and later extractions of an
+ * archive with the same content copy the cached tree instead of inflating the entries again.
+ */
+final class ArchiveExtractor {
+  static final int PARALLELISM = Runtime.getRuntime().availableProcessors();
+
+  private ArchiveExtractor() {}
+
+  /**
+   * Extract an archive, using the cached tree for the archive if there is one.
+   *
+   * @param archive         the ZIP or JAR file
+   * @param targetDirectory the directory to extract the entries into
+   * @param cache           the cache holding the extracted trees, or null to bypass the cache
+   */
+  static void extract(final File archive, File targetDirectory, FixtureCache cache) throws IOException {
+    if (cache == null) {
+      inflate(archive, targetDirectory);
+      return;
+    }
+
+    cache.materialize(cacheKey(archive), fixture -> inflate(archive, fixture.toFile()), targetDirectory);
+  }
+
+  static FixtureCache.Key cacheKey(File archive) {
+    return new FixtureCache.Key("archive-" + archive.getName()).source(archive);
+  }
+
+  /**
+   * Inflate the entries of an archive in parallel.
+   */
+  static void inflate(File archive, File targetDirectory) throws IOException {
+    final Path target = targetDirectory.toPath().toAbsolutePath().normalize();
+    Files.createDirectories(target);
+
+    try (final ZipFile zipFile = new ZipFile(archive)) {
+      List<ZipEntry> fileEntries = new ArrayList<>(zipFile.size());
+      for (ZipEntry entry : Collections.list(zipFile.entries())) {
+        Path entryPath = resolveEntry(archive, target, entry);
+        if (entry.isDirectory()) {
+          Files.createDirectories(entryPath);
+        } else {
+          Files.createDirectories(entryPath.getParent());
+          fileEntries.add(entry);
+        }
+      }
+
+      int threads = Math.min(PARALLELISM, fileEntries.size());
+      if (threads <= 1) {
+        for (ZipEntry entry : fileEntries) {
+          inflateEntry(zipFile, entry, resolveEntry(archive, target, entry));
+        }
+        return;
+      }
+
+      // Largest entries first so one large entry does not finish last on an otherwise idle pool
+      fileEntries.sort((first, second) -> Long.compare(second.getSize(), first.getSize()));
+      ExecutorService executor = Executors.newFixedThreadPool(threads);
+      try {
+        List<Future<?>> futures = new ArrayList<>(fileEntries.size());
+        for (final ZipEntry entry : fileEntries) {
+          futures.add(executor.submit(() -> {
+            inflateEntry(zipFile, entry, resolveEntry(archive, target, entry));
+            return null;
+          }));
+        }
+        for (Future<?> future : futures) {
+          future.get();
+        }
+      } catch (InterruptedException interruptedEx) {
+        Thread.currentThread().interrupt();
+        throw new IOException(String.format("Interrupted while extracting the '%s' archive", archive), interruptedEx);
+      } catch (ExecutionException executionEx) {
+        Throwable cause = executionEx.getCause();
+        if (cause instanceof IOException) {
+          throw (IOException) cause;
+        } else if (cause instanceof RuntimeException) {
+          throw (RuntimeException) cause;
+        }
+        throw new IOException(String.format("Failed to extract the '%s' archive", archive), cause);
+      } finally {
+        executor.shutdownNow();
+      }
+    }
+  }
+
+  static void inflateEntry(ZipFile zipFile, ZipEntry entry, Path entryPath) throws IOException {
+    try (InputStream input = zipFile.getInputStream(entry)) {
+      Files.copy(input, entryPath, StandardCopyOption.REPLACE_EXISTING);
+    }
+    if (entry.getLastModifiedTime() != null) {
+      Files.setLastModifiedTime(entryPath, entry.getLastModifiedTime());
+    }
+  }
+
+  /**
+   * Resolve the path of an entry, rejecting entries that would be written outside of the target directory.
+   */
+  static Path resolveEntry(File archive, Path target, ZipEntry entry) throws IOException {
+    Path entryPath = target.resolve(entry.getName()).normalize();
+    if (!entryPath.startsWith(target) || entryPath.equals(target)) {
+      throw new IOException(String.format("The '%s' entry in the '%s' archive is outside of the target directory", entry.getName(), archive));
+    }
+    return entryPath;
+  }
+}
@@ -0,0 +1,95 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.pronoia.junit.file;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes files atomically - the content is written under a hidden temporary name in the target directory and then
+ * renamed into place, so a consumer polling the directory never sees a partially written file.
+ */
+final class AtomicFiles {
+  static final String TEMPORARY_SUFFIX = ".tmp-";
+
+  static final AtomicLong SEQUENCE = new AtomicLong();
+
+  private AtomicFiles() {}
+
+  /**
+   * Get a hidden temporary name in the same directory as a file name.
+   *
+   * @param fileName the final name of the file, which may include parent directories
+   *
+   * @return the temporary name
+   */
+  static String temporaryName(String fileName) {
+    File file = new File(fileName);
+    String temporaryName = "." + file.getName() + TEMPORARY_SUFFIX + SEQUENCE.incrementAndGet();
+    return file.getParent() != null ? file.getParent() + File.separator + temporaryName : temporaryName;
+  }
+
+  /**
+   * Get a hidden temporary file in the same directory as a file.
+   *
+   * @param target the final file
+   *
+   * @return the temporary file
+   */
+  static Path temporaryFile(Path target) {
+    return target.resolveSibling(temporaryName(target.getFileName().toString()));
+  }
+
+  /**
+   * Move a temporary file into place with an atomic rename, replacing any existing file.
+   *
+   * The temporary file is deleted if the move fails.
+   *
+   * @param temporary the temporary file
+   * @param target    the final file
+   */
+  static void publish(Path temporary, Path target) throws IOException {
+    try {
+      Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException | RuntimeException moveEx) {
+      Files.deleteIfExists(temporary);
+      throw moveEx;
+    }
+  }
+
+  /**
+   * Copy a file and publish the copy atomically.
+   *
+   * @param source the source file
+   * @param target the final file
+   */
+  static void copy(Path source, Path target) throws IOException {
+    Path temporary = temporaryFile(target);
+    try {
+      Files.copy(source, temporary, StandardCopyOption.COPY_ATTRIBUTES);
+    } catch (IOException | RuntimeException copyEx) {
+      Files.deleteIfExists(temporary);
+      throw copyEx;
+    }
+    publish(temporary, target);
+  }
+}
@@ -0,0 +1,331 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.pronoia.junit.file;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Tracks the changes made to a directory tree since a baseline was captured.
+ *
+ * The baseline records the type, size and modification time of every entry, and optionally a digest of every file.
+ * When a {@link WatchService} is available every directory in the tree is registered with it, and only the entries
+ * reported by watch events are re-read when the changes are requested.  The whole tree is rescanned if the watch
+ * service overflows, or if it is not available or is implemented by polling.
+ *
+ * Directories are only reported when they are added or removed - the modification time of a directory changes whenever
+ * a child is added or removed, and that change is already reported for the child.
+ */
+final class ChangeTracker implements Closeable {
+  static final Logger LOG = LoggerFactory.getLogger(ChangeTracker.class);
+
+  static final long SETTLE_MILLIS = 10;
+  static final String DIGEST_ALGORITHM = "SHA-256";
+
+  final Path root;
+  final boolean digests;
+  final Map<String, Entry> baseline;
+  final Map<String, Entry> current;
+  final Set<String> touched = new HashSet<>();
+
+  WatchService watchService;
+  final Map<WatchKey, Path> watchKeys = new HashMap<>();
+  boolean rescanRequired;
+
+  ChangeTracker(Path root, boolean digests) {
+    this.root = root;
+    this.digests = digests;
+
+    watchService = openWatchService(root);
+    this.baseline = scan(root, watchService != null);
+    this.current = new TreeMap<>(baseline);
+  }
+
+  /**
+   * Get the changes since the baseline was captured.
+   *
+   * @return "added", "modified" or "removed" followed by the relative path of each changed entry, sorted by path
+   */
+  synchronized List<String> changes() {
+    refresh();
+
+    List<String> changes = new ArrayList<>();
+    for (String name : new TreeSet<>(touched)) {
+      Entry before = baseline.get(name);
+      Entry after = current.get(name);
+      if (before == null && after != null) {
+        changes.add("added " + name);
+      } else if (before != null && after == null) {
+        changes.add("removed " + name);
+      } else if (before != null && !before.equals(after)) {
+        changes.add(before.directory == after.directory ? "modified " + name : "replaced " + name);
+      }
+    }
+
+    return changes;
+  }
+
+  boolean isIncremental() {
+    return watchService != null;
+  }
+
+  void refresh() {
+    if (watchService != null) {
+      try {
+        drainWatchEvents();
+      } catch (ClosedWatchServiceException closedEx) {
+        watchService = null;
+        rescanRequired = true;
+      }
+    } else {
+      rescanRequired = true;
+    }
+
+    if (rescanRequired) {
+      watchKeys.keySet().forEach(WatchKey::cancel);
+      watchKeys.clear();
+      Map<String, Entry> rescanned = scan(root, watchService != null);
+      touched.addAll(current.keySet());
+      touched.addAll(rescanned.keySet());
+      current.clear();
+      current.putAll(rescanned);
+      rescanRequired = false;
+    }
+  }
+
+  void drainWatchEvents() {
+    long settleMillis = 0;
+    for (WatchKey key = watchService.poll(); ; key = poll(settleMillis)) {
+      if (key == null) {
+        if (settleMillis > 0) {
+          return;
+        }
+        // Give events that are still queued in the watch service a short time to arrive
+        settleMillis = SETTLE_MILLIS;
+        continue;
+      }
+
+      Path directory = watchKeys.get(key);
+      for (WatchEvent<?> event : key.pollEvents()) {
+        if (event.kind() == OVERFLOW || directory == null) {
+          rescanRequired = true;
+        } else if (!rescanRequired) {
+          update(directory.resolve((Path) event.context()));
+        }
+      }
+      if (!key.reset()) {
+        watchKeys.remove(key);
+      }
+    }
+  }
+
+  WatchKey poll(long timeoutMillis) {
+    try {
+      return watchService.poll(timeoutMillis, TimeUnit.MILLISECONDS);
+    } catch (InterruptedException interruptedEx) {
+      Thread.currentThread().interrupt();
+      return null;
+    }
+  }
+
+  void update(Path path) {
+    String name = root.relativize(path).toString();
+    touched.add(name);
+
+    BasicFileAttributes attributes = readAttributes(path);
+    if (attributes == null) {
+      String prefix = name + path.getFileSystem().getSeparator();
+      current.remove(name);
+      current.keySet().removeIf(existing -> {
+        if (existing.startsWith(prefix)) {
+          touched.add(existing);
+          return true;
+        }
+        return false;
+      });
+    } else if (attributes.isDirectory()) {
+      // The directory may have been populated before it was registered with the watch service
+      Map<String, Entry> added = scan(path, true);
+      touched.addAll(added.keySet());
+      current.putAll(added);
+    } else {
+      current.put(name, new Entry(path, attributes, digests));
+    }
+  }
+
+  Map<String, Entry> scan(final Path start, final boolean register) {
+    final Map<String, Entry> entries = new TreeMap<>();
+    try {
+      Files.walkFileTree(start, new SimpleFileVisitor<Path>() {
+        @Override
+        public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attributes) throws IOException {
+          if (register && watchService != null) {
+            watchKeys.put(dir.register(watchService, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY), dir);
+          }
+          if (!dir.equals(root)) {
+            entries.put(root.relativize(dir).toString(), new Entry(dir, attributes, false));
+          }
+          return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+          entries.put(root.relativize(file).toString(), new Entry(file, attributes, digests));
+          return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult visitFileFailed(Path file, IOException visitEx) throws IOException {
+          // Entries removed during the scan are picked up by the next watch event or scan
+          if (visitEx instanceof NoSuchFileException) {
+            return FileVisitResult.CONTINUE;
+          }
+          throw visitEx;
+        }
+      });
+    } catch (NoSuchFileException missingEx) {
+      LOG.debug("Ignoring {} - it was removed during the scan", start);
+    } catch (IOException scanEx) {
+      throw new IllegalStateException(String.format("Failed to scan the '%s' directory for changes", start), scanEx);
+    }
+
+    return entries;
+  }
+
+  @Override
+  public synchronized void close() {
+    if (watchService != null) {
+      try {
+        watchService.close();
+      } catch (IOException closeEx) {
+        LOG.debug("Ignoring exception closing WatchService", closeEx);
+      }
+      watchService = null;
+    }
+    watchKeys.clear();
+  }
+
+  static WatchService openWatchService(Path root) {
+    try {
+      WatchService watchService = root.getFileSystem().newWatchService();
+      if (watchService.getClass().getSimpleName().contains("Polling")) {
+        // A polling watch service reports changes seconds late - rescanning is both faster and accurate
+        watchService.close();
+        return null;
+      }
+      return watchService;
+    } catch (IOException | UnsupportedOperationException watchEx) {
+      LOG.debug("WatchService is not available for directory {} - changes will be found by rescanning", root, watchEx);
+      return null;
+    }
+  }
+
+  static BasicFileAttributes readAttributes(Path path) {
+    try {
+      return Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+    } catch (IOException readEx) {
+      return null;
+    }
+  }
+
+  /**
+   * The state of a file or directory.
+   */
+  static final class Entry {
+    final boolean directory;
+    final long size;
+    final FileTime lastModifiedTime;
+    final byte[] digest;
+
+    Entry(Path path, BasicFileAttributes attributes, boolean computeDigest) {
+      this.directory = attributes.isDirectory();
+      this.size = directory ? 0 : attributes.size();
+      this.lastModifiedTime = directory ? null : attributes.lastModifiedTime();
+      this.digest = computeDigest && !directory ? digest(path) : null;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      } else if (!(obj instanceof Entry)) {
+        return false;
+      }
+
+      Entry other = (Entry) obj;
+      if (directory || other.directory) {
+        return directory == other.directory;
+      }
+      return size == other.size && lastModifiedTime.equals(other.lastModifiedTime) && Arrays.equals(digest, other.digest);
+    }
+
+    @Override
+    public int hashCode() {
+      return directory ? 1 : Long.hashCode(size) * 31 + lastModifiedTime.hashCode();
+    }
+
+    static byte[] digest(Path file) {
+      try (InputStream input = Files.newInputStream(file)) {
+        MessageDigest messageDigest = MessageDigest.getInstance(DIGEST_ALGORITHM);
+        byte[] buffer = new byte[8192];
+        for (int read = input.read(buffer); read >= 0; read = input.read(buffer)) {
+          messageDigest.update(buffer, 0, read);
+        }
+        return messageDigest.digest();
+      } catch (IOException readEx) {
+        // The file was removed or cannot be read - it will not equal a readable file
+        return new byte[0];
+      } catch (NoSuchAlgorithmException algorithmEx) {
+        throw new IllegalStateException(String.format("The %s digest algorithm is not available", DIGEST_ALGORITHM), algorithmEx);
+      }
+    }
+  }
+}
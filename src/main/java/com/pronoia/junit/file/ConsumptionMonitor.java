@@ -0,0 +1,360 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.pronoia.junit.file;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Measures how quickly a consumer picks up the files written through a {@link TestDirectory}.
+ *
+ * The monitor records the time each file is published by the test directory (newFile, newFileWithBody, copyFile and
+ * the {@link FileProducer}s it created), and the time the file is removed - deleted or moved away by the consumer.
+ * Removals are reported by a {@link WatchService} registered on every directory a file was published to.  When no
+ * native watch service is available the pending files are checked for existence instead, every
+ * {@link #POLL_INTERVAL_MILLIS} milliseconds.
+ *
+ * <pre>
+ *   ConsumptionMonitor monitor = testDirectory.monitorConsumption();
+ *   testDirectory.producer("inbox").rate(500).fileCount(1000).start();
+ *   monitor.awaitConsumed(1000, 30, TimeUnit.SECONDS);
+ *   monitor.assertConsumedWithin(99, 200, TimeUnit.MILLISECONDS);
+ * </pre>
+ */
+public final class ConsumptionMonitor implements Closeable {
+  static final Logger LOG = LoggerFactory.getLogger(ConsumptionMonitor.class);
+
+  static final long POLL_INTERVAL_MILLIS = 10;
+
+  final Path root;
+  final Map<Path, Long> pending = new ConcurrentHashMap<>();
+  final Map<Path, Boolean> watchedDirectories = new ConcurrentHashMap<>();
+
+  WatchService watchService;
+  Thread watcher;
+  volatile boolean running;
+  volatile boolean polling;
+
+  final Object latencyLock = new Object();
+  long[] latencies = new long[1024];
+  int consumedCount = 0;
+  long firstPublishedNanos = 0;
+  long lastConsumedNanos = 0;
+
+  ConsumptionMonitor(File directory) {
+    this.root = directory.toPath().toAbsolutePath().normalize();
+  }
+
+  /**
+   * Start watching for removals.
+   *
+   * @return this monitor
+   */
+  synchronized ConsumptionMonitor start() {
+    if (running) {
+      return this;
+    }
+    running = true;
+    watchService = ChangeTracker.openWatchService(root);
+    polling = watchService == null;
+    watcher = new Thread(this::watch, "consumption-monitor-" + root.getFileName());
+    watcher.setDaemon(true);
+    watcher.start();
+    return this;
+  }
+
+  /**
+   * Stop watching for removals - files that are still pending are no longer tracked.
+   */
+  @Override
+  public synchronized void close() {
+    running = false;
+    if (watchService != null) {
+      try {
+        watchService.close();
+      } catch (IOException closeEx) {
+        LOG.debug("Ignoring exception closing WatchService", closeEx);
+      }
+    }
+    if (watcher != null) {
+      watcher.interrupt();
+      try {
+        watcher.join(TimeUnit.SECONDS.toMillis(1));
+      } catch (InterruptedException interruptedEx) {
+        Thread.currentThread().interrupt();
+      }
+      watcher = null;
+    }
+  }
+
+  /**
+   * Record that a file was published.
+   *
+   * @param file the file
+   */
+  void published(Path file) {
+    if (!running) {
+      return;
+    }
+    long now = System.nanoTime();
+    Path path = file.toAbsolutePath().normalize();
+    register(path.getParent());
+
+    synchronized (latencyLock) {
+      if (firstPublishedNanos == 0) {
+        firstPublishedNanos = now;
+      }
+    }
+    pending.put(path, now);
+
+    // The consumer may have removed the file before the directory was watched
+    if (!Files.exists(path, LinkOption.NOFOLLOW_LINKS)) {
+      consumed(path, System.nanoTime());
+    }
+  }
+
+  /**
+   * Wait until a number of files have been consumed.
+   *
+   * @param count   the number of files
+   * @param timeout the maximum time to wait
+   * @param unit    the unit of the timeout argument
+   *
+   * @return true if the files were consumed, false if the timeout elapsed first
+   */
+  public boolean awaitConsumed(long count, long timeout, TimeUnit unit) {
+    long deadline = System.nanoTime() + unit.toNanos(timeout);
+    while (getConsumedCount() < count) {
+      if (System.nanoTime() - deadline >= 0) {
+        return false;
+      }
+      try {
+        Thread.sleep(POLL_INTERVAL_MILLIS);
+      } catch (InterruptedException interruptedEx) {
+        Thread.currentThread().interrupt();
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Asserts that a percentile of the consumption latency is within a limit.
+   *
+   * Files that have not been consumed yet are included with their current age, so a consumer that stalls fails the
+   * assertion instead of being ignored.
+   *
+   * @param percentile the percentile (for example 50 or 99)
+   * @param limit      the maximum latency
+   * @param unit       the unit of the limit argument
+   */
+  public void assertConsumedWithin(double percentile, long limit, TimeUnit unit) {
+    long[] sorted = snapshot(true);
+    if (sorted.length == 0) {
+      Assert.fail(String.format("No files were published to directory %s while it was monitored", root));
+    }
+
+    long actual = unit.convert(percentile(sorted, percentile), TimeUnit.NANOSECONDS);
+    Assert.assertTrue(String.format("The p%s consumption latency of %d files in directory %s is %d %s - expected at most %d %s",
+        formatPercentile(percentile), sorted.length, root, actual, unit, limit, unit), actual <= limit);
+  }
+
+  /**
+   * Get a percentile of the latency of the consumed files.
+   *
+   * @param percentile the percentile (for example 50 or 99)
+   * @param unit       the unit of the result
+   *
+   * @return the latency, or 0 if no file has been consumed
+   */
+  public long getLatency(double percentile, TimeUnit unit) {
+    long[] sorted = snapshot(false);
+    return sorted.length == 0 ? 0 : unit.convert(percentile(sorted, percentile), TimeUnit.NANOSECONDS);
+  }
+
+  public long getP50Latency(TimeUnit unit) {
+    return getLatency(50, unit);
+  }
+
+  public long getP99Latency(TimeUnit unit) {
+    return getLatency(99, unit);
+  }
+
+  public long getMaxLatency(TimeUnit unit) {
+    return getLatency(100, unit);
+  }
+
+  /**
+   * Get the throughput of the consumer - the number of files consumed per second between the first file being published
+   * and the last file being consumed.
+   *
+   * @return the throughput, or 0 if no file has been consumed
+   */
+  public double getThroughput() {
+    synchronized (latencyLock) {
+      long elapsedNanos = lastConsumedNanos - firstPublishedNanos;
+      return consumedCount == 0 || elapsedNanos <= 0 ? 0 : consumedCount * 1e9 / elapsedNanos;
+    }
+  }
+
+  public long getConsumedCount() {
+    synchronized (latencyLock) {
+      return consumedCount;
+    }
+  }
+
+  public long getPendingCount() {
+    return pending.size();
+  }
+
+  @Override
+  public String toString() {
+    return String.format("ConsumptionMonitor{directory=%s, consumed=%d, pending=%d, throughput=%.1f/s, p50=%dms, p99=%dms, max=%dms}",
+        root, getConsumedCount(), getPendingCount(), getThroughput(),
+        getP50Latency(TimeUnit.MILLISECONDS), getP99Latency(TimeUnit.MILLISECONDS), getMaxLatency(TimeUnit.MILLISECONDS));
+  }
+
+  void register(Path directory) {
+    if (polling || directory == null || watchedDirectories.containsKey(directory)) {
+      return;
+    }
+    try {
+      directory.register(watchService, ENTRY_DELETE);
+      watchedDirectories.put(directory, Boolean.TRUE);
+    } catch (IOException | ClosedWatchServiceException registerEx) {
+      LOG.debug("Failed to watch directory {} - removals will be found by polling", directory, registerEx);
+      polling = true;
+    }
+  }
+
+  void watch() {
+    while (running) {
+      WatchKey key;
+      try {
+        if (watchService != null) {
+          key = watchService.poll(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        } else {
+          Thread.sleep(POLL_INTERVAL_MILLIS);
+          key = null;
+        }
+      } catch (InterruptedException | ClosedWatchServiceException stopEx) {
+        break;
+      }
+
+      long now = System.nanoTime();
+      if (key == null) {
+        if (polling) {
+          sweep(now);
+        }
+        continue;
+      }
+
+      Path directory = (Path) key.watchable();
+      for (WatchEvent<?> event : key.pollEvents()) {
+        if (event.kind() == OVERFLOW) {
+          sweep(now);
+        } else {
+          consumed(directory.resolve((Path) event.context()), now);
+        }
+      }
+      if (!key.reset()) {
+        watchedDirectories.remove(directory);
+      }
+    }
+  }
+
+  /**
+   * Check every pending file for existence - used when removals cannot be watched.
+   */
+  void sweep(long now) {
+    for (Path path : pending.keySet()) {
+      if (!Files.exists(path, LinkOption.NOFOLLOW_LINKS)) {
+        consumed(path, now);
+      }
+    }
+  }
+
+  void consumed(Path path, long now) {
+    Long publishedNanos = pending.remove(path);
+    if (publishedNanos == null) {
+      return;
+    }
+
+    synchronized (latencyLock) {
+      if (consumedCount == latencies.length) {
+        latencies = Arrays.copyOf(latencies, latencies.length * 2);
+      }
+      latencies[consumedCount++] = Math.max(0, now - publishedNanos);
+      if (now > lastConsumedNanos) {
+        lastConsumedNanos = now;
+      }
+    }
+  }
+
+  long[] snapshot(boolean includePending) {
+    long[] sorted;
+    synchronized (latencyLock) {
+      sorted = Arrays.copyOf(latencies, consumedCount);
+    }
+    if (includePending) {
+      long now = System.nanoTime();
+      Long[] publishedTimes = pending.values().toArray(new Long[0]);
+      int offset = sorted.length;
+      sorted = Arrays.copyOf(sorted, offset + publishedTimes.length);
+      for (int i = 0; i < publishedTimes.length; ++i) {
+        sorted[offset + i] = now - publishedTimes[i];
+      }
+    }
+    Arrays.sort(sorted);
+    return sorted;
+  }
+
+  /**
+   * Nearest-rank percentile of a sorted array.
+   */
+  static long percentile(long[] sorted, double percentile) {
+    if (percentile <= 0 || percentile > 100) {
+      throw new IllegalArgumentException(String.format("Percentile argument %s must be greater than 0 and at most 100", percentile));
+    }
+    int rank = (int) Math.ceil(percentile / 100 * sorted.length);
+    return sorted[Math.max(0, rank - 1)];
+  }
+
+  static String formatPercentile(double percentile) {
+    return percentile == Math.rint(percentile) ? Long.toString((long) percentile) : Double.toString(percentile);
+  }
+}
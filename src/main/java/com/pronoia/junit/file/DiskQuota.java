@@ -0,0 +1,170 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.pronoia.junit.file;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Enforces a limit on the number of bytes and files in a directory tree while a test runs.
+ *
+ * A daemon thread samples the usage of the tree on a fixed interval and records the high-water marks.  The first
+ * sample that exceeds the quota records the violation, stops sampling and interrupts the test thread so blocking
+ * operations in the test are abandoned.
+ */
+final class DiskQuota implements Closeable {
+  static final Logger LOG = LoggerFactory.getLogger(DiskQuota.class);
+
+  static final long DEFAULT_SAMPLE_INTERVAL_MILLIS = 100;
+
+  final Path root;
+  final long maxBytes;
+  final long maxFiles;
+  final Thread testThread;
+  final ScheduledExecutorService sampler;
+
+  volatile long peakBytes;
+  volatile long peakFiles;
+  volatile String violation;
+  volatile boolean testThreadInterrupted;
+  boolean closed;
+
+  DiskQuota(Path root, long maxBytes, long maxFiles, long sampleIntervalMillis, Thread testThread) {
+    this.root = root;
+    this.maxBytes = maxBytes;
+    this.maxFiles = maxFiles;
+    this.testThread = testThread;
+
+    sampler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "TestDirectory quota sampler for " + root);
+      thread.setDaemon(true);
+      return thread;
+    });
+    sampler.scheduleWithFixedDelay(this::sampleAndEnforce, 0, sampleIntervalMillis, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Sample the usage of the directory tree, updating the high-water marks.
+   *
+   * @return true if the usage is within the quota
+   */
+  synchronized boolean sample() {
+    final long[] usage = new long[2];
+    try {
+      Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+        @Override
+        public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+          usage[0] += attributes.size();
+          usage[1] += 1;
+          return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult visitFileFailed(Path file, IOException visitEx) {
+          return FileVisitResult.CONTINUE;
+        }
+      });
+    } catch (NoSuchFileException missingEx) {
+      return true;
+    } catch (IOException walkEx) {
+      LOG.warn("Failed to sample the disk usage of the '{}' directory", root, walkEx);
+      return true;
+    }
+
+    peakBytes = Math.max(peakBytes, usage[0]);
+    peakFiles = Math.max(peakFiles, usage[1]);
+
+    if ((maxBytes > 0 && usage[0] > maxBytes) || (maxFiles > 0 && usage[1] > maxFiles)) {
+      if (violation == null) {
+        violation = String.format("Disk quota exceeded in directory %s - contains %d bytes in %d files but the quota is %s and %s",
+            root, usage[0], usage[1], maxBytes > 0 ? maxBytes + " bytes" : "unlimited bytes", maxFiles > 0 ? maxFiles + " files" : "unlimited files");
+      }
+      return false;
+    }
+
+    return true;
+  }
+
+  void sampleAndEnforce() {
+    if (!sample()) {
+      LOG.error(violation);
+      sampler.shutdown();
+      synchronized (this) {
+        // A closed quota no longer owns the test thread
+        if (!closed && testThread != null) {
+          testThreadInterrupted = true;
+          testThread.interrupt();
+        }
+      }
+    }
+  }
+
+  /**
+   * Fail if the quota has been exceeded.
+   */
+  void check() {
+    if (violation != null) {
+      throw new AssertionError(violation);
+    }
+  }
+
+  String getViolation() {
+    return violation;
+  }
+
+  long getPeakBytes() {
+    return peakBytes;
+  }
+
+  long getPeakFiles() {
+    return peakFiles;
+  }
+
+  @Override
+  public void close() {
+    synchronized (this) {
+      closed = true;
+    }
+    sampler.shutdownNow();
+    // Wait even if the caller is interrupted - possibly by the sampler itself - so no sample runs after close returns
+    boolean interrupted = false;
+    boolean terminated = false;
+    while (!terminated) {
+      try {
+        terminated = sampler.awaitTermination(1, TimeUnit.SECONDS);
+      } catch (InterruptedException interruptedEx) {
+        interrupted = true;
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
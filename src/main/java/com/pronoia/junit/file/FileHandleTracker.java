@@ -0,0 +1,243 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.pronoia.junit.file;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Tracks the streams and channels handed out by a {@link TestDirectory} until they are closed.
+ *
+ * The returned wrappers remove themselves from the tracker when they are closed.  The stack trace of the code that
+ * opened each handle is captured so a leak can be traced back to the test that caused it.
+ */
+final class FileHandleTracker {
+  static final Logger LOG = LoggerFactory.getLogger(FileHandleTracker.class);
+
+  static final File PROC_SELF_FD = new File("/proc/self/fd");
+
+  final Map<Closeable, OpenedHandle> openHandles = new LinkedHashMap<>();
+
+  InputStream track(InputStream inputStream, File file) {
+    TrackedInputStream tracked = new TrackedInputStream(inputStream);
+    register(tracked, "input stream", file);
+    return tracked;
+  }
+
+  OutputStream track(OutputStream outputStream, File file) {
+    TrackedOutputStream tracked = new TrackedOutputStream(outputStream);
+    register(tracked, "output stream", file);
+    return tracked;
+  }
+
+  SeekableByteChannel track(SeekableByteChannel channel, File file) {
+    TrackedChannel tracked = new TrackedChannel(channel);
+    register(tracked, "channel", file);
+    return tracked;
+  }
+
+  synchronized int getOpenCount() {
+    return openHandles.size();
+  }
+
+  /**
+   * Close every handle that is still open.
+   *
+   * @return a description of each handle that was still open
+   */
+  List<String> closeAll() {
+    List<Map.Entry<Closeable, OpenedHandle>> leaked;
+    synchronized (this) {
+      leaked = new ArrayList<>(openHandles.entrySet());
+      openHandles.clear();
+    }
+
+    List<String> descriptions = new ArrayList<>(leaked.size());
+    for (Map.Entry<Closeable, OpenedHandle> entry : leaked) {
+      OpenedHandle handle = entry.getValue();
+      descriptions.add(handle.toString());
+      LOG.warn("Closing leaked {}", handle, handle.openedAt);
+      try {
+        entry.getKey().close();
+      } catch (IOException closeEx) {
+        LOG.warn("Failed to close leaked {}", handle, closeEx);
+      }
+    }
+
+    return descriptions;
+  }
+
+  synchronized void register(Closeable handle, String type, File file) {
+    openHandles.put(handle, new OpenedHandle(type, file));
+  }
+
+  synchronized void release(Closeable handle) {
+    openHandles.remove(handle);
+  }
+
+  /**
+   * Count the file descriptors open in this process.
+   *
+   * @return the number of open file descriptors, or -1 if the count is not available on this platform
+   */
+  static long countFileDescriptors() {
+    String[] descriptors = PROC_SELF_FD.list();
+    if (descriptors != null) {
+      // Listing the directory uses a descriptor of its own, which is closed again by the time list() returns
+      return descriptors.length - 1;
+    }
+
+    OperatingSystemMXBean operatingSystem = ManagementFactory.getOperatingSystemMXBean();
+    try {
+      Class<?> unixOperatingSystem = Class.forName("com.sun.management.UnixOperatingSystemMXBean");
+      if (unixOperatingSystem.isInstance(operatingSystem)) {
+        return ((Number) unixOperatingSystem.getMethod("getOpenFileDescriptorCount").invoke(operatingSystem)).longValue();
+      }
+    } catch (ReflectiveOperationException | RuntimeException countEx) {
+      LOG.debug("The open file descriptor count is not available", countEx);
+    }
+
+    return -1;
+  }
+
+  /**
+   * Describes where a tracked handle was opened.
+   */
+  static final class OpenedHandle {
+    final String type;
+    final File file;
+    final Throwable openedAt;
+
+    OpenedHandle(String type, File file) {
+      this.type = type;
+      this.file = file;
+      this.openedAt = new Throwable("Opened by " + Thread.currentThread().getName());
+    }
+
+    @Override
+    public String toString() {
+      return type + " for " + file;
+    }
+  }
+
+  final class TrackedInputStream extends FilterInputStream {
+    TrackedInputStream(InputStream inputStream) {
+      super(inputStream);
+    }
+
+    @Override
+    public void close() throws IOException {
+      try {
+        super.close();
+      } finally {
+        release(this);
+      }
+    }
+  }
+
+  final class TrackedOutputStream extends FilterOutputStream {
+    TrackedOutputStream(OutputStream outputStream) {
+      super(outputStream);
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+      // FilterOutputStream writes arrays one byte at a time
+      out.write(bytes, offset, length);
+    }
+
+    @Override
+    public void close() throws IOException {
+      try {
+        super.close();
+      } finally {
+        release(this);
+      }
+    }
+  }
+
+  final class TrackedChannel implements SeekableByteChannel {
+    final SeekableByteChannel channel;
+
+    TrackedChannel(SeekableByteChannel channel) {
+      this.channel = channel;
+    }
+
+    @Override
+    public int read(ByteBuffer destination) throws IOException {
+      return channel.read(destination);
+    }
+
+    @Override
+    public int write(ByteBuffer source) throws IOException {
+      return channel.write(source);
+    }
+
+    @Override
+    public long position() throws IOException {
+      return channel.position();
+    }
+
+    @Override
+    public SeekableByteChannel position(long newPosition) throws IOException {
+      channel.position(newPosition);
+      return this;
+    }
+
+    @Override
+    public long size() throws IOException {
+      return channel.size();
+    }
+
+    @Override
+    public SeekableByteChannel truncate(long size) throws IOException {
+      channel.truncate(size);
+      return this;
+    }
+
+    @Override
+    public boolean isOpen() {
+      return channel.isOpen();
+    }
+
+    @Override
+    public void close() throws IOException {
+      try {
+        channel.close();
+      } finally {
+        release(this);
+      }
+    }
+  }
+}
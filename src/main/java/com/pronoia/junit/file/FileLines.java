@@ -0,0 +1,147 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.pronoia.junit.file;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+
+/**
+ * Reads the first or last lines of a file without reading the whole file.
+ *
+ * Lines are terminated by '\n', '\r' or "\r\n", the same as {@link FileUtils#readLines(java.io.File, Charset)}.
+ */
+final class FileLines {
+  static final int BLOCK_SIZE = 8 * 1024;
+
+  private FileLines() {}
+
+  /**
+   * Read the first lines of a file - only as much of the file as the lines occupy is decoded.
+   *
+   * @param path    the file
+   * @param count   the maximum number of lines
+   * @param charset the charset of the file
+   *
+   * @return the first lines of the file
+   */
+  static List<String> head(Path path, int count, Charset charset) throws IOException {
+    try (InputStream input = Files.newInputStream(path)) {
+      return readLines(new InputStreamReader(input, charset), count);
+    }
+  }
+
+  /**
+   * Read the last lines of a file.
+   *
+   * The file is read backwards in blocks through a {@link FileChannel} until enough line terminators have been found,
+   * so the cost depends on the length of the lines that are returned rather than on the size of the file.  Charsets
+   * that do not encode '\n' as the single byte 0x0A (UTF-16 and UTF-32) cannot be scanned this way, and the whole file
+   * is read instead.
+   *
+   * @param path    the file
+   * @param count   the maximum number of lines
+   * @param charset the charset of the file
+   *
+   * @return the last lines of the file
+   */
+  static List<String> tail(Path path, int count, Charset charset) throws IOException {
+    if (count == 0) {
+      return new ArrayList<>();
+    } else if (!isByteScannable(charset)) {
+      List<String> lines = FileUtils.readLines(path.toFile(), charset);
+      return new ArrayList<>(lines.subList(Math.max(0, lines.size() - count), lines.size()));
+    }
+
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      long size = channel.size();
+      long start = findTailStart(channel, size, count);
+      long length = size - start;
+      if (length > Integer.MAX_VALUE) {
+        throw new IOException(String.format("The last %d lines of %s are longer than %d bytes", count, path, Integer.MAX_VALUE));
+      }
+
+      ByteBuffer buffer = ByteBuffer.allocate((int) length);
+      while (buffer.hasRemaining() && channel.read(buffer, start + buffer.position()) >= 0) {
+        // Read until the buffer is full
+      }
+
+      // A lone '\r' is counted as a terminator here but not by the byte scan, so more than count lines may be decoded
+      List<String> lines = readLines(new InputStreamReader(new ByteArrayInputStream(buffer.array(), 0, buffer.position()), charset), Integer.MAX_VALUE);
+      return lines.size() > count ? new ArrayList<>(lines.subList(lines.size() - count, lines.size())) : lines;
+    }
+  }
+
+  /**
+   * Find the position of the first byte of the last lines by scanning backwards for '\n' bytes.
+   */
+  static long findTailStart(FileChannel channel, long size, int count) throws IOException {
+    ByteBuffer block = ByteBuffer.allocate(BLOCK_SIZE);
+    // A terminator at the very end of the file ends the last line - it does not start an empty one
+    long end = size;
+    int found = 0;
+    while (end > 0) {
+      long blockStart = Math.max(0, end - BLOCK_SIZE);
+      block.clear().limit((int) (end - blockStart));
+      while (block.hasRemaining() && channel.read(block, blockStart + block.position()) >= 0) {
+        // Read until the block is full
+      }
+      for (int i = block.position() - 1; i >= 0; --i) {
+        if (block.get(i) == '\n') {
+          if (blockStart + i == size - 1) {
+            continue;
+          }
+          if (++found == count) {
+            return blockStart + i + 1;
+          }
+        }
+      }
+      end = blockStart;
+    }
+    return 0;
+  }
+
+  static List<String> readLines(Reader reader, int count) throws IOException {
+    List<String> lines = new ArrayList<>();
+    BufferedReader lineReader = new BufferedReader(reader);
+    String line;
+    while (lines.size() < count && (line = lineReader.readLine()) != null) {
+      lines.add(line);
+    }
+    return lines;
+  }
+
+  static boolean isByteScannable(Charset charset) {
+    byte[] newline = "\n".getBytes(charset);
+    byte[] carriageReturn = "\r".getBytes(charset);
+    return newline.length == 1 && newline[0] == '\n' && carriageReturn.length == 1 && carriageReturn[0] == '\r';
+  }
+}
@@ -0,0 +1,298 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.pronoia.junit.file;
+
+import java.io.Closeable;
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+
+/**
+ * Holds locks on many files for configurable durations and reports how the code under test reacted to them.
+ *
+ * Every file is locked when the contention starts, and each lock is released after a hold time chosen uniformly from
+ * the configured range.  While it runs the files are sampled every {@link #SAMPLE_INTERVAL_MILLIS} milliseconds to
+ * find when the consumer removed them, so the report can tell:
+ * <ul>
+ *   <li>skipped - the file was still present when its lock was released, so the consumer skipped or waited for it</li>
+ *   <li>consumed while locked - the consumer removed the file while its lock was held, ignoring the lock</li>
+ *   <li>pickup latency - how long after the release of the lock the consumer removed the file</li>
+ * </ul>
+ *
+ * @see FileLockHolder for how locks held in the same JVM are seen by the code under test
+ */
+public final class FileLockContention implements Closeable {
+  public static final long SAMPLE_INTERVAL_MILLIS = 5;
+
+  final List<File> files;
+  final FileLockHolder.Mode mode;
+  final long minimumHoldNanos;
+  final long maximumHoldNanos;
+  final long seed;
+
+  final List<LockedFile> lockedFiles = new ArrayList<>();
+  final CountDownLatch released;
+  ScheduledExecutorService executor;
+
+  FileLockContention(List<File> files, FileLockHolder.Mode mode, long minimumHold, long maximumHold, TimeUnit unit, long seed) {
+    if (files == null || files.isEmpty()) {
+      throw new IllegalArgumentException("Failed to create a file lock contention - the files argument cannot be null or empty");
+    } else if (mode == null) {
+      throw new IllegalArgumentException("Failed to create a file lock contention - the lock mode argument cannot be null");
+    } else if (minimumHold < 0 || minimumHold > maximumHold) {
+      throw new IllegalArgumentException(String.format("Hold time arguments %d and %d must be a non-negative range", minimumHold, maximumHold));
+    }
+    this.files = files;
+    this.mode = mode;
+    this.minimumHoldNanos = unit.toNanos(minimumHold);
+    this.maximumHoldNanos = unit.toNanos(maximumHold);
+    this.seed = seed;
+    this.released = new CountDownLatch(files.size());
+  }
+
+  /**
+   * Lock every file and schedule the release of each lock.
+   *
+   * The locks are all held when this method returns.
+   *
+   * @return this contention
+   */
+  synchronized FileLockContention start() {
+    Random random = new Random(seed);
+    executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "file-lock-contention");
+      thread.setDaemon(true);
+      return thread;
+    });
+
+    try {
+      for (File file : files) {
+        long holdNanos = minimumHoldNanos + (maximumHoldNanos > minimumHoldNanos ? (long) (random.nextDouble() * (maximumHoldNanos - minimumHoldNanos)) : 0);
+        lockedFiles.add(new LockedFile(FileLockHolder.acquire(file, mode), holdNanos));
+      }
+    } catch (RuntimeException lockEx) {
+      close();
+      throw lockEx;
+    }
+
+    for (LockedFile lockedFile : lockedFiles) {
+      executor.schedule(() -> release(lockedFile), lockedFile.holdNanos, TimeUnit.NANOSECONDS);
+    }
+    executor.scheduleWithFixedDelay(this::sample, SAMPLE_INTERVAL_MILLIS, SAMPLE_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+
+    return this;
+  }
+
+  /**
+   * Wait for every lock to be released.
+   *
+   * @param timeout the maximum time to wait
+   * @param unit    the unit of the timeout argument
+   *
+   * @return true if every lock was released, false if the timeout elapsed first
+   */
+  public boolean awaitReleased(long timeout, TimeUnit unit) {
+    try {
+      return released.await(timeout, unit);
+    } catch (InterruptedException interruptedEx) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  /**
+   * Release every lock that is still held and stop sampling the files.
+   */
+  @Override
+  public synchronized void close() {
+    if (executor != null) {
+      executor.shutdownNow();
+      try {
+        executor.awaitTermination(1, TimeUnit.SECONDS);
+      } catch (InterruptedException interruptedEx) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    for (LockedFile lockedFile : lockedFiles) {
+      release(lockedFile);
+    }
+  }
+
+  public FileLockHolder.Mode getMode() {
+    return mode;
+  }
+
+  public int getLockedCount() {
+    return lockedFiles.size();
+  }
+
+  public int getReleasedCount() {
+    return (int) (files.size() - released.getCount());
+  }
+
+  /**
+   * Get the number of files that were still present when their lock was released.
+   *
+   * @return the number of skipped files
+   */
+  public int getSkippedCount() {
+    int count = 0;
+    for (LockedFile lockedFile : lockedFiles) {
+      if (lockedFile.presentAtRelease) {
+        ++count;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Get the number of files that were removed while their lock was held.
+   *
+   * @return the number of files consumed while locked
+   */
+  public int getConsumedWhileLockedCount() {
+    int count = 0;
+    for (LockedFile lockedFile : lockedFiles) {
+      if (lockedFile.releasedNanos != 0 && !lockedFile.presentAtRelease) {
+        ++count;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Get the number of files that were removed after their lock was released.
+   *
+   * @return the number of files picked up after the release
+   */
+  public int getPickedUpCount() {
+    return pickupLatencies().length;
+  }
+
+  /**
+   * Get a percentile of the time between the release of a lock and the removal of the file by the consumer.
+   *
+   * @param percentile the percentile (for example 50 or 99)
+   * @param unit       the unit of the result
+   *
+   * @return the pickup latency, or 0 if no file has been picked up after the release of its lock
+   */
+  public long getPickupLatency(double percentile, TimeUnit unit) {
+    long[] sorted = pickupLatencies();
+    return sorted.length == 0 ? 0 : unit.convert(ConsumptionMonitor.percentile(sorted, percentile), TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Get the holders of the locks.
+   *
+   * @return the holders, in the order the files were locked
+   */
+  public List<FileLockHolder> getHolders() {
+    List<FileLockHolder> holders = new ArrayList<>(lockedFiles.size());
+    for (LockedFile lockedFile : lockedFiles) {
+      holders.add(lockedFile.holder);
+    }
+    return Collections.unmodifiableList(holders);
+  }
+
+  /**
+   * Asserts that the consumer did not remove any file while its lock was held.
+   */
+  public void assertNoneConsumedWhileLocked() {
+    List<String> consumed = new ArrayList<>();
+    for (LockedFile lockedFile : lockedFiles) {
+      if (lockedFile.releasedNanos != 0 && !lockedFile.presentAtRelease) {
+        consumed.add(lockedFile.holder.file.getName());
+      }
+    }
+    Assert.assertTrue(String.format("%d of %d files were consumed while they were locked - %s", consumed.size(), lockedFiles.size(), consumed), consumed.isEmpty());
+  }
+
+  @Override
+  public String toString() {
+    return String.format("FileLockContention{mode=%s, locked=%d, released=%d, skipped=%d, consumedWhileLocked=%d, pickedUp=%d, p50Pickup=%dms, p99Pickup=%dms}",
+        mode, getLockedCount(), getReleasedCount(), getSkippedCount(), getConsumedWhileLockedCount(), getPickedUpCount(),
+        getPickupLatency(50, TimeUnit.MILLISECONDS), getPickupLatency(99, TimeUnit.MILLISECONDS));
+  }
+
+  void release(LockedFile lockedFile) {
+    synchronized (lockedFile) {
+      if (lockedFile.releasedNanos != 0) {
+        return;
+      }
+      lockedFile.presentAtRelease = exists(lockedFile.holder.file);
+      lockedFile.holder.release();
+      lockedFile.releasedNanos = System.nanoTime();
+    }
+    released.countDown();
+  }
+
+  void sample() {
+    long now = System.nanoTime();
+    for (LockedFile lockedFile : lockedFiles) {
+      synchronized (lockedFile) {
+        if (lockedFile.presentAtRelease && lockedFile.consumedNanos == 0 && !exists(lockedFile.holder.file)) {
+          lockedFile.consumedNanos = now;
+        }
+      }
+    }
+  }
+
+  long[] pickupLatencies() {
+    long[] latencies = new long[lockedFiles.size()];
+    int count = 0;
+    for (LockedFile lockedFile : lockedFiles) {
+      synchronized (lockedFile) {
+        if (lockedFile.consumedNanos != 0) {
+          latencies[count++] = Math.max(0, lockedFile.consumedNanos - lockedFile.releasedNanos);
+        }
+      }
+    }
+    latencies = Arrays.copyOf(latencies, count);
+    Arrays.sort(latencies);
+    return latencies;
+  }
+
+  static boolean exists(File file) {
+    return Files.exists(file.toPath(), LinkOption.NOFOLLOW_LINKS);
+  }
+
+  static final class LockedFile {
+    final FileLockHolder holder;
+    final long holdNanos;
+    long releasedNanos;
+    boolean presentAtRelease;
+    long consumedNanos;
+
+    LockedFile(FileLockHolder holder, long holdNanos) {
+      this.holder = holder;
+      this.holdNanos = holdNanos;
+    }
+  }
+}
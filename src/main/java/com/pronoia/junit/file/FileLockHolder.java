@@ -0,0 +1,151 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.pronoia.junit.file;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds a {@link FileLock} on a whole file until it is released.
+ *
+ * File locks are held on behalf of the whole JVM.  Another process sees the file as locked, while code in the same JVM
+ * that tries to lock the file gets an {@link OverlappingFileLockException} from {@link FileChannel#tryLock()} instead
+ * of null.  On most platforms the locks are advisory - they do not stop another process from reading, writing or
+ * deleting the file.
+ */
+public final class FileLockHolder implements Closeable {
+  /**
+   * The kind of lock to hold.
+   */
+  public enum Mode {
+    /**
+     * A shared (read) lock - other shared locks can be held at the same time.
+     */
+    SHARED,
+    /**
+     * An exclusive (write) lock.
+     */
+    EXCLUSIVE
+  }
+
+  final File file;
+  final Mode mode;
+  final FileChannel channel;
+  final FileLock lock;
+  final long acquiredNanos;
+  volatile long releasedNanos;
+
+  FileLockHolder(File file, Mode mode, FileChannel channel, FileLock lock) {
+    this.file = file;
+    this.mode = mode;
+    this.channel = channel;
+    this.lock = lock;
+    this.acquiredNanos = System.nanoTime();
+  }
+
+  /**
+   * Lock a file, waiting for any lock held by another process to be released.
+   *
+   * @param file the file
+   * @param mode the kind of lock
+   *
+   * @return the holder of the lock
+   */
+  static FileLockHolder acquire(File file, Mode mode) {
+    FileChannel channel = null;
+    try {
+      channel = mode == Mode.SHARED
+          ? FileChannel.open(file.toPath(), StandardOpenOption.READ)
+          : FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+      FileLock lock = channel.lock(0, Long.MAX_VALUE, mode == Mode.SHARED);
+      return new FileLockHolder(file, mode, channel, lock);
+    } catch (IOException | OverlappingFileLockException lockEx) {
+      closeQuietly(channel);
+      throw new IllegalStateException(String.format("Failed to acquire a %s lock on the '%s' file", mode.name().toLowerCase(), file), lockEx);
+    }
+  }
+
+  /**
+   * Release the lock - calling this more than once has no effect.
+   */
+  public synchronized void release() {
+    if (releasedNanos != 0) {
+      return;
+    }
+    releasedNanos = System.nanoTime();
+    try {
+      if (lock.isValid()) {
+        lock.release();
+      }
+    } catch (IOException releaseEx) {
+      throw new IllegalStateException(String.format("Failed to release the %s lock on the '%s' file", mode.name().toLowerCase(), file), releaseEx);
+    } finally {
+      closeQuietly(channel);
+    }
+  }
+
+  @Override
+  public void close() {
+    release();
+  }
+
+  public File getFile() {
+    return file;
+  }
+
+  public Mode getMode() {
+    return mode;
+  }
+
+  public boolean isHeld() {
+    return releasedNanos == 0;
+  }
+
+  /**
+   * Get how long the lock has been held - up to now if it is still held.
+   *
+   * @param unit the unit of the result
+   *
+   * @return the time the lock was held
+   */
+  public long getHeldTime(TimeUnit unit) {
+    long released = releasedNanos;
+    return unit.convert((released != 0 ? released : System.nanoTime()) - acquiredNanos, TimeUnit.NANOSECONDS);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%s lock on %s", mode.name().toLowerCase(), file);
+  }
+
+  static void closeQuietly(FileChannel channel) {
+    if (channel != null) {
+      try {
+        channel.close();
+      } catch (IOException closeEx) {
+        // Nothing more can be done - the lock is released when the channel is closed or the JVM exits
+      }
+    }
+  }
+}
@@ -0,0 +1,488 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.pronoia.junit.file;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Writes files into a directory at a target rate to drive file-polling consumers under test.
+ *
+ * The producer is configured with fluent setters and then started.  A single scheduled thread writes the files - one
+ * file per tick in {@link Mode#STEADY} mode, or a burst of files per tick in {@link Mode#BURST} mode with the ticks
+ * spaced so the average rate is the same.  The producer stops after the configured number of files or duration, or
+ * when {@link #stop()} is called.
+ *
+ * While it runs, the producer records the achieved throughput and the backlog - the number of files in the directory
+ * that the consumer has not removed yet.
+ *
+ * <pre>
+ *   FileProducer producer = testDirectory.producer("inbox")
+ *       .rate(200)
+ *       .fileSize(1024, 4096)
+ *       .duration(5, TimeUnit.SECONDS)
+ *       .start();
+ *   producer.awaitCompletion(10, TimeUnit.SECONDS);
+ *   assertTrue(producer.getMaxBacklog() &lt; 50);
+ * </pre>
+ */
+public final class FileProducer implements Closeable {
+  public static final String DEFAULT_NAME_PATTERN = "file-%08d.dat";
+  public static final long BACKLOG_SAMPLE_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+  /**
+   * How the files are spaced in time.
+   */
+  public enum Mode {
+    /**
+     * One file per tick, evenly spaced.
+     */
+    STEADY,
+    /**
+     * A burst of files per tick, with the ticks spaced so the average rate is the target rate.
+     */
+    BURST
+  }
+
+  static final Logger LOG = LoggerFactory.getLogger(FileProducer.class);
+
+  final File directory;
+
+  String namePattern = DEFAULT_NAME_PATTERN;
+  double rate = 10;
+  int minimumSize = 0;
+  int maximumSize = 0;
+  long fileLimit = Long.MAX_VALUE;
+  long durationNanos = 0;
+  Mode mode = Mode.STEADY;
+  int burstSize = 1;
+  long seed = 0;
+  boolean atomic = false;
+  Consumer<File> publishListener;
+
+  ScheduledExecutorService executor;
+  final CountDownLatch completed = new CountDownLatch(1);
+  Random random;
+  byte[] content;
+
+  volatile long startNanos;
+  volatile long stopNanos;
+  volatile long filesWritten;
+  volatile long bytesWritten;
+  volatile long backlog;
+  volatile long maxBacklog;
+  volatile long lateTicks;
+  volatile Throwable failure;
+  long lastBacklogSampleNanos;
+  long nextTickNanos;
+
+  FileProducer(File directory) {
+    if (directory == null) {
+      throw new IllegalArgumentException("Failed to create a file producer - the directory File object argument cannot be null");
+    }
+    this.directory = directory;
+  }
+
+  /**
+   * Set the target rate.
+   *
+   * @param filesPerSecond the number of files to write per second
+   *
+   * @return this producer
+   */
+  public FileProducer rate(double filesPerSecond) {
+    checkNotStarted();
+    if (!(filesPerSecond > 0)) {
+      throw new IllegalArgumentException(String.format("Rate argument %s must be greater than zero", filesPerSecond));
+    }
+    this.rate = filesPerSecond;
+    return this;
+  }
+
+  /**
+   * Set a fixed file size.
+   *
+   * @param size the size of every file in bytes
+   *
+   * @return this producer
+   */
+  public FileProducer fileSize(int size) {
+    return fileSize(size, size);
+  }
+
+  /**
+   * Set a range of file sizes - the size of each file is chosen uniformly from the range.
+   *
+   * @param minimumSize the minimum size of a file in bytes (inclusive)
+   * @param maximumSize the maximum size of a file in bytes (inclusive)
+   *
+   * @return this producer
+   */
+  public FileProducer fileSize(int minimumSize, int maximumSize) {
+    checkNotStarted();
+    if (minimumSize < 0 || minimumSize > maximumSize) {
+      throw new IllegalArgumentException(String.format("File size arguments %d and %d must be a non-negative range", minimumSize, maximumSize));
+    }
+    this.minimumSize = minimumSize;
+    this.maximumSize = maximumSize;
+    return this;
+  }
+
+  /**
+   * Stop after a number of files have been written.
+   *
+   * @param count the number of files
+   *
+   * @return this producer
+   */
+  public FileProducer fileCount(long count) {
+    checkNotStarted();
+    if (count < 1) {
+      throw new IllegalArgumentException(String.format("File count argument %d must be greater than zero", count));
+    }
+    this.fileLimit = count;
+    return this;
+  }
+
+  /**
+   * Stop after a duration - the producer writes rate * duration files.
+   *
+   * @param duration the duration
+   * @param unit     the unit of the duration argument
+   *
+   * @return this producer
+   */
+  public FileProducer duration(long duration, TimeUnit unit) {
+    checkNotStarted();
+    if (duration < 1) {
+      throw new IllegalArgumentException(String.format("Duration argument %d must be greater than zero", duration));
+    }
+    this.durationNanos = unit.toNanos(duration);
+    return this;
+  }
+
+  /**
+   * Write one file per tick.
+   *
+   * @return this producer
+   */
+  public FileProducer steady() {
+    checkNotStarted();
+    this.mode = Mode.STEADY;
+    this.burstSize = 1;
+    return this;
+  }
+
+  /**
+   * Write the files in bursts.
+   *
+   * @param burstSize the number of files in each burst
+   *
+   * @return this producer
+   */
+  public FileProducer burst(int burstSize) {
+    checkNotStarted();
+    if (burstSize < 1) {
+      throw new IllegalArgumentException(String.format("Burst size argument %d must be greater than zero", burstSize));
+    }
+    this.mode = Mode.BURST;
+    this.burstSize = burstSize;
+    return this;
+  }
+
+  /**
+   * Set the pattern used to name the files - it is formatted with the sequence number of the file.
+   *
+   * @param namePattern the {@link String#format(String, Object...)} pattern
+   *
+   * @return this producer
+   */
+  public FileProducer namePattern(String namePattern) {
+    checkNotStarted();
+    if (namePattern == null || namePattern.isEmpty()) {
+      throw new IllegalArgumentException("Name pattern argument cannot be null or empty");
+    }
+    this.namePattern = namePattern;
+    return this;
+  }
+
+  /**
+   * Set the seed used to choose the file sizes, so a run can be repeated.
+   *
+   * @param seed the seed
+   *
+   * @return this producer
+   */
+  public FileProducer seed(long seed) {
+    checkNotStarted();
+    this.seed = seed;
+    return this;
+  }
+
+  /**
+   * Publish each file atomically - write it under a hidden temporary name and rename it into place.
+   *
+   * @param atomic publish the files atomically
+   *
+   * @return this producer
+   */
+  public FileProducer atomic(boolean atomic) {
+    checkNotStarted();
+    this.atomic = atomic;
+    return this;
+  }
+
+  /**
+   * Start writing files.
+   *
+   * @return this producer
+   */
+  public synchronized FileProducer start() {
+    checkNotStarted();
+    if (!directory.isDirectory() && !directory.mkdirs()) {
+      throw new IllegalStateException(String.format("Failed to start the file producer in the '%s' directory - File.mkdirs() returned false", directory));
+    }
+    if (durationNanos > 0) {
+      fileLimit = Math.min(fileLimit, Math.max(1, Math.round(rate * durationNanos / 1e9)));
+    }
+
+    random = new Random(seed);
+    content = new byte[maximumSize];
+    Arrays.fill(content, (byte) 'x');
+
+    long periodNanos = Math.max(1, Math.round(burstSize * 1e9 / rate));
+    executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "file-producer-" + directory.getName());
+      thread.setDaemon(true);
+      return thread;
+    });
+    startNanos = System.nanoTime();
+    nextTickNanos = startNanos;
+    executor.scheduleAtFixedRate(() -> tick(periodNanos), 0, periodNanos, TimeUnit.NANOSECONDS);
+
+    return this;
+  }
+
+  /**
+   * Wait for the producer to finish.
+   *
+   * @param timeout the maximum time to wait
+   * @param unit    the unit of the timeout argument
+   *
+   * @return true if the producer finished, false if the timeout elapsed first
+   */
+  public boolean awaitCompletion(long timeout, TimeUnit unit) {
+    try {
+      if (!completed.await(timeout, unit)) {
+        return false;
+      }
+    } catch (InterruptedException interruptedEx) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+
+    if (failure != null) {
+      throw new IllegalStateException(String.format("The file producer in the '%s' directory failed after writing %d files", directory, filesWritten), failure);
+    }
+    return true;
+  }
+
+  /**
+   * Stop writing files.
+   */
+  public synchronized void stop() {
+    if (executor != null) {
+      executor.shutdownNow();
+      try {
+        executor.awaitTermination(1, TimeUnit.SECONDS);
+      } catch (InterruptedException interruptedEx) {
+        Thread.currentThread().interrupt();
+      }
+      finish();
+    }
+  }
+
+  @Override
+  public void close() {
+    stop();
+  }
+
+  public File getDirectory() {
+    return directory;
+  }
+
+  public double getTargetRate() {
+    return rate;
+  }
+
+  public boolean isAtomic() {
+    return atomic;
+  }
+
+  public Mode getMode() {
+    return mode;
+  }
+
+  public boolean isRunning() {
+    return executor != null && completed.getCount() > 0;
+  }
+
+  public long getFilesWritten() {
+    return filesWritten;
+  }
+
+  public long getBytesWritten() {
+    return bytesWritten;
+  }
+
+  /**
+   * Get the achieved rate - the number of files written per second since the producer started.
+   *
+   * @return the achieved rate, or 0 if the producer has not started
+   */
+  public double getAchievedRate() {
+    if (executor == null) {
+      return 0;
+    }
+    long elapsedNanos = (stopNanos != 0 ? stopNanos : System.nanoTime()) - startNanos;
+    return elapsedNanos > 0 ? filesWritten * 1e9 / elapsedNanos : 0;
+  }
+
+  /**
+   * Get the number of files in the directory at the last sample.
+   *
+   * @return the backlog
+   */
+  public long getBacklog() {
+    return backlog;
+  }
+
+  /**
+   * Get the largest number of files sampled in the directory while the producer ran.
+   *
+   * @return the maximum backlog
+   */
+  public long getMaxBacklog() {
+    return maxBacklog;
+  }
+
+  /**
+   * Get the number of ticks that started more than one period late because writing the files took too long.
+   *
+   * @return the number of late ticks
+   */
+  public long getLateTicks() {
+    return lateTicks;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("FileProducer{directory=%s, mode=%s, targetRate=%.1f/s, achievedRate=%.1f/s, filesWritten=%d, bytesWritten=%d, backlog=%d, maxBacklog=%d, lateTicks=%d}",
+        directory, mode, rate, getAchievedRate(), filesWritten, bytesWritten, backlog, maxBacklog, lateTicks);
+  }
+
+  void tick(long periodNanos) {
+    long now = System.nanoTime();
+    if (now - nextTickNanos > periodNanos) {
+      ++lateTicks;
+    }
+    nextTickNanos += periodNanos;
+
+    try {
+      for (int i = 0; i < burstSize && filesWritten < fileLimit; ++i) {
+        write(String.format(namePattern, filesWritten));
+      }
+      if (now - lastBacklogSampleNanos >= BACKLOG_SAMPLE_INTERVAL_NANOS || filesWritten >= fileLimit) {
+        sampleBacklog();
+        lastBacklogSampleNanos = now;
+      }
+    } catch (IOException | RuntimeException writeEx) {
+      failure = writeEx;
+      LOG.warn("File producer in directory {} failed after writing {} files", directory, filesWritten, writeEx);
+    }
+
+    if (failure != null || filesWritten >= fileLimit) {
+      finish();
+      executor.shutdown();
+    }
+  }
+
+  void write(String fileName) throws IOException {
+    int size = maximumSize > minimumSize ? minimumSize + random.nextInt(maximumSize - minimumSize + 1) : minimumSize;
+    Path target = new File(directory, fileName).toPath();
+    Path file = atomic ? AtomicFiles.temporaryFile(target) : target;
+    try (OutputStream output = Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+      output.write(content, 0, size);
+    } catch (IOException writeEx) {
+      if (atomic) {
+        Files.deleteIfExists(file);
+      }
+      throw writeEx;
+    }
+    if (atomic) {
+      AtomicFiles.publish(file, target);
+    }
+    bytesWritten += size;
+    ++filesWritten;
+    if (publishListener != null) {
+      publishListener.accept(target.toFile());
+    }
+  }
+
+  void sampleBacklog() throws IOException {
+    long count = 0;
+    try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory.toPath())) {
+      for (Path ignored : entries) {
+        ++count;
+      }
+    }
+    backlog = count;
+    if (count > maxBacklog) {
+      maxBacklog = count;
+    }
+  }
+
+  void finish() {
+    if (completed.getCount() > 0) {
+      stopNanos = System.nanoTime();
+      completed.countDown();
+    }
+  }
+
+  void checkNotStarted() {
+    if (executor != null) {
+      throw new IllegalStateException(String.format("The file producer in the '%s' directory has already been started", directory));
+    }
+  }
+}
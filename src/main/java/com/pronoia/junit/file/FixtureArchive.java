@@ -0,0 +1,393 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.pronoia.junit.file;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermission;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * A compact binary image of a directory tree that can be materialized quickly.
+ *
+ * The image starts with a header index holding the path, type, POSIX mode, modification time, size and content offset of
+ * every entry, followed by the content of every file stored contiguously.  Importing an image reads only the header,
+ * creates the directories, and then copies the file contents in parallel straight from the offsets in the index with
+ * {@link FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel)}, so the content is never copied
+ * through the Java heap where the platform supports it.
+ *
+ * Only directories and regular files are captured - symbolic links and other special files are skipped.
+ *
+ * <pre>
+ *   magic "FJFX", version
+ *   header length, entry count
+ *   entry*: path (UTF-8), type, mode, modification time, size, content offset
+ *   content
+ * </pre>
+ */
+public final class FixtureArchive {
+  static final int MAGIC = 0x464A4658;
+  static final int VERSION = 1;
+  static final int PREAMBLE_LENGTH = 16;
+
+  static final byte DIRECTORY = 0;
+  static final byte FILE = 1;
+
+  static final PosixFilePermission[] MODE_BITS = {
+      PosixFilePermission.OTHERS_EXECUTE, PosixFilePermission.OTHERS_WRITE, PosixFilePermission.OTHERS_READ,
+      PosixFilePermission.GROUP_EXECUTE, PosixFilePermission.GROUP_WRITE, PosixFilePermission.GROUP_READ,
+      PosixFilePermission.OWNER_EXECUTE, PosixFilePermission.OWNER_WRITE, PosixFilePermission.OWNER_READ
+  };
+
+  static final int PARALLELISM = Runtime.getRuntime().availableProcessors();
+
+  private FixtureArchive() {}
+
+  /**
+   * Capture a directory tree in a fixture archive.
+   *
+   * @param sourceDirectory the directory to capture
+   * @param archive         the archive file to write
+   *
+   * @return the number of entries in the archive
+   */
+  public static int export(File sourceDirectory, File archive) {
+    if (sourceDirectory == null || !sourceDirectory.isDirectory()) {
+      throw new IllegalArgumentException(String.format("Failed to export the '%s' directory to a fixture archive - the source directory does not exist or does not refer to a directory", sourceDirectory));
+    } else if (archive == null) {
+      throw new IllegalArgumentException(String.format("Failed to export the '%s' directory to a fixture archive - the archive File object argument cannot be null", sourceDirectory));
+    }
+
+    try {
+      List<Entry> entries = scan(sourceDirectory.toPath());
+      write(sourceDirectory.toPath(), entries, archive.toPath());
+      return entries.size();
+    } catch (IOException exportEx) {
+      throw new IllegalStateException(String.format("Failed to export the '%s' directory to the '%s' fixture archive", sourceDirectory, archive), exportEx);
+    }
+  }
+
+  /**
+   * Materialize a fixture archive in a directory.
+   *
+   * Existing files with the same names are replaced; nothing else in the target directory is removed.
+   *
+   * @param archive         the archive file to read
+   * @param targetDirectory the directory to materialize the archive in
+   *
+   * @return the number of entries in the archive
+   */
+  public static int restore(File archive, File targetDirectory) {
+    if (archive == null || !archive.isFile()) {
+      throw new IllegalArgumentException(String.format("Failed to import the '%s' fixture archive - the archive does not exist or does not refer to a file", archive));
+    } else if (targetDirectory == null) {
+      throw new IllegalArgumentException(String.format("Failed to import the '%s' fixture archive - the target directory File object argument cannot be null", archive));
+    }
+
+    try (FileChannel channel = FileChannel.open(archive.toPath(), StandardOpenOption.READ)) {
+      Header header = readHeader(archive, channel);
+      materialize(archive, channel, header, targetDirectory.toPath().toAbsolutePath().normalize());
+      return header.entries.size();
+    } catch (IOException importEx) {
+      throw new IllegalStateException(String.format("Failed to import the '%s' fixture archive to the '%s' directory", archive, targetDirectory), importEx);
+    }
+  }
+
+  static List<Entry> scan(final Path root) throws IOException {
+    final List<Entry> entries = new ArrayList<>();
+    final boolean posix = Files.getFileAttributeView(root, PosixFileAttributeView.class) != null;
+    Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+      long offset = 0;
+
+      @Override
+      public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attributes) throws IOException {
+        if (!dir.equals(root)) {
+          entries.add(new Entry(name(root, dir), DIRECTORY, mode(dir, posix), attributes.lastModifiedTime().toMillis(), 0, 0));
+        }
+        return FileVisitResult.CONTINUE;
+      }
+
+      @Override
+      public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) throws IOException {
+        if (attributes.isRegularFile()) {
+          entries.add(new Entry(name(root, file), FILE, mode(file, posix), attributes.lastModifiedTime().toMillis(), attributes.size(), offset));
+          offset += attributes.size();
+        }
+        return FileVisitResult.CONTINUE;
+      }
+    });
+
+    return entries;
+  }
+
+  static void write(Path root, List<Entry> entries, Path archive) throws IOException {
+    ByteArrayOutputStream headerBytes = new ByteArrayOutputStream();
+    try (DataOutputStream header = new DataOutputStream(headerBytes)) {
+      for (Entry entry : entries) {
+        byte[] path = entry.name.getBytes(StandardCharsets.UTF_8);
+        header.writeShort(path.length);
+        header.write(path);
+        header.writeByte(entry.type);
+        header.writeShort(entry.mode);
+        header.writeLong(entry.lastModified);
+        header.writeLong(entry.size);
+        header.writeLong(entry.offset);
+      }
+    }
+
+    ByteBuffer preamble = ByteBuffer.allocate(PREAMBLE_LENGTH);
+    preamble.putInt(MAGIC).putInt(VERSION).putInt(headerBytes.size()).putInt(entries.size()).flip();
+
+    Path parent = archive.toAbsolutePath().getParent();
+    if (parent != null) {
+      Files.createDirectories(parent);
+    }
+    try (FileChannel output = FileChannel.open(archive, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+      writeFully(output, preamble);
+      writeFully(output, ByteBuffer.wrap(headerBytes.toByteArray()));
+      for (Entry entry : entries) {
+        if (entry.type == FILE) {
+          try (FileChannel input = FileChannel.open(root.resolve(entry.name), StandardOpenOption.READ)) {
+            long position = 0;
+            while (position < entry.size) {
+              long transferred = input.transferTo(position, entry.size - position, output);
+              if (transferred <= 0) {
+                throw new IOException(String.format("The '%s' file changed size while it was exported", entry.name));
+              }
+              position += transferred;
+            }
+          }
+        }
+      }
+    }
+  }
+
+  static Header readHeader(File archive, FileChannel channel) throws IOException {
+    ByteBuffer preamble = ByteBuffer.allocate(PREAMBLE_LENGTH);
+    readFully(channel, preamble, 0);
+    preamble.flip();
+    if (preamble.remaining() < PREAMBLE_LENGTH || preamble.getInt() != MAGIC) {
+      throw new IOException(String.format("The '%s' file is not a fixture archive", archive));
+    }
+    int version = preamble.getInt();
+    if (version != VERSION) {
+      throw new IOException(String.format("The '%s' fixture archive has unsupported version %d", archive, version));
+    }
+    int headerLength = preamble.getInt();
+    int entryCount = preamble.getInt();
+
+    ByteBuffer headerBuffer = ByteBuffer.allocate(headerLength);
+    readFully(channel, headerBuffer, PREAMBLE_LENGTH);
+    List<Entry> entries = new ArrayList<>(entryCount);
+    try (DataInputStream header = new DataInputStream(new ByteArrayInputStream(headerBuffer.array(), 0, headerBuffer.position()))) {
+      for (int i = 0; i < entryCount; ++i) {
+        byte[] path = new byte[header.readUnsignedShort()];
+        header.readFully(path);
+        entries.add(new Entry(new String(path, StandardCharsets.UTF_8), header.readByte(), header.readShort(), header.readLong(), header.readLong(), header.readLong()));
+      }
+    }
+
+    return new Header(entries, PREAMBLE_LENGTH + (long) headerLength);
+  }
+
+  static void materialize(final File archive, final FileChannel channel, final Header header, final Path target) throws IOException {
+    Files.createDirectories(target);
+
+    List<Entry> files = new ArrayList<>();
+    List<Entry> directories = new ArrayList<>();
+    for (Entry entry : header.entries) {
+      Path entryPath = resolveEntry(archive, target, entry);
+      if (entry.type == DIRECTORY) {
+        Files.createDirectories(entryPath);
+        directories.add(entry);
+      } else {
+        Files.createDirectories(entryPath.getParent());
+        files.add(entry);
+      }
+    }
+
+    int threads = Math.min(PARALLELISM, files.size());
+    if (threads <= 1) {
+      for (Entry entry : files) {
+        restoreFile(archive, channel, header, entry, target);
+      }
+    } else {
+      // Largest entries first so one large entry does not finish last on an otherwise idle pool
+      files.sort((first, second) -> Long.compare(second.size, first.size));
+      ExecutorService executor = Executors.newFixedThreadPool(threads);
+      try {
+        List<Future<?>> futures = new ArrayList<>(files.size());
+        for (final Entry entry : files) {
+          futures.add(executor.submit(() -> {
+            restoreFile(archive, channel, header, entry, target);
+            return null;
+          }));
+        }
+        for (Future<?> future : futures) {
+          future.get();
+        }
+      } catch (InterruptedException interruptedEx) {
+        Thread.currentThread().interrupt();
+        throw new IOException(String.format("Interrupted while importing the '%s' fixture archive", archive), interruptedEx);
+      } catch (ExecutionException executionEx) {
+        Throwable cause = executionEx.getCause();
+        if (cause instanceof IOException) {
+          throw (IOException) cause;
+        } else if (cause instanceof RuntimeException) {
+          throw (RuntimeException) cause;
+        }
+        throw new IOException(String.format("Failed to import the '%s' fixture archive", archive), cause);
+      } finally {
+        executor.shutdownNow();
+      }
+    }
+
+    // Directory times and modes last - writing the files changes the directory modification times
+    for (int i = directories.size() - 1; i >= 0; --i) {
+      Entry entry = directories.get(i);
+      applyAttributes(resolveEntry(archive, target, entry), entry);
+    }
+  }
+
+  static void restoreFile(File archive, FileChannel channel, Header header, Entry entry, Path target) throws IOException {
+    Path entryPath = resolveEntry(archive, target, entry);
+    try (FileChannel output = FileChannel.open(entryPath, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+      long start = header.contentOffset + entry.offset;
+      long position = 0;
+      // The position-based transferTo does not move the shared channel position, so the threads do not interfere
+      while (position < entry.size) {
+        long transferred = channel.transferTo(start + position, entry.size - position, output);
+        if (transferred <= 0) {
+          throw new IOException(String.format("The '%s' fixture archive is truncated - the content of the '%s' entry is incomplete", archive, entry.name));
+        }
+        position += transferred;
+      }
+    }
+    applyAttributes(entryPath, entry);
+  }
+
+  static void applyAttributes(Path path, Entry entry) throws IOException {
+    if (entry.mode >= 0) {
+      PosixFileAttributeView view = Files.getFileAttributeView(path, PosixFileAttributeView.class);
+      if (view != null) {
+        Set<PosixFilePermission> permissions = EnumSet.noneOf(PosixFilePermission.class);
+        for (int bit = 0; bit < MODE_BITS.length; ++bit) {
+          if ((entry.mode & (1 << bit)) != 0) {
+            permissions.add(MODE_BITS[bit]);
+          }
+        }
+        view.setPermissions(permissions);
+      }
+    }
+    Files.setLastModifiedTime(path, FileTime.fromMillis(entry.lastModified));
+  }
+
+  static short mode(Path path, boolean posix) throws IOException {
+    if (!posix) {
+      return -1;
+    }
+    Set<PosixFilePermission> permissions = Files.getPosixFilePermissions(path);
+    int mode = 0;
+    for (int bit = 0; bit < MODE_BITS.length; ++bit) {
+      if (permissions.contains(MODE_BITS[bit])) {
+        mode |= 1 << bit;
+      }
+    }
+    return (short) mode;
+  }
+
+  static String name(Path root, Path path) {
+    return root.relativize(path).toString().replace(File.separatorChar, '/');
+  }
+
+  /**
+   * Resolve the path of an entry, rejecting entries that would be written outside of the target directory.
+   */
+  static Path resolveEntry(File archive, Path target, Entry entry) throws IOException {
+    Path entryPath = target.resolve(entry.name).normalize();
+    if (!entryPath.startsWith(target) || entryPath.equals(target)) {
+      throw new IOException(String.format("The '%s' entry in the '%s' fixture archive is outside of the target directory", entry.name, archive));
+    }
+    return entryPath;
+  }
+
+  static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+  }
+
+  static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+    while (buffer.hasRemaining()) {
+      int read = channel.read(buffer, position + buffer.position());
+      if (read < 0) {
+        break;
+      }
+    }
+  }
+
+  static final class Header {
+    final List<Entry> entries;
+    final long contentOffset;
+
+    Header(List<Entry> entries, long contentOffset) {
+      this.entries = entries;
+      this.contentOffset = contentOffset;
+    }
+  }
+
+  static final class Entry {
+    final String name;
+    final byte type;
+    final short mode;
+    final long lastModified;
+    final long size;
+    final long offset;
+
+    Entry(String name, byte type, short mode, long lastModified, long size, long offset) {
+      this.name = name;
+      this.type = type;
+      this.mode = mode;
+      this.lastModified = lastModified;
+      this.size = size;
+      this.offset = offset;
+    }
+  }
+}
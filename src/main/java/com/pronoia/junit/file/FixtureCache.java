@@ -0,0 +1,553 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.pronoia.junit.file;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A fixture cache that persists across test runs and is shared by concurrent forks.
+ *
+ * A fixture is identified by a {@link Key} - a digest of its source files and generator parameters.  The first request
+ * for a key builds the fixture into the cache; later requests, from this or any other JVM, copy (or link) the cached
+ * tree into the target directory.
+ *
+ * Each entry has a lock file.  Building or evicting an entry holds an exclusive {@link FileLock} on it, and restoring
+ * an entry holds a shared lock, so forks never see a partially built or partially evicted entry.  When the total size
+ * of the cache exceeds the limit, the least recently used entries that are not locked are evicted.
+ */
+public final class FixtureCache {
+  public static final String DEFAULT_CACHE_DIRECTORY = "target/.file-junit-cache";
+  public static final long DEFAULT_MAX_BYTES = 1024L * 1024 * 1024;
+
+  static final Logger LOG = LoggerFactory.getLogger(FixtureCache.class);
+
+  static final String DIGEST_ALGORITHM = "SHA-256";
+  static final String ENTRIES_DIRECTORY = "entries";
+  static final String USED_SUFFIX = ".used";
+  static final String LOCK_SUFFIX = ".lock";
+  static final String EVICTION_LOCK = ".eviction.lock";
+  static final int MAX_MATERIALIZE_ATTEMPTS = 5;
+
+  static final FixtureCache DEFAULT = new FixtureCache(new File(DEFAULT_CACHE_DIRECTORY), DEFAULT_MAX_BYTES);
+
+  // FileLocks are held per JVM, so threads sharing a lock file must also be serialized within the JVM
+  static final Map<String, ReentrantLock> JVM_LOCKS = new ConcurrentHashMap<>();
+
+  // Avoid hashing the same unchanged source file for every test
+  static final Map<String, byte[]> FILE_DIGESTS = new ConcurrentHashMap<>();
+
+  /**
+   * How a cached fixture is materialized in the target directory.
+   */
+  public enum Materialization {
+    /**
+     * Copy every file - the target can be modified freely.
+     */
+    COPY,
+    /**
+     * Hard link every file, falling back to a copy where links are not supported.  Writing to a linked file
+     * modifies the cache, so only use links for fixtures that tests do not modify.
+     */
+    LINK
+  }
+
+  /**
+   * Identifies a fixture by the content of its sources and the parameters of its generator.
+   */
+  public static final class Key {
+    final String name;
+    final List<File> sources = new ArrayList<>();
+    final Map<String, String> parameters = new TreeMap<>();
+
+    /**
+     * Create a key.
+     *
+     * @param name a readable name for the fixture, used as a prefix for the cache entry
+     */
+    public Key(String name) {
+      if (name == null || name.isEmpty()) {
+        throw new IllegalArgumentException("The name argument for the fixture cache key cannot be null or empty");
+      }
+      this.name = name.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+
+    /**
+     * Add source files or directories - the key changes when the name or content of any file changes.
+     *
+     * @param sourceFiles the files or directories
+     *
+     * @return this key
+     */
+    public Key source(File... sourceFiles) {
+      for (File sourceFile : sourceFiles) {
+        if (sourceFile == null || !sourceFile.exists()) {
+          throw new IllegalArgumentException(String.format("Failed to add the '%s' source to the fixture cache key - the source does not exist", sourceFile));
+        }
+        sources.add(sourceFile);
+      }
+      return this;
+    }
+
+    /**
+     * Add a generator parameter.
+     *
+     * @param parameterName the name of the parameter
+     * @param value         the value of the parameter
+     *
+     * @return this key
+     */
+    public Key parameter(String parameterName, Object value) {
+      if (parameterName == null || parameterName.isEmpty()) {
+        throw new IllegalArgumentException("The parameter name argument for the fixture cache key cannot be null or empty");
+      }
+      parameters.put(parameterName, String.valueOf(value));
+      return this;
+    }
+
+    /**
+     * Compute the name of the cache entry for the key.
+     *
+     * @return the name followed by the hex digest of the sources and parameters
+     */
+    public String toEntryName() {
+      MessageDigest messageDigest = newMessageDigest();
+      for (File source : sources) {
+        update(messageDigest, "source");
+        update(messageDigest, source.getName());
+
+        // Directory listing order is not specified, so the entries are digested in name order
+        final Path root = source.toPath();
+        final Map<String, Path> entries = new TreeMap<>();
+        try {
+          Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attributes) {
+              entries.put(root.relativize(dir).toString().replace(File.separatorChar, '/') + "/", dir);
+              return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+              entries.put(root.relativize(file).toString().replace(File.separatorChar, '/'), file);
+              return FileVisitResult.CONTINUE;
+            }
+          });
+
+          for (Map.Entry<String, Path> entry : entries.entrySet()) {
+            update(messageDigest, entry.getKey());
+            if (!entry.getKey().endsWith("/")) {
+              messageDigest.update(digestFile(entry.getValue().toFile()));
+            }
+          }
+        } catch (IOException digestEx) {
+          throw new IllegalStateException(String.format("Failed to compute the fixture cache key for the '%s' source", source), digestEx);
+        }
+      }
+      for (Map.Entry<String, String> parameter : parameters.entrySet()) {
+        update(messageDigest, "parameter");
+        update(messageDigest, parameter.getKey());
+        update(messageDigest, parameter.getValue());
+      }
+
+      return name + "-" + toHex(messageDigest.digest());
+    }
+
+    @Override
+    public String toString() {
+      return name + sources + parameters;
+    }
+  }
+
+  final File cacheDirectory;
+  final File entriesDirectory;
+  final long maxBytes;
+
+  /**
+   * Create a fixture cache.
+   *
+   * @param cacheDirectory the directory holding the cache
+   * @param maxBytes       the total size of the cached fixtures above which least recently used entries are evicted
+   */
+  public FixtureCache(File cacheDirectory, long maxBytes) {
+    if (cacheDirectory == null) {
+      throw new IllegalArgumentException("The cache directory argument for the fixture cache cannot be null");
+    } else if (maxBytes <= 0) {
+      throw new IllegalArgumentException(String.format("Maximum bytes argument %d must be greater than zero", maxBytes));
+    }
+
+    this.cacheDirectory = cacheDirectory;
+    this.entriesDirectory = new File(cacheDirectory, ENTRIES_DIRECTORY);
+    this.maxBytes = maxBytes;
+  }
+
+  /**
+   * Get the cache in the default location, shared by every test in the build.
+   *
+   * @return the default cache
+   */
+  public static FixtureCache getDefault() {
+    return DEFAULT;
+  }
+
+  public File getCacheDirectory() {
+    return cacheDirectory;
+  }
+
+  public long getMaxBytes() {
+    return maxBytes;
+  }
+
+  /**
+   * Copy the fixture for a key into a directory, building and caching the fixture first if necessary.
+   *
+   * @param key             the fixture key
+   * @param builder         builds the fixture when it is not cached
+   * @param targetDirectory the directory to copy the fixture into
+   */
+  public void materialize(Key key, SharedTestDirectory.FixtureBuilder builder, File targetDirectory) {
+    materialize(key, builder, targetDirectory, Materialization.COPY);
+  }
+
+  /**
+   * Materialize the fixture for a key in a directory, building and caching the fixture first if necessary.
+   *
+   * @param key             the fixture key
+   * @param builder         builds the fixture when it is not cached
+   * @param targetDirectory the directory to materialize the fixture in
+   * @param materialization how the cached files are materialized
+   */
+  public void materialize(Key key, SharedTestDirectory.FixtureBuilder builder, File targetDirectory, Materialization materialization) {
+    if (key == null) {
+      throw new IllegalArgumentException("Failed to materialize a cached fixture - the key argument cannot be null");
+    } else if (builder == null) {
+      throw new IllegalArgumentException(String.format("Failed to materialize the '%s' cached fixture - the builder argument cannot be null", key.name));
+    } else if (targetDirectory == null) {
+      throw new IllegalArgumentException(String.format("Failed to materialize the '%s' cached fixture - the target directory argument cannot be null", key.name));
+    }
+
+    String entryName = key.toEntryName();
+    File entry = new File(entriesDirectory, entryName);
+    boolean built = false;
+
+    ReentrantLock jvmLock = jvmLock(entryName);
+    jvmLock.lock();
+    try {
+      Files.createDirectories(entriesDirectory.toPath());
+      try (FileChannel lockChannel = openLockChannel(entryName)) {
+        // The entry can be evicted by another fork between releasing the build lock and taking the read lock
+        for (int attempt = 1; ; ++attempt) {
+          if (!isComplete(entryName)) {
+            FileLock buildLock = lockChannel.lock();
+            try {
+              // Another fork may have built the entry while this one waited for the lock
+              if (!isComplete(entryName)) {
+                build(key, entryName, builder);
+                built = true;
+              }
+            } finally {
+              buildLock.release();
+            }
+          }
+
+          FileLock readLock = lockChannel.lock(0, Long.MAX_VALUE, true);
+          try {
+            if (isComplete(entryName)) {
+              Files.setLastModifiedTime(usedFile(entryName).toPath(), FileTime.fromMillis(System.currentTimeMillis()));
+              copyTree(entry.toPath(), targetDirectory.toPath(), materialization);
+              break;
+            } else if (attempt >= MAX_MATERIALIZE_ATTEMPTS) {
+              throw new IllegalStateException(String.format("Failed to materialize the '%s' cached fixture - the cache entry was evicted %d times", key.name, attempt));
+            }
+          } finally {
+            readLock.release();
+          }
+        }
+      }
+    } catch (IOException cacheEx) {
+      throw new IllegalStateException(String.format("Failed to materialize the '%s' cached fixture in the '%s' directory", key.name, targetDirectory), cacheEx);
+    } finally {
+      jvmLock.unlock();
+    }
+
+    if (built) {
+      evict(entryName);
+    }
+  }
+
+  /**
+   * Get the total size of the cached fixtures.
+   *
+   * @return the total size in bytes
+   */
+  public long getTotalBytes() {
+    long total = 0;
+    for (CachedEntry cachedEntry : listEntries()) {
+      total += cachedEntry.size;
+    }
+    return total;
+  }
+
+  /**
+   * Determine if the fixture for a key is cached.
+   *
+   * @param key the fixture key
+   *
+   * @return true if the fixture is cached
+   */
+  public boolean contains(Key key) {
+    return isComplete(key.toEntryName());
+  }
+
+  /**
+   * Evict least recently used entries until the cache is within its size limit.
+   *
+   * @param keepEntryName an entry that must not be evicted, or null
+   */
+  void evict(String keepEntryName) {
+    List<CachedEntry> entries = listEntries();
+    long total = 0;
+    for (CachedEntry cachedEntry : entries) {
+      total += cachedEntry.size;
+    }
+    if (total <= maxBytes) {
+      return;
+    }
+
+    ReentrantLock evictionJvmLock = jvmLock(EVICTION_LOCK);
+    if (!evictionJvmLock.tryLock()) {
+      return;
+    }
+    try (FileChannel evictionChannel = FileChannel.open(new File(cacheDirectory, EVICTION_LOCK).toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+         FileLock evictionLock = evictionChannel.tryLock()) {
+      if (evictionLock == null) {
+        // Another fork is already evicting
+        return;
+      }
+
+      entries.sort((first, second) -> Long.compare(first.lastUsed, second.lastUsed));
+      for (CachedEntry cachedEntry : entries) {
+        if (total <= maxBytes) {
+          break;
+        } else if (cachedEntry.name.equals(keepEntryName)) {
+          continue;
+        }
+        if (evictEntry(cachedEntry.name)) {
+          total -= cachedEntry.size;
+          LOG.info("Evicted {} bytes for fixture {} from cache {}", cachedEntry.size, cachedEntry.name, cacheDirectory);
+        }
+      }
+    } catch (IOException evictEx) {
+      LOG.warn("Failed to evict entries from fixture cache {}", cacheDirectory, evictEx);
+    } finally {
+      evictionJvmLock.unlock();
+    }
+  }
+
+  boolean evictEntry(String entryName) throws IOException {
+    ReentrantLock jvmLock = jvmLock(entryName);
+    if (!jvmLock.tryLock()) {
+      return false;
+    }
+    try (FileChannel lockChannel = openLockChannel(entryName);
+         FileLock entryLock = lockChannel.tryLock()) {
+      if (entryLock == null) {
+        // The entry is being built or restored by another fork
+        return false;
+      }
+      Files.deleteIfExists(usedFile(entryName).toPath());
+      FileUtils.deleteDirectory(new File(entriesDirectory, entryName));
+      return true;
+    } finally {
+      jvmLock.unlock();
+    }
+  }
+
+  void build(Key key, String entryName, SharedTestDirectory.FixtureBuilder builder) throws IOException {
+    File partial = new File(entriesDirectory, entryName + ".partial-" + UUID.randomUUID());
+    File entry = new File(entriesDirectory, entryName);
+    try {
+      TestDirectory fixture = new TestDirectory(partial);
+      fixture.initialize();
+      try {
+        builder.build(fixture);
+      } catch (IOException | RuntimeException buildEx) {
+        throw buildEx;
+      } catch (Exception buildEx) {
+        throw new IllegalStateException(String.format("Failed to build the '%s' cached fixture", key.name), buildEx);
+      }
+
+      // A previous run may have been killed after the entry was moved into place but before it was marked as used
+      if (entry.exists()) {
+        FileUtils.deleteDirectory(entry);
+      }
+      Files.move(partial.toPath(), entry.toPath(), StandardCopyOption.ATOMIC_MOVE);
+
+      // The used file marks the entry as complete and records its size
+      Files.write(usedFile(entryName).toPath(), Long.toString(FileUtils.sizeOfDirectory(entry)).getBytes(StandardCharsets.UTF_8));
+      LOG.debug("Cached fixture {} in {}", key, entry);
+    } finally {
+      if (partial.exists()) {
+        FileUtils.deleteQuietly(partial);
+      }
+    }
+  }
+
+  boolean isComplete(String entryName) {
+    return usedFile(entryName).isFile() && new File(entriesDirectory, entryName).isDirectory();
+  }
+
+  File usedFile(String entryName) {
+    return new File(entriesDirectory, entryName + USED_SUFFIX);
+  }
+
+  FileChannel openLockChannel(String entryName) throws IOException {
+    // Shared locks need a readable channel
+    return FileChannel.open(new File(entriesDirectory, entryName + LOCK_SUFFIX).toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+  }
+
+  ReentrantLock jvmLock(String entryName) {
+    return JVM_LOCKS.computeIfAbsent(new File(cacheDirectory, entryName).getAbsolutePath(), lockName -> new ReentrantLock());
+  }
+
+  List<CachedEntry> listEntries() {
+    List<CachedEntry> entries = new ArrayList<>();
+    File[] usedFiles = entriesDirectory.listFiles((dir, fileName) -> fileName.endsWith(USED_SUFFIX));
+    if (usedFiles != null) {
+      for (File usedFile : usedFiles) {
+        try {
+          long size = Long.parseLong(new String(Files.readAllBytes(usedFile.toPath()), StandardCharsets.UTF_8).trim());
+          String name = usedFile.getName().substring(0, usedFile.getName().length() - USED_SUFFIX.length());
+          entries.add(new CachedEntry(name, size, usedFile.lastModified()));
+        } catch (IOException | NumberFormatException readEx) {
+          // The entry is being written or evicted
+          LOG.debug("Ignoring unreadable fixture cache entry {}", usedFile, readEx);
+        }
+      }
+    }
+    return entries;
+  }
+
+  static void copyTree(final Path source, final Path target, final Materialization materialization) throws IOException {
+    Files.walkFileTree(source, new SimpleFileVisitor<Path>() {
+      @Override
+      public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attributes) throws IOException {
+        Files.createDirectories(target.resolve(source.relativize(dir).toString()));
+        return FileVisitResult.CONTINUE;
+      }
+
+      @Override
+      public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) throws IOException {
+        Path targetFile = target.resolve(source.relativize(file).toString());
+        if (materialization == Materialization.LINK) {
+          try {
+            Files.deleteIfExists(targetFile);
+            Files.createLink(targetFile, file);
+            return FileVisitResult.CONTINUE;
+          } catch (IOException | UnsupportedOperationException linkEx) {
+            LOG.debug("Failed to link {} to {} - copying instead", targetFile, file, linkEx);
+          }
+        }
+        Files.copy(file, targetFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.COPY_ATTRIBUTES);
+        return FileVisitResult.CONTINUE;
+      }
+    });
+  }
+
+  static byte[] digestFile(File file) throws IOException {
+    String key = file.getCanonicalPath() + '|' + file.length() + '|' + file.lastModified();
+    byte[] digest = FILE_DIGESTS.get(key);
+    if (digest == null) {
+      MessageDigest messageDigest = newMessageDigest();
+      try (InputStream input = Files.newInputStream(file.toPath())) {
+        byte[] buffer = new byte[64 * 1024];
+        for (int read = input.read(buffer); read >= 0; read = input.read(buffer)) {
+          messageDigest.update(buffer, 0, read);
+        }
+      }
+      digest = messageDigest.digest();
+      FILE_DIGESTS.put(key, digest);
+    }
+    return digest;
+  }
+
+  static MessageDigest newMessageDigest() {
+    try {
+      return MessageDigest.getInstance(DIGEST_ALGORITHM);
+    } catch (NoSuchAlgorithmException algorithmEx) {
+      throw new IllegalStateException(String.format("The %s digest algorithm is not available", DIGEST_ALGORITHM), algorithmEx);
+    }
+  }
+
+  static void update(MessageDigest messageDigest, String value) {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    messageDigest.update((byte) (bytes.length >>> 24));
+    messageDigest.update((byte) (bytes.length >>> 16));
+    messageDigest.update((byte) (bytes.length >>> 8));
+    messageDigest.update((byte) bytes.length);
+    messageDigest.update(bytes);
+  }
+
+  static String toHex(byte[] bytes) {
+    StringBuilder hex = new StringBuilder(bytes.length * 2);
+    for (byte value : bytes) {
+      hex.append(Character.forDigit((value >> 4) & 0xF, 16)).append(Character.forDigit(value & 0xF, 16));
+    }
+    return hex.toString();
+  }
+
+  /**
+   * The size and last use of a cache entry.
+   */
+  static final class CachedEntry {
+    final String name;
+    final long size;
+    final long lastUsed;
+
+    CachedEntry(String name, long size, long lastUsed) {
+      this.name = name;
+      this.size = size;
+      this.lastUsed = lastUsed;
+    }
+  }
+}
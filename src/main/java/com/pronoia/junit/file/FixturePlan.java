@@ -0,0 +1,307 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.pronoia.junit.file;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * A description of the final contents of a fixture directory that can be applied in one batch.
+ *
+ * Operations added to a plan are folded as they are added - a file that is created and later deleted is never
+ * written, and deleting a directory removes everything planned beneath it.  When the plan is applied, all the
+ * directories are created first and the files are then written in parallel.
+ */
+public final class FixturePlan {
+  public static final int DEFAULT_PARALLELISM = Runtime.getRuntime().availableProcessors();
+
+  final TreeSet<String> directories = new TreeSet<>();
+  final Map<String, PlannedFile> files = new LinkedHashMap<>();
+  int parallelism = DEFAULT_PARALLELISM;
+  Charset charset = Charset.defaultCharset();
+
+  /**
+   * Plan a directory, including any missing parent directories.
+   *
+   * @param name the name of the directory, relative to the fixture directory
+   *
+   * @return this plan
+   */
+  public FixturePlan directory(String name) {
+    String key = key(name, "directory");
+    files.remove(key);
+    directories.add(key);
+    return this;
+  }
+
+  /**
+   * Plan an empty file.
+   *
+   * @param name the name of the file, relative to the fixture directory
+   *
+   * @return this plan
+   */
+  public FixturePlan file(String name) {
+    return file(name, (String) null);
+  }
+
+  /**
+   * Plan a file with a body.
+   *
+   * @param name the name of the file, relative to the fixture directory
+   * @param body the body of the file
+   *
+   * @return this plan
+   */
+  public FixturePlan file(String name, String body) {
+    String key = key(name, "file");
+    directories.remove(key);
+    files.put(key, new PlannedFile(body, null));
+    return this;
+  }
+
+  /**
+   * Plan a copy of an existing file.
+   *
+   * @param sourceFile the file to copy when the plan is applied
+   * @param name       the name of the new file, relative to the fixture directory
+   *
+   * @return this plan
+   */
+  public FixturePlan copy(File sourceFile, String name) {
+    if (sourceFile == null) {
+      throw new IllegalArgumentException(String.format("Failed to plan a copy of a source file as the '%s' file - the source file File object argument cannot be null", name));
+    }
+
+    String key = key(name, "file");
+    directories.remove(key);
+    files.put(key, new PlannedFile(null, sourceFile));
+    return this;
+  }
+
+  /**
+   * Remove a planned file or directory, and everything planned beneath it.
+   *
+   * @param name the name of the file or directory, relative to the fixture directory
+   *
+   * @return this plan
+   */
+  public FixturePlan delete(String name) {
+    String key = key(name, "file or directory");
+    String prefix = key + "/";
+
+    files.keySet().removeIf(planned -> planned.equals(key) || planned.startsWith(prefix));
+    directories.removeIf(planned -> planned.equals(key) || planned.startsWith(prefix));
+    return this;
+  }
+
+  /**
+   * Set the number of threads used to write files.
+   *
+   * @param parallelism the number of threads - 1 writes the files on the calling thread
+   *
+   * @return this plan
+   */
+  public FixturePlan parallelism(int parallelism) {
+    if (parallelism < 1) {
+      throw new IllegalArgumentException(String.format("Parallelism argument %d must be greater than zero", parallelism));
+    }
+    this.parallelism = parallelism;
+    return this;
+  }
+
+  /**
+   * Set the charset used to encode file bodies - the platform default charset is used if this is not called.
+   *
+   * @param charset the charset
+   *
+   * @return this plan
+   */
+  public FixturePlan charset(Charset charset) {
+    if (charset == null) {
+      throw new IllegalArgumentException("Charset argument cannot be null");
+    }
+    this.charset = charset;
+    return this;
+  }
+
+  public int getDirectoryCount() {
+    return directories.size();
+  }
+
+  public int getFileCount() {
+    return files.size();
+  }
+
+  /**
+   * Apply the plan to a {@link TestDirectory}.
+   *
+   * @param testDirectory the test directory
+   */
+  public void apply(TestDirectory testDirectory) {
+    if (testDirectory == null) {
+      throw new IllegalArgumentException("Failed to apply the fixture plan - the TestDirectory argument cannot be null");
+    }
+    apply(testDirectory.toFile());
+  }
+
+  /**
+   * Apply the plan to a directory.
+   *
+   * Existing files are replaced; nothing that is not in the plan is removed.
+   *
+   * @param targetDirectory the directory
+   */
+  public void apply(File targetDirectory) {
+    if (targetDirectory == null) {
+      throw new IllegalArgumentException("Failed to apply the fixture plan - the target directory File argument cannot be null");
+    }
+
+    // Every parent must exist before the files are written in parallel
+    TreeSet<String> parents = new TreeSet<>(directories);
+    for (String name : files.keySet()) {
+      int separator = name.lastIndexOf('/');
+      if (separator > 0) {
+        parents.add(name.substring(0, separator));
+      }
+    }
+    parents.add("");
+
+    String previous = null;
+    for (Iterator<String> iterator = parents.descendingIterator(); iterator.hasNext(); ) {
+      String name = iterator.next();
+      // mkdirs() on the deepest directory creates its parents, so skip directories that are a prefix of the previous one
+      if (previous != null && previous.startsWith(name.isEmpty() ? "" : name + "/")) {
+        continue;
+      }
+      File directory = name.isEmpty() ? targetDirectory : new File(targetDirectory, name);
+      if (!directory.isDirectory() && !directory.mkdirs()) {
+        throw new IllegalStateException(String.format("Failed to create the '%s' directory for the fixture plan in the '%s' directory - File.mkdirs() returned false", name, targetDirectory));
+      }
+      previous = name;
+    }
+
+    List<Map.Entry<String, PlannedFile>> pending = new ArrayList<>(files.entrySet());
+    int threads = Math.min(parallelism, pending.size());
+    if (threads <= 1) {
+      for (Map.Entry<String, PlannedFile> entry : pending) {
+        write(targetDirectory, entry.getKey(), entry.getValue());
+      }
+      return;
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<?>> futures = new ArrayList<>(threads);
+      int batchSize = (pending.size() + threads - 1) / threads;
+      for (int start = 0; start < pending.size(); start += batchSize) {
+        final List<Map.Entry<String, PlannedFile>> batch = pending.subList(start, Math.min(start + batchSize, pending.size()));
+        futures.add(executor.submit(() -> {
+          for (Map.Entry<String, PlannedFile> entry : batch) {
+            write(targetDirectory, entry.getKey(), entry.getValue());
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } catch (InterruptedException interruptedEx) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(String.format("Interrupted while applying the fixture plan to the '%s' directory", targetDirectory), interruptedEx);
+    } catch (ExecutionException executionEx) {
+      Throwable cause = executionEx.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new IllegalStateException(String.format("Failed to apply the fixture plan to the '%s' directory", targetDirectory), cause);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  void write(File targetDirectory, String name, PlannedFile plannedFile) {
+    File file = new File(targetDirectory, name);
+    try {
+      if (plannedFile.source != null) {
+        Files.copy(plannedFile.source.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+      } else {
+        try (OutputStream output = Files.newOutputStream(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+          if (plannedFile.body != null) {
+            output.write(plannedFile.encode(charset));
+          }
+        }
+      }
+    } catch (IOException writeEx) {
+      throw new IllegalStateException(String.format("Failed to create the '%s' file for the fixture plan in the '%s' directory", name, targetDirectory), writeEx);
+    }
+  }
+
+  static String key(String name, String type) {
+    if (name == null || name.isEmpty()) {
+      throw new IllegalArgumentException(String.format("Failed to plan a %s - the name argument cannot be null or empty", type));
+    }
+    return OverlayTestDirectory.key(name);
+  }
+
+  static final class PlannedFile {
+    final String body;
+    final File source;
+
+    // The encoded body is kept so applying the plan again does not encode it again
+    volatile Encoded encoded;
+
+    PlannedFile(String body, File source) {
+      this.body = body;
+      this.source = source;
+    }
+
+    byte[] encode(Charset charset) {
+      Encoded current = encoded;
+      if (current == null || !current.charset.equals(charset)) {
+        current = new Encoded(charset, body.getBytes(charset));
+        encoded = current;
+      }
+      return current.bytes;
+    }
+  }
+
+  static final class Encoded {
+    final Charset charset;
+    final byte[] bytes;
+
+    Encoded(Charset charset, byte[] bytes) {
+      this.charset = charset;
+      this.bytes = bytes;
+    }
+  }
+}
@@ -0,0 +1,167 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.pronoia.junit.file;
+
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * A builder for nested fixture directories that compiles to a {@link FixturePlan}.
+ *
+ * The builder keeps a current directory - {@link #dir(String)} creates a child directory and enters it, and
+ * {@link #up()} returns to the parent.  Files and copies are planned in the current directory.  Nothing touches the
+ * filesystem until {@link #done()} applies the plan, so all the directories are created first and the files are then
+ * written in parallel.
+ *
+ * <pre>
+ *   testDirectory.tree()
+ *       .dir("in").file("a.txt", "body").copy(sourceFile).up()
+ *       .dir("out")
+ *       .done();
+ * </pre>
+ *
+ * A tree that is not bound to a {@link TestDirectory} can be compiled once with {@link #toPlan()} and the plan applied
+ * in every test.
+ */
+public final class FixtureTree {
+  final TestDirectory testDirectory;
+  final FixturePlan plan = new FixturePlan();
+  final Deque<String> path = new ArrayDeque<>();
+
+  /**
+   * Create a {@link FixtureTree} that is not bound to a {@link TestDirectory}.
+   */
+  public FixtureTree() {
+    this(null);
+  }
+
+  FixtureTree(TestDirectory testDirectory) {
+    this.testDirectory = testDirectory;
+  }
+
+  /**
+   * Plan a child directory of the current directory and make it the current directory.
+   *
+   * @param name the name of the directory, relative to the current directory
+   *
+   * @return this tree
+   */
+  public FixtureTree dir(String name) {
+    String directoryName = resolve(name, "directory");
+    plan.directory(directoryName);
+    path.push(directoryName);
+    return this;
+  }
+
+  /**
+   * Make the parent of the current directory the current directory.
+   *
+   * @return this tree
+   */
+  public FixtureTree up() {
+    if (path.isEmpty()) {
+      throw new IllegalStateException("Failed to return to the parent directory in the fixture tree - the current directory is the root of the tree");
+    }
+    path.pop();
+    return this;
+  }
+
+  /**
+   * Plan an empty file in the current directory.
+   *
+   * @param name the name of the file, relative to the current directory
+   *
+   * @return this tree
+   */
+  public FixtureTree file(String name) {
+    plan.file(resolve(name, "file"));
+    return this;
+  }
+
+  /**
+   * Plan a file with a body in the current directory.
+   *
+   * @param name the name of the file, relative to the current directory
+   * @param body the body of the file
+   *
+   * @return this tree
+   */
+  public FixtureTree file(String name, String body) {
+    plan.file(resolve(name, "file"), body);
+    return this;
+  }
+
+  /**
+   * Plan a copy of an existing file in the current directory, using the name of the source file.
+   *
+   * @param sourceFile the file to copy
+   *
+   * @return this tree
+   */
+  public FixtureTree copy(File sourceFile) {
+    if (sourceFile == null) {
+      throw new IllegalArgumentException("Failed to plan a copy of a source file in the fixture tree - the source file File object argument cannot be null");
+    }
+    return copy(sourceFile, sourceFile.getName());
+  }
+
+  /**
+   * Plan a copy of an existing file in the current directory.
+   *
+   * @param sourceFile the file to copy
+   * @param name       the name of the new file, relative to the current directory
+   *
+   * @return this tree
+   */
+  public FixtureTree copy(File sourceFile, String name) {
+    plan.copy(sourceFile, resolve(name, "file"));
+    return this;
+  }
+
+  /**
+   * Get the plan compiled from this tree.
+   *
+   * The plan is live - entries added to the tree later are added to the plan - and can be applied any number of times.
+   *
+   * @return the plan
+   */
+  public FixturePlan toPlan() {
+    return plan;
+  }
+
+  /**
+   * Materialize the tree in the {@link TestDirectory} it was created from.
+   *
+   * @return the test directory
+   */
+  public TestDirectory done() {
+    if (testDirectory == null) {
+      throw new IllegalStateException("Failed to materialize the fixture tree - the tree is not bound to a TestDirectory; apply the plan from toPlan() instead");
+    }
+    plan.apply(testDirectory);
+    return testDirectory;
+  }
+
+  String resolve(String name, String type) {
+    if (name == null || name.isEmpty()) {
+      throw new IllegalArgumentException(String.format("Failed to plan a %s in the fixture tree - the name argument cannot be null or empty", type));
+    }
+    return path.isEmpty() ? name : path.peek() + "/" + name;
+  }
+}
@@ -0,0 +1,380 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.pronoia.junit.file;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A journal of the mutations made through a {@link TestDirectory}.
+ *
+ * Each operation is appended to the journal file as soon as it completes, so the journal survives a test that hangs or
+ * kills the JVM.  The file starts with a header line and contains one tab-separated line per operation:
+ * <pre>
+ * # started &lt;ISO-8601 instant&gt; &lt;test name&gt;
+ * &lt;start offset micros&gt;	&lt;duration micros&gt;	&lt;operation&gt;	&lt;name&gt;	&lt;argument&gt;
+ * </pre>
+ * The argument is the body for {@link Operation#NEW_FILE_WITH_BODY} and the absolute source path for
+ * {@link Operation#COPY_FILE}.  Tabs, line terminators and backslashes are escaped.
+ *
+ * A journal can be read back with {@link #read(File)} and replayed into another directory with
+ * {@link #toPlan()} or {@link #replay(File)}.
+ */
+public final class OperationJournal implements Closeable {
+  public static final String HEADER_PREFIX = "# started ";
+
+  /**
+   * The journaled {@link TestDirectory} operations.
+   */
+  public enum Operation {
+    NEW_FILE,
+    NEW_FILE_WITH_BODY,
+    COPY_FILE,
+    DELETE_FILE,
+    NEW_DIRECTORY,
+    DELETE_DIRECTORY
+  }
+
+  /**
+   * A single journaled operation.
+   */
+  public static final class Entry {
+    final long startMicros;
+    final long durationMicros;
+    final Operation operation;
+    final String name;
+    final String argument;
+
+    Entry(long startMicros, long durationMicros, Operation operation, String name, String argument) {
+      this.startMicros = startMicros;
+      this.durationMicros = durationMicros;
+      this.operation = operation;
+      this.name = name;
+      this.argument = argument;
+    }
+
+    /**
+     * @return the start of the operation, in microseconds since the journal was started
+     */
+    public long getStartMicros() {
+      return startMicros;
+    }
+
+    public long getDurationMicros() {
+      return durationMicros;
+    }
+
+    public Operation getOperation() {
+      return operation;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    /**
+     * @return the body or source path of the operation, or null if the operation does not have one
+     */
+    public String getArgument() {
+      return argument;
+    }
+
+    @Override
+    public String toString() {
+      return String.format("%d\t%d\t%s\t%s\t%s", startMicros, durationMicros, operation, escape(name), argument == null ? "" : escape(argument));
+    }
+  }
+
+  final File journalFile;
+  final String testName;
+  final Instant started;
+  final long startNanos;
+  final List<Entry> entries = new ArrayList<>();
+  Writer writer;
+
+  OperationJournal(File journalFile, String testName, Instant started, long startNanos) {
+    this.journalFile = journalFile;
+    this.testName = testName;
+    this.started = started;
+    this.startNanos = startNanos;
+  }
+
+  /**
+   * Start a new journal, replacing any existing journal file.
+   *
+   * @param journalFile the journal file
+   * @param testName    the name of the test recorded in the journal header
+   *
+   * @return the new journal
+   */
+  public static OperationJournal start(File journalFile, String testName) {
+    if (journalFile == null) {
+      throw new IllegalArgumentException("Failed to start an operation journal - the journal File argument cannot be null");
+    }
+
+    OperationJournal journal = new OperationJournal(journalFile, testName, Instant.now(), System.nanoTime());
+
+    File parent = journalFile.getAbsoluteFile().getParentFile();
+    if (!parent.isDirectory() && !parent.mkdirs()) {
+      throw new IllegalStateException(String.format("Failed to start the '%s' operation journal - File.mkdirs() returned false for the '%s' directory", journalFile, parent));
+    }
+
+    try {
+      journal.writer = Files.newBufferedWriter(journalFile.toPath(), StandardCharsets.UTF_8,
+          StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+      journal.writer.write(HEADER_PREFIX + journal.started + " " + (testName == null ? "" : escape(testName)));
+      journal.writer.write('\n');
+      journal.writer.flush();
+    } catch (IOException startEx) {
+      journal.close();
+      throw new IllegalStateException(String.format("Failed to start the '%s' operation journal", journalFile), startEx);
+    }
+
+    return journal;
+  }
+
+  /**
+   * Read a journal file.
+   *
+   * @param journalFile the journal file
+   *
+   * @return a closed journal containing the entries in the file
+   */
+  public static OperationJournal read(File journalFile) {
+    if (journalFile == null) {
+      throw new IllegalArgumentException("Failed to read an operation journal - the journal File argument cannot be null");
+    }
+
+    try (BufferedReader reader = Files.newBufferedReader(journalFile.toPath(), StandardCharsets.UTF_8)) {
+      String header = reader.readLine();
+      if (header == null || !header.startsWith(HEADER_PREFIX)) {
+        throw new IllegalStateException(String.format("Failed to read the '%s' operation journal - the file does not start with a journal header", journalFile));
+      }
+
+      int separator = header.indexOf(' ', HEADER_PREFIX.length());
+      String instant = separator < 0 ? header.substring(HEADER_PREFIX.length()) : header.substring(HEADER_PREFIX.length(), separator);
+      String testName = separator < 0 ? null : unescape(header.substring(separator + 1));
+      OperationJournal journal = new OperationJournal(journalFile, testName, Instant.parse(instant), 0);
+
+      int lineNumber = 1;
+      for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+        ++lineNumber;
+        if (line.isEmpty()) {
+          continue;
+        }
+        String[] fields = line.split("\t", -1);
+        if (fields.length != 5) {
+          throw new IllegalStateException(String.format("Failed to read the '%s' operation journal - line %d has %d fields", journalFile, lineNumber, fields.length));
+        }
+        Operation operation = Operation.valueOf(fields[2]);
+        String argument = fields[4].isEmpty() && operation != Operation.NEW_FILE_WITH_BODY ? null : unescape(fields[4]);
+        journal.entries.add(new Entry(Long.parseLong(fields[0]), Long.parseLong(fields[1]), operation, unescape(fields[3]), argument));
+      }
+
+      return journal;
+    } catch (IOException | IllegalArgumentException | DateTimeException readEx) {
+      throw new IllegalStateException(String.format("Failed to read the '%s' operation journal", journalFile), readEx);
+    }
+  }
+
+  /**
+   * Append an operation to the journal.
+   *
+   * @param operation      the operation
+   * @param name           the name of the file or directory, relative to the test directory
+   * @param argument       the body or source path, or null
+   * @param operationStart the value of {@link System#nanoTime()} when the operation started
+   */
+  public synchronized void record(Operation operation, String name, String argument, long operationStart) {
+    long now = System.nanoTime();
+    Entry entry = new Entry(TimeUnit.NANOSECONDS.toMicros(operationStart - startNanos), TimeUnit.NANOSECONDS.toMicros(now - operationStart), operation, name, argument);
+    entries.add(entry);
+
+    if (writer != null) {
+      try {
+        writer.write(entry.toString());
+        writer.write('\n');
+        writer.flush();
+      } catch (IOException writeEx) {
+        throw new IllegalStateException(String.format("Failed to append the %s operation for '%s' to the '%s' operation journal", operation, name, journalFile), writeEx);
+      }
+    }
+  }
+
+  public File getJournalFile() {
+    return journalFile;
+  }
+
+  public String getTestName() {
+    return testName;
+  }
+
+  public Instant getStarted() {
+    return started;
+  }
+
+  /**
+   * @return the journaled operations, in the order they completed
+   */
+  public synchronized List<Entry> getEntries() {
+    return Collections.unmodifiableList(new ArrayList<>(entries));
+  }
+
+  /**
+   * @return the total time spent in journaled operations, in microseconds
+   */
+  public synchronized long getTotalDurationMicros() {
+    long total = 0;
+    for (Entry entry : entries) {
+      total += entry.durationMicros;
+    }
+    return total;
+  }
+
+  /**
+   * Fold the journal into a {@link FixturePlan} that produces the final directory state.
+   *
+   * @return the plan
+   */
+  public synchronized FixturePlan toPlan() {
+    FixturePlan plan = new FixturePlan();
+    for (Entry entry : entries) {
+      switch (entry.operation) {
+        case NEW_FILE:
+          plan.file(entry.name);
+          break;
+        case NEW_FILE_WITH_BODY:
+          plan.file(entry.name, entry.argument);
+          break;
+        case COPY_FILE:
+          plan.copy(new File(entry.argument), entry.name);
+          break;
+        case NEW_DIRECTORY:
+          plan.directory(entry.name);
+          break;
+        case DELETE_FILE:
+        case DELETE_DIRECTORY:
+          plan.delete(entry.name);
+          break;
+        default:
+          throw new IllegalStateException("Unsupported journal operation " + entry.operation);
+      }
+    }
+    return plan;
+  }
+
+  /**
+   * Rebuild the directory state recorded in the journal.
+   *
+   * @param targetDirectory the directory to rebuild the state in
+   */
+  public void replay(File targetDirectory) {
+    toPlan().apply(targetDirectory);
+  }
+
+  @Override
+  public synchronized void close() {
+    if (writer != null) {
+      try {
+        writer.close();
+      } catch (IOException closeEx) {
+        throw new IllegalStateException(String.format("Failed to close the '%s' operation journal", journalFile), closeEx);
+      } finally {
+        writer = null;
+      }
+    }
+  }
+
+  static String escape(String value) {
+    StringBuilder builder = null;
+    for (int i = 0; i < value.length(); ++i) {
+      char c = value.charAt(i);
+      String replacement;
+      switch (c) {
+        case '\\':
+          replacement = "\\\\";
+          break;
+        case '\t':
+          replacement = "\\t";
+          break;
+        case '\n':
+          replacement = "\\n";
+          break;
+        case '\r':
+          replacement = "\\r";
+          break;
+        default:
+          replacement = null;
+      }
+      if (replacement != null && builder == null) {
+        builder = new StringBuilder(value.length() + 16).append(value, 0, i);
+      }
+      if (builder != null) {
+        if (replacement != null) {
+          builder.append(replacement);
+        } else {
+          builder.append(c);
+        }
+      }
+    }
+    return builder == null ? value : builder.toString();
+  }
+
+  static String unescape(String value) {
+    if (value.indexOf('\\') < 0) {
+      return value;
+    }
+
+    StringBuilder builder = new StringBuilder(value.length());
+    for (int i = 0; i < value.length(); ++i) {
+      char c = value.charAt(i);
+      if (c == '\\' && i + 1 < value.length()) {
+        char next = value.charAt(++i);
+        switch (next) {
+          case 't':
+            builder.append('\t');
+            break;
+          case 'n':
+            builder.append('\n');
+            break;
+          case 'r':
+            builder.append('\r');
+            break;
+          default:
+            builder.append(next);
+        }
+      } else {
+        builder.append(c);
+      }
+    }
+    return builder.toString();
+  }
+}
@@ -0,0 +1,350 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.pronoia.junit.file;
+
+import com.pronoia.junit.asserts.file.DirectoryAssert;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.OpenOption;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * A {@link TestDirectory} that presents a writable view over a shared, read-only fixture directory.
+ *
+ * The shared fixture is the lower layer and is never modified.  The test directory itself is the upper layer and
+ * receives every write made through the {@link TestDirectory} API:
+ * <ul>
+ *   <li>Read methods (getFile, readFile, readFileLines, getDirectory, ...) resolve names in the upper layer first and
+ *   fall back to the lower layer.</li>
+ *   <li>{@link #getFileForUpdate(String)} copies a lower layer file into the upper layer the first time it is
+ *   modified (copy-up), so only the files a test changes are ever copied.</li>
+ *   <li>Deleting a file or directory that exists in the lower layer hides it from the view (a whiteout) without
+ *   touching the lower layer.  A directory created again over a whiteout is opaque - the children of the lower layer
+ *   directory stay hidden.</li>
+ *   <li>Streams and channels that append to or update a lower layer file copy it up first.</li>
+ *   <li>{@link #cleanup()} only removes the upper layer.</li>
+ * </ul>
+ *
+ * The contains/not-contains assertions use the merged view.  The count, emptiness and verify() assertions inspect the
+ * upper layer only.
+ */
+public class OverlayTestDirectory extends TestDirectory {
+  final File lowerDirectory;
+  final Set<String> whiteouts = new HashSet<>();
+  final Set<String> opaqueDirectories = new HashSet<>();
+
+  /**
+   * Create an {@link OverlayTestDirectory} with the upper layer in the Maven target directory.
+   *
+   * @param lowerDirectory the shared, read-only lower layer.
+   */
+  public OverlayTestDirectory(File lowerDirectory) {
+    this(DEFAULT_DIRECTORY, lowerDirectory);
+  }
+
+  /**
+   * Create an {@link OverlayTestDirectory} using the specified directory names.
+   *
+   * @param upperDirectoryName the name of the writable upper layer (the test directory).
+   * @param lowerDirectoryName the name of the shared, read-only lower layer.
+   */
+  public OverlayTestDirectory(String upperDirectoryName, String lowerDirectoryName) {
+    this(upperDirectoryName, lowerDirectoryName == null ? null : new File(lowerDirectoryName));
+  }
+
+  /**
+   * Create an {@link OverlayTestDirectory} using the specified directories.
+   *
+   * @param upperDirectoryName the name of the writable upper layer (the test directory).
+   * @param lowerDirectory the shared, read-only lower layer.
+   */
+  public OverlayTestDirectory(String upperDirectoryName, File lowerDirectory) {
+    super(upperDirectoryName);
+
+    if (lowerDirectory == null) {
+      throw new IllegalArgumentException("The lower directory argument for the overlay test directory cannot be null");
+    } else if (lowerDirectory.getAbsoluteFile().equals(directory.getAbsoluteFile())) {
+      throw new IllegalArgumentException(String.format("The lower directory argument '%s' cannot be the same as the upper directory", lowerDirectory));
+    }
+
+    this.lowerDirectory = lowerDirectory;
+  }
+
+  /**
+   * Get the File object for the lower layer.
+   *
+   * @return the File object for the shared, read-only lower layer.
+   */
+  public File getLowerDirectory() {
+    return lowerDirectory;
+  }
+
+  /**
+   * Get a File object for updating a file in the overlay, copying it from the lower layer if necessary.
+   *
+   * @param fileName the name of the file to update.
+   *
+   * @return a {@link File} object for the file in the upper layer
+   */
+  public File getFileForUpdate(String fileName) {
+    if (fileName == null || fileName.isEmpty()) {
+      throw new IllegalArgumentException(String.format("Failed to get a File object for update from the '%s' directory - the filename argument cannot be null or empty", directory));
+    }
+
+    File upperFile = new File(directory, fileName);
+    if (upperFile.exists()) {
+      if (!upperFile.isFile()) {
+        throw new IllegalStateException(String.format("Failed to get a File object for update for the '%s' file from the '%s' directory - the filename does not refer to a file", fileName, directory));
+      }
+      return upperFile;
+    }
+
+    File lowerFile = resolve(fileName);
+    if (!lowerFile.exists()) {
+      throw new IllegalStateException(String.format("Failed to get a File object for update for the '%s' file from the '%s' directory - the file does not exist", fileName, directory));
+    } else if (!lowerFile.isFile()) {
+      throw new IllegalStateException(String.format("Failed to get a File object for update for the '%s' file from the '%s' directory - the filename does not refer to a file", fileName, directory));
+    }
+
+    createParentDirectories(upperFile);
+    try {
+      Files.copy(lowerFile.toPath(), upperFile.toPath(), StandardCopyOption.COPY_ATTRIBUTES);
+    } catch (IOException copyEx) {
+      throw new IllegalStateException(String.format("Failed to copy the '%s' file from the '%s' lower directory to the '%s' directory", fileName, lowerDirectory, directory), copyEx);
+    }
+    upperFile.setWritable(true);
+
+    return upperFile;
+  }
+
+  @Override
+  protected File resolve(String name) {
+    File upperFile = new File(directory, name);
+    if (upperFile.exists() || isWhitedOut(name)) {
+      return upperFile;
+    }
+
+    File lowerFile = new File(lowerDirectory, name);
+    return lowerFile.exists() ? lowerFile : upperFile;
+  }
+
+  @Override
+  public File newFile(String fileName) {
+    if (fileName != null && !fileName.isEmpty()) {
+      if (isInLowerLayer(fileName)) {
+        throw new IllegalStateException(String.format("Failed to create the '%s' file in the '%s' directory - the file exists in the '%s' lower directory", fileName, directory, lowerDirectory));
+      }
+      whiteouts.remove(key(fileName));
+      createParentDirectories(new File(directory, fileName));
+    }
+
+    return super.newFile(fileName);
+  }
+
+  @Override
+  public File newFileWithBody(String fileName, String body) {
+    // newFile only sees the temporary name when the file is published atomically
+    if (atomicPublish && fileName != null && !fileName.isEmpty()) {
+      if (isInLowerLayer(fileName)) {
+        throw new IllegalStateException(String.format("Failed to create the '%s' file in the '%s' directory - the file exists in the '%s' lower directory", fileName, directory, lowerDirectory));
+      }
+      whiteouts.remove(key(fileName));
+    }
+
+    return super.newFileWithBody(fileName, body);
+  }
+
+  @Override
+  public void copyFile(File sourceFile) {
+    if (sourceFile != null) {
+      whiteouts.remove(key(sourceFile.getName()));
+    }
+
+    super.copyFile(sourceFile);
+  }
+
+  @Override
+  public void copyFile(File sourceFile, String newFileName) {
+    if (newFileName != null && !newFileName.isEmpty()) {
+      whiteouts.remove(key(newFileName));
+      createParentDirectories(new File(directory, newFileName));
+    }
+
+    super.copyFile(sourceFile, newFileName);
+  }
+
+  @Override
+  public void deleteFile(String fileName) {
+    if (fileName != null && !fileName.isEmpty() && isInLowerLayer(fileName)) {
+      final long startNanos = System.nanoTime();
+      if (!new File(lowerDirectory, fileName).isFile()) {
+        throw new IllegalStateException(String.format("Failed to delete the '%s' file from the '%s' directory - the filename does not refer to a file", fileName, directory));
+      }
+      if (new File(directory, fileName).exists()) {
+        super.deleteFile(fileName);
+      } else {
+        journal(OperationJournal.Operation.DELETE_FILE, fileName, null, startNanos);
+      }
+      whiteouts.add(key(fileName));
+      return;
+    }
+
+    super.deleteFile(fileName);
+  }
+
+  @Override
+  public File newDirectory(String childDirectoryName) {
+    if (childDirectoryName != null && !childDirectoryName.isEmpty()) {
+      if (isInLowerLayer(childDirectoryName)) {
+        throw new IllegalStateException(String.format("Failed to create a new '%s' child directory in the '%s' directory - the child directory exists in the '%s' lower directory", childDirectoryName, directory, lowerDirectory));
+      }
+      String key = key(childDirectoryName);
+      if (whiteouts.remove(key)) {
+        opaqueDirectories.add(key);
+      }
+    }
+
+    return super.newDirectory(childDirectoryName);
+  }
+
+  @Override
+  public void deleteDirectory(String childDirectoryName) {
+    if (childDirectoryName != null && !childDirectoryName.isEmpty() && opaqueDirectories.contains(key(childDirectoryName))) {
+      super.deleteDirectory(childDirectoryName);
+      opaqueDirectories.remove(key(childDirectoryName));
+      whiteouts.add(key(childDirectoryName));
+      return;
+    }
+    if (childDirectoryName != null && !childDirectoryName.isEmpty() && isInLowerLayer(childDirectoryName)) {
+      final long startNanos = System.nanoTime();
+      if (!new File(lowerDirectory, childDirectoryName).isDirectory()) {
+        throw new IllegalStateException(String.format("Failed to delete the '%s' child directory from the '%s' directory - the child directory name does not refer to a directory", childDirectoryName, directory));
+      }
+      if (new File(directory, childDirectoryName).exists()) {
+        super.deleteDirectory(childDirectoryName);
+      } else {
+        journal(OperationJournal.Operation.DELETE_DIRECTORY, childDirectoryName, null, startNanos);
+      }
+      whiteouts.add(key(childDirectoryName));
+      return;
+    }
+
+    super.deleteDirectory(childDirectoryName);
+  }
+
+  @Override
+  public OutputStream openOutputStream(String fileName, boolean append) {
+    if (append && fileName != null && !fileName.isEmpty() && isInLowerLayer(fileName)) {
+      getFileForUpdate(fileName);
+    }
+
+    return super.openOutputStream(fileName, append);
+  }
+
+  @Override
+  public SeekableByteChannel openChannel(String fileName, OpenOption... options) {
+    if (!isReadOnly(options) && fileName != null && !fileName.isEmpty() && isInLowerLayer(fileName)
+        && !Arrays.asList(options).contains(StandardOpenOption.TRUNCATE_EXISTING)) {
+      getFileForUpdate(fileName);
+    }
+
+    return super.openChannel(fileName, options);
+  }
+
+  @Override
+  public void initialize() {
+    if (!lowerDirectory.isDirectory()) {
+      throw new IllegalStateException(String.format("Failed to initialize the '%s' directory - the '%s' lower directory does not exist", directory, lowerDirectory));
+    }
+
+    whiteouts.clear();
+    opaqueDirectories.clear();
+    super.initialize();
+  }
+
+  @Override
+  public void cleanup() {
+    super.cleanup();
+    whiteouts.clear();
+    opaqueDirectories.clear();
+  }
+
+  @Override
+  public void assertContainsFile(final String fileName) {
+    DirectoryAssert.assertDirectoryContainsFile(layerFor(fileName), fileName);
+  }
+
+  @Override
+  public void assertNotContainsFile(final String fileName) {
+    DirectoryAssert.assertDirectoryNotContainsFile(layerFor(fileName), fileName);
+  }
+
+  @Override
+  public void assertContainsDirectory(final String directoryName) {
+    DirectoryAssert.assertDirectoryContainsDirectory(layerFor(directoryName), directoryName);
+  }
+
+  @Override
+  public void assertNotContainsDirectory(final String directoryName) {
+    DirectoryAssert.assertDirectoryNotContainsDirectory(layerFor(directoryName), directoryName);
+  }
+
+  /**
+   * Determine if a name is visible only through the lower layer.
+   */
+  boolean isInLowerLayer(String name) {
+    return !isWhitedOut(name) && new File(lowerDirectory, name).exists();
+  }
+
+  /**
+   * Determine if a name is hidden from the lower layer by a whiteout or an opaque directory.
+   */
+  boolean isWhitedOut(String name) {
+    String key = key(name);
+    for (int index = key.length(); index > 0; index = key.lastIndexOf('/', index - 1)) {
+      String prefix = key.substring(0, index);
+      if (whiteouts.contains(prefix) || opaqueDirectories.contains(prefix)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  File layerFor(String name) {
+    return resolve(name).getPath().startsWith(lowerDirectory.getPath() + File.separator) ? lowerDirectory : directory;
+  }
+
+  void createParentDirectories(File upperFile) {
+    File parent = upperFile.getParentFile();
+    if (parent != null && !parent.exists() && !parent.mkdirs()) {
+      throw new IllegalStateException(String.format("Failed to create the '%s' parent directory in the '%s' directory - File.mkdirs() returned false", parent, directory));
+    }
+  }
+
+  static String key(String name) {
+    return new File(name).getPath().replace(File.separatorChar, '/');
+  }
+}
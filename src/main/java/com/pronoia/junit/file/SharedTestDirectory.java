@@ -0,0 +1,398 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.pronoia.junit.file;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.rules.ExternalResource;
+import org.junit.rules.TestRule;
+
+/**
+ * A {@link TestDirectory} holding a fixture that is built once and shared by all of the tests in a class.
+ *
+ * Use it as a {@link org.junit.ClassRule}.  The fixture is built before the first test, then every file and directory
+ * in it is marked read-only and a manifest of the size and modification time of every entry is recorded.  The
+ * mutating methods of {@link TestDirectory} (newFile, copyFile, deleteFile, ...) are rejected while the fixture is
+ * protected - including writable streams and channels, archive extraction and imports, cached fixture restores, fixture
+ * trees and file producers.
+ *
+ * To isolate the tests from each other, also register the {@link #integrityCheck()} rule as a {@link org.junit.Rule}.
+ * After each test it compares the fixture with the manifest - only stat calls, no content reads - and rebuilds the
+ * fixture if the test changed it.
+ *
+ * <pre>
+ *   &#64;ClassRule
+ *   public static SharedTestDirectory fixture = new SharedTestDirectory("target/shared-fixture", dir -&gt; {
+ *     dir.newFileWithBody("input.csv", "a,b,c");
+ *   });
+ *
+ *   &#64;Rule
+ *   public TestRule fixtureIntegrity = fixture.integrityCheck();
+ * </pre>
+ */
+public class SharedTestDirectory extends TestDirectory {
+  public static final String DEFAULT_SHARED_DIRECTORY = "target/shared-test-files";
+
+  /**
+   * Builds the contents of a shared fixture.
+   */
+  @FunctionalInterface
+  public interface FixtureBuilder {
+    /**
+     * Populate the fixture directory.
+     *
+     * @param fixture the (writable) fixture directory
+     *
+     * @throws Exception if the fixture cannot be built
+     */
+    void build(TestDirectory fixture) throws Exception;
+  }
+
+  final FixtureBuilder builder;
+
+  boolean readOnly = false;
+  Map<String, ManifestEntry> manifest;
+  int buildCount = 0;
+
+  /**
+   * Create a {@link SharedTestDirectory} in the Maven target directory.
+   *
+   * @param builder builds the contents of the fixture.
+   */
+  public SharedTestDirectory(FixtureBuilder builder) {
+    this(DEFAULT_SHARED_DIRECTORY, builder);
+  }
+
+  /**
+   * Create a {@link SharedTestDirectory} using the specified directory name.
+   *
+   * @param directoryName shared fixture directory name.
+   * @param builder builds the contents of the fixture.
+   */
+  public SharedTestDirectory(String directoryName, FixtureBuilder builder) {
+    super(directoryName);
+
+    if (builder == null) {
+      throw new IllegalArgumentException("The fixture builder argument for the shared test directory cannot be null");
+    }
+    this.builder = builder;
+  }
+
+  /**
+   * Get a rule that verifies the integrity of the fixture after each test, rebuilding it when necessary.
+   *
+   * @return the integrity check rule
+   */
+  public TestRule integrityCheck() {
+    return new ExternalResource() {
+      @Override
+      protected void after() {
+        verifyIntegrity();
+      }
+    };
+  }
+
+  /**
+   * Build (or rebuild) the fixture, protect it and record its manifest.
+   */
+  public void build() {
+    unprotect();
+    readOnly = false;
+
+    initialize();
+    try {
+      builder.build(this);
+    } catch (Exception buildEx) {
+      throw new IllegalStateException(String.format("Failed to build the shared fixture in the '%s' directory", directory), buildEx);
+    }
+
+    protect();
+    readOnly = true;
+    manifest = captureManifest();
+    ++buildCount;
+  }
+
+  /**
+   * Verify the fixture against its manifest, rebuilding it if it was changed.
+   *
+   * @return true if the fixture was intact, false if it was changed and has been rebuilt
+   */
+  public boolean verifyIntegrity() {
+    List<String> changes = changes();
+    if (changes.isEmpty()) {
+      return true;
+    }
+
+    log.warn("Shared fixture {} was changed by a test - rebuilding: {}", directory, changes);
+    build();
+
+    return false;
+  }
+
+  /**
+   * Compare the fixture with its manifest.
+   *
+   * @return a description of every added, removed or modified entry - empty if the fixture is intact
+   */
+  public List<String> changes() {
+    if (manifest == null) {
+      throw new IllegalStateException(String.format("The shared fixture in the '%s' directory has not been built", directory));
+    }
+
+    Map<String, ManifestEntry> current = captureManifest();
+    List<String> changes = new ArrayList<>();
+    for (Map.Entry<String, ManifestEntry> expected : manifest.entrySet()) {
+      ManifestEntry actual = current.remove(expected.getKey());
+      if (actual == null) {
+        changes.add("removed " + expected.getKey());
+      } else if (!actual.equals(expected.getValue())) {
+        changes.add("modified " + expected.getKey());
+      }
+    }
+    for (String added : current.keySet()) {
+      changes.add("added " + added);
+    }
+
+    return changes;
+  }
+
+  /**
+   * Get the number of times the fixture has been built.
+   *
+   * @return the build count
+   */
+  public int getBuildCount() {
+    return buildCount;
+  }
+
+  public boolean isReadOnly() {
+    return readOnly;
+  }
+
+  @Override
+  protected void before() {
+    build();
+  }
+
+  @Override
+  protected void after() {
+    unprotect();
+    readOnly = false;
+    super.after();
+  }
+
+  @Override
+  public void deleteFile(String fileName) {
+    checkWritable("delete the '" + fileName + "' file");
+    super.deleteFile(fileName);
+  }
+
+  @Override
+  public File newFile(String fileName) {
+    checkWritable("create the '" + fileName + "' file");
+    return super.newFile(fileName);
+  }
+
+  @Override
+  public void copyFile(File sourceFile) {
+    checkWritable("copy the '" + sourceFile + "' file");
+    super.copyFile(sourceFile);
+  }
+
+  @Override
+  public void copyFile(File sourceFile, String newFileName) {
+    checkWritable("copy the '" + sourceFile + "' file");
+    super.copyFile(sourceFile, newFileName);
+  }
+
+  @Override
+  public void deleteDirectory(String childDirectoryName) {
+    checkWritable("delete the '" + childDirectoryName + "' child directory");
+    super.deleteDirectory(childDirectoryName);
+  }
+
+  @Override
+  public File newDirectory(String childDirectoryName) {
+    checkWritable("create the '" + childDirectoryName + "' child directory");
+    return super.newDirectory(childDirectoryName);
+  }
+
+  @Override
+  public File extractArchive(File archive, String childDirectoryName) {
+    checkWritable("extract the '" + archive + "' archive");
+    return super.extractArchive(archive, childDirectoryName);
+  }
+
+  @Override
+  public File importFixture(File archive, String childDirectoryName) {
+    checkWritable("import the '" + archive + "' fixture archive");
+    return super.importFixture(archive, childDirectoryName);
+  }
+
+  @Override
+  public void restoreFixture(FixtureCache cache, FixtureCache.Key key, FixtureBuilder builder) {
+    checkWritable("restore a cached fixture");
+    super.restoreFixture(cache, key, builder);
+  }
+
+  @Override
+  public OutputStream openOutputStream(String fileName, boolean append) {
+    checkWritable("open an output stream for the '" + fileName + "' file");
+    return super.openOutputStream(fileName, append);
+  }
+
+  @Override
+  public SeekableByteChannel openChannel(String fileName, OpenOption... options) {
+    if (!isReadOnly(options)) {
+      checkWritable("open a writable channel for the '" + fileName + "' file");
+    }
+    return super.openChannel(fileName, options);
+  }
+
+  @Override
+  public FileProducer producer(String childDirectoryName) {
+    checkWritable("create a file producer for the '" + childDirectoryName + "' child directory");
+    return super.producer(childDirectoryName);
+  }
+
+  @Override
+  public FixtureTree tree() {
+    checkWritable("build a fixture tree");
+    return super.tree();
+  }
+
+  void checkWritable(String operation) {
+    if (readOnly) {
+      throw new IllegalStateException(String.format("Failed to %s in the '%s' directory - the shared fixture is read-only", operation, directory));
+    }
+  }
+
+  Map<String, ManifestEntry> captureManifest() {
+    final Path root = directory.toPath();
+    final Map<String, ManifestEntry> entries = new TreeMap<>();
+    try {
+      Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+        @Override
+        public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attributes) {
+          if (!dir.equals(root)) {
+            entries.put(root.relativize(dir).toString(), new ManifestEntry(attributes));
+          }
+          return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+          entries.put(root.relativize(file).toString(), new ManifestEntry(attributes));
+          return FileVisitResult.CONTINUE;
+        }
+      });
+    } catch (IOException walkEx) {
+      throw new IllegalStateException(String.format("Failed to read the manifest of the shared fixture in the '%s' directory", directory), walkEx);
+    }
+
+    return entries;
+  }
+
+  void protect() {
+    setWritable(false);
+  }
+
+  void unprotect() {
+    if (directory.exists()) {
+      setWritable(true);
+    }
+  }
+
+  void setWritable(final boolean writable) {
+    final Path root = directory.toPath();
+    try {
+      Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+        @Override
+        public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attributes) {
+          // Directories must be writable before their children can be changed
+          if (writable) {
+            dir.toFile().setWritable(true);
+          }
+          return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+          file.toFile().setWritable(writable);
+          return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult postVisitDirectory(Path dir, IOException visitEx) {
+          if (!writable) {
+            dir.toFile().setWritable(false);
+          }
+          return FileVisitResult.CONTINUE;
+        }
+      });
+    } catch (IOException walkEx) {
+      throw new IllegalStateException(String.format("Failed to change the permissions of the shared fixture in the '%s' directory", directory), walkEx);
+    }
+  }
+
+  /**
+   * The size and modification time of a fixture entry.
+   */
+  static final class ManifestEntry {
+    final boolean directory;
+    final long size;
+    final FileTime lastModifiedTime;
+
+    ManifestEntry(BasicFileAttributes attributes) {
+      this.directory = attributes.isDirectory();
+      this.size = directory ? 0 : attributes.size();
+      this.lastModifiedTime = attributes.lastModifiedTime();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      } else if (!(obj instanceof ManifestEntry)) {
+        return false;
+      }
+
+      ManifestEntry other = (ManifestEntry) obj;
+      return directory == other.directory && size == other.size && lastModifiedTime.equals(other.lastModifiedTime);
+    }
+
+    @Override
+    public int hashCode() {
+      return Long.hashCode(size) * 31 + lastModifiedTime.hashCode();
+    }
+  }
+}
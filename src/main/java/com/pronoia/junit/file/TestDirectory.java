@@ -18,15 +18,41 @@
 package com.pronoia.junit.file;
 
 import com.pronoia.junit.asserts.file.DirectoryAssert;
+import com.pronoia.junit.asserts.file.DirectoryVerification;
+import com.pronoia.junit.asserts.file.FileAssert;
+import com.pronoia.junit.asserts.file.PathMatchers;
 
+import java.io.Closeable;
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.channels.SeekableByteChannel;
 import java.nio.charset.Charset;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
 
 import org.apache.commons.io.FileUtils;
+import org.junit.Assert;
 import org.junit.rules.ExternalResource;
+import org.junit.runner.Description;
+import org.junit.runners.model.Statement;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -37,11 +63,38 @@ import org.slf4j.LoggerFactory;
  */
 public class TestDirectory extends ExternalResource {
   public static final String DEFAULT_DIRECTORY = "target/test-files";
+  public static final String DEFAULT_JOURNAL_DIRECTORY = "target/test-journals";
 
   final Logger log = LoggerFactory.getLogger(this.getClass());
 
   final File directory;
   boolean deleteAfterTest = false;
+  boolean atomicPublish = false;
+
+  File journalDirectory;
+  OperationJournal journal;
+  int journalSuppression;
+  Description description;
+
+  boolean trackChanges = false;
+  boolean trackChangesWithDigests = false;
+  ChangeTracker changeTracker;
+
+  long quotaMaxBytes = 0;
+  long quotaMaxFiles = 0;
+  long quotaSampleIntervalMillis = DiskQuota.DEFAULT_SAMPLE_INTERVAL_MILLIS;
+  DiskQuota diskQuota;
+  long peakBytes = 0;
+  long peakFiles = 0;
+
+  final FileHandleTracker fileHandleTracker = new FileHandleTracker();
+  boolean failOnHandleLeaks = false;
+  boolean sampleFileDescriptors = false;
+  long fileDescriptorsBefore = -1;
+
+  final List<FileProducer> producers = new ArrayList<>();
+  volatile ConsumptionMonitor consumptionMonitor;
+  final List<Closeable> fileLocks = new ArrayList<>();
 
   /**
    * Create a {@link TestDirectory} in the Maven target directory.
@@ -96,7 +149,7 @@ public class TestDirectory extends ExternalResource {
       throw new IllegalArgumentException(String.format("Failed to get a File object from the '%s' directory - the filename argument cannot be null or empty", directory));
     }
 
-    File tmpFile = new File(toFile(), fileName);
+    File tmpFile = resolve(fileName);
     if (!tmpFile.exists()) {
       throw new IllegalStateException(String.format("Failed to get a File object for the '%s' file from the '%s' directory - the file does not exist", fileName, directory));
     } else if (!tmpFile.isFile()) {
@@ -106,6 +159,19 @@ public class TestDirectory extends ExternalResource {
     return tmpFile;
   }
 
+  /**
+   * Get the Path object for a file in the test directory.
+   *
+   * @param fileName the name of the file.
+   *
+   * @return the Path object for the file.
+   *
+   * @see #getFile(String)
+   */
+  public Path getPath(String fileName) {
+    return getFile(fileName).toPath();
+  }
+
   /**
    * Delete a file with the given name in test directory.
    *
@@ -118,14 +184,14 @@ public class TestDirectory extends ExternalResource {
       throw new IllegalArgumentException(String.format("Failed to get a File object from the '%s' child directory in the '%s' directory - the filename argument cannot be null or empty", childDirectoryName, directory));
     }
 
-    File tmpDirectory = new File(toFile(), childDirectoryName);
+    File tmpDirectory = resolve(childDirectoryName);
     if (!tmpDirectory.exists()) {
       throw new IllegalStateException(String.format("Failed to get a File object for the '%s' file from the '%s' child directory in the '%s' directory - the child directory does not exist", fileName, childDirectoryName, directory));
     } else if (!tmpDirectory.isDirectory()) {
       throw new IllegalStateException(String.format("Failed to get a File object for the '%s' file from the '%s' child directory in the '%s' directory - the child directory name does not refer to a directory", fileName, childDirectoryName, directory));
     }
 
-    File tmpFile = new File(tmpDirectory, fileName);
+    File tmpFile = resolve(childDirectoryName + File.separator + fileName);
     if (!tmpFile.exists()) {
       throw new IllegalStateException(String.format("Failed to get a File object for the '%s' file from the '%s' child directory in the '%s' directory - the file does not exist", fileName, childDirectoryName, directory));
     } else if (!tmpFile.isFile()) {
@@ -135,6 +201,38 @@ public class TestDirectory extends ExternalResource {
     return tmpFile;
   }
 
+  /**
+   * Get the Path object for a file in a child directory of the test directory.
+   *
+   * @param childDirectoryName the name of the child directory.
+   * @param fileName           the name of the file in the child directory.
+   *
+   * @return the Path object for the file.
+   *
+   * @see #getFileFromChildDirectory(String, String)
+   */
+  public Path getPathFromChildDirectory(String childDirectoryName, String fileName) {
+    return getFileFromChildDirectory(childDirectoryName, fileName).toPath();
+  }
+
+  /**
+   * Delete a file in the test directory.
+   *
+   * @param file the path of the file to delete - relative paths are resolved against the test directory.
+   */
+  public void deleteFile(Path file) {
+    if (file == null) {
+      throw new IllegalArgumentException(String.format("Failed to delete a file from the '%s' directory - the Path argument cannot be null", directory));
+    }
+
+    Path relative = file.isAbsolute() ? toPath().toAbsolutePath().normalize().relativize(file.normalize()) : file.normalize();
+    if (relative.toString().isEmpty() || relative.startsWith("..")) {
+      throw new IllegalArgumentException(String.format("Failed to delete the '%s' file from the '%s' directory - the file is not in the test directory", file, directory));
+    }
+
+    deleteFile(relative.toString());
+  }
+
   /**
    * Delete a file with the given name in test directory.
    *
@@ -145,14 +243,21 @@ public class TestDirectory extends ExternalResource {
       throw new IllegalArgumentException(String.format("Failed to delete a file from the '%s' directory - the filename argument cannot be null or empty", directory));
     }
 
+    final long startNanos = System.nanoTime();
     File file = new File(toFile(), fileName);
     if (!file.exists()) {
       throw new IllegalStateException(String.format("Failed to delete the '%s' file from the '%s' directory - the file does not exist", fileName, directory));
     } else if (!file.isFile()) {
       throw new IllegalStateException(String.format("Failed to delete the '%s' file from the '%s' directory - the filename does not refer to a file", fileName, directory));
-    } else if (!file.delete()) {
-      throw new IllegalStateException(String.format("Failed to delete the '%s' file from the '%s' directory - File.delete() returned false", fileName, directory));
     }
+
+    try {
+      Files.delete(file.toPath());
+    } catch (IOException deleteEx) {
+      throw new IllegalStateException(String.format("Failed to delete the '%s' file from the '%s' directory", fileName, directory), deleteEx);
+    }
+
+    journal(OperationJournal.Operation.DELETE_FILE, fileName, null, startNanos);
   }
 
   /**
@@ -167,7 +272,7 @@ public class TestDirectory extends ExternalResource {
       throw new IllegalArgumentException(String.format("Failed to read a file in the '%s' directory - the filename argument cannot be null or empty", directory));
     }
 
-    File file = new File(toFile(), fileName);
+    File file = resolve(fileName);
     if (!file.exists()) {
       throw new IllegalStateException(String.format("Failed to read the '%s' file in the '%s' directory - the file does not exist", fileName, directory));
     } else if (!file.isFile()) {
@@ -193,7 +298,7 @@ public class TestDirectory extends ExternalResource {
       throw new IllegalArgumentException(String.format("Failed to read the lines of a file in the '%s' directory - the filename argument cannot be null or empty", directory));
     }
 
-    File file = new File(toFile(), fileName);
+    File file = resolve(fileName);
     if (!file.exists()) {
       throw new IllegalStateException(String.format("Failed to read the lines of the '%s' file in the '%s' directory - the file does not exist", fileName, directory));
     } else if (!file.isFile()) {
@@ -207,6 +312,90 @@ public class TestDirectory extends ExternalResource {
     }
   }
 
+  /**
+   * Read the first lines of a file with the given name in test directory, using the default charset.
+   *
+   * @param fileName  the name of the file to read.
+   * @param lineCount the maximum number of lines to read.
+   *
+   * @return the first lines of the file
+   */
+  public List<String> readFirstLines(String fileName, int lineCount) {
+    return readFirstLines(fileName, lineCount, Charset.defaultCharset());
+  }
+
+  /**
+   * Read the first lines of a file with the given name in test directory.
+   *
+   * Reading stops after the requested lines, so the cost does not depend on the size of the file.
+   *
+   * @param fileName  the name of the file to read.
+   * @param lineCount the maximum number of lines to read.
+   * @param charset   the charset of the file.
+   *
+   * @return the first lines of the file
+   */
+  public List<String> readFirstLines(String fileName, int lineCount, Charset charset) {
+    File file = checkReadLines(fileName, lineCount, charset, "first");
+    try {
+      return FileLines.head(file.toPath(), lineCount, charset);
+    } catch (IOException readEx) {
+      throw new IllegalStateException(String.format("Failed to read the first %d lines of the '%s' file in the '%s' directory", lineCount, fileName, directory), readEx);
+    }
+  }
+
+  /**
+   * Read the last lines of a file with the given name in test directory, using the default charset.
+   *
+   * @param fileName  the name of the file to read.
+   * @param lineCount the maximum number of lines to read.
+   *
+   * @return the last lines of the file
+   */
+  public List<String> readLastLines(String fileName, int lineCount) {
+    return readLastLines(fileName, lineCount, Charset.defaultCharset());
+  }
+
+  /**
+   * Read the last lines of a file with the given name in test directory.
+   *
+   * The file is read backwards from the end in blocks, so the cost depends on the length of the requested lines rather
+   * than on the size of the file.
+   *
+   * @param fileName  the name of the file to read.
+   * @param lineCount the maximum number of lines to read.
+   * @param charset   the charset of the file.
+   *
+   * @return the last lines of the file
+   */
+  public List<String> readLastLines(String fileName, int lineCount, Charset charset) {
+    File file = checkReadLines(fileName, lineCount, charset, "last");
+    try {
+      return FileLines.tail(file.toPath(), lineCount, charset);
+    } catch (IOException readEx) {
+      throw new IllegalStateException(String.format("Failed to read the last %d lines of the '%s' file in the '%s' directory", lineCount, fileName, directory), readEx);
+    }
+  }
+
+  File checkReadLines(String fileName, int lineCount, Charset charset, String which) {
+    if (fileName == null || fileName.isEmpty()) {
+      throw new IllegalArgumentException(String.format("Failed to read the %s lines of a file in the '%s' directory - the filename argument cannot be null or empty", which, directory));
+    } else if (lineCount < 0) {
+      throw new IllegalArgumentException(String.format("Failed to read the %s lines of the '%s' file in the '%s' directory - the line count argument %d cannot be negative", which, fileName, directory, lineCount));
+    } else if (charset == null) {
+      throw new IllegalArgumentException(String.format("Failed to read the %s lines of the '%s' file in the '%s' directory - the charset argument cannot be null", which, fileName, directory));
+    }
+
+    File file = resolve(fileName);
+    if (!file.exists()) {
+      throw new IllegalStateException(String.format("Failed to read the %s lines of the '%s' file in the '%s' directory - the file does not exist", which, fileName, directory));
+    } else if (!file.isFile()) {
+      throw new IllegalStateException(String.format("Failed to read the %s lines of the '%s' file in the '%s' directory - the filename does not refer to a file", which, fileName, directory));
+    }
+
+    return file;
+  }
+
   /**
    * Create a new file with the given name in test directory.
    *
@@ -218,19 +407,40 @@ public class TestDirectory extends ExternalResource {
     if (fileName == null || fileName.isEmpty()) {
       throw new IllegalArgumentException(String.format("Failed to create a new file in the '%s' directory - the filename argument cannot be null or empty", directory));
     }
+    checkQuota();
 
+    final long startNanos = System.nanoTime();
     File file = new File(toFile(), fileName);
     try {
-      if (!file.createNewFile()) {
-        throw new IllegalStateException(String.format("Failed to create the '%s' file in the '%s' directory - File.createNewFile returned false", fileName, directory));
-      }
+      Files.createFile(file.toPath());
+    } catch (FileAlreadyExistsException existsEx) {
+      throw new IllegalStateException(String.format("Failed to create the '%s' file in the '%s' directory - the file already exists", fileName, directory), existsEx);
     } catch (IOException ioEx) {
       throw new IllegalStateException(String.format("Failed to create the '%s' file in the '%s' directory", fileName, directory), ioEx);
     }
 
+    journal(OperationJournal.Operation.NEW_FILE, fileName, null, startNanos);
+    if (journalSuppression == 0) {
+      // newFileWithBody reports the file itself, once the body has been written
+      published(file);
+    }
+
     return file;
   }
 
+  /**
+   * Create a new file with the given name in test directory.
+   *
+   * @param fileName the name of the new file.
+   *
+   * @return a {@link Path} object for the new file
+   *
+   * @see #newFile(String)
+   */
+  public Path newFilePath(String fileName) {
+    return newFile(fileName).toPath();
+  }
+
   /**
    * Create a new file with the given name and body in test directory.
    *
@@ -240,17 +450,45 @@ public class TestDirectory extends ExternalResource {
    * @return a {@link File} object for the new file
    */
   public File newFileWithBody(String fileName, String body) {
-    File file = newFile(fileName);
-    FileWriter writer;
+    final long startNanos = System.nanoTime();
+    File target = null;
+    if (atomicPublish && fileName != null && !fileName.isEmpty()) {
+      target = new File(toFile(), fileName);
+      if (target.exists()) {
+        throw new IllegalStateException(String.format("Failed to create the '%s' file in the '%s' directory - the file already exists", fileName, directory));
+      }
+    }
+
+    File file;
+    ++journalSuppression;
     try {
-      writer = new FileWriter(file);
+      file = newFile(target != null ? AtomicFiles.temporaryName(fileName) : fileName);
+    } finally {
+      --journalSuppression;
+    }
+
+    try (Writer writer = Files.newBufferedWriter(file.toPath(), Charset.defaultCharset())) {
       writer.append(body);
-      writer.flush();
     } catch (IOException writeEx) {
-      final String errorMessage = String.format("Failed to write body to new '%s' file in '%s' directory", file, directory);
+      if (target != null) {
+        file.delete();
+      }
+      final String errorMessage = String.format("Failed to write body to new '%s' file in '%s' directory", target != null ? target : file, directory);
       throw new IllegalStateException(errorMessage, writeEx);
     }
 
+    if (target != null) {
+      try {
+        AtomicFiles.publish(file.toPath(), target.toPath());
+      } catch (IOException publishEx) {
+        throw new IllegalStateException(String.format("Failed to publish the '%s' file in the '%s' directory", fileName, directory), publishEx);
+      }
+      file = target;
+    }
+
+    journal(OperationJournal.Operation.NEW_FILE_WITH_BODY, fileName, body, startNanos);
+    published(file);
+
     return file;
   }
 
@@ -277,12 +515,35 @@ public class TestDirectory extends ExternalResource {
       throw new IllegalArgumentException(String.format("Failed to copy the '%s' source file to the '%s' directory - the source file does not refer to a file", sourceFile, directory));
     }
 
+    checkQuota();
+    final long startNanos = System.nanoTime();
+    File targetFile = new File(toFile(), sourceFile.getName());
     try {
-      FileUtils.copyFileToDirectory(sourceFile, directory);
+      if (atomicPublish) {
+        AtomicFiles.copy(sourceFile.toPath(), targetFile.toPath());
+      } else {
+        Files.copy(sourceFile.toPath(), targetFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.COPY_ATTRIBUTES);
+      }
     } catch (IOException ioEx) {
       final String errorMessage = String.format("Failed to copy the '%s' source file to the '%s' directory", sourceFile, directory);
       throw new IllegalStateException(errorMessage, ioEx);
     }
+
+    journal(OperationJournal.Operation.COPY_FILE, sourceFile.getName(), sourceFile.getAbsolutePath(), startNanos);
+    published(targetFile);
+  }
+
+  /**
+   * Copy a file to the test directory.
+   *
+   * @param sourceFile the source file.
+   */
+  public void copyFile(Path sourceFile) {
+    if (sourceFile == null) {
+      throw new IllegalArgumentException(String.format("Failed to copy a source file to the '%s' directory - the source file Path object argument cannot be null", directory));
+    }
+
+    copyFile(sourceFile.toFile());
   }
 
   /**
@@ -306,16 +567,43 @@ public class TestDirectory extends ExternalResource {
       throw new IllegalArgumentException(String.format("Failed to copy a source file to the '%s' directory as the '%s' file - the File argument cannot be null", directory, newFileName));
     } else if (!sourceFile.exists()) {
       throw new IllegalArgumentException(String.format("Failed to copy the '%s' source file to the '%s' directory as the '%s' file - the source file does not exist", sourceFile, directory, newFileName));
+    } else if (!sourceFile.isFile()) {
+      throw new IllegalArgumentException(String.format("Failed to copy the '%s' source file to the '%s' directory as the '%s' file - the source file does not refer to a file", sourceFile, directory, newFileName));
     } else if (newFileName == null || newFileName.isEmpty()) {
       throw new IllegalArgumentException(String.format("Failed to copy the '%s' source file to the '%s' directory with a new filename - the new filename argument cannot be null or empty", sourceFile, directory));
     }
 
+    checkQuota();
+    final long startNanos = System.nanoTime();
+    File targetFile = new File(toFile(), newFileName);
     try {
-      FileUtils.copyFile(sourceFile, new File(toFile(), newFileName));
+      Files.createDirectories(targetFile.toPath().getParent());
+      if (atomicPublish) {
+        AtomicFiles.copy(sourceFile.toPath(), targetFile.toPath());
+      } else {
+        Files.copy(sourceFile.toPath(), targetFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.COPY_ATTRIBUTES);
+      }
     } catch (IOException ioEx) {
       final String errorMessage = String.format("Failed to copy the '%s' source file to the '%s' directory under the new name %s", sourceFile, directory, newFileName);
       throw new IllegalStateException(errorMessage, ioEx);
     }
+
+    journal(OperationJournal.Operation.COPY_FILE, newFileName, sourceFile.getAbsolutePath(), startNanos);
+    published(targetFile);
+  }
+
+  /**
+   * Copy a file to the test directory with the specified new file name.
+   *
+   * @param sourceFile  the source file.
+   * @param newFileName the name of the new file.
+   */
+  public void copyFile(Path sourceFile, String newFileName) {
+    if (sourceFile == null) {
+      throw new IllegalArgumentException(String.format("Failed to copy a source file to the '%s' directory as the '%s' file - the Path argument cannot be null", directory, newFileName));
+    }
+
+    copyFile(sourceFile.toFile(), newFileName);
   }
 
   /**
@@ -335,11 +623,38 @@ public class TestDirectory extends ExternalResource {
       throw new IllegalStateException(String.format("Failed to delete the '%s' child directory from the '%s' directory - the child directory name does not refer to a directory", childDirectoryName, directory));
     }
 
+    final long startNanos = System.nanoTime();
     try {
-      FileUtils.deleteDirectory(tmpDirectory);
+      deleteTree(tmpDirectory.toPath());
     } catch (IOException deleteEx) {
       throw new IllegalStateException(String.format("Failed to delete the '%s' child directory from the '%s' directory", childDirectoryName, directory), deleteEx);
     }
+
+    journal(OperationJournal.Operation.DELETE_DIRECTORY, childDirectoryName, null, startNanos);
+  }
+
+  /**
+   * Delete a directory and everything below it, without following symbolic links.
+   *
+   * @param root the directory to delete.
+   */
+  static void deleteTree(Path root) throws IOException {
+    Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+      @Override
+      public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) throws IOException {
+        Files.delete(file);
+        return FileVisitResult.CONTINUE;
+      }
+
+      @Override
+      public FileVisitResult postVisitDirectory(Path dir, IOException visitEx) throws IOException {
+        if (visitEx != null) {
+          throw visitEx;
+        }
+        Files.delete(dir);
+        return FileVisitResult.CONTINUE;
+      }
+    });
   }
 
   /**
@@ -352,7 +667,7 @@ public class TestDirectory extends ExternalResource {
       throw new IllegalArgumentException(String.format("Failed to get a File object for a child directory from the '%s' directory - the child directory name argument cannot be null or empty", directory));
     }
 
-    File tmpDirectory = new File(toFile(), childDirectoryName);
+    File tmpDirectory = resolve(childDirectoryName);
     if (!tmpDirectory.exists()) {
       throw new IllegalStateException(String.format("Failed to get a File object for the %s child directory from the '%s' directory - the child directory does not exist", childDirectoryName, directory));
     } else if (!tmpDirectory.isDirectory()) {
@@ -362,6 +677,32 @@ public class TestDirectory extends ExternalResource {
     return tmpDirectory;
   }
 
+  /**
+   * Get a Path object for the directory with the given name in test directory.
+   *
+   * @param childDirectoryName the name of the directory to get.
+   *
+   * @return the Path object for the directory.
+   *
+   * @see #getDirectory(String)
+   */
+  public Path getDirectoryPath(String childDirectoryName) {
+    return getDirectory(childDirectoryName).toPath();
+  }
+
+  /**
+   * Returns a new directory with the given name in the test directory.
+   *
+   * @param childDirectoryName the name of the new directory.
+   *
+   * @return a {@link Path} object for the new directory
+   *
+   * @see #newDirectory(String)
+   */
+  public Path newDirectoryPath(String childDirectoryName) {
+    return newDirectory(childDirectoryName).toPath();
+  }
+
   /**
    * Returns a new directory with the given name in the test directory.
    *
@@ -370,96 +711,978 @@ public class TestDirectory extends ExternalResource {
    * @return a {@link File} object for the new directory
    */
   public File newDirectory(String childDirectoryName) {
+    if (childDirectoryName == null || childDirectoryName.isEmpty()) {
+      throw new IllegalArgumentException(String.format("Failed to create a new child directory in the '%s' directory - the child directory name argument cannot be null or empty", directory));
+    }
+    checkQuota();
+
+    final long startNanos = System.nanoTime();
     File childDirectory = new File(toFile(), childDirectoryName);
-    if (!childDirectory.mkdirs()) {
-      throw new IllegalStateException(String.format("Failed to create a new '%s' child directory in the '%s' directory  - File.mkdirs() returned false", childDirectoryName, directory));
+    if (childDirectory.exists()) {
+      throw new IllegalStateException(String.format("Failed to create a new '%s' child directory in the '%s' directory - the child directory already exists", childDirectoryName, directory));
+    }
+    try {
+      Files.createDirectories(childDirectory.toPath());
+    } catch (IOException createEx) {
+      throw new IllegalStateException(String.format("Failed to create a new '%s' child directory in the '%s' directory", childDirectoryName, directory), createEx);
     }
 
+    journal(OperationJournal.Operation.NEW_DIRECTORY, childDirectoryName, null, startNanos);
+
     return childDirectory;
   }
 
   /**
-   * Get the File object for the test directory.
+   * Extract a ZIP or JAR archive into the test directory.
    *
-   * @return the File object for the test directory.
+   * @param archive the archive file.
+   *
+   * @return a {@link File} object for the test directory
    */
-  public File toFile() {
-    if (directory == null) {
-      throw new IllegalStateException("The TestDirectory File object is null");
-    }
-
-    return directory;
+  public File extractArchive(File archive) {
+    return extractArchive(archive, null);
   }
 
+  /**
+   * Extract a ZIP or JAR archive into a child directory of the test directory.
+   *
+   * The entries are extracted in parallel, and the extracted tree is stored in the default {@link FixtureCache} so later
+   * extractions of the same archive copy the cached tree instead of inflating the entries again.
+   *
+   * @param archive            the archive file.
+   * @param childDirectoryName the name of the child directory, or null to extract into the test directory.
+   *
+   * @return a {@link File} object for the directory the archive was extracted into
+   */
+  public File extractArchive(File archive, String childDirectoryName) {
+    if (archive == null) {
+      throw new IllegalArgumentException(String.format("Failed to extract an archive to the '%s' directory - the archive File object argument cannot be null", directory));
+    } else if (!archive.isFile()) {
+      throw new IllegalArgumentException(String.format("Failed to extract the '%s' archive to the '%s' directory - the archive does not exist or does not refer to a file", archive, directory));
+    }
+    checkQuota();
 
-  public boolean isDeleteAfterTest() {
-    return deleteAfterTest;
-  }
+    File targetDirectory = (childDirectoryName == null || childDirectoryName.isEmpty()) ? toFile() : new File(toFile(), childDirectoryName);
+    try {
+      ArchiveExtractor.extract(archive, targetDirectory, FixtureCache.getDefault());
+    } catch (IOException | IllegalStateException extractEx) {
+      throw new IllegalStateException(String.format("Failed to extract the '%s' archive to the '%s' directory", archive, targetDirectory), extractEx);
+    }
 
-  public void setDeleteAfterTest(boolean deleteAfterTest) {
-    this.deleteAfterTest = deleteAfterTest;
+    return targetDirectory;
   }
 
-  public TestDirectory deleteAfterTest() {
-    setDeleteAfterTest(true);
+  /**
+   * Capture the contents of the test directory in a {@link FixtureArchive}.
+   *
+   * @param archive the archive file to write.
+   *
+   * @return the number of entries in the archive
+   */
+  public int exportFixture(File archive) {
+    return FixtureArchive.export(toFile(), archive);
+  }
 
-    return this;
+  /**
+   * Materialize a {@link FixtureArchive} in the test directory.
+   *
+   * @param archive the archive file.
+   *
+   * @return a {@link File} object for the test directory
+   */
+  public File importFixture(File archive) {
+    return importFixture(archive, null);
   }
 
-  public TestDirectory deleteAfterTest(boolean delete) {
-    setDeleteAfterTest(delete);
+  /**
+   * Materialize a {@link FixtureArchive} in a child directory of the test directory.
+   *
+   * The header index of the archive is read first, then the directories are created and the file contents are copied
+   * in parallel from the offsets recorded in the index.
+   *
+   * @param archive            the archive file.
+   * @param childDirectoryName the name of the child directory to import the archive into - the test directory is used
+   *                           if this is null or empty.
+   *
+   * @return a {@link File} object for the directory containing the imported entries
+   */
+  public File importFixture(File archive, String childDirectoryName) {
+    if (archive == null) {
+      throw new IllegalArgumentException(String.format("Failed to import a fixture archive to the '%s' directory - the archive File object argument cannot be null", directory));
+    } else if (!archive.isFile()) {
+      throw new IllegalArgumentException(String.format("Failed to import the '%s' fixture archive to the '%s' directory - the archive does not exist or does not refer to a file", archive, directory));
+    }
+    checkQuota();
 
-    return this;
+    File targetDirectory = (childDirectoryName == null || childDirectoryName.isEmpty()) ? toFile() : new File(toFile(), childDirectoryName);
+    FixtureArchive.restore(archive, targetDirectory);
+
+    return targetDirectory;
   }
 
-  @Override
-  protected void before() {
-    initialize();
+  /**
+   * Copy a fixture from the default {@link FixtureCache} into the test directory, building it first if it is not cached.
+   *
+   * @param key     identifies the fixture by its sources and generator parameters.
+   * @param builder builds the fixture when it is not cached.
+   */
+  public void restoreFixture(FixtureCache.Key key, SharedTestDirectory.FixtureBuilder builder) {
+    restoreFixture(FixtureCache.getDefault(), key, builder);
   }
 
-  @Override
-  protected void after() {
-    if (deleteAfterTest && directory != null) {
-      cleanup();
+  /**
+   * Copy a fixture from a {@link FixtureCache} into the test directory, building it first if it is not cached.
+   *
+   * @param cache   the fixture cache.
+   * @param key     identifies the fixture by its sources and generator parameters.
+   * @param builder builds the fixture when it is not cached.
+   */
+  public void restoreFixture(FixtureCache cache, FixtureCache.Key key, SharedTestDirectory.FixtureBuilder builder) {
+    if (cache == null) {
+      throw new IllegalArgumentException(String.format("Failed to restore a cached fixture to the '%s' directory - the fixture cache argument cannot be null", directory));
     }
-  }
+    checkQuota();
 
-  @Override
-  public String toString() {
-    return directory.toString();
+    cache.materialize(key, builder, toFile());
   }
 
-  public void initialize() {
-    if (directory == null) {
-      throw new IllegalStateException("The TestDirectory File object is null");
+  /**
+   * Open an input stream for a file in the test directory.
+   *
+   * The stream is tracked until it is closed - streams that are still open when the test completes are reported and
+   * closed.
+   *
+   * @param fileName the name of the file to read.
+   *
+   * @return an {@link InputStream} for the file
+   */
+  public InputStream openInputStream(String fileName) {
+    if (fileName == null || fileName.isEmpty()) {
+      throw new IllegalArgumentException(String.format("Failed to open an input stream in the '%s' directory - the filename argument cannot be null or empty", directory));
     }
 
-    if (directory.exists()) {
-      cleanup();
-    } else {
-      if (!directory.mkdirs()) {
-        throw new IllegalStateException("Failed to create " + directory + " directory - File.mkdirs() returned false");
-      }
+    File file = resolve(fileName);
+    try {
+      return fileHandleTracker.track(Files.newInputStream(file.toPath()), file);
+    } catch (IOException openEx) {
+      throw new IllegalStateException(String.format("Failed to open an input stream for the '%s' file in the '%s' directory", fileName, directory), openEx);
     }
   }
 
-  public void cleanup() {
-    if (directory.exists()) {
-      String[] entries = directory.list();
-      if (entries.length > 0) {
-        log.info("Clearing test directory {} contents {}", directory, entries);
-        try {
-          FileUtils.cleanDirectory(directory);
-        } catch (IOException cleanEx) {
-          throw new IllegalStateException("Failed to clean exiting " + directory.toString() + " directory", cleanEx);
-        }
-      }
-    }
-
+  /**
+   * Open an output stream for a file in the test directory, creating or truncating the file.
+   *
+   * The stream is tracked until it is closed - streams that are still open when the test completes are reported and
+   * closed.
+   *
+   * @param fileName the name of the file to write.
+   *
+   * @return an {@link OutputStream} for the file
+   */
+  public OutputStream openOutputStream(String fileName) {
+    return openOutputStream(fileName, false);
   }
 
   /**
-   * Asserts that a {@link TestDirectory} does not contain any children.
+   * Open an output stream for a file in the test directory, creating the file if it does not exist.
+   *
+   * The stream is tracked until it is closed - streams that are still open when the test completes are reported and
+   * closed.
+   *
+   * @param fileName the name of the file to write.
+   * @param append   append to the file instead of truncating it.
+   *
+   * @return an {@link OutputStream} for the file
+   */
+  public OutputStream openOutputStream(String fileName, boolean append) {
+    if (fileName == null || fileName.isEmpty()) {
+      throw new IllegalArgumentException(String.format("Failed to open an output stream in the '%s' directory - the filename argument cannot be null or empty", directory));
+    }
+    checkQuota();
+
+    File file = new File(toFile(), fileName);
+    try {
+      OutputStream outputStream = append
+          ? Files.newOutputStream(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.APPEND)
+          : Files.newOutputStream(file.toPath());
+      return fileHandleTracker.track(outputStream, file);
+    } catch (IOException openEx) {
+      throw new IllegalStateException(String.format("Failed to open an output stream for the '%s' file in the '%s' directory", fileName, directory), openEx);
+    }
+  }
+
+  /**
+   * Open a channel for a file in the test directory.
+   *
+   * The channel is tracked until it is closed - channels that are still open when the test completes are reported and
+   * closed.
+   *
+   * @param fileName the name of the file.
+   * @param options  the options used to open the file - the file is opened for reading if no options are specified.
+   *
+   * @return a {@link SeekableByteChannel} for the file
+   */
+  public SeekableByteChannel openChannel(String fileName, OpenOption... options) {
+    if (fileName == null || fileName.isEmpty()) {
+      throw new IllegalArgumentException(String.format("Failed to open a channel in the '%s' directory - the filename argument cannot be null or empty", directory));
+    }
+
+    boolean readOnly = isReadOnly(options);
+    if (!readOnly) {
+      checkQuota();
+    }
+
+    File file = readOnly ? resolve(fileName) : new File(toFile(), fileName);
+    try {
+      return fileHandleTracker.track(Files.newByteChannel(file.toPath(), readOnly ? new OpenOption[0] : options), file);
+    } catch (IOException openEx) {
+      throw new IllegalStateException(String.format("Failed to open a channel for the '%s' file in the '%s' directory", fileName, directory), openEx);
+    }
+  }
+
+  static boolean isReadOnly(OpenOption... options) {
+    return options == null || options.length == 0 || Arrays.asList(options).equals(Arrays.asList(StandardOpenOption.READ));
+  }
+
+  /**
+   * Get the number of streams and channels opened through the test directory that have not been closed.
+   *
+   * @return the number of open handles
+   */
+  public int getOpenHandleCount() {
+    return fileHandleTracker.getOpenCount();
+  }
+
+  /**
+   * Resolve the name of an existing file or directory in the test directory for reading.
+   *
+   * @param name the name of the file or directory, relative to the test directory.
+   *
+   * @return a {@link File} object for the name - the file may not exist
+   */
+  protected File resolve(String name) {
+    return new File(toFile(), name);
+  }
+
+  /**
+   * Validate a file name argument and resolve it for reading.
+   *
+   * @param fileName  the name of the file, relative to the test directory.
+   * @param operation a description of the operation for the exception message.
+   *
+   * @return a {@link File} object for the name - the file may not exist
+   */
+  File resolveFileName(String fileName, String operation) {
+    if (fileName == null || fileName.isEmpty()) {
+      throw new IllegalArgumentException(String.format("Failed to %s in the '%s' directory - the filename argument cannot be null or empty", operation, directory));
+    }
+
+    return resolve(fileName);
+  }
+
+  /**
+   * Lock a file in the test directory until the lock is released or the test completes.
+   *
+   * @param fileName the name of the file to lock.
+   * @param mode     the kind of lock.
+   *
+   * @return the holder of the lock
+   *
+   * @see FileLockHolder for how the lock is seen by code in the same JVM
+   */
+  public FileLockHolder lockFile(String fileName, FileLockHolder.Mode mode) {
+    if (mode == null) {
+      throw new IllegalArgumentException(String.format("Failed to lock the '%s' file in the '%s' directory - the lock mode argument cannot be null", fileName, directory));
+    }
+
+    FileLockHolder holder = FileLockHolder.acquire(getFile(fileName), mode);
+    synchronized (fileLocks) {
+      fileLocks.add(holder);
+    }
+
+    return holder;
+  }
+
+  /**
+   * Lock many files in the test directory, releasing each lock after a fixed hold time.
+   *
+   * @param fileNames the names of the files to lock.
+   * @param mode      the kind of lock.
+   * @param holdTime  how long to hold each lock.
+   * @param unit      the unit of the hold time argument.
+   *
+   * @return the running contention, which reports how the code under test reacted to the locks
+   */
+  public FileLockContention lockFiles(Collection<String> fileNames, FileLockHolder.Mode mode, long holdTime, TimeUnit unit) {
+    return lockFiles(fileNames, mode, holdTime, holdTime, unit);
+  }
+
+  /**
+   * Lock many files in the test directory, releasing each lock after a hold time chosen uniformly from a range.
+   *
+   * Every lock is held when this method returns.  The hold times are drawn from a fixed seed, so the release order is
+   * the same on every run - use {@link #lockFiles(Collection, FileLockHolder.Mode, long, long, TimeUnit, long)} to vary
+   * it.
+   *
+   * @param fileNames       the names of the files to lock.
+   * @param mode            the kind of lock.
+   * @param minimumHoldTime the minimum time to hold a lock.
+   * @param maximumHoldTime the maximum time to hold a lock.
+   * @param unit            the unit of the hold time arguments.
+   *
+   * @return the running contention, which reports how the code under test reacted to the locks
+   */
+  public FileLockContention lockFiles(Collection<String> fileNames, FileLockHolder.Mode mode, long minimumHoldTime, long maximumHoldTime, TimeUnit unit) {
+    return lockFiles(fileNames, mode, minimumHoldTime, maximumHoldTime, unit, 0);
+  }
+
+  /**
+   * Lock many files in the test directory, releasing each lock after a hold time chosen uniformly from a seeded range.
+   *
+   * Every lock is held when this method returns.  The same seed produces the same hold times for the same files.
+   *
+   * @param fileNames       the names of the files to lock.
+   * @param mode            the kind of lock.
+   * @param minimumHoldTime the minimum time to hold a lock.
+   * @param maximumHoldTime the maximum time to hold a lock.
+   * @param unit            the unit of the hold time arguments.
+   * @param seed            the seed for the hold times.
+   *
+   * @return the running contention, which reports how the code under test reacted to the locks
+   */
+  public FileLockContention lockFiles(Collection<String> fileNames, FileLockHolder.Mode mode, long minimumHoldTime, long maximumHoldTime, TimeUnit unit, long seed) {
+    if (fileNames == null || fileNames.isEmpty()) {
+      throw new IllegalArgumentException(String.format("Failed to lock files in the '%s' directory - the file names argument cannot be null or empty", directory));
+    }
+
+    List<File> files = new ArrayList<>(fileNames.size());
+    for (String fileName : fileNames) {
+      files.add(getFile(fileName));
+    }
+
+    FileLockContention contention = new FileLockContention(files, mode, minimumHoldTime, maximumHoldTime, unit, seed).start();
+    synchronized (fileLocks) {
+      fileLocks.add(contention);
+    }
+
+    return contention;
+  }
+
+  /**
+   * Start measuring how quickly a consumer removes the files published through the test directory.
+   *
+   * Every file written by newFile, newFileWithBody, copyFile or a {@link FileProducer} created by
+   * {@link #producer(String)} after this call is tracked until it is deleted or moved away.  The monitor is stopped after
+   * the test.
+   *
+   * @return the monitor
+   */
+  public ConsumptionMonitor monitorConsumption() {
+    ConsumptionMonitor monitor = consumptionMonitor;
+    if (monitor == null) {
+      monitor = new ConsumptionMonitor(toFile()).start();
+      consumptionMonitor = monitor;
+    }
+
+    return monitor;
+  }
+
+  /**
+   * Create a {@link FileProducer} that writes files into a child directory of the test directory at a target rate.
+   *
+   * The child directory is created when the producer is started, and the producer is stopped after the test.  The
+   * producer publishes files atomically if {@link #atomicPublish()} is enabled.
+   *
+   * @param childDirectoryName the name of the child directory to write the files into.
+   *
+   * @return a new (not started) producer
+   */
+  public FileProducer producer(String childDirectoryName) {
+    if (childDirectoryName == null || childDirectoryName.isEmpty()) {
+      throw new IllegalArgumentException(String.format("Failed to create a file producer in the '%s' directory - the child directory name argument cannot be null or empty", directory));
+    }
+
+    FileProducer producer = new FileProducer(new File(toFile(), childDirectoryName)).atomic(atomicPublish);
+    producer.publishListener = this::published;
+    synchronized (producers) {
+      producers.add(producer);
+    }
+
+    return producer;
+  }
+
+  /**
+   * Start a {@link FixtureTree} that is materialized in the test directory when {@link FixtureTree#done()} is called.
+   *
+   * @return a new fixture tree bound to this test directory
+   */
+  public FixtureTree tree() {
+    return new FixtureTree(this);
+  }
+
+  /**
+   * Get the File object for the test directory.
+   *
+   * @return the File object for the test directory.
+   */
+  public File toFile() {
+    if (directory == null) {
+      throw new IllegalStateException("The TestDirectory File object is null");
+    }
+
+    return directory;
+  }
+
+  /**
+   * Get the Path object for the test directory.
+   *
+   * @return the Path object for the test directory.
+   */
+  public Path toPath() {
+    return toFile().toPath();
+  }
+
+
+  public boolean isDeleteAfterTest() {
+    return deleteAfterTest;
+  }
+
+  public void setDeleteAfterTest(boolean deleteAfterTest) {
+    this.deleteAfterTest = deleteAfterTest;
+  }
+
+  public TestDirectory deleteAfterTest() {
+    setDeleteAfterTest(true);
+
+    return this;
+  }
+
+  public TestDirectory deleteAfterTest(boolean delete) {
+    setDeleteAfterTest(delete);
+
+    return this;
+  }
+
+  /**
+   * Record the mutations made by each test in a journal file in the default journal directory.
+   *
+   * @return this {@link TestDirectory}
+   */
+  public TestDirectory journal() {
+    return journal(DEFAULT_JOURNAL_DIRECTORY);
+  }
+
+  /**
+   * Record the mutations made by each test in a journal file in the specified directory.
+   *
+   * The journal file is named after the test class and method, and is replaced each time the test runs.
+   *
+   * @param journalDirectoryName the directory for the journal files, or null to disable the journal.
+   *
+   * @return this {@link TestDirectory}
+   */
+  public TestDirectory journal(String journalDirectoryName) {
+    this.journalDirectory = (journalDirectoryName == null || journalDirectoryName.isEmpty()) ? null : new File(journalDirectoryName);
+
+    return this;
+  }
+
+  public boolean isJournalEnabled() {
+    return journalDirectory != null;
+  }
+
+  /**
+   * Get the journal for the current test.
+   *
+   * @return the journal, or null if the journal is not enabled or a test is not running.
+   */
+  public OperationJournal getJournal() {
+    return journal;
+  }
+
+  /**
+   * Capture a change tracking baseline before each test.
+   *
+   * The baseline is captured when the rule starts, before any @Before methods run - call {@link #captureBaseline()}
+   * after creating the fixture to exclude it from the changes.
+   *
+   * @return this {@link TestDirectory}
+   */
+  public TestDirectory trackChanges() {
+    return trackChanges(true, false);
+  }
+
+  /**
+   * Configure change tracking.
+   *
+   * @param track   capture a change tracking baseline before each test.
+   * @param digests include a digest of the content of each file in the baseline, so files rewritten with the same size
+   *                and modification time are detected - this reads every file in the directory.
+   *
+   * @return this {@link TestDirectory}
+   */
+  public TestDirectory trackChanges(boolean track, boolean digests) {
+    this.trackChanges = track;
+    this.trackChangesWithDigests = digests;
+
+    return this;
+  }
+
+  public boolean isTrackChanges() {
+    return trackChanges;
+  }
+
+  /**
+   * Capture a new change tracking baseline of the current contents of the {@link TestDirectory}.
+   */
+  public void captureBaseline() {
+    stopChangeTracking();
+    changeTracker = new ChangeTracker(directory.toPath(), trackChangesWithDigests);
+  }
+
+  /**
+   * Get the changes made to the {@link TestDirectory} since the change tracking baseline was captured.
+   *
+   * @return "added", "modified", "replaced" or "removed" followed by the relative path of each changed file or
+   * directory, sorted by path.
+   */
+  public List<String> changesSinceStart() {
+    if (changeTracker == null) {
+      throw new IllegalStateException(String.format("Failed to get the changes to the '%s' directory - a change tracking baseline has not been captured", directory));
+    }
+
+    return changeTracker.changes();
+  }
+
+  /**
+   * Asserts that only files and directories matching at least one of the patterns have changed since the change
+   * tracking baseline was captured.
+   *
+   * @param patterns glob or regex patterns matched against the path relative to the {@link TestDirectory}.
+   */
+  public void assertOnlyChanged(final String... patterns) {
+    List<PathMatcher> matchers = new ArrayList<>();
+    if (patterns != null) {
+      for (String pattern : patterns) {
+        matchers.add(PathMatchers.compile(pattern));
+      }
+    }
+
+    List<String> unexpectedChanges = new ArrayList<>();
+    for (String change : changesSinceStart()) {
+      String name = change.substring(change.indexOf(' ') + 1);
+      boolean expected = false;
+      for (PathMatcher matcher : matchers) {
+        if (matcher.matches(Paths.get(name))) {
+          expected = true;
+          break;
+        }
+      }
+      if (!expected) {
+        unexpectedChanges.add(change);
+      }
+    }
+
+    if (!unexpectedChanges.isEmpty()) {
+      Assert.fail(String.format("Unexpected changes in directory %s - %s", directory, unexpectedChanges));
+    }
+  }
+
+  /**
+   * Asserts that a file or directory, and everything beneath it, has not changed since the change tracking baseline was
+   * captured.
+   *
+   * @param name the path relative to the {@link TestDirectory}.
+   */
+  public void assertUnchanged(final String name) {
+    if (name == null || name.isEmpty()) {
+      throw new IllegalArgumentException(String.format("Failed to check for changes in the '%s' directory - the name argument cannot be null or empty", directory));
+    }
+
+    String normalized = new File(name).getPath();
+    String prefix = normalized + File.separator;
+    List<String> changes = new ArrayList<>();
+    for (String change : changesSinceStart()) {
+      String changedName = change.substring(change.indexOf(' ') + 1);
+      if (changedName.equals(normalized) || changedName.startsWith(prefix)) {
+        changes.add(change);
+      }
+    }
+
+    if (!changes.isEmpty()) {
+      Assert.fail(String.format("%s in directory %s has changed - %s", name, directory, changes));
+    }
+  }
+
+  /**
+   * Limit the disk usage of the {@link TestDirectory} while each test runs.
+   *
+   * The usage is sampled by a background thread.  When the quota is exceeded the test thread is interrupted, further
+   * calls that create files or directories fail, and when the rule completes the contents of the directory are removed
+   * and the test fails.
+   *
+   * @param maxBytes the maximum total size of the files in bytes, or zero for no limit.
+   * @param maxFiles the maximum number of files, or zero for no limit.
+   *
+   * @return this {@link TestDirectory}
+   */
+  public TestDirectory quota(long maxBytes, long maxFiles) {
+    if (maxBytes < 0) {
+      throw new IllegalArgumentException(String.format("Maximum bytes argument %d cannot be negative", maxBytes));
+    } else if (maxFiles < 0) {
+      throw new IllegalArgumentException(String.format("Maximum files argument %d cannot be negative", maxFiles));
+    }
+
+    this.quotaMaxBytes = maxBytes;
+    this.quotaMaxFiles = maxFiles;
+
+    return this;
+  }
+
+  /**
+   * Set how often the disk usage is sampled when a quota is configured.
+   *
+   * @param sampleInterval the interval between samples.
+   * @param unit           the unit of the sampleInterval argument.
+   *
+   * @return this {@link TestDirectory}
+   */
+  public TestDirectory quotaSampleInterval(long sampleInterval, TimeUnit unit) {
+    if (unit == null) {
+      throw new IllegalArgumentException("Time unit argument cannot be null");
+    } else if (sampleInterval <= 0) {
+      throw new IllegalArgumentException(String.format("Sample interval argument %d must be greater than zero", sampleInterval));
+    }
+
+    this.quotaSampleIntervalMillis = Math.max(1, unit.toMillis(sampleInterval));
+
+    return this;
+  }
+
+  /**
+   * Publish the files written by newFileWithBody, copyFile and the producers atomically.
+   *
+   * The content is written under a hidden temporary name (".name.tmp-N") in the same directory and then renamed into
+   * place with {@link java.nio.file.StandardCopyOption#ATOMIC_MOVE}, so a consumer polling the directory never reads a
+   * partially written file.
+   *
+   * @return this {@link TestDirectory}
+   */
+  public TestDirectory atomicPublish() {
+    return atomicPublish(true);
+  }
+
+  /**
+   * Enable or disable atomic publishing.
+   *
+   * @param atomic publish files atomically.
+   *
+   * @return this {@link TestDirectory}
+   *
+   * @see #atomicPublish()
+   */
+  public TestDirectory atomicPublish(boolean atomic) {
+    this.atomicPublish = atomic;
+
+    return this;
+  }
+
+  public boolean isAtomicPublish() {
+    return atomicPublish;
+  }
+
+  /**
+   * Fail a test that does not close the streams and channels it opened through the test directory.
+   *
+   * Handles that are still open are always logged and closed when the test completes.
+   *
+   * @param fail fail the test if a handle is still open.
+   *
+   * @return this {@link TestDirectory}
+   */
+  public TestDirectory failOnHandleLeaks(boolean fail) {
+    this.failOnHandleLeaks = fail;
+
+    return this;
+  }
+
+  /**
+   * Compare the number of file descriptors open in the process before and after each test.
+   *
+   * The count includes descriptors opened by the code under test, and by anything else running in the JVM, so an
+   * increase is logged as a warning and only fails the test if {@link #failOnHandleLeaks(boolean)} is enabled.
+   *
+   * @param sample sample the open file descriptor count.
+   *
+   * @return this {@link TestDirectory}
+   */
+  public TestDirectory sampleFileDescriptors(boolean sample) {
+    this.sampleFileDescriptors = sample;
+
+    return this;
+  }
+
+  public boolean isQuotaEnabled() {
+    return quotaMaxBytes > 0 || quotaMaxFiles > 0;
+  }
+
+  /**
+   * Get the highest total file size sampled during the current or last test with a quota.
+   *
+   * @return the high-water mark in bytes.
+   */
+  public long getPeakBytes() {
+    return diskQuota != null ? diskQuota.getPeakBytes() : peakBytes;
+  }
+
+  /**
+   * Get the highest file count sampled during the current or last test with a quota.
+   *
+   * @return the high-water mark in files.
+   */
+  public long getPeakFiles() {
+    return diskQuota != null ? diskQuota.getPeakFiles() : peakFiles;
+  }
+
+  @Override
+  public Statement apply(Statement base, Description description) {
+    this.description = description;
+    return super.apply(base, description);
+  }
+
+  @Override
+  protected void before() {
+    initialize();
+    startJournal();
+    if (trackChanges) {
+      captureBaseline();
+    }
+    startQuota();
+    fileDescriptorsBefore = sampleFileDescriptors ? FileHandleTracker.countFileDescriptors() : -1;
+  }
+
+  @Override
+  protected void after() {
+    stopProducers();
+    stopConsumptionMonitor();
+    releaseFileLocks();
+    stopJournal();
+    stopChangeTracking();
+    try {
+      stopQuota();
+      checkHandles();
+    } finally {
+      fileHandleTracker.closeAll();
+      if (deleteAfterTest && directory != null) {
+        cleanup();
+      }
+    }
+  }
+
+  /**
+   * Release every lock acquired by {@link #lockFile(String, FileLockHolder.Mode)} and the lockFiles methods.
+   */
+  protected void releaseFileLocks() {
+    synchronized (fileLocks) {
+      for (Closeable fileLock : fileLocks) {
+        try {
+          fileLock.close();
+        } catch (IOException | RuntimeException releaseEx) {
+          log.warn("Failed to release {} in directory {}", fileLock, directory, releaseEx);
+        }
+      }
+      fileLocks.clear();
+    }
+  }
+
+  /**
+   * Stop the {@link ConsumptionMonitor} started by {@link #monitorConsumption()}.
+   */
+  protected void stopConsumptionMonitor() {
+    ConsumptionMonitor monitor = consumptionMonitor;
+    if (monitor != null) {
+      monitor.close();
+      consumptionMonitor = null;
+    }
+  }
+
+  void published(File file) {
+    ConsumptionMonitor monitor = consumptionMonitor;
+    if (monitor != null) {
+      monitor.published(file.toPath());
+    }
+  }
+
+  /**
+   * Stop every {@link FileProducer} created by {@link #producer(String)}.
+   */
+  protected void stopProducers() {
+    synchronized (producers) {
+      for (FileProducer producer : producers) {
+        producer.stop();
+      }
+      producers.clear();
+    }
+  }
+
+  /**
+   * Start a new journal for the current test if the journal is enabled.
+   */
+  protected void startJournal() {
+    stopJournal();
+    if (journalDirectory != null) {
+      String testName = description != null ? description.getDisplayName() : directory.getName();
+      String fileName = description != null && description.getClassName() != null
+          ? description.getClassName() + (description.getMethodName() != null ? "." + description.getMethodName() : "")
+          : directory.getName();
+      journal = OperationJournal.start(new File(journalDirectory, fileName.replaceAll("[^A-Za-z0-9._-]", "_") + ".journal"), testName);
+    }
+  }
+
+  /**
+   * Close the journal for the current test.
+   */
+  protected void stopJournal() {
+    if (journal != null) {
+      try {
+        journal.close();
+      } finally {
+        journal = null;
+      }
+    }
+  }
+
+  /**
+   * Start enforcing the quota for the current test if a quota is configured.
+   */
+  protected void startQuota() {
+    if (diskQuota != null) {
+      diskQuota.close();
+    }
+    peakBytes = 0;
+    peakFiles = 0;
+    if (isQuotaEnabled()) {
+      diskQuota = new DiskQuota(directory.toPath(), quotaMaxBytes, quotaMaxFiles, quotaSampleIntervalMillis, Thread.currentThread());
+    }
+  }
+
+  /**
+   * Stop enforcing the quota, report the high-water marks and fail if the quota was exceeded.
+   */
+  protected void stopQuota() {
+    if (diskQuota == null) {
+      return;
+    }
+
+    DiskQuota stoppedQuota = diskQuota;
+    diskQuota = null;
+    // Terminate the sampler first so it cannot interrupt the test thread after the interrupt is cleared
+    stoppedQuota.close();
+    if (stoppedQuota.testThreadInterrupted) {
+      // Do not leak the interrupt used to stop the test into the next test
+      Thread.interrupted();
+    }
+    stoppedQuota.sample();
+
+    peakBytes = stoppedQuota.getPeakBytes();
+    peakFiles = stoppedQuota.getPeakFiles();
+    log.info("Disk usage high-water mark for {} in directory {}: {} bytes in {} files",
+        description != null ? description.getDisplayName() : "test", directory, peakBytes, peakFiles);
+
+    if (stoppedQuota.getViolation() != null) {
+      // Free the disk space used by the runaway test
+      cleanup();
+    }
+    stoppedQuota.check();
+  }
+
+  /**
+   * Close the handles that are still open and compare the open file descriptor count with the count before the test.
+   */
+  protected void checkHandles() {
+    List<String> leakedHandles = fileHandleTracker.closeAll();
+
+    String fileDescriptorLeak = null;
+    if (fileDescriptorsBefore >= 0) {
+      long fileDescriptorsAfter = FileHandleTracker.countFileDescriptors();
+      if (fileDescriptorsAfter > fileDescriptorsBefore) {
+        fileDescriptorLeak = String.format("Open file descriptor count increased from %d to %d during the test in directory %s", fileDescriptorsBefore, fileDescriptorsAfter, directory);
+        log.warn(fileDescriptorLeak);
+      }
+      fileDescriptorsBefore = -1;
+    }
+
+    if (failOnHandleLeaks) {
+      if (!leakedHandles.isEmpty()) {
+        Assert.fail(String.format("%d handles opened in directory %s were not closed - %s", leakedHandles.size(), directory, leakedHandles));
+      } else if (fileDescriptorLeak != null) {
+        Assert.fail(fileDescriptorLeak);
+      }
+    }
+  }
+
+  void checkQuota() {
+    DiskQuota currentQuota = diskQuota;
+    if (currentQuota != null) {
+      currentQuota.check();
+    }
+  }
+
+  /**
+   * Stop tracking changes and release the resources used by the change tracker.
+   */
+  protected void stopChangeTracking() {
+    if (changeTracker != null) {
+      try {
+        changeTracker.close();
+      } finally {
+        changeTracker = null;
+      }
+    }
+  }
+
+  void journal(OperationJournal.Operation operation, String name, String argument, long startNanos) {
+    if (journal != null && journalSuppression == 0) {
+      journal.record(operation, name, argument, startNanos);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return directory.toString();
+  }
+
+  public void initialize() {
+    if (directory == null) {
+      throw new IllegalStateException("The TestDirectory File object is null");
+    }
+
+    if (directory.exists()) {
+      cleanup();
+    } else {
+      if (!directory.mkdirs()) {
+        throw new IllegalStateException("Failed to create " + directory + " directory - File.mkdirs() returned false");
+      }
+    }
+  }
+
+  public void cleanup() {
+    if (directory.exists()) {
+      String[] entries = directory.list();
+      if (entries.length > 0) {
+        log.info("Clearing test directory {} contents {}", directory, entries);
+        try {
+          FileUtils.cleanDirectory(directory);
+        } catch (IOException cleanEx) {
+          throw new IllegalStateException("Failed to clean exiting " + directory.toString() + " directory", cleanEx);
+        }
+      }
+    }
+
+  }
+
+  /**
+   * Asserts that a {@link TestDirectory} does not contain any children.
    */
   public void assertIsEmpty() {
     DirectoryAssert.assertDirectoryIsEmpty(directory);
@@ -630,4 +1853,216 @@ public class TestDirectory extends ExternalResource {
 
     DirectoryAssert.assertDirectoryNotContainsDirectory(new File(directory, childDirectoryName), directoryName);
   }
-}
\ No newline at end of file
+
+  /**
+   * Asserts that the {@link TestDirectory} contains all of the expected files, and may contain others.
+   *
+   * @param fileNames expected file names
+   *
+   * @see DirectoryAssert#assertDirectoryContainsAllFiles(Path, Collection)
+   */
+  public void assertContainsAllFiles(final Collection<String> fileNames) {
+    DirectoryAssert.assertDirectoryContainsAllFiles(toPath(), fileNames);
+  }
+
+  /**
+   * Asserts that the {@link TestDirectory} contains exactly the expected files.
+   *
+   * @param fileNames expected file names
+   *
+   * @see DirectoryAssert#assertDirectoryContainsExactlyFiles(Path, Collection)
+   */
+  public void assertContainsExactlyFiles(final Collection<String> fileNames) {
+    DirectoryAssert.assertDirectoryContainsExactlyFiles(toPath(), fileNames);
+  }
+
+  /**
+   * Asserts that the {@link TestDirectory} does not contain any of the specified files.
+   *
+   * @param fileNames unexpected file names
+   *
+   * @see DirectoryAssert#assertDirectoryContainsNoneOf(Path, Collection)
+   */
+  public void assertContainsNoneOf(final Collection<String> fileNames) {
+    DirectoryAssert.assertDirectoryContainsNoneOf(toPath(), fileNames);
+  }
+
+  /**
+   * Asserts that the {@link TestDirectory} contains a specific number of files with names matching a pattern.
+   *
+   * @param pattern glob or regex file name pattern (e.g. "out-*.csv" or "regex:out-[0-9]+\\.csv")
+   * @param expectedCount expected number of matching files
+   */
+  public void assertContainsFilesMatching(final String pattern, int expectedCount) {
+    DirectoryAssert.assertDirectoryContainsFilesMatching(directory, pattern, expectedCount);
+  }
+
+  /**
+   * Asserts that the {@link TestDirectory} does not contain any files with names matching a pattern.
+   *
+   * @param pattern glob or regex file name pattern
+   */
+  public void assertNoFilesMatching(final String pattern) {
+    DirectoryAssert.assertDirectoryNotContainsFilesMatching(directory, pattern);
+  }
+
+  /**
+   * Asserts that the names of all files in the {@link TestDirectory} match a pattern.
+   *
+   * @param pattern glob or regex file name pattern
+   */
+  public void assertAllFilesMatch(final String pattern) {
+    DirectoryAssert.assertDirectoryAllFilesMatch(directory, pattern);
+  }
+
+  /**
+   * Start a batch of assertions on the {@link TestDirectory}.
+   *
+   * The checks are evaluated when {@link DirectoryVerification#run()} is called, listing each directory involved only
+   * once and reporting every failure together.
+   *
+   * @return a new {@link DirectoryVerification} for the {@link TestDirectory}
+   */
+  public DirectoryVerification verify() {
+    return new DirectoryVerification(directory);
+  }
+
+  /**
+   * Asserts that a file appears in the {@link TestDirectory} before a timeout elapses.
+   *
+   * @param fileName expected file name
+   * @param timeout the maximum time to wait
+   * @param unit the unit of the timeout argument
+   */
+  public void assertFileAppearsWithin(final String fileName, long timeout, TimeUnit unit) {
+    DirectoryAssert.assertFileAppearsWithin(directory, fileName, timeout, unit);
+  }
+
+  /**
+   * Asserts that a file is removed from the {@link TestDirectory} before a timeout elapses.
+   *
+   * @param fileName file name
+   * @param timeout the maximum time to wait
+   * @param unit the unit of the timeout argument
+   */
+  public void assertFileDisappearsWithin(final String fileName, long timeout, TimeUnit unit) {
+    DirectoryAssert.assertFileDisappearsWithin(directory, fileName, timeout, unit);
+  }
+
+  /**
+   * Asserts that the {@link TestDirectory} contains a specific number of children before a timeout elapses.
+   *
+   * @param expectedChildCount expected number of children
+   * @param timeout the maximum time to wait
+   * @param unit the unit of the timeout argument
+   */
+  public void assertChildCountReachesWithin(int expectedChildCount, long timeout, TimeUnit unit) {
+    DirectoryAssert.assertChildCountReachesWithin(directory, expectedChildCount, timeout, unit);
+  }
+
+  /**
+   * Asserts that a file in the {@link TestDirectory} contains the same lines as an expected file.
+   *
+   * @param expectedFile file with the expected content
+   * @param fileName the name of the file in the test directory
+   *
+   * @see FileAssert#assertFileLinesEqual(File, File, Charset, int)
+   */
+  public void assertFileLinesEqual(final File expectedFile, final String fileName) {
+    FileAssert.assertFileLinesEqual(expectedFile, resolveFileName(fileName, "compare the lines of a file"));
+  }
+
+  /**
+   * Asserts that a file in the {@link TestDirectory} contains the same lines as an expected file.
+   *
+   * @param expectedFile file with the expected content
+   * @param fileName the name of the file in the test directory
+   *
+   * @see FileAssert#assertFileLinesEqual(Path, Path, Charset, int)
+   */
+  public void assertFileLinesEqual(final Path expectedFile, final String fileName) {
+    FileAssert.assertFileLinesEqual(expectedFile, resolveFileName(fileName, "compare the lines of a file").toPath());
+  }
+
+  /**
+   * Asserts that a file in the {@link TestDirectory} contains a match for a regular expression.
+   *
+   * @param fileName the name of the file in the test directory
+   * @param pattern the regular expression
+   *
+   * @see FileAssert#assertFileContains(Path, Pattern, Charset)
+   */
+  public void assertFileContains(final String fileName, final Pattern pattern) {
+    FileAssert.assertFileContains(resolveFileName(fileName, "search a file").toPath(), pattern);
+  }
+
+  /**
+   * Asserts that a file in the {@link TestDirectory} does not contain a match for a regular expression.
+   *
+   * @param fileName the name of the file in the test directory
+   * @param pattern the regular expression
+   *
+   * @see FileAssert#assertFileNotContains(Path, Pattern, Charset)
+   */
+  public void assertFileNotContains(final String fileName, final Pattern pattern) {
+    FileAssert.assertFileNotContains(resolveFileName(fileName, "search a file").toPath(), pattern);
+  }
+
+  /**
+   * Asserts that no file in the {@link TestDirectory} with a name matching a pattern contains a match for a regular
+   * expression.
+   *
+   * @param filePattern glob or regex file name pattern (e.g. "*.log")
+   * @param pattern the regular expression
+   *
+   * @see DirectoryAssert#assertNoFileContains(Path, String, Pattern, Charset)
+   */
+  public void assertNoFileContains(final String filePattern, final Pattern pattern) {
+    DirectoryAssert.assertNoFileContains(toPath(), filePattern, pattern);
+  }
+
+  /**
+   * Asserts that a file in the {@link TestDirectory} has a specific size.
+   *
+   * @param fileName the name of the file
+   * @param expectedSize expected size of the file in bytes
+   */
+  public void assertFileSize(final String fileName, long expectedSize) {
+    FileAssert.assertFileSize(resolveFileName(fileName, "check the size of a file"), expectedSize);
+  }
+
+  /**
+   * Asserts that a file in the {@link TestDirectory} is at least a minimum size.
+   *
+   * @param fileName the name of the file
+   * @param minimumSize minimum size of the file in bytes
+   *
+   * @see FileAssert#assertFileSizeAtLeast(File, long)
+   */
+  public void assertFileSizeAtLeast(final String fileName, long minimumSize) {
+    FileAssert.assertFileSizeAtLeast(resolveFileName(fileName, "check the size of a file"), minimumSize);
+  }
+
+  /**
+   * Asserts that a file in the {@link TestDirectory} contains a specific number of lines.
+   *
+   * @param fileName the name of the file
+   * @param expectedLineCount expected number of lines
+   *
+   * @see FileAssert#assertLineCount(File, long)
+   */
+  public void assertLineCount(final String fileName, long expectedLineCount) {
+    FileAssert.assertLineCount(resolveFileName(fileName, "count the lines of a file"), expectedLineCount);
+  }
+
+  /**
+   * Asserts that a file in the {@link TestDirectory} contains a number of lines within a range.
+   *
+   * @param fileName the name of the file
+   * @param minimumLineCount minimum number of lines (inclusive)
+   * @param maximumLineCount maximum number of lines (inclusive)
+   */
+  public void assertLineCountBetween(final String fileName, long minimumLineCount, long maximumLineCount) {
+    FileAssert.assertLineCountBetween(resolveFileName(fileName, "count the lines of a file"), minimumLineCount, maximumLineCount);
+  }
+}
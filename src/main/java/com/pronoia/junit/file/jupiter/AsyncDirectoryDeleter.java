@@ -0,0 +1,89 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.pronoia.junit.file.jupiter;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Deletes directories on a background thread.
+ *
+ * A directory is first renamed to a unique sibling name, which is fast and frees the original name for immediate
+ * reuse, and the renamed tree is then deleted asynchronously.  Closing the deleter waits for pending deletions.
+ */
+class AsyncDirectoryDeleter implements ExtensionContext.Store.CloseableResource {
+  static final String DELETED_SUFFIX = ".deleted-";
+  static final long SHUTDOWN_TIMEOUT_SECONDS = 300;
+
+  final Logger log = LoggerFactory.getLogger(this.getClass());
+
+  final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "test-directory-deleter");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  /**
+   * Move a directory out of the way and schedule its deletion.
+   *
+   * @param directory the directory to delete
+   */
+  void delete(final File directory) {
+    File deleted = new File(directory.getParentFile(), directory.getName() + DELETED_SUFFIX + UUID.randomUUID());
+
+    final File target;
+    try {
+      target = Files.move(directory.toPath(), deleted.toPath(), StandardCopyOption.ATOMIC_MOVE).toFile();
+    } catch (IOException moveEx) {
+      log.debug("Failed to rename {} - deleting it synchronously", directory, moveEx);
+      try {
+        FileUtils.deleteDirectory(directory);
+      } catch (IOException deleteEx) {
+        throw new IllegalStateException(String.format("Failed to delete the '%s' directory", directory), deleteEx);
+      }
+      return;
+    }
+
+    executor.execute(() -> {
+      try {
+        FileUtils.deleteDirectory(target);
+      } catch (IOException deleteEx) {
+        log.warn("Failed to delete {}", target, deleteEx);
+      }
+    });
+  }
+
+  @Override
+  public void close() throws InterruptedException {
+    executor.shutdown();
+    if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+      log.warn("Pending test directory deletions did not complete within {} seconds", SHUTDOWN_TIMEOUT_SECONDS);
+    }
+  }
+}
@@ -0,0 +1,263 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.pronoia.junit.file.jupiter;
+
+import com.pronoia.junit.file.TestDirectory;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.ParameterContext;
+import org.junit.jupiter.api.extension.ParameterResolutionException;
+import org.junit.jupiter.api.extension.ParameterResolver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A JUnit 5 (Jupiter) extension that provides an isolated {@link TestDirectory} for every test.
+ *
+ * The {@link TestDirectory} is injected into test method (and lifecycle method) parameters of type
+ * {@link TestDirectory}, and into non-static, non-final fields of type {@link TestDirectory} before each test - a field
+ * is only left alone if the test class assigned its own {@link TestDirectory} to it.  Each test gets its own directory
+ * under the root directory, named after the test class and method, so tests can run concurrently with Jupiter's
+ * parallel execution.  Field injection is only safe for concurrent tests with the default per-method test instance
+ * lifecycle - use parameter injection with a per-class lifecycle.
+ *
+ * Each {@link TestDirectory} goes through the same lifecycle as the JUnit 4 rule: the journal, quota, change tracking
+ * and handle checks configured with {@link #configure(Consumer)} are started when the directory is created, and after
+ * each test the producers, consumption monitor and file locks are stopped and the quota and handle checks can fail the
+ * test.
+ *
+ * Per-test state is kept in the {@link ExtensionContext.Store} of the test.  Stale and finished test directories are
+ * renamed out of the way and deleted on a background thread, so removing large trees does not delay the next test.
+ * Pending deletions are completed before the test engine finishes.
+ *
+ * Usage:
+ * <pre>
+ *   &#64;ExtendWith(TestDirectoryExtension.class)
+ *   class MyTest {
+ *     &#64;Test
+ *     void test(TestDirectory testDirectory) { ... }
+ *   }
+ * </pre>
+ * or, to configure the extension:
+ * <pre>
+ *   &#64;RegisterExtension
+ *   static TestDirectoryExtension testDirectories = new TestDirectoryExtension("target/my-test-files")
+ *       .deleteAfterTest()
+ *       .configure(testDirectory -&gt; testDirectory.quota(1024 * 1024, 100).failOnHandleLeaks(true));
+ * </pre>
+ */
+public class TestDirectoryExtension implements BeforeEachCallback, AfterEachCallback, ParameterResolver {
+  static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace.create(TestDirectoryExtension.class);
+  static final String TEST_DIRECTORY_KEY = "test-directory";
+
+  final Logger log = LoggerFactory.getLogger(this.getClass());
+
+  final File rootDirectory;
+  boolean deleteAfterTest = false;
+  Consumer<TestDirectory> configurer;
+
+  /**
+   * Create a {@link TestDirectoryExtension} that creates test directories in the Maven target directory.
+   */
+  public TestDirectoryExtension() {
+    this(TestDirectory.DEFAULT_DIRECTORY);
+  }
+
+  /**
+   * Create a {@link TestDirectoryExtension} that creates test directories under the specified root directory.
+   *
+   * @param rootDirectoryName the root directory name.
+   */
+  public TestDirectoryExtension(String rootDirectoryName) {
+    if (rootDirectoryName == null || rootDirectoryName.isEmpty()) {
+      throw new IllegalArgumentException("The root directory name argument for the test directory extension cannot be null or empty");
+    }
+
+    this.rootDirectory = new File(rootDirectoryName);
+  }
+
+  public boolean isDeleteAfterTest() {
+    return deleteAfterTest;
+  }
+
+  public void setDeleteAfterTest(boolean deleteAfterTest) {
+    this.deleteAfterTest = deleteAfterTest;
+  }
+
+  public TestDirectoryExtension deleteAfterTest() {
+    setDeleteAfterTest(true);
+
+    return this;
+  }
+
+  public TestDirectoryExtension deleteAfterTest(boolean delete) {
+    setDeleteAfterTest(delete);
+
+    return this;
+  }
+
+  /**
+   * Configure every {@link TestDirectory} before its test starts.
+   *
+   * Settings that take effect when a test starts - the journal, quota, change tracking and file descriptor sampling -
+   * must be applied here, because the directory has already started when it is injected into the test.
+   *
+   * @param configurer applies the settings to each new {@link TestDirectory}
+   *
+   * @return this extension
+   */
+  public TestDirectoryExtension configure(Consumer<TestDirectory> configurer) {
+    this.configurer = configurer;
+
+    return this;
+  }
+
+  @Override
+  public void beforeEach(ExtensionContext context) throws Exception {
+    Optional<Object> testInstance = context.getTestInstance();
+    if (!testInstance.isPresent()) {
+      return;
+    }
+
+    for (Class<?> type = testInstance.get().getClass(); type != null && type != Object.class; type = type.getSuperclass()) {
+      for (Field field : type.getDeclaredFields()) {
+        int modifiers = field.getModifiers();
+        if (field.getType() == TestDirectory.class && !Modifier.isStatic(modifiers) && !Modifier.isFinal(modifiers)) {
+          field.setAccessible(true);
+          // Replace the directory of a previous test when the test instance is shared (PER_CLASS lifecycle)
+          Object current = field.get(testInstance.get());
+          if (current == null || current instanceof ExtensionTestDirectory) {
+            field.set(testInstance.get(), getTestDirectory(context));
+          }
+        }
+      }
+    }
+  }
+
+  @Override
+  public void afterEach(ExtensionContext context) throws Exception {
+    ManagedTestDirectory managed = context.getStore(NAMESPACE).get(TEST_DIRECTORY_KEY, ManagedTestDirectory.class);
+    if (managed != null) {
+      managed.testDirectory.finish();
+    }
+  }
+
+  @Override
+  public boolean supportsParameter(ParameterContext parameterContext, ExtensionContext extensionContext) {
+    return parameterContext.getParameter().getType() == TestDirectory.class;
+  }
+
+  @Override
+  public Object resolveParameter(ParameterContext parameterContext, ExtensionContext extensionContext) {
+    if (!extensionContext.getTestMethod().isPresent()) {
+      throw new ParameterResolutionException(String.format("A TestDirectory can only be injected into test and lifecycle method parameters - %s", parameterContext.getDeclaringExecutable()));
+    }
+
+    return getTestDirectory(extensionContext);
+  }
+
+  /**
+   * Get the {@link TestDirectory} for a test, creating and initializing it if necessary.
+   *
+   * @param context the extension context of the test
+   *
+   * @return the {@link TestDirectory} for the test
+   */
+  public TestDirectory getTestDirectory(ExtensionContext context) {
+    return context.getStore(NAMESPACE).getOrComputeIfAbsent(TEST_DIRECTORY_KEY, key -> createTestDirectory(context), ManagedTestDirectory.class).testDirectory;
+  }
+
+  ManagedTestDirectory createTestDirectory(ExtensionContext context) {
+    AsyncDirectoryDeleter deleter = context.getRoot().getStore(NAMESPACE).getOrComputeIfAbsent(AsyncDirectoryDeleter.class);
+
+    File directory = new File(new File(rootDirectory, directoryName(context.getRequiredTestClass().getName())),
+        directoryName(context.getRequiredTestMethod().getName() + "-" + Integer.toHexString(context.getUniqueId().hashCode())));
+
+    if (directory.exists()) {
+      deleter.delete(directory);
+    }
+
+    ExtensionTestDirectory testDirectory = new ExtensionTestDirectory(directory);
+    if (configurer != null) {
+      configurer.accept(testDirectory);
+    }
+    testDirectory.start();
+    log.debug("Created test directory {} for {}", directory, context.getUniqueId());
+
+    return new ManagedTestDirectory(testDirectory, deleteAfterTest ? deleter : null);
+  }
+
+  static String directoryName(String name) {
+    return name.replaceAll("[^A-Za-z0-9._-]", "_");
+  }
+
+  /**
+   * Holds the {@link TestDirectory} of a test in the {@link ExtensionContext.Store}, and schedules its deletion when
+   * the store of the test is closed.
+   */
+  static class ManagedTestDirectory implements ExtensionContext.Store.CloseableResource {
+    final ExtensionTestDirectory testDirectory;
+    final AsyncDirectoryDeleter deleter;
+
+    ManagedTestDirectory(ExtensionTestDirectory testDirectory, AsyncDirectoryDeleter deleter) {
+      this.testDirectory = testDirectory;
+      this.deleter = deleter;
+    }
+
+    @Override
+    public void close() throws IOException {
+      // Release the background resources even if the test failed before afterEach
+      testDirectory.finish();
+      if (deleter != null) {
+        deleter.delete(testDirectory.toFile());
+      }
+    }
+  }
+
+  /**
+   * Exposes the lifecycle of the {@link TestDirectory} rule to the extension.
+   */
+  static class ExtensionTestDirectory extends TestDirectory {
+    boolean started = false;
+
+    ExtensionTestDirectory(File directory) {
+      super(directory);
+    }
+
+    void start() {
+      before();
+      started = true;
+    }
+
+    void finish() {
+      if (started) {
+        started = false;
+        after();
+      }
+    }
+  }
+}
@@ -18,10 +18,14 @@
 package com.pronoia.junit.asserts.file;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.io.File;
+import java.nio.file.Path;
 import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.io.FileUtils;
 import org.junit.After;
@@ -708,4 +712,230 @@ public class DirectoryAssertTest {
       assertEquals("Unexpected assertion message", expectedAssertionMessage, expectedFailure.getMessage());
     }
   }
-}
\ No newline at end of file
+
+  /**
+   * Description of test.
+   *
+   * @throws Exception in the event of a test error.
+   */
+  @Test
+  public void testAssertDirectoryContainsFilesMatching() throws Exception {
+    DirectoryAssert.assertDirectoryContainsFilesMatching(TEST_DIRECTORY, "out-*.csv", 0);
+
+    new File(TEST_DIRECTORY, "out-1.csv").createNewFile();
+    new File(TEST_DIRECTORY, "out-2.csv").createNewFile();
+    new File(TEST_DIRECTORY, "out-3.txt").createNewFile();
+    new File(TEST_DIRECTORY, "out-4.csv").mkdirs();
+
+    DirectoryAssert.assertDirectoryContainsFilesMatching(TEST_DIRECTORY, "out-*.csv", 2);
+    DirectoryAssert.assertDirectoryContainsFilesMatching(TEST_DIRECTORY, "regex:out-[0-9]\\.(csv|txt)", 3);
+    DirectoryAssert.assertDirectoryContainsFilesMatching(TEST_DIRECTORY.toString(), "glob:*.txt", 1);
+
+    try {
+      DirectoryAssert.assertDirectoryContainsFilesMatching(TEST_DIRECTORY, "out-*.csv", 3);
+      fail("Assertion should have failed");
+    } catch (AssertionError expectedFailure) {
+      final String expectedAssertionMessage = String.format("Unexpected number of files matching out-*.csv in directory %s expected:<3> but was:<2>", TEST_DIRECTORY);
+      assertEquals("Unexpected assertion message", expectedAssertionMessage, expectedFailure.getMessage());
+    }
+
+    for (String pattern : Arrays.asList("", null)) {
+      try {
+        DirectoryAssert.assertDirectoryContainsFilesMatching(TEST_DIRECTORY, pattern, 0);
+        fail("Operation should have failed");
+      } catch (IllegalArgumentException expectedEx) {
+        final String expectedMessage = "Pattern argument cannot be null or empty";
+        assertEquals(expectedMessage, expectedEx.getMessage());
+      }
+    }
+  }
+
+  /**
+   * Description of test.
+   *
+   * @throws Exception in the event of a test error.
+   */
+  @Test
+  public void testAssertDirectoryNotContainsFilesMatching() throws Exception {
+    DirectoryAssert.assertDirectoryNotContainsFilesMatching(TEST_DIRECTORY, "*.csv");
+
+    new File(TEST_DIRECTORY, "out.csv").mkdirs();
+    // This test will pass because the entry is not a file (it is a directory)
+    DirectoryAssert.assertDirectoryNotContainsFilesMatching(TEST_DIRECTORY, "*.csv");
+
+    new File(TEST_DIRECTORY, "out-1.csv").createNewFile();
+    try {
+      DirectoryAssert.assertDirectoryNotContainsFilesMatching(TEST_DIRECTORY.toString(), "*-1.csv");
+      fail("Assertion should have failed");
+    } catch (AssertionError expectedFailure) {
+      final String expectedAssertionMessage = String.format("File out-1.csv matching *-1.csv exists in directory %s", TEST_DIRECTORY);
+      assertEquals("Unexpected assertion message", expectedAssertionMessage, expectedFailure.getMessage());
+    }
+  }
+
+  /**
+   * Description of test.
+   *
+   * @throws Exception in the event of a test error.
+   */
+  @Test
+  public void testAssertDirectoryAllFilesMatch() throws Exception {
+    DirectoryAssert.assertDirectoryAllFilesMatch(TEST_DIRECTORY, "*.csv");
+
+    new File(TEST_DIRECTORY, "out-1.csv").createNewFile();
+    TEST_CHILD_DIRECTORY.mkdirs();
+    // The child directory does not match, but it is not a file
+    DirectoryAssert.assertDirectoryAllFilesMatch(TEST_DIRECTORY, "*.csv");
+
+    new File(TEST_DIRECTORY, "out-2.txt").createNewFile();
+    try {
+      DirectoryAssert.assertDirectoryAllFilesMatch(TEST_DIRECTORY.toString(), "*.csv");
+      fail("Assertion should have failed");
+    } catch (AssertionError expectedFailure) {
+      final String expectedAssertionMessage = String.format("File out-2.txt in directory %s does not match *.csv", TEST_DIRECTORY);
+      assertEquals("Unexpected assertion message", expectedAssertionMessage, expectedFailure.getMessage());
+    }
+  }
+
+  /**
+   * Description of test.
+   *
+   * @throws Exception in the event of a test error.
+   */
+  @Test
+  public void testAssertFileAppearsWithin() throws Exception {
+    try {
+      DirectoryAssert.assertFileAppearsWithin(TEST_DIRECTORY, TEST_FILE_NAME, 50, TimeUnit.MILLISECONDS);
+      fail("Assertion should have failed");
+    } catch (AssertionError expectedFailure) {
+      final String expectedAssertionMessage = String.format("File %s did not appear in directory %s within 50 MILLISECONDS", TEST_FILE_NAME, TEST_DIRECTORY);
+      assertEquals("Unexpected assertion message", expectedAssertionMessage, expectedFailure.getMessage());
+    }
+
+    final File expected = new File(TEST_DIRECTORY, TEST_FILE_NAME);
+    Thread producer = delayed(100, () -> expected.createNewFile());
+
+    long start = System.nanoTime();
+    DirectoryAssert.assertFileAppearsWithin(TEST_DIRECTORY, TEST_FILE_NAME, 30, TimeUnit.SECONDS);
+    assertTrue("Assertion should not wait for the full timeout", System.nanoTime() - start < TimeUnit.SECONDS.toNanos(10));
+
+    producer.join();
+  }
+
+  /**
+   * Description of test.
+   *
+   * @throws Exception in the event of a test error.
+   */
+  @Test
+  public void testAssertFileDisappearsWithin() throws Exception {
+    final File expected = new File(TEST_DIRECTORY, TEST_FILE_NAME);
+    DirectoryAssert.assertFileDisappearsWithin(TEST_DIRECTORY, TEST_FILE_NAME, 0, TimeUnit.MILLISECONDS);
+
+    expected.createNewFile();
+    try {
+      DirectoryAssert.assertFileDisappearsWithin(TEST_DIRECTORY, TEST_FILE_NAME, 50, TimeUnit.MILLISECONDS);
+      fail("Assertion should have failed");
+    } catch (AssertionError expectedFailure) {
+      final String expectedAssertionMessage = String.format("File %s did not disappear from directory %s within 50 MILLISECONDS", TEST_FILE_NAME, TEST_DIRECTORY);
+      assertEquals("Unexpected assertion message", expectedAssertionMessage, expectedFailure.getMessage());
+    }
+
+    Thread consumer = delayed(100, () -> expected.delete());
+    DirectoryAssert.assertFileDisappearsWithin(TEST_DIRECTORY, TEST_FILE_NAME, 30, TimeUnit.SECONDS);
+
+    consumer.join();
+  }
+
+  /**
+   * Description of test.
+   *
+   * @throws Exception in the event of a test error.
+   */
+  @Test
+  public void testAssertChildCountReachesWithin() throws Exception {
+    DirectoryAssert.assertChildCountReachesWithin(TEST_DIRECTORY, 0, 0, TimeUnit.MILLISECONDS);
+
+    try {
+      DirectoryAssert.assertChildCountReachesWithin(TEST_DIRECTORY, 2, 50, TimeUnit.MILLISECONDS);
+      fail("Assertion should have failed");
+    } catch (AssertionError expectedFailure) {
+      final String expectedAssertionMessage = String.format("Directory %s did not reach 2 children within 50 MILLISECONDS - contains 0", TEST_DIRECTORY);
+      assertEquals("Unexpected assertion message", expectedAssertionMessage, expectedFailure.getMessage());
+    }
+
+    Thread producer = delayed(100, () -> {
+      new File(TEST_DIRECTORY, "one.txt").createNewFile();
+      new File(TEST_DIRECTORY, "two.txt").createNewFile();
+      return true;
+    });
+    DirectoryAssert.assertChildCountReachesWithin(TEST_DIRECTORY, 2, 30, TimeUnit.SECONDS);
+
+    producer.join();
+  }
+
+  static Thread delayed(final long delayMillis, final Callable<Boolean> action) {
+    Thread thread = new Thread(() -> {
+      try {
+        Thread.sleep(delayMillis);
+        action.call();
+      } catch (Exception ex) {
+        throw new IllegalStateException(ex);
+      }
+    });
+    thread.start();
+
+    return thread;
+  }
+
+  /**
+   * Description of test.
+   *
+   * @throws Exception in the event of a test error.
+   */
+  @Test
+  public void testAssertsWithPath() throws Exception {
+    final Path directory = TEST_DIRECTORY.toPath();
+    final Path childDirectory = TEST_CHILD_DIRECTORY.toPath();
+
+    try {
+      DirectoryAssert.assertDirectoryExists(childDirectory);
+      fail("Assertion should have failed");
+    } catch (AssertionError expectedFailure) {
+      final String expectedAssertionMessage = String.format("Directory %s does not exist", childDirectory);
+      assertEquals("Unexpected assertion message", expectedAssertionMessage, expectedFailure.getMessage());
+    }
+    DirectoryAssert.assertDirectoryNotExists(childDirectory);
+    DirectoryAssert.assertDirectoryIsEmpty(directory);
+
+    TEST_CHILD_DIRECTORY.mkdirs();
+    TEST_FILE.createNewFile();
+
+    DirectoryAssert.assertDirectoryExists(childDirectory);
+    DirectoryAssert.assertDirectoryNotEmpty(directory);
+    DirectoryAssert.assertDirectoryChildCountEquals(directory, 1);
+    DirectoryAssert.assertDirectoryChildFileCountEquals(childDirectory, 1);
+    DirectoryAssert.assertDirectoryChildDirectoryCountEquals(directory, 1);
+    DirectoryAssert.assertDirectoryContainsDirectory(directory, TEST_CHILD_DIRECTORY_NAME);
+    DirectoryAssert.assertDirectoryNotContainsFile(directory, TEST_CHILD_DIRECTORY_NAME);
+    DirectoryAssert.assertDirectoryContainsFile(childDirectory, TEST_FILE_NAME);
+    DirectoryAssert.assertDirectoryContainsFilesMatching(childDirectory, "*.txt", 1);
+    DirectoryAssert.assertFileAppearsWithin(childDirectory, TEST_FILE_NAME, 1, TimeUnit.SECONDS);
+
+    try {
+      DirectoryAssert.assertDirectoryContainsFile(directory, TEST_CHILD_DIRECTORY_NAME);
+      fail("Assertion should have failed");
+    } catch (AssertionError expectedFailure) {
+      final String expectedAssertionMessage = String.format("%s in directory %s does not refer to a file", TEST_CHILD_DIRECTORY_NAME, directory);
+      assertEquals("Unexpected assertion message", expectedAssertionMessage, expectedFailure.getMessage());
+    }
+
+    try {
+      DirectoryAssert.assertDirectoryIsEmpty(childDirectory);
+      fail("Assertion should have failed");
+    } catch (AssertionError expectedFailure) {
+      final String expectedAssertionMessage = String.format("Directory %s is not empty - contains [%s]", childDirectory, TEST_FILE_NAME);
+      assertEquals("Unexpected assertion message", expectedAssertionMessage, expectedFailure.getMessage());
+    }
+  }
+}
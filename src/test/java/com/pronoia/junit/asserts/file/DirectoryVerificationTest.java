@@ -0,0 +1,167 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.pronoia.junit.asserts.file;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.nio.file.Path;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for the DirectoryVerification class.
+ */
+public class DirectoryVerificationTest {
+  static final File TEST_DIRECTORY = new File("target/verification-test");
+  static final String TEST_CHILD_DIRECTORY_NAME = "child-directory";
+  static final File TEST_CHILD_DIRECTORY = new File(TEST_DIRECTORY, TEST_CHILD_DIRECTORY_NAME);
+  static final String TEST_FILE_NAME = "test.txt";
+
+  @Before
+  public void setUp() throws Exception {
+    if (TEST_DIRECTORY.exists()) {
+      FileUtils.deleteQuietly(TEST_DIRECTORY);
+    }
+
+    TEST_DIRECTORY.mkdirs();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    FileUtils.deleteQuietly(TEST_DIRECTORY);
+  }
+
+  /**
+   * Description of test.
+   *
+   * @throws Exception in the event of a test error.
+   */
+  @Test
+  public void testRunPassing() throws Exception {
+    new DirectoryVerification(TEST_DIRECTORY).isEmpty().notContainsFile(TEST_FILE_NAME).noFilesMatching("*.csv").run();
+
+    TEST_CHILD_DIRECTORY.mkdirs();
+    new File(TEST_DIRECTORY, TEST_FILE_NAME).createNewFile();
+    new File(TEST_CHILD_DIRECTORY, "out-1.csv").createNewFile();
+    new File(TEST_CHILD_DIRECTORY, "out-2.csv").createNewFile();
+
+    DirectoryVerification verification = new DirectoryVerification(TEST_DIRECTORY)
+        .notEmpty()
+        .childCount(2)
+        .fileCount(1)
+        .directoryCount(1)
+        .containsFile(TEST_FILE_NAME)
+        .containsDirectory(TEST_CHILD_DIRECTORY_NAME)
+        .notContainsDirectory(TEST_FILE_NAME)
+        .noFilesMatching("*.csv")
+        .inChildDirectory(TEST_CHILD_DIRECTORY_NAME)
+        .filesMatching("out-*.csv", 2)
+        .allFilesMatch("*.csv")
+        .inRootDirectory()
+        .allFilesMatch("*.txt");
+    verification.run();
+    verification.run();
+
+    new File(TEST_CHILD_DIRECTORY, "out-2.csv").delete();
+    try {
+      verification.run();
+      fail("Assertion should have failed");
+    } catch (AssertionError expectedFailure) {
+      final String expectedAssertionMessage = "1 of 11 directory checks failed" + System.lineSeparator() + "  "
+          + String.format("Unexpected number of files matching out-*.csv in directory %s expected:<2> but was:<1>", TEST_CHILD_DIRECTORY);
+      assertEquals("Unexpected assertion message", expectedAssertionMessage, expectedFailure.getMessage());
+    }
+  }
+
+  /**
+   * Description of test.
+   *
+   * @throws Exception in the event of a test error.
+   */
+  @Test
+  public void testRunReportsAllFailures() throws Exception {
+    TEST_CHILD_DIRECTORY.mkdirs();
+    new File(TEST_DIRECTORY, TEST_FILE_NAME).createNewFile();
+
+    try {
+      new DirectoryVerification(TEST_DIRECTORY)
+          .isEmpty()
+          .containsFile("missing.txt")
+          .notContainsFile(TEST_FILE_NAME)
+          .containsFile(TEST_CHILD_DIRECTORY_NAME)
+          .fileCount(1)
+          .inChildDirectory("missing-directory")
+          .notEmpty()
+          .inChildDirectory(TEST_CHILD_DIRECTORY_NAME)
+          .notEmpty()
+          .run();
+      fail("Assertion should have failed");
+    } catch (AssertionError expectedFailure) {
+      final String separator = System.lineSeparator() + "  ";
+      final String expectedAssertionMessage = "6 of 7 directory checks failed"
+          + separator + String.format("Unexpected number of children in directory %s expected:<0> but was:<2>", TEST_DIRECTORY)
+          + separator + String.format("File missing.txt does not exist in directory %s", TEST_DIRECTORY)
+          + separator + String.format("File %s exists in directory %s", TEST_FILE_NAME, TEST_DIRECTORY)
+          + separator + String.format("%s in directory %s does not refer to a file", TEST_CHILD_DIRECTORY_NAME, TEST_DIRECTORY)
+          + separator + String.format("Directory %s does not exist", new File(TEST_DIRECTORY, "missing-directory"))
+          + separator + String.format("Directory %s is empty", TEST_CHILD_DIRECTORY);
+      assertEquals("Unexpected assertion message", expectedAssertionMessage, expectedFailure.getMessage());
+    }
+  }
+
+  /**
+   * Description of test.
+   *
+   * @throws Exception in the event of a test error.
+   */
+  @Test
+  public void testArgumentValidation() throws Exception {
+    try {
+      new DirectoryVerification((File) null);
+      fail("Operation should have failed");
+    } catch (IllegalArgumentException expectedEx) {
+      assertEquals("Directory argument cannot be null", expectedEx.getMessage());
+    }
+
+    try {
+      new DirectoryVerification((Path) null);
+      fail("Operation should have failed");
+    } catch (IllegalArgumentException expectedEx) {
+      assertEquals("Directory argument cannot be null", expectedEx.getMessage());
+    }
+
+    try {
+      new DirectoryVerification(TEST_DIRECTORY).inChildDirectory("");
+      fail("Operation should have failed");
+    } catch (IllegalArgumentException expectedEx) {
+      assertEquals("Child directory name argument cannot be null or empty", expectedEx.getMessage());
+    }
+
+    try {
+      new DirectoryVerification(TEST_DIRECTORY).containsFile(null);
+      fail("Operation should have failed");
+    } catch (IllegalArgumentException expectedEx) {
+      assertEquals("Entry name argument cannot be null or empty", expectedEx.getMessage());
+    }
+  }
+}
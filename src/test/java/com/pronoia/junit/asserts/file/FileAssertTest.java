@@ -21,7 +21,13 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.fail;
 
 import java.io.File;
+import java.io.StringReader;
+import java.nio.file.Path;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
 
 import org.apache.commons.io.FileUtils;
 import org.junit.After;
@@ -34,6 +40,7 @@ import org.junit.Test;
 public class FileAssertTest {
   static final File TEST_DIRECTORY = new File("target/file-test");
   static final File TEST_FILE = new File(TEST_DIRECTORY, "test.txt");
+  static final File EXPECTED_FILE = new File(TEST_DIRECTORY, "expected.txt");
 
   @Before
   public void setUp() throws Exception {
@@ -148,4 +155,401 @@ public class FileAssertTest {
       assertEquals("Unexpected assertion message", expectedAssertionMessage, expectedFailure.getMessage());
     }
   }
-}
\ No newline at end of file
+
+  /**
+   * Description of test.
+   *
+   * @throws Exception in the event of a test error.
+   */
+  @Test
+  public void testAssertFileLinesEqual() throws Exception {
+    List<String> lines = new ArrayList<>();
+    for (int i = 1; i <= 20000; ++i) {
+      lines.add("line " + i);
+    }
+    FileUtils.writeLines(EXPECTED_FILE, StandardCharsets.UTF_8.name(), lines, "\n");
+    FileUtils.writeLines(TEST_FILE, StandardCharsets.UTF_8.name(), lines, "\n");
+
+    FileAssert.assertFileLinesEqual(EXPECTED_FILE, TEST_FILE);
+
+    lines.set(9999, "changed 10000");
+    lines.remove(10009);
+    lines.add(10015, "inserted");
+    FileUtils.writeLines(TEST_FILE, StandardCharsets.UTF_8.name(), lines, "\n");
+
+    try {
+      FileAssert.assertFileLinesEqual(EXPECTED_FILE, TEST_FILE);
+      fail("Assertion should have failed");
+    } catch (AssertionError expectedFailure) {
+      final String expectedAssertionMessage = String.join(System.lineSeparator(),
+          String.format("Files %s and %s differ", EXPECTED_FILE, TEST_FILE),
+          "--- " + EXPECTED_FILE,
+          "+++ " + TEST_FILE,
+          "@@ -9997,7 +9997,7 @@",
+          " line 9997",
+          " line 9998",
+          " line 9999",
+          "-line 10000",
+          "+changed 10000",
+          " line 10001",
+          " line 10002",
+          " line 10003",
+          "@@ -10007,13 +10007,13 @@",
+          " line 10007",
+          " line 10008",
+          " line 10009",
+          "-line 10010",
+          " line 10011",
+          " line 10012",
+          " line 10013",
+          " line 10014",
+          " line 10015",
+          " line 10016",
+          "+inserted",
+          " line 10017",
+          " line 10018",
+          " line 10019");
+      assertEquals("Unexpected assertion message", expectedAssertionMessage, expectedFailure.getMessage());
+    }
+  }
+
+  /**
+   * Description of test.
+   *
+   * @throws Exception in the event of a test error.
+   */
+  @Test
+  public void testAssertFileLinesEqualTruncatesHunks() throws Exception {
+    List<String> expectedLines = new ArrayList<>();
+    List<String> actualLines = new ArrayList<>();
+    for (int i = 1; i <= 5000; ++i) {
+      expectedLines.add("line " + i);
+      actualLines.add(i % 100 == 0 ? "changed " + i : "line " + i);
+    }
+    FileUtils.writeLines(EXPECTED_FILE, StandardCharsets.UTF_8.name(), expectedLines, "\n");
+    FileUtils.writeLines(TEST_FILE, StandardCharsets.UTF_8.name(), actualLines, "\n");
+
+    try {
+      FileAssert.assertFileLinesEqual(EXPECTED_FILE, TEST_FILE, StandardCharsets.UTF_8, 2);
+      fail("Assertion should have failed");
+    } catch (AssertionError expectedFailure) {
+      final String expectedAssertionMessage = String.join(System.lineSeparator(),
+          String.format("Files %s and %s differ", EXPECTED_FILE, TEST_FILE),
+          "--- " + EXPECTED_FILE,
+          "+++ " + TEST_FILE,
+          "@@ -97,7 +97,7 @@",
+          " line 97",
+          " line 98",
+          " line 99",
+          "-line 100",
+          "+changed 100",
+          " line 101",
+          " line 102",
+          " line 103",
+          "@@ -197,7 +197,7 @@",
+          " line 197",
+          " line 198",
+          " line 199",
+          "-line 200",
+          "+changed 200",
+          " line 201",
+          " line 202",
+          " line 203",
+          "... diff truncated after 2 hunks");
+      assertEquals("Unexpected assertion message", expectedAssertionMessage, expectedFailure.getMessage());
+    }
+  }
+
+  /**
+   * Description of test.
+   *
+   * @throws Exception in the event of a test error.
+   */
+  @Test
+  public void testAssertFileLinesEqualLineTerminators() throws Exception {
+    FileUtils.writeStringToFile(EXPECTED_FILE, "first\nsecond\n", StandardCharsets.UTF_8);
+    FileUtils.writeStringToFile(TEST_FILE, "first\r\nsecond", StandardCharsets.UTF_8);
+
+    try {
+      FileAssert.assertFileLinesEqual(EXPECTED_FILE, TEST_FILE);
+      fail("Assertion should have failed");
+    } catch (AssertionError expectedFailure) {
+      final String expectedAssertionMessage = String.format("Files %s and %s differ only in line terminators", EXPECTED_FILE, TEST_FILE);
+      assertEquals("Unexpected assertion message", expectedAssertionMessage, expectedFailure.getMessage());
+    }
+
+    FileUtils.writeStringToFile(TEST_FILE, "first\nthird\n", StandardCharsets.UTF_8);
+    try {
+      FileAssert.assertFileLinesEqual(EXPECTED_FILE, TEST_FILE);
+      fail("Assertion should have failed");
+    } catch (AssertionError expectedFailure) {
+      final String expectedAssertionMessage = String.join(System.lineSeparator(),
+          String.format("Files %s and %s differ", EXPECTED_FILE, TEST_FILE),
+          "--- " + EXPECTED_FILE,
+          "+++ " + TEST_FILE,
+          "@@ -1,2 +1,2 @@",
+          " first",
+          "-second",
+          "+third");
+      assertEquals("Unexpected assertion message", expectedAssertionMessage, expectedFailure.getMessage());
+    }
+  }
+
+  /**
+   * Description of test.
+   *
+   * @throws Exception in the event of a test error.
+   */
+  @Test
+  public void testLineDiffWindowResynchronization() throws Exception {
+    List<String> expectedLines = new ArrayList<>();
+    List<String> actualLines = new ArrayList<>();
+    for (int i = 1; i <= 100; ++i) {
+      expectedLines.add("line " + i);
+      if (i % 20 == 0) {
+        actualLines.add("changed " + i);
+      } else if (i != 70) {
+        actualLines.add("line " + i);
+      }
+    }
+    FileUtils.writeLines(EXPECTED_FILE, StandardCharsets.UTF_8.name(), expectedLines, "\n");
+    FileUtils.writeLines(TEST_FILE, StandardCharsets.UTF_8.name(), actualLines, "\n");
+
+    LineDiff windowed = new LineDiff(EXPECTED_FILE.toPath(), TEST_FILE.toPath(), StandardCharsets.UTF_8, 10);
+    windowed.windowLines = 7;
+    LineDiff unwindowed = new LineDiff(EXPECTED_FILE.toPath(), TEST_FILE.toPath(), StandardCharsets.UTF_8, 10);
+
+    String diff = windowed.diff();
+    assertEquals(unwindowed.diff(), diff);
+    assertEquals("Unexpected number of hunks", 6, diff.split("@@ -").length - 1);
+  }
+
+  /**
+   * Description of test.
+   *
+   * @throws Exception in the event of a test error.
+   */
+  @Test
+  public void testAssertFileSize() throws Exception {
+    FileUtils.writeStringToFile(TEST_FILE, "0123456789", StandardCharsets.UTF_8);
+
+    FileAssert.assertFileSize(TEST_FILE, 10);
+    FileAssert.assertFileSizeAtLeast(TEST_FILE, 10);
+
+    try {
+      FileAssert.assertFileSize(TEST_FILE, 11);
+      fail("Assertion should have failed");
+    } catch (AssertionError expectedFailure) {
+      final String expectedAssertionMessage = String.format("Unexpected size of file %s expected:<11> but was:<10>", TEST_FILE);
+      assertEquals("Unexpected assertion message", expectedAssertionMessage, expectedFailure.getMessage());
+    }
+
+    try {
+      FileAssert.assertFileSizeAtLeast(TEST_FILE, 11);
+      fail("Assertion should have failed");
+    } catch (AssertionError expectedFailure) {
+      final String expectedAssertionMessage = String.format("Size of file %s is 10 bytes - expected at least 11 bytes", TEST_FILE);
+      assertEquals("Unexpected assertion message", expectedAssertionMessage, expectedFailure.getMessage());
+    }
+  }
+
+  /**
+   * Description of test.
+   *
+   * @throws Exception in the event of a test error.
+   */
+  @Test
+  public void testAssertLineCount() throws Exception {
+    TEST_FILE.createNewFile();
+    FileAssert.assertLineCount(TEST_FILE, 0);
+
+    for (String body : Arrays.asList("one\ntwo\nthree", "one\ntwo\nthree\n", "one\r\ntwo\r\nthree\r\n", "\n\nthree")) {
+      FileUtils.writeStringToFile(TEST_FILE, body, StandardCharsets.UTF_8);
+      assertEquals(FileUtils.readLines(TEST_FILE, StandardCharsets.UTF_8).size(), FileAssert.countLines(TEST_FILE.toPath()));
+      FileAssert.assertLineCount(TEST_FILE, 3);
+      FileAssert.assertLineCountBetween(TEST_FILE, 3, 3);
+    }
+
+    List<String> lines = new ArrayList<>();
+    for (int i = 0; i < 50000; ++i) {
+      lines.add("line " + i);
+    }
+    FileUtils.writeLines(TEST_FILE, StandardCharsets.UTF_8.name(), lines, "\n");
+    FileAssert.assertLineCount(TEST_FILE, 50000);
+
+    try {
+      FileAssert.assertLineCount(TEST_FILE, 49999);
+      fail("Assertion should have failed");
+    } catch (AssertionError expectedFailure) {
+      final String expectedAssertionMessage = String.format("Unexpected number of lines in file %s expected:<49999> but was:<50000>", TEST_FILE);
+      assertEquals("Unexpected assertion message", expectedAssertionMessage, expectedFailure.getMessage());
+    }
+
+    try {
+      FileAssert.assertLineCountBetween(TEST_FILE, 1, 10);
+      fail("Assertion should have failed");
+    } catch (AssertionError expectedFailure) {
+      final String expectedAssertionMessage = String.format("File %s contains 50000 lines - expected between 1 and 10 lines", TEST_FILE);
+      assertEquals("Unexpected assertion message", expectedAssertionMessage, expectedFailure.getMessage());
+    }
+
+    try {
+      FileAssert.assertLineCountBetween(TEST_FILE, 10, 1);
+      fail("Operation should have failed");
+    } catch (IllegalArgumentException expectedEx) {
+      final String expectedMessage = "Minimum line count argument 10 cannot be greater than the maximum line count argument 1";
+      assertEquals(expectedMessage, expectedEx.getMessage());
+    }
+  }
+
+  /**
+   * Description of test.
+   *
+   * @throws Exception in the event of a test error.
+   */
+  @Test
+  public void testAssertsWithPath() throws Exception {
+    final Path testFile = TEST_FILE.toPath();
+    final Path expectedFile = EXPECTED_FILE.toPath();
+
+    FileAssert.assertFileNotExists(testFile);
+    try {
+      FileAssert.assertFileExists(testFile);
+      fail("Assertion should have failed");
+    } catch (AssertionError expectedFailure) {
+      final String expectedAssertionMessage = String.format("File %s does not exist", testFile);
+      assertEquals("Unexpected assertion message", expectedAssertionMessage, expectedFailure.getMessage());
+    }
+
+    try {
+      FileAssert.assertFileSize(TEST_DIRECTORY.toPath(), 0);
+      fail("Assertion should have failed");
+    } catch (AssertionError expectedFailure) {
+      final String expectedAssertionMessage = String.format("%s does not refer to a file", TEST_DIRECTORY.toPath());
+      assertEquals("Unexpected assertion message", expectedAssertionMessage, expectedFailure.getMessage());
+    }
+
+    FileUtils.writeStringToFile(TEST_FILE, "one\ntwo\n", StandardCharsets.UTF_8);
+    FileUtils.writeStringToFile(EXPECTED_FILE, "one\ntwo\n", StandardCharsets.UTF_8);
+
+    FileAssert.assertFileExists(testFile);
+    FileAssert.assertFileSize(testFile, 8);
+    FileAssert.assertFileSizeAtLeast(testFile, 4);
+    FileAssert.assertLineCount(testFile, 2);
+    FileAssert.assertLineCountBetween(testFile, 1, 2);
+    FileAssert.assertFileLinesEqual(expectedFile, testFile);
+
+    try {
+      FileAssert.assertFileSize(testFile, 10);
+      fail("Assertion should have failed");
+    } catch (AssertionError expectedFailure) {
+      final String expectedAssertionMessage = String.format("Unexpected size of file %s expected:<10> but was:<8>", testFile);
+      assertEquals("Unexpected assertion message", expectedAssertionMessage, expectedFailure.getMessage());
+    }
+  }
+
+  /**
+   * Description of test.
+   *
+   * @throws Exception in the event of a test error.
+   */
+  @Test
+  public void testAssertFileContains() throws Exception {
+    // Place the match across the boundary between the first two chunks
+    StringBuilder body = new StringBuilder();
+    for (int i = 0; i < PatternScanner.CHUNK_SIZE / 8; ++i) {
+      body.append("padding\n");
+    }
+    body.setLength(PatternScanner.CHUNK_SIZE + PatternScanner.OVERLAP - 4);
+    body.append("\nERROR 42 failed\n");
+    FileUtils.writeStringToFile(TEST_FILE, body.toString(), StandardCharsets.UTF_8);
+
+    final Pattern errorPattern = Pattern.compile("ERROR \\d+");
+    FileAssert.assertFileContains(TEST_FILE, errorPattern);
+    FileAssert.assertFileContains(TEST_FILE.toPath(), Pattern.compile("^ERROR", Pattern.MULTILINE), StandardCharsets.UTF_8);
+    FileAssert.assertFileNotContains(TEST_FILE, Pattern.compile("^ERROR"));
+    FileAssert.assertFileNotContains(TEST_FILE, Pattern.compile("WARN"));
+
+    try {
+      FileAssert.assertFileContains(TEST_FILE, Pattern.compile("WARN"));
+      fail("Assertion should have failed");
+    } catch (AssertionError expectedFailure) {
+      final String expectedAssertionMessage = String.format("File %s does not contain a match for WARN", TEST_FILE);
+      assertEquals("Unexpected assertion message", expectedAssertionMessage, expectedFailure.getMessage());
+    }
+
+    try {
+      FileAssert.assertFileNotContains(TEST_FILE, errorPattern);
+      fail("Assertion should have failed");
+    } catch (AssertionError expectedFailure) {
+      final String expectedAssertionMessage = String.format("File %s contains a match for ERROR \\d+ at character %d", TEST_FILE, PatternScanner.CHUNK_SIZE + PatternScanner.OVERLAP - 3);
+      assertEquals("Unexpected assertion message", expectedAssertionMessage, expectedFailure.getMessage());
+    }
+
+    // The negative lookahead must see the text in the next chunk
+    body.setLength(PatternScanner.CHUNK_SIZE + PatternScanner.OVERLAP - 4);
+    body.append("foobar\n");
+    FileUtils.writeStringToFile(TEST_FILE, body.toString(), StandardCharsets.UTF_8);
+    FileAssert.assertFileNotContains(TEST_FILE, Pattern.compile("foo(?!bar)"));
+    FileAssert.assertFileContains(TEST_FILE, Pattern.compile("foo(?=bar)"));
+
+    try {
+      FileAssert.assertFileContains(TEST_FILE, null);
+      fail("Operation should have thrown an exception");
+    } catch (IllegalArgumentException expectedEx) {
+      assertEquals("Pattern argument cannot be null", expectedEx.getMessage());
+    }
+  }
+
+  /**
+   * Description of test.
+   *
+   * @throws Exception in the event of a test error.
+   */
+  @Test
+  public void testAssertFileContainsLongMatches() throws Exception {
+    StringBuilder body = new StringBuilder("ERROR at startup\n");
+    while (body.length() < 3 * PatternScanner.CHUNK_SIZE) {
+      body.append("padding\n");
+    }
+    FileUtils.writeStringToFile(TEST_FILE, body.toString(), StandardCharsets.UTF_8);
+
+    FileAssert.assertFileContains(TEST_FILE, Pattern.compile("(?s)ERROR.*"));
+    try {
+      FileAssert.assertFileNotContains(TEST_FILE, Pattern.compile("(?s)ERROR.*"));
+      fail("Assertion should have failed");
+    } catch (AssertionError expectedFailure) {
+      final String expectedAssertionMessage = String.format("File %s contains a match for (?s)ERROR.* at character 0", TEST_FILE);
+      assertEquals("Unexpected assertion message", expectedAssertionMessage, expectedFailure.getMessage());
+    }
+
+    StringBuilder line = new StringBuilder("start ");
+    while (line.length() < PatternScanner.CHUNK_SIZE + PatternScanner.OVERLAP + 2000) {
+      line.append('x');
+    }
+    FileUtils.writeStringToFile(TEST_FILE, line.toString(), StandardCharsets.UTF_8);
+    FileAssert.assertFileContains(TEST_FILE, Pattern.compile("x.*"));
+    FileAssert.assertFileContains(TEST_FILE, Pattern.compile("x+$"));
+    FileAssert.assertFileNotContains(TEST_FILE, Pattern.compile("x+y"));
+  }
+
+  /**
+   * The scanner must agree with {@link java.util.regex.Matcher#find()} on the whole text.
+   *
+   * @throws Exception in the event of a test error.
+   */
+  @Test
+  public void testPatternScannerMatchesFind() throws Exception {
+    StringBuilder text = new StringBuilder();
+    for (int i = 0; text.length() < 3 * PatternScanner.CHUNK_SIZE; ++i) {
+      text.append(String.format("line %06d foo%s\n", i, i % 1000 == 999 ? "baz" : "bar"));
+    }
+    List<String> patterns = Arrays.asList("foo(?!bar)", "(?s)line 000001.*", "line \\d+ foobaz\\n(?=line)", "(?m)^line 012345", "foo\\w*$", "(?m)foo\\w*$", "nothing");
+    for (String regex : patterns) {
+      Pattern pattern = Pattern.compile(regex);
+      java.util.regex.Matcher matcher = pattern.matcher(text);
+      long expected = matcher.find() ? matcher.start() : -1;
+      assertEquals("Unexpected offset for " + regex, expected, PatternScanner.find(new StringReader(text.toString()), pattern));
+    }
+  }
+}
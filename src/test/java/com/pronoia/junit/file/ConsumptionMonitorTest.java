@@ -0,0 +1,114 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.pronoia.junit.file;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+/**
+ * Tests for the ConsumptionMonitor class.
+ */
+public class ConsumptionMonitorTest {
+  static final String TEST_CHILD_DIRECTORY_NAME = "inbox";
+
+  @Rule
+  public TestDirectory instance = new TestDirectory().atomicPublish();
+
+  /**
+   * Description of test.
+   *
+   * @throws Exception in the event of a test error.
+   */
+  @Test
+  public void testConsumedProducerFiles() throws Exception {
+    ConsumptionMonitor monitor = instance.monitorConsumption();
+    assertSame(monitor, instance.monitorConsumption());
+
+    FileProducer producer = instance.producer(TEST_CHILD_DIRECTORY_NAME).rate(500).fileCount(50).fileSize(16);
+    Thread consumer = new Thread(() -> {
+      File inbox = producer.getDirectory();
+      while (monitor.getConsumedCount() < 50 && !Thread.currentThread().isInterrupted()) {
+        File[] files = inbox.listFiles((dir, name) -> !name.startsWith("."));
+        if (files != null) {
+          for (File file : files) {
+            file.delete();
+          }
+        }
+      }
+    });
+
+    producer.start();
+    consumer.start();
+    try {
+      assertTrue(monitor.awaitConsumed(50, 10, TimeUnit.SECONDS));
+    } finally {
+      consumer.interrupt();
+      consumer.join();
+    }
+
+    assertEquals(50, monitor.getConsumedCount());
+    assertEquals(0, monitor.getPendingCount());
+    assertTrue(monitor.getThroughput() > 0);
+    assertTrue(monitor.getP50Latency(TimeUnit.NANOSECONDS) <= monitor.getP99Latency(TimeUnit.NANOSECONDS));
+    assertTrue(monitor.getP99Latency(TimeUnit.NANOSECONDS) <= monitor.getMaxLatency(TimeUnit.NANOSECONDS));
+    monitor.assertConsumedWithin(99, 5, TimeUnit.SECONDS);
+  }
+
+  /**
+   * Description of test.
+   *
+   * @throws Exception in the event of a test error.
+   */
+  @Test
+  public void testUnconsumedFilesFailTheAssertion() throws Exception {
+    ConsumptionMonitor monitor = instance.monitorConsumption();
+
+    try {
+      monitor.assertConsumedWithin(50, 1, TimeUnit.SECONDS);
+      fail("Assertion should have failed");
+    } catch (AssertionError expectedFailure) {
+      String expectedMessage = String.format("No files were published to directory %s while it was monitored", monitor.root);
+      assertEquals(expectedMessage, expectedFailure.getMessage());
+    }
+
+    instance.newFileWithBody("consumed.txt", "consumed");
+    instance.newFile("pending.txt");
+    instance.deleteFile("consumed.txt");
+    assertTrue(monitor.awaitConsumed(1, 5, TimeUnit.SECONDS));
+    Thread.sleep(20);
+
+    assertEquals(1, monitor.getPendingCount());
+    monitor.assertConsumedWithin(50, 5, TimeUnit.SECONDS);
+    try {
+      monitor.assertConsumedWithin(100, 10, TimeUnit.MILLISECONDS);
+      fail("Assertion should have failed");
+    } catch (AssertionError expectedFailure) {
+      String expectedPrefix = String.format("The p100 consumption latency of 2 files in directory %s is ", monitor.root);
+      assertTrue(expectedFailure.getMessage(), expectedFailure.getMessage().startsWith(expectedPrefix));
+      assertTrue(expectedFailure.getMessage(), expectedFailure.getMessage().endsWith("MILLISECONDS - expected at most 10 MILLISECONDS"));
+    }
+  }
+}
@@ -0,0 +1,163 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.pronoia.junit.file;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+/**
+ * Tests for the file locking methods of the TestDirectory class.
+ */
+public class FileLockContentionTest {
+  static final String TEST_FILE_NAME = "test.txt";
+
+  @Rule
+  public TestDirectory instance = new TestDirectory();
+
+  /**
+   * Description of test.
+   *
+   * @throws Exception in the event of a test error.
+   */
+  @Test
+  public void testLockFile() throws Exception {
+    File file = instance.newFileWithBody(TEST_FILE_NAME, "locked");
+
+    FileLockHolder holder = instance.lockFile(TEST_FILE_NAME, FileLockHolder.Mode.EXCLUSIVE);
+    assertTrue(holder.isHeld());
+    assertEquals(FileLockHolder.Mode.EXCLUSIVE, holder.getMode());
+    assertEquals(file, holder.getFile());
+
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+      try {
+        channel.tryLock();
+        fail("The file should be locked");
+      } catch (OverlappingFileLockException expectedEx) {
+        // Locks held in the same JVM are reported by an exception rather than a null lock
+      }
+
+      holder.release();
+      holder.release();
+      assertFalse(holder.isHeld());
+      assertTrue(holder.getHeldTime(TimeUnit.NANOSECONDS) > 0);
+
+      FileLock lock = channel.tryLock();
+      assertNotNull(lock);
+      lock.release();
+    }
+
+    instance.lockFile(TEST_FILE_NAME, FileLockHolder.Mode.SHARED).close();
+
+    try {
+      instance.lockFile("missing.txt", FileLockHolder.Mode.SHARED);
+      fail("Operation should have thrown an exception");
+    } catch (IllegalStateException expectedEx) {
+      String expectedMessage = String.format("Failed to get a File object for the 'missing.txt' file from the '%s' directory - the file does not exist", instance.directory);
+      assertEquals(expectedMessage, expectedEx.getMessage());
+    }
+  }
+
+  /**
+   * Description of test.
+   *
+   * @throws Exception in the event of a test error.
+   */
+  @Test
+  public void testConsumerThatSkipsLockedFiles() throws Exception {
+    final List<String> fileNames = new ArrayList<>();
+    for (int i = 0; i < 10; ++i) {
+      fileNames.add("file-" + i + ".dat");
+      instance.newFileWithBody("file-" + i + ".dat", "body");
+    }
+
+    FileLockContention contention = instance.lockFiles(fileNames, FileLockHolder.Mode.EXCLUSIVE, 20, 60, TimeUnit.MILLISECONDS, 42);
+    assertEquals(10, contention.getLockedCount());
+
+    Thread consumer = new Thread(() -> {
+      while (!Thread.currentThread().isInterrupted() && instance.toFile().list().length > 0) {
+        for (File file : instance.toFile().listFiles()) {
+          try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+            FileLock lock = channel.tryLock();
+            if (lock != null) {
+              file.delete();
+              lock.release();
+            }
+          } catch (OverlappingFileLockException skipped) {
+            // Locked - try again on the next pass
+          } catch (Exception ignored) {
+            // Removed by a previous pass
+          }
+        }
+      }
+    });
+    consumer.start();
+
+    assertTrue(contention.awaitReleased(5, TimeUnit.SECONDS));
+    consumer.join(TimeUnit.SECONDS.toMillis(5));
+    instance.assertIsEmpty();
+    Thread.sleep(4 * FileLockContention.SAMPLE_INTERVAL_MILLIS);
+
+    assertEquals(10, contention.getReleasedCount());
+    assertEquals(10, contention.getSkippedCount());
+    assertEquals(0, contention.getConsumedWhileLockedCount());
+    assertEquals(10, contention.getPickedUpCount());
+    assertTrue(contention.getPickupLatency(50, TimeUnit.NANOSECONDS) <= contention.getPickupLatency(100, TimeUnit.NANOSECONDS));
+    contention.assertNoneConsumedWhileLocked();
+  }
+
+  /**
+   * Description of test.
+   *
+   * @throws Exception in the event of a test error.
+   */
+  @Test
+  public void testConsumerThatIgnoresLocks() throws Exception {
+    instance.newFileWithBody("first.dat", "body");
+    instance.newFileWithBody("second.dat", "body");
+
+    FileLockContention contention = instance.lockFiles(Arrays.asList("first.dat", "second.dat"), FileLockHolder.Mode.SHARED, 1, TimeUnit.MINUTES);
+    instance.deleteFile("first.dat");
+    contention.close();
+
+    assertEquals(2, contention.getReleasedCount());
+    assertEquals(1, contention.getSkippedCount());
+    assertEquals(1, contention.getConsumedWhileLockedCount());
+    try {
+      contention.assertNoneConsumedWhileLocked();
+      fail("Assertion should have failed");
+    } catch (AssertionError expectedFailure) {
+      assertEquals("1 of 2 files were consumed while they were locked - [first.dat]", expectedFailure.getMessage());
+    }
+  }
+}
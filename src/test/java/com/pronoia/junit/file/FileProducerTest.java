@@ -0,0 +1,113 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.pronoia.junit.file;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+/**
+ * Tests for the FileProducer class.
+ */
+public class FileProducerTest {
+  static final String TEST_CHILD_DIRECTORY_NAME = "inbox";
+
+  @Rule
+  public TestDirectory instance = new TestDirectory();
+
+  /**
+   * Description of test.
+   *
+   * @throws Exception in the event of a test error.
+   */
+  @Test
+  public void testSteadyMode() throws Exception {
+    FileProducer producer = instance.producer(TEST_CHILD_DIRECTORY_NAME)
+        .rate(200)
+        .fileSize(10, 20)
+        .duration(100, TimeUnit.MILLISECONDS)
+        .start();
+
+    assertTrue(producer.awaitCompletion(5, TimeUnit.SECONDS));
+    assertFalse(producer.isRunning());
+    assertEquals(20, producer.getFilesWritten());
+    assertTrue(producer.getBytesWritten() >= 200 && producer.getBytesWritten() <= 400);
+    assertTrue(producer.getAchievedRate() > 0);
+    assertEquals(20, producer.getBacklog());
+    assertEquals(20, producer.getMaxBacklog());
+
+    instance.assertFileCountInChildDirectoryEquals(TEST_CHILD_DIRECTORY_NAME, 20);
+    instance.assertContainsFileInChildDirectory(TEST_CHILD_DIRECTORY_NAME, "file-00000019.dat");
+  }
+
+  /**
+   * Description of test.
+   *
+   * @throws Exception in the event of a test error.
+   */
+  @Test
+  public void testBurstMode() throws Exception {
+    FileProducer producer = instance.producer(TEST_CHILD_DIRECTORY_NAME)
+        .rate(100)
+        .burst(5)
+        .fileCount(12)
+        .fileSize(8)
+        .namePattern("burst-%03d.txt")
+        .start();
+
+    assertTrue(producer.awaitCompletion(5, TimeUnit.SECONDS));
+    assertEquals(FileProducer.Mode.BURST, producer.getMode());
+    assertEquals(12, producer.getFilesWritten());
+    assertEquals(96, producer.getBytesWritten());
+    assertEquals(8, new File(instance.toFile(), TEST_CHILD_DIRECTORY_NAME + "/burst-011.txt").length());
+  }
+
+  /**
+   * Description of test.
+   *
+   * @throws Exception in the event of a test error.
+   */
+  @Test
+  public void testStop() throws Exception {
+    FileProducer producer = instance.producer(TEST_CHILD_DIRECTORY_NAME).rate(1000).start();
+
+    assertTrue(producer.isRunning());
+    instance.assertChildCountReachesWithin(1, 5, TimeUnit.SECONDS);
+    producer.stop();
+
+    assertFalse(producer.isRunning());
+    assertTrue(producer.awaitCompletion(0, TimeUnit.SECONDS));
+    long filesWritten = producer.getFilesWritten();
+    Thread.sleep(20);
+    assertEquals(filesWritten, producer.getFilesWritten());
+
+    try {
+      producer.rate(10);
+      fail("Operation should have thrown an exception");
+    } catch (IllegalStateException expectedEx) {
+      assertEquals(String.format("The file producer in the '%s' directory has already been started", producer.getDirectory()), expectedEx.getMessage());
+    }
+  }
+}
@@ -0,0 +1,123 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.pronoia.junit.file;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Random;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+
+/**
+ * Tests for the FixtureArchive class and the fixture export and import methods of the TestDirectory class.
+ */
+public class FixtureArchiveTest {
+  @Rule
+  public TestDirectory sourceDirectory = new TestDirectory("target/fixture-archive-source-files");
+
+  @Rule
+  public TestDirectory archiveDirectory = new TestDirectory("target/fixture-archive-files");
+
+  @Rule
+  public TestDirectory testDirectory = new TestDirectory("target/fixture-archive-test-files");
+
+  /**
+   * Description of test.
+   *
+   * @throws Exception in the event of a test error.
+   */
+  @Test
+  public void testExportAndImport() throws Exception {
+    byte[] binary = new byte[256 * 1024];
+    new Random(42).nextBytes(binary);
+
+    sourceDirectory.tree()
+        .dir("data").file("one.txt", "one").file("empty.txt").dir("nested").file("two.txt", "two").up().up()
+        .dir("empty")
+        .done();
+    FileUtils.writeByteArrayToFile(sourceDirectory.resolve("data/binary.bin"), binary);
+    File script = sourceDirectory.newFileWithBody("run.sh", "#!/bin/sh");
+    Files.setPosixFilePermissions(script.toPath(), PosixFilePermissions.fromString("rwxr-x---"));
+    script.setLastModified(1500000000000L);
+
+    File archive = new File(archiveDirectory.toFile(), "fixture.fjfx");
+    assertEquals(8, sourceDirectory.exportFixture(archive));
+
+    assertEquals(testDirectory.toFile(), testDirectory.importFixture(archive));
+    testDirectory.assertChildCountEquals(3);
+    testDirectory.assertChildDirectoryIsEmpty("empty");
+    assertEquals("one", testDirectory.readFile("data/one.txt"));
+    assertEquals("", testDirectory.readFile("data/empty.txt"));
+    assertEquals("two", testDirectory.readFile("data/nested/two.txt"));
+    assertArrayEquals(binary, FileUtils.readFileToByteArray(testDirectory.getFile("data/binary.bin")));
+
+    File importedScript = testDirectory.getFile("run.sh");
+    assertEquals("rwxr-x---", PosixFilePermissions.toString(Files.getPosixFilePermissions(importedScript.toPath())));
+    assertEquals(1500000000000L, importedScript.lastModified());
+
+    File childDirectory = testDirectory.importFixture(archive, "child");
+    assertEquals(new File(testDirectory.toFile(), "child"), childDirectory);
+    assertEquals("two", testDirectory.readFile("child/data/nested/two.txt"));
+  }
+
+  /**
+   * Description of test.
+   *
+   * @throws Exception in the event of a test error.
+   */
+  @Test
+  public void testImportInvalidArchive() throws Exception {
+    File notAnArchive = archiveDirectory.newFileWithBody("not-an-archive.fjfx", "plain text");
+    try {
+      testDirectory.importFixture(notAnArchive);
+      fail("Operation should have thrown an exception");
+    } catch (IllegalStateException expectedEx) {
+      assertEquals(String.format("Failed to import the '%s' fixture archive to the '%s' directory", notAnArchive, testDirectory.toFile()), expectedEx.getMessage());
+      assertEquals(String.format("The '%s' file is not a fixture archive", notAnArchive), expectedEx.getCause().getMessage());
+    }
+
+    sourceDirectory.newFileWithBody("large.txt", "0123456789");
+    File archive = new File(archiveDirectory.toFile(), "truncated.fjfx");
+    sourceDirectory.exportFixture(archive);
+    try (RandomAccessFile truncated = new RandomAccessFile(archive, "rw")) {
+      truncated.setLength(archive.length() - 5);
+    }
+    try {
+      testDirectory.importFixture(archive);
+      fail("Operation should have thrown an exception");
+    } catch (IllegalStateException expectedEx) {
+      assertTrue(expectedEx.getCause().getMessage(), expectedEx.getCause().getMessage().contains("is truncated"));
+    }
+
+    try {
+      testDirectory.importFixture(new File(archiveDirectory.toFile(), "missing.fjfx"));
+      fail("Operation should have thrown an exception");
+    } catch (IllegalArgumentException expectedEx) {
+      assertTrue(expectedEx.getMessage().endsWith("the archive does not exist or does not refer to a file"));
+    }
+  }
+}
@@ -0,0 +1,182 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.pronoia.junit.file;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+/**
+ * Tests for the FixtureCache class.
+ */
+public class FixtureCacheTest {
+  @Rule
+  public TestDirectory cacheDirectory = new TestDirectory("target/fixture-cache-test-cache");
+
+  @Rule
+  public TestDirectory sourceDirectory = new TestDirectory("target/fixture-cache-test-sources");
+
+  @Rule
+  public TestDirectory testDirectory = new TestDirectory("target/fixture-cache-test-files");
+
+  AtomicInteger buildCount = new AtomicInteger();
+  SharedTestDirectory.FixtureBuilder builder = fixture -> {
+    buildCount.incrementAndGet();
+    fixture.newDirectory("data");
+    fixture.newFileWithBody("data/generated.txt", "generated");
+  };
+
+  @Before
+  public void setUp() throws Exception {
+    sourceDirectory.newFileWithBody("source.txt", "source");
+  }
+
+  /**
+   * Description of test.
+   *
+   * @throws Exception in the event of a test error.
+   */
+  @Test
+  public void testFixtureIsBuiltOnce() throws Exception {
+    FixtureCache cache = new FixtureCache(cacheDirectory.toFile(), 1024 * 1024);
+    FixtureCache.Key key = new FixtureCache.Key("generated").source(sourceDirectory.toFile()).parameter("size", 10);
+
+    assertFalse(cache.contains(key));
+    testDirectory.restoreFixture(cache, key, builder);
+    testDirectory.newDirectory("second");
+    cache.materialize(key, builder, testDirectory.getDirectory("second"));
+
+    assertEquals(1, buildCount.get());
+    assertTrue(cache.contains(key));
+    assertEquals("generated", testDirectory.readFile("data/generated.txt"));
+    assertEquals("generated", testDirectory.readFile("second/data/generated.txt"));
+    assertEquals(9, cache.getTotalBytes());
+
+    // Changes to the materialized copy do not reach the cache
+    FileUtils.writeStringToFile(testDirectory.getFile("data/generated.txt"), "changed", StandardCharsets.UTF_8);
+    testDirectory.deleteDirectory("data");
+    testDirectory.restoreFixture(cache, key, builder);
+    assertEquals("generated", testDirectory.readFile("data/generated.txt"));
+  }
+
+  /**
+   * Description of test.
+   *
+   * @throws Exception in the event of a test error.
+   */
+  @Test
+  public void testKeys() throws Exception {
+    String entryName = new FixtureCache.Key("generated").source(sourceDirectory.toFile()).parameter("size", 10).toEntryName();
+    assertTrue(entryName, entryName.startsWith("generated-"));
+    assertEquals(entryName, new FixtureCache.Key("generated").parameter("size", "10").source(sourceDirectory.toFile()).toEntryName());
+    assertNotEquals(entryName, new FixtureCache.Key("generated").source(sourceDirectory.toFile()).parameter("size", 11).toEntryName());
+
+    sourceDirectory.newFileWithBody("another.txt", "another");
+    assertNotEquals(entryName, new FixtureCache.Key("generated").source(sourceDirectory.toFile()).parameter("size", 10).toEntryName());
+  }
+
+  /**
+   * Description of test.
+   *
+   * @throws Exception in the event of a test error.
+   */
+  @Test
+  public void testLeastRecentlyUsedEviction() throws Exception {
+    FixtureCache cache = new FixtureCache(cacheDirectory.toFile(), 20);
+    FixtureCache.Key first = new FixtureCache.Key("first");
+    FixtureCache.Key second = new FixtureCache.Key("second");
+    FixtureCache.Key third = new FixtureCache.Key("third");
+
+    cache.materialize(first, builder, testDirectory.newDirectory("first"));
+    cache.materialize(second, builder, testDirectory.newDirectory("second"));
+    assertEquals(18, cache.getTotalBytes());
+
+    // Use the first entry so the second entry is the least recently used
+    Files.setLastModifiedTime(cache.usedFile(second.toEntryName()).toPath(), FileTime.fromMillis(1000));
+    cache.materialize(first, builder, testDirectory.newDirectory("first-again"));
+
+    cache.materialize(third, builder, testDirectory.newDirectory("third"));
+    assertEquals(3, buildCount.get());
+    assertTrue(cache.contains(first));
+    assertFalse(cache.contains(second));
+    assertTrue(cache.contains(third));
+    assertEquals(18, cache.getTotalBytes());
+  }
+
+  /**
+   * Description of test.
+   *
+   * @throws Exception in the event of a test error.
+   */
+  @Test
+  public void testLinkMaterialization() throws Exception {
+    FixtureCache cache = new FixtureCache(cacheDirectory.toFile(), 1024 * 1024);
+    FixtureCache.Key key = new FixtureCache.Key("linked");
+
+    cache.materialize(key, builder, testDirectory.toFile(), FixtureCache.Materialization.LINK);
+    assertEquals("generated", testDirectory.readFile("data/generated.txt"));
+  }
+
+  /**
+   * Description of test.
+   *
+   * @throws Exception in the event of a test error.
+   */
+  @Test
+  public void testConcurrentMaterialization() throws Exception {
+    final FixtureCache cache = new FixtureCache(cacheDirectory.toFile(), 1024 * 1024);
+    final FixtureCache.Key key = new FixtureCache.Key("concurrent");
+
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<String>> futures = new ArrayList<>();
+      for (int i = 0; i < 16; ++i) {
+        final File target = testDirectory.newDirectory("target-" + i);
+        futures.add(executor.submit((Callable<String>) () -> {
+          cache.materialize(key, builder, target);
+          return FileUtils.readFileToString(new File(target, "data/generated.txt"), StandardCharsets.UTF_8);
+        }));
+      }
+      for (Future<String> future : futures) {
+        assertEquals("generated", future.get());
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertEquals(1, buildCount.get());
+  }
+}
@@ -0,0 +1,116 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.pronoia.junit.file;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.util.Collections;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+/**
+ * Tests for the FixtureTree class.
+ */
+public class FixtureTreeTest {
+  static final FixturePlan SHARED_PLAN = new FixtureTree()
+      .dir("in").file("a.txt", "alpha").file("b.txt").up()
+      .dir("out/archive")
+      .toPlan();
+
+  @Rule
+  public TestDirectory source = new TestDirectory("target/fixture-tree-source-files");
+
+  @Rule
+  public TestDirectory instance = new TestDirectory();
+
+  /**
+   * Description of test.
+   *
+   * @throws Exception in the event of a test error.
+   */
+  @Test
+  public void testDone() throws Exception {
+    File sourceFile = source.newFileWithBody("source.txt", "copied");
+
+    TestDirectory result = instance.tree()
+        .dir("in").file("a.txt", "alpha").copy(sourceFile).dir("nested").copy(sourceFile, "renamed.txt").up().up()
+        .file("top.txt")
+        .dir("out")
+        .done();
+
+    assertSame(instance, result);
+    instance.assertChildCountEquals(3);
+    instance.assertContainsDirectory("out");
+    instance.assertChildDirectoryIsEmpty("out");
+    instance.assertContainsExactlyFiles(Collections.singleton("top.txt"));
+    assertEquals("alpha", instance.readFile("in/a.txt"));
+    assertEquals("copied", instance.readFile("in/source.txt"));
+    assertEquals("copied", instance.readFile("in/nested/renamed.txt"));
+  }
+
+  /**
+   * Description of test.
+   *
+   * @throws Exception in the event of a test error.
+   */
+  @Test
+  public void testReusablePlan() throws Exception {
+    assertEquals(2, SHARED_PLAN.getDirectoryCount());
+    assertEquals(2, SHARED_PLAN.getFileCount());
+
+    SHARED_PLAN.apply(instance);
+    SHARED_PLAN.apply(instance);
+
+    assertEquals("alpha", instance.readFile("in/a.txt"));
+    assertEquals("", instance.readFile("in/b.txt"));
+    instance.assertChildDirectoryIsEmpty("out" + File.separator + "archive");
+  }
+
+  /**
+   * Description of test.
+   *
+   * @throws Exception in the event of a test error.
+   */
+  @Test
+  public void testInvalidUsage() throws Exception {
+    try {
+      instance.tree().up();
+      fail("Operation should have thrown an exception");
+    } catch (IllegalStateException expectedEx) {
+      assertEquals("Failed to return to the parent directory in the fixture tree - the current directory is the root of the tree", expectedEx.getMessage());
+    }
+
+    try {
+      new FixtureTree().dir("in").done();
+      fail("Operation should have thrown an exception");
+    } catch (IllegalStateException expectedEx) {
+      assertEquals("Failed to materialize the fixture tree - the tree is not bound to a TestDirectory; apply the plan from toPlan() instead", expectedEx.getMessage());
+    }
+
+    try {
+      instance.tree().dir("in").file("");
+      fail("Operation should have thrown an exception");
+    } catch (IllegalArgumentException expectedEx) {
+      assertEquals("Failed to plan a file in the fixture tree - the name argument cannot be null or empty", expectedEx.getMessage());
+    }
+  }
+}
@@ -0,0 +1,164 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.pronoia.junit.file;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+
+/**
+ * Tests for the OperationJournal and FixturePlan classes.
+ */
+public class OperationJournalTest {
+  static final String TEST_CHILD_DIRECTORY_NAME = "child-directory";
+  static final String TEST_FILE_BODY = "first line\n\tsecond line \\ with escapes";
+
+  @Rule
+  public TestDirectory testDirectory = new TestDirectory("target/journal-test-files").journal("target/journal-test-journals");
+
+  @Rule
+  public TestDirectory replayDirectory = new TestDirectory("target/journal-replay-files");
+
+  /**
+   * Description of test.
+   *
+   * @throws Exception in the event of a test error.
+   */
+  @Test
+  public void testRecordAndReplay() throws Exception {
+    OperationJournal journal = testDirectory.getJournal();
+    assertNotNull(journal);
+    assertEquals(new File("target/journal-test-journals", OperationJournalTest.class.getName() + ".testRecordAndReplay.journal"), journal.getJournalFile());
+
+    testDirectory.newDirectory(TEST_CHILD_DIRECTORY_NAME);
+    testDirectory.newFile("empty.txt");
+    testDirectory.newFileWithBody(TEST_CHILD_DIRECTORY_NAME + File.separator + "body.txt", TEST_FILE_BODY);
+    testDirectory.copyFile("src/test/data/test.txt");
+    testDirectory.copyFile("src/test/data/test.txt", "renamed.txt");
+    testDirectory.newFile("deleted.txt");
+    testDirectory.deleteFile("deleted.txt");
+    testDirectory.newDirectory("deleted-directory");
+    testDirectory.deleteDirectory("deleted-directory");
+
+    List<OperationJournal.Entry> entries = journal.getEntries();
+    assertEquals(9, entries.size());
+    assertEquals(OperationJournal.Operation.NEW_FILE_WITH_BODY, entries.get(2).getOperation());
+    assertEquals(TEST_FILE_BODY, entries.get(2).getArgument());
+    assertEquals(new File("src/test/data/test.txt").getAbsolutePath(), entries.get(4).getArgument());
+    assertEquals("renamed.txt", entries.get(4).getName());
+    for (int i = 1; i < entries.size(); ++i) {
+      assertTrue(entries.get(i).getStartMicros() >= entries.get(i - 1).getStartMicros());
+    }
+
+    List<String> lines = Files.readAllLines(journal.getJournalFile().toPath(), StandardCharsets.UTF_8);
+    assertEquals(10, lines.size());
+    assertTrue(lines.get(0).startsWith(OperationJournal.HEADER_PREFIX));
+
+    OperationJournal read = OperationJournal.read(journal.getJournalFile());
+    assertEquals(journal.getStarted(), read.getStarted());
+    assertEquals(journal.getTestName(), read.getTestName());
+    assertEquals(entries.toString(), read.getEntries().toString());
+
+    read.replay(replayDirectory.toFile());
+    replayDirectory.assertChildCountEquals(4);
+    replayDirectory.assertContainsDirectory(TEST_CHILD_DIRECTORY_NAME);
+    replayDirectory.assertNotContainsFile("deleted.txt");
+    replayDirectory.assertNotContainsDirectory("deleted-directory");
+    assertEquals(0, replayDirectory.getFile("empty.txt").length());
+    assertEquals(TEST_FILE_BODY, replayDirectory.readFile(TEST_CHILD_DIRECTORY_NAME + File.separator + "body.txt"));
+    assertEquals(testDirectory.readFile("renamed.txt"), replayDirectory.readFile("renamed.txt"));
+  }
+
+  /**
+   * Description of test.
+   *
+   * @throws Exception in the event of a test error.
+   */
+  @Test
+  public void testJournalIsDisabledByDefault() throws Exception {
+    assertTrue(testDirectory.isJournalEnabled());
+    assertFalse(replayDirectory.isJournalEnabled());
+    assertEquals(null, replayDirectory.getJournal());
+
+    replayDirectory.newFile("test.txt");
+    assertTrue(testDirectory.getJournal().getEntries().isEmpty());
+  }
+
+  /**
+   * Description of test.
+   *
+   * @throws Exception in the event of a test error.
+   */
+  @Test
+  public void testPlanFolding() throws Exception {
+    FixturePlan plan = new FixturePlan()
+        .directory("a/b/c")
+        .file("a/b/c/one.txt", "one")
+        .file("a/two.txt")
+        .file("x/y/three.txt", "three")
+        .delete("a/b")
+        .file("a/two.txt", "two")
+        .parallelism(4);
+
+    assertEquals(0, plan.getDirectoryCount());
+    assertEquals(2, plan.getFileCount());
+
+    plan.apply(replayDirectory);
+    replayDirectory.assertChildCountEquals(2);
+    replayDirectory.assertChildCountInChildDirectoryEquals("a", 1);
+    assertEquals("two", replayDirectory.readFile("a/two.txt"));
+    assertEquals("three", replayDirectory.readFile("x/y/three.txt"));
+  }
+
+  /**
+   * Description of test.
+   *
+   * @throws Exception in the event of a test error.
+   */
+  @Test
+  public void testReadInvalidJournal() throws Exception {
+    File invalid = replayDirectory.newFileWithBody("invalid.journal", "not a journal");
+    try {
+      OperationJournal.read(invalid);
+      fail("Operation should have thrown an exception");
+    } catch (IllegalStateException expectedEx) {
+      String expectedMessage = String.format("Failed to read the '%s' operation journal - the file does not start with a journal header", invalid);
+      assertEquals(expectedMessage, expectedEx.getMessage());
+    }
+
+    FileUtils.writeStringToFile(invalid, OperationJournal.HEADER_PREFIX + "2018-01-01T00:00:00Z test\n1\t2\tNEW_FILE\n", StandardCharsets.UTF_8);
+    try {
+      OperationJournal.read(invalid);
+      fail("Operation should have thrown an exception");
+    } catch (IllegalStateException expectedEx) {
+      String expectedMessage = String.format("Failed to read the '%s' operation journal - line 2 has 3 fields", invalid);
+      assertEquals(expectedMessage, expectedEx.getMessage());
+    }
+  }
+}
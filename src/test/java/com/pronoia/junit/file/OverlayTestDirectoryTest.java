@@ -0,0 +1,205 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.pronoia.junit.file;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestRule;
+
+/**
+ * Tests for the OverlayTestDirectory class.
+ */
+public class OverlayTestDirectoryTest {
+  static final String TEST_CHILD_DIRECTORY_NAME = "child-directory";
+  static final String TEST_FILE_NAME = "test.txt";
+  static final String TEST_CHILD_FILE_NAME = "child.txt";
+  static final String TEST_FILE_BODY = "lower layer body";
+
+  @ClassRule
+  public static SharedTestDirectory lower = new SharedTestDirectory("target/overlay-lower-files", dir -> {
+    dir.newDirectory(TEST_CHILD_DIRECTORY_NAME);
+    dir.newFileWithBody(TEST_FILE_NAME, TEST_FILE_BODY);
+    dir.newFileWithBody(TEST_CHILD_DIRECTORY_NAME + File.separator + TEST_CHILD_FILE_NAME, TEST_FILE_BODY);
+  });
+
+  @Rule
+  public TestRule lowerIntegrity = lower.integrityCheck();
+
+  @Rule
+  public OverlayTestDirectory overlay = new OverlayTestDirectory("target/overlay-upper-files", lower.toFile());
+
+  /**
+   * Description of test.
+   *
+   * @throws Exception in the event of a test error.
+   */
+  @Test
+  public void testReadsFallBackToLowerLayer() throws Exception {
+    overlay.assertIsEmpty();
+    overlay.assertContainsFile(TEST_FILE_NAME);
+    overlay.assertContainsDirectory(TEST_CHILD_DIRECTORY_NAME);
+    assertEquals(TEST_FILE_BODY, overlay.readFile(TEST_FILE_NAME));
+    assertEquals(new File(lower.toFile(), TEST_FILE_NAME), overlay.getFile(TEST_FILE_NAME));
+    assertEquals(TEST_FILE_BODY, FileUtils.readFileToString(overlay.getFileFromChildDirectory(TEST_CHILD_DIRECTORY_NAME, TEST_CHILD_FILE_NAME), StandardCharsets.UTF_8));
+
+    overlay.assertFileSize(TEST_FILE_NAME, TEST_FILE_BODY.length());
+    overlay.assertLineCount(TEST_FILE_NAME, 1);
+    overlay.assertLineCountBetween(TEST_FILE_NAME, 1, 2);
+    overlay.assertFileLinesEqual(new File(lower.toFile(), TEST_FILE_NAME), TEST_FILE_NAME);
+  }
+
+  /**
+   * Description of test.
+   *
+   * @throws Exception in the event of a test error.
+   */
+  @Test
+  public void testCopyUp() throws Exception {
+    File upperFile = overlay.getFileForUpdate(TEST_FILE_NAME);
+    assertEquals(new File(overlay.toFile(), TEST_FILE_NAME), upperFile);
+    assertEquals(new File(lower.toFile(), TEST_FILE_NAME).lastModified(), upperFile.lastModified());
+
+    FileUtils.writeStringToFile(upperFile, "upper layer body", StandardCharsets.UTF_8);
+    assertEquals("upper layer body", overlay.readFile(TEST_FILE_NAME));
+    assertEquals(TEST_FILE_BODY, lower.readFile(TEST_FILE_NAME));
+    assertEquals(upperFile, overlay.getFileForUpdate(TEST_FILE_NAME));
+
+    File upperChildFile = overlay.getFileForUpdate(TEST_CHILD_DIRECTORY_NAME + File.separator + TEST_CHILD_FILE_NAME);
+    assertTrue(upperChildFile.isFile());
+    overlay.assertChildCountEquals(2);
+
+    try {
+      overlay.getFileForUpdate("missing.txt");
+      fail("Operation should have thrown an exception");
+    } catch (IllegalStateException expectedEx) {
+      String expectedMessage = String.format("Failed to get a File object for update for the 'missing.txt' file from the '%s' directory - the file does not exist", overlay.directory);
+      assertEquals(expectedMessage, expectedEx.getMessage());
+    }
+  }
+
+  /**
+   * Description of test.
+   *
+   * @throws Exception in the event of a test error.
+   */
+  @Test
+  public void testWhiteouts() throws Exception {
+    overlay.deleteFile(TEST_FILE_NAME);
+    overlay.assertNotContainsFile(TEST_FILE_NAME);
+    assertFalse(overlay.resolve(TEST_FILE_NAME).exists());
+    lower.assertContainsFile(TEST_FILE_NAME);
+
+    overlay.newFileWithBody(TEST_FILE_NAME, "recreated");
+    assertEquals("recreated", overlay.readFile(TEST_FILE_NAME));
+
+    overlay.deleteDirectory(TEST_CHILD_DIRECTORY_NAME);
+    overlay.assertNotContainsDirectory(TEST_CHILD_DIRECTORY_NAME);
+    assertFalse(overlay.resolve(TEST_CHILD_DIRECTORY_NAME + File.separator + TEST_CHILD_FILE_NAME).exists());
+    lower.assertContainsDirectory(TEST_CHILD_DIRECTORY_NAME);
+
+    overlay.newDirectory(TEST_CHILD_DIRECTORY_NAME);
+    overlay.assertContainsDirectory(TEST_CHILD_DIRECTORY_NAME);
+    overlay.assertChildDirectoryIsEmpty(TEST_CHILD_DIRECTORY_NAME);
+
+    // The recreated directory is opaque - the lower layer children stay hidden
+    final String childFileName = TEST_CHILD_DIRECTORY_NAME + File.separator + TEST_CHILD_FILE_NAME;
+    assertFalse(overlay.resolve(childFileName).exists());
+    overlay.assertNotContainsFile(childFileName);
+    overlay.newFileWithBody(childFileName, "upper child");
+    assertEquals("upper child", overlay.readFile(childFileName));
+
+    overlay.deleteDirectory(TEST_CHILD_DIRECTORY_NAME);
+    overlay.assertNotContainsDirectory(TEST_CHILD_DIRECTORY_NAME);
+    assertFalse(overlay.resolve(childFileName).exists());
+    lower.assertContainsFileInChildDirectory(TEST_CHILD_DIRECTORY_NAME, TEST_CHILD_FILE_NAME);
+  }
+
+  /**
+   * Description of test.
+   *
+   * @throws Exception in the event of a test error.
+   */
+  @Test
+  public void testAppendCopiesUp() throws Exception {
+    try (OutputStream outputStream = overlay.openOutputStream(TEST_FILE_NAME, true)) {
+      outputStream.write(" appended".getBytes(StandardCharsets.UTF_8));
+    }
+    assertEquals(TEST_FILE_BODY + " appended", overlay.readFile(TEST_FILE_NAME));
+    assertEquals(TEST_FILE_BODY, lower.readFile(TEST_FILE_NAME));
+
+    final String childFileName = TEST_CHILD_DIRECTORY_NAME + File.separator + TEST_CHILD_FILE_NAME;
+    try (SeekableByteChannel channel = overlay.openChannel(childFileName, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+      channel.write(ByteBuffer.wrap(" appended".getBytes(StandardCharsets.UTF_8)));
+    }
+    assertEquals(TEST_FILE_BODY + " appended", overlay.readFile(childFileName));
+    assertEquals(TEST_FILE_BODY, lower.readFile(childFileName));
+  }
+
+  /**
+   * Description of test.
+   *
+   * @throws Exception in the event of a test error.
+   */
+  @Test
+  public void testCreatingLowerLayerEntries() throws Exception {
+    try {
+      overlay.newDirectory(TEST_CHILD_DIRECTORY_NAME);
+      fail("Operation should have thrown an exception");
+    } catch (IllegalStateException expectedEx) {
+      String expectedMessage = String.format("Failed to create a new '%s' child directory in the '%s' directory - the child directory exists in the '%s' lower directory",
+          TEST_CHILD_DIRECTORY_NAME, overlay.directory, lower.toFile());
+      assertEquals(expectedMessage, expectedEx.getMessage());
+    }
+
+    overlay.newFileWithBody(TEST_CHILD_DIRECTORY_NAME + File.separator + "new.txt", "new");
+    overlay.assertContainsFileInChildDirectory(TEST_CHILD_DIRECTORY_NAME, "new.txt");
+    overlay.assertChildCountEquals(1);
+  }
+
+  /**
+   * Description of test.
+   *
+   * @throws Exception in the event of a test error.
+   */
+  @Test
+  public void testCleanupOnlyRemovesUpperLayer() throws Exception {
+    overlay.newFileWithBody("upper.txt", "upper");
+    overlay.deleteFile(TEST_FILE_NAME);
+
+    overlay.cleanup();
+
+    overlay.assertIsEmpty();
+    overlay.assertContainsFile(TEST_FILE_NAME);
+    lower.assertContainsFile(TEST_FILE_NAME);
+    assertTrue(lower.changes().isEmpty());
+  }
+}
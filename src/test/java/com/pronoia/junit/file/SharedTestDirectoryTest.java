@@ -0,0 +1,160 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.pronoia.junit.file;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestRule;
+
+/**
+ * Tests for the SharedTestDirectory class.
+ */
+public class SharedTestDirectoryTest {
+  static final String TEST_CHILD_DIRECTORY_NAME = "child-directory";
+  static final String TEST_FILE_NAME = "test.txt";
+  static final String TEST_FILE_BODY = "shared fixture body";
+
+  @ClassRule
+  public static SharedTestDirectory fixture = new SharedTestDirectory("target/shared-test-files", dir -> {
+    dir.newDirectory(TEST_CHILD_DIRECTORY_NAME);
+    dir.newFileWithBody(TEST_FILE_NAME, TEST_FILE_BODY);
+  });
+
+  @Rule
+  public TestRule fixtureIntegrity = fixture.integrityCheck();
+
+  /**
+   * Description of test.
+   *
+   * @throws Exception in the event of a test error.
+   */
+  @Test
+  public void testFixtureIsBuilt() throws Exception {
+    assertTrue(fixture.isReadOnly());
+    fixture.assertContainsFile(TEST_FILE_NAME);
+    fixture.assertContainsDirectory(TEST_CHILD_DIRECTORY_NAME);
+    assertEquals(TEST_FILE_BODY, fixture.readFile(TEST_FILE_NAME));
+    assertTrue(fixture.changes().isEmpty());
+  }
+
+  /**
+   * Description of test.
+   *
+   * @throws Exception in the event of a test error.
+   */
+  @Test
+  public void testMutationsAreRejected() throws Exception {
+    try {
+      fixture.newFile("new.txt");
+      fail("Operation should have thrown an exception");
+    } catch (IllegalStateException expectedEx) {
+      String expectedMessage = String.format("Failed to create the 'new.txt' file in the '%s' directory - the shared fixture is read-only", fixture.directory);
+      assertEquals(expectedMessage, expectedEx.getMessage());
+    }
+
+    try {
+      fixture.deleteFile(TEST_FILE_NAME);
+      fail("Operation should have thrown an exception");
+    } catch (IllegalStateException expectedEx) {
+      String expectedMessage = String.format("Failed to delete the '%s' file in the '%s' directory - the shared fixture is read-only", TEST_FILE_NAME, fixture.directory);
+      assertEquals(expectedMessage, expectedEx.getMessage());
+    }
+
+    try {
+      fixture.deleteDirectory(TEST_CHILD_DIRECTORY_NAME);
+      fail("Operation should have thrown an exception");
+    } catch (IllegalStateException expectedEx) {
+      String expectedMessage = String.format("Failed to delete the '%s' child directory in the '%s' directory - the shared fixture is read-only", TEST_CHILD_DIRECTORY_NAME, fixture.directory);
+      assertEquals(expectedMessage, expectedEx.getMessage());
+    }
+
+    try {
+      fixture.openOutputStream(TEST_FILE_NAME, true);
+      fail("Operation should have thrown an exception");
+    } catch (IllegalStateException expectedEx) {
+      String expectedMessage = String.format("Failed to open an output stream for the '%s' file in the '%s' directory - the shared fixture is read-only", TEST_FILE_NAME, fixture.directory);
+      assertEquals(expectedMessage, expectedEx.getMessage());
+    }
+
+    try {
+      fixture.openChannel(TEST_FILE_NAME, StandardOpenOption.WRITE);
+      fail("Operation should have thrown an exception");
+    } catch (IllegalStateException expectedEx) {
+      String expectedMessage = String.format("Failed to open a writable channel for the '%s' file in the '%s' directory - the shared fixture is read-only", TEST_FILE_NAME, fixture.directory);
+      assertEquals(expectedMessage, expectedEx.getMessage());
+    }
+    fixture.openChannel(TEST_FILE_NAME).close();
+
+    try {
+      fixture.tree();
+      fail("Operation should have thrown an exception");
+    } catch (IllegalStateException expectedEx) {
+      String expectedMessage = String.format("Failed to build a fixture tree in the '%s' directory - the shared fixture is read-only", fixture.directory);
+      assertEquals(expectedMessage, expectedEx.getMessage());
+    }
+
+    try {
+      fixture.producer(TEST_CHILD_DIRECTORY_NAME);
+      fail("Operation should have thrown an exception");
+    } catch (IllegalStateException expectedEx) {
+      String expectedMessage = String.format("Failed to create a file producer for the '%s' child directory in the '%s' directory - the shared fixture is read-only", TEST_CHILD_DIRECTORY_NAME, fixture.directory);
+      assertEquals(expectedMessage, expectedEx.getMessage());
+    }
+  }
+
+  /**
+   * Description of test.
+   *
+   * @throws Exception in the event of a test error.
+   */
+  @Test
+  public void testChangesAreDetectedAndRebuilt() throws Exception {
+    int buildCount = fixture.getBuildCount();
+
+    File file = new File(fixture.directory, TEST_FILE_NAME);
+    File childDirectory = new File(fixture.directory, TEST_CHILD_DIRECTORY_NAME);
+    fixture.directory.setWritable(true);
+    childDirectory.setWritable(true);
+    file.setWritable(true);
+
+    FileUtils.writeStringToFile(file, "corrupted", StandardCharsets.UTF_8);
+    new File(childDirectory, "added.txt").createNewFile();
+
+    assertEquals(Arrays.asList("modified " + TEST_CHILD_DIRECTORY_NAME, "modified " + TEST_FILE_NAME, "added " + TEST_CHILD_DIRECTORY_NAME + File.separator + "added.txt"), fixture.changes());
+
+    assertFalse(fixture.verifyIntegrity());
+    assertEquals(buildCount + 1, fixture.getBuildCount());
+    assertEquals(TEST_FILE_BODY, fixture.readFile(TEST_FILE_NAME));
+    fixture.assertChildDirectoryIsEmpty(TEST_CHILD_DIRECTORY_NAME);
+
+    assertTrue(fixture.verifyIntegrity());
+    assertEquals(buildCount + 1, fixture.getBuildCount());
+  }
+}
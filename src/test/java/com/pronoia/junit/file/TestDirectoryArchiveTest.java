@@ -0,0 +1,142 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.pronoia.junit.file;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+
+/**
+ * Tests for the archive extraction methods of the TestDirectory class.
+ */
+public class TestDirectoryArchiveTest {
+  @Rule
+  public TestDirectory archiveDirectory = new TestDirectory("target/archive-source-files");
+
+  @Rule
+  public TestDirectory testDirectory = new TestDirectory("target/archive-test-files");
+
+  /**
+   * Description of test.
+   *
+   * @throws Exception in the event of a test error.
+   */
+  @Test
+  public void testExtractArchive() throws Exception {
+    File archive = createArchive("fixture.zip", "extract " + System.nanoTime(), "data/", "data/one.txt", "data/nested/two.txt", "root.txt");
+
+    assertEquals(testDirectory.toFile(), testDirectory.extractArchive(archive));
+    testDirectory.assertChildCountEquals(2);
+    testDirectory.assertContainsFile("root.txt");
+    assertEquals("data/nested/two.txt", testDirectory.readFile("data/nested/two.txt"));
+
+    File childDirectory = testDirectory.extractArchive(archive, "child");
+    assertEquals(new File(testDirectory.toFile(), "child"), childDirectory);
+    assertEquals("data/one.txt", testDirectory.readFile("child/data/one.txt"));
+  }
+
+  /**
+   * Description of test.
+   *
+   * @throws Exception in the event of a test error.
+   */
+  @Test
+  public void testExtractionIsCached() throws Exception {
+    File archive = createArchive("cached.zip", "cached " + System.nanoTime(), "cached.txt");
+    testDirectory.extractArchive(archive, "first");
+
+    File cachedTree = new File(FixtureCache.getDefault().entriesDirectory, ArchiveExtractor.cacheKey(archive).toEntryName());
+    assertTrue(cachedTree.isDirectory());
+
+    // Prove the second extraction is restored from the cache rather than inflated from the archive
+    FileUtils.writeStringToFile(new File(cachedTree, "cached.txt"), "from cache", StandardCharsets.UTF_8);
+    testDirectory.extractArchive(archive, "second");
+    assertEquals("from cache", testDirectory.readFile("second/cached.txt"));
+    assertEquals("cached.txt", testDirectory.readFile("first/cached.txt"));
+  }
+
+  /**
+   * Description of test.
+   *
+   * @throws Exception in the event of a test error.
+   */
+  @Test
+  public void testEntryOutsideTargetIsRejected() throws Exception {
+    File archive = createArchive("evil.zip", "evil " + System.nanoTime(), "../evil.txt");
+    try {
+      testDirectory.extractArchive(archive);
+      fail("Operation should have thrown an exception");
+    } catch (IllegalStateException expectedEx) {
+      String expectedMessage = String.format("Failed to extract the '%s' archive to the '%s' directory", archive, testDirectory.toFile());
+      assertEquals(expectedMessage, expectedEx.getMessage());
+      Throwable rootCause = expectedEx;
+      while (rootCause.getCause() != null) {
+        rootCause = rootCause.getCause();
+      }
+      assertTrue(rootCause.getMessage(), rootCause.getMessage().contains("outside of the target directory"));
+    }
+    assertFalse(new File(testDirectory.toFile().getParentFile(), "evil.txt").exists());
+  }
+
+  /**
+   * Description of test.
+   *
+   * @throws Exception in the event of a test error.
+   */
+  @Test
+  public void testExtractMissingArchive() throws Exception {
+    File archive = new File("missing.zip");
+    try {
+      testDirectory.extractArchive(archive);
+      fail("Operation should have thrown an exception");
+    } catch (IllegalArgumentException expectedEx) {
+      String expectedMessage = String.format("Failed to extract the '%s' archive to the '%s' directory - the archive does not exist or does not refer to a file", archive, testDirectory.toFile());
+      assertEquals(expectedMessage, expectedEx.getMessage());
+    }
+  }
+
+  /**
+   * Create an archive where each file contains its own name, plus a comment entry that makes the digest unique.
+   */
+  File createArchive(String archiveName, String uniqueComment, String... entryNames) throws IOException {
+    File archive = new File(archiveDirectory.toFile(), archiveName);
+    try (ZipOutputStream output = new ZipOutputStream(new FileOutputStream(archive))) {
+      output.setComment(uniqueComment);
+      for (String entryName : entryNames) {
+        output.putNextEntry(new ZipEntry(entryName));
+        if (!entryName.endsWith("/")) {
+          output.write(entryName.getBytes(StandardCharsets.UTF_8));
+        }
+        output.closeEntry();
+      }
+    }
+    return archive;
+  }
+}
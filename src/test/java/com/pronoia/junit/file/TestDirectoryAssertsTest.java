@@ -20,6 +20,12 @@ package com.pronoia.junit.file;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.fail;
 
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
 import org.junit.Rule;
 import org.junit.Test;
 
@@ -223,4 +229,231 @@ public class TestDirectoryAssertsTest {
       assertEquals("Unexpected assertion message", expectedAssertionMessage, expectedFailure.getMessage());
     }
   }
-}
\ No newline at end of file
+
+  /**
+   * Description of test.
+   *
+   * @throws Exception in the event of a test error.
+   */
+  @Test
+  public void testAssertFilesMatching() throws Exception {
+    instance.assertContainsFilesMatching("out-*.csv", 0);
+    instance.assertNoFilesMatching("out-*.csv");
+    instance.assertAllFilesMatch("out-*.csv");
+
+    instance.newFile("out-20180101.csv");
+    instance.newFile("out-20180102.csv");
+    instance.assertContainsFilesMatching("out-*.csv", 2);
+    instance.assertAllFilesMatch("regex:out-[0-9]{8}\\.csv");
+
+    try {
+      instance.assertNoFilesMatching("*-20180102.csv");
+      fail("Assertion should have failed");
+    } catch (AssertionError expectedFailure) {
+      final String expectedAssertionMessage = String.format("File out-20180102.csv matching *-20180102.csv exists in directory %s", instance.directory);
+      assertEquals("Unexpected assertion message", expectedAssertionMessage, expectedFailure.getMessage());
+    }
+
+    instance.newFile(TEST_FILE_NAME);
+    try {
+      instance.assertAllFilesMatch("out-*.csv");
+      fail("Assertion should have failed");
+    } catch (AssertionError expectedFailure) {
+      final String expectedAssertionMessage = String.format("File %s in directory %s does not match out-*.csv", TEST_FILE_NAME, instance.directory);
+      assertEquals("Unexpected assertion message", expectedAssertionMessage, expectedFailure.getMessage());
+    }
+  }
+
+  /**
+   * Description of test.
+   *
+   * @throws Exception in the event of a test error.
+   */
+  @Test
+  public void testAssertContainsFiles() throws Exception {
+    instance.newFile("out-1.csv");
+    instance.newFile("out-2.csv");
+    instance.newDirectory(TEST_CHILD_DIRECTORY_NAME);
+
+    instance.assertContainsAllFiles(Arrays.asList("out-1.csv", "out-2.csv"));
+    instance.assertContainsAllFiles(Collections.singleton("out-1.csv"));
+    instance.assertContainsExactlyFiles(Arrays.asList("out-2.csv", "out-1.csv", "out-2.csv"));
+    instance.assertContainsNoneOf(Arrays.asList("out-3.csv", TEST_CHILD_DIRECTORY_NAME));
+
+    try {
+      instance.assertContainsAllFiles(Arrays.asList("out-1.csv", "out-3.csv", "out-4.csv", TEST_CHILD_DIRECTORY_NAME));
+      fail("Assertion should have failed");
+    } catch (AssertionError expectedFailure) {
+      final String expectedAssertionMessage = String.format("Directory %s is missing 3 of 4 expected files - [%s, out-3.csv, out-4.csv]", instance.directory, TEST_CHILD_DIRECTORY_NAME);
+      assertEquals("Unexpected assertion message", expectedAssertionMessage, expectedFailure.getMessage());
+    }
+
+    try {
+      instance.assertContainsExactlyFiles(Arrays.asList("out-1.csv", "out-3.csv"));
+      fail("Assertion should have failed");
+    } catch (AssertionError expectedFailure) {
+      final String expectedAssertionMessage = String.format("Directory %s does not contain exactly the expected files - missing [out-3.csv], unexpected [out-2.csv]", instance.directory);
+      assertEquals("Unexpected assertion message", expectedAssertionMessage, expectedFailure.getMessage());
+    }
+
+    try {
+      instance.assertContainsNoneOf(Arrays.asList("out-2.csv", "out-3.csv", "out-1.csv"));
+      fail("Assertion should have failed");
+    } catch (AssertionError expectedFailure) {
+      final String expectedAssertionMessage = String.format("Directory %s contains 2 unexpected files - [out-1.csv, out-2.csv]", instance.directory);
+      assertEquals("Unexpected assertion message", expectedAssertionMessage, expectedFailure.getMessage());
+    }
+
+    try {
+      instance.assertContainsAllFiles(null);
+      fail("Operation should have failed");
+    } catch (IllegalArgumentException expectedEx) {
+      assertEquals("File names argument cannot be null", expectedEx.getMessage());
+    }
+  }
+
+  /**
+   * Description of test.
+   *
+   * @throws Exception in the event of a test error.
+   */
+  @Test
+  public void testVerify() throws Exception {
+    instance.newFile(TEST_FILE_NAME);
+    instance.newDirectory(TEST_CHILD_DIRECTORY_NAME);
+
+    instance.verify().containsFile(TEST_FILE_NAME).containsDirectory(TEST_CHILD_DIRECTORY_NAME).fileCount(1).run();
+
+    try {
+      instance.verify().fileCount(2).inChildDirectory(TEST_CHILD_DIRECTORY_NAME).notEmpty().run();
+      fail("Assertion should have failed");
+    } catch (AssertionError expectedFailure) {
+      final String separator = System.lineSeparator() + "  ";
+      final String expectedAssertionMessage = "2 of 2 directory checks failed"
+          + separator + String.format("Unexpected number of files in directory %s expected:<2> but was:<1>", instance.directory)
+          + separator + String.format("Directory %s is empty", new File(instance.directory, TEST_CHILD_DIRECTORY_NAME));
+      assertEquals("Unexpected assertion message", expectedAssertionMessage, expectedFailure.getMessage());
+    }
+  }
+
+  /**
+   * Description of test.
+   *
+   * @throws Exception in the event of a test error.
+   */
+  @Test
+  public void testAwaitAssertions() throws Exception {
+    Thread producer = new Thread(() -> {
+      instance.newFile(TEST_FILE_NAME);
+      instance.newDirectory(TEST_CHILD_DIRECTORY_NAME);
+    });
+    producer.start();
+
+    instance.assertFileAppearsWithin(TEST_FILE_NAME, 30, TimeUnit.SECONDS);
+    instance.assertChildCountReachesWithin(2, 30, TimeUnit.SECONDS);
+    producer.join();
+
+    Thread consumer = new Thread(() -> instance.deleteFile(TEST_FILE_NAME));
+    consumer.start();
+
+    instance.assertFileDisappearsWithin(TEST_FILE_NAME, 30, TimeUnit.SECONDS);
+    consumer.join();
+
+    try {
+      instance.assertFileAppearsWithin(TEST_FILE_NAME, 10, TimeUnit.MILLISECONDS);
+      fail("Assertion should have failed");
+    } catch (AssertionError expectedFailure) {
+      final String expectedAssertionMessage = String.format("File %s did not appear in directory %s within 10 MILLISECONDS", TEST_FILE_NAME, instance.directory);
+      assertEquals("Unexpected assertion message", expectedAssertionMessage, expectedFailure.getMessage());
+    }
+  }
+
+  /**
+   * Description of test.
+   *
+   * @throws Exception in the event of a test error.
+   */
+  @Test
+  public void testAssertFileSizeAndLineCount() throws Exception {
+    instance.newFileWithBody(TEST_FILE_NAME, "one\ntwo\n");
+
+    instance.assertFileSize(TEST_FILE_NAME, 8);
+    instance.assertFileSizeAtLeast(TEST_FILE_NAME, 8);
+    instance.assertLineCount(TEST_FILE_NAME, 2);
+    instance.assertLineCountBetween(TEST_FILE_NAME, 1, 2);
+
+    try {
+      instance.assertFileSizeAtLeast(TEST_FILE_NAME, 9);
+      fail("Assertion should have failed");
+    } catch (AssertionError expectedFailure) {
+      final String expectedAssertionMessage = String.format("Size of file %s is 8 bytes - expected at least 9 bytes", new File(instance.directory, TEST_FILE_NAME));
+      assertEquals("Unexpected assertion message", expectedAssertionMessage, expectedFailure.getMessage());
+    }
+
+    try {
+      instance.assertLineCount("missing.txt", 2);
+      fail("Assertion should have failed");
+    } catch (AssertionError expectedFailure) {
+      final String expectedAssertionMessage = String.format("File %s does not exist", new File(instance.directory, "missing.txt"));
+      assertEquals("Unexpected assertion message", expectedAssertionMessage, expectedFailure.getMessage());
+    }
+
+    for (String fileName : Arrays.asList("", null)) {
+      try {
+        instance.assertFileSize(fileName, 8);
+        fail("Operation should have thrown an exception");
+      } catch (IllegalArgumentException expectedEx) {
+        String expectedMessage = String.format("Failed to check the size of a file in the '%s' directory - the filename argument cannot be null or empty", instance.directory);
+        assertEquals(expectedMessage, expectedEx.getMessage());
+      }
+
+      try {
+        instance.assertLineCount(fileName, 2);
+        fail("Operation should have thrown an exception");
+      } catch (IllegalArgumentException expectedEx) {
+        String expectedMessage = String.format("Failed to count the lines of a file in the '%s' directory - the filename argument cannot be null or empty", instance.directory);
+        assertEquals(expectedMessage, expectedEx.getMessage());
+      }
+
+      try {
+        instance.assertFileContains(fileName, Pattern.compile("one"));
+        fail("Operation should have thrown an exception");
+      } catch (IllegalArgumentException expectedEx) {
+        String expectedMessage = String.format("Failed to search a file in the '%s' directory - the filename argument cannot be null or empty", instance.directory);
+        assertEquals(expectedMessage, expectedEx.getMessage());
+      }
+    }
+  }
+
+  /**
+   * Description of test.
+   *
+   * @throws Exception in the event of a test error.
+   */
+  @Test
+  public void testAssertContentPatterns() throws Exception {
+    for (int i = 1; i <= 20; ++i) {
+      if (i != 3 && i != 11) {
+        instance.newFileWithBody(String.format("app-%02d.log", i), "INFO started\nINFO stopped\n");
+      }
+    }
+    instance.newFileWithBody("app-03.log", "INFO started\nERROR failed\n");
+    instance.newFileWithBody("app-11.log", "ERROR failed\n");
+    instance.newFileWithBody("notes.txt", "ERROR is not logged here\n");
+
+    final Pattern errorPattern = Pattern.compile("^ERROR", Pattern.MULTILINE);
+    instance.assertFileContains("app-03.log", errorPattern);
+    instance.assertFileNotContains("app-01.log", errorPattern);
+    instance.assertNoFileContains("*.log", Pattern.compile("WARN"));
+    instance.assertNoFileContains("app-0*.txt", errorPattern);
+
+    try {
+      instance.assertNoFileContains("*.log", errorPattern);
+      fail("Assertion should have failed");
+    } catch (AssertionError expectedFailure) {
+      final String expectedAssertionMessage = String.format("2 of 20 files matching *.log in directory %s contain a match for ^ERROR - [app-03.log at character 13, app-11.log at character 0]",
+          instance.toPath());
+      assertEquals("Unexpected assertion message", expectedAssertionMessage, expectedFailure.getMessage());
+    }
+  }
+}
@@ -0,0 +1,130 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.pronoia.junit.file;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+/**
+ * Tests for the atomic publish mode of the TestDirectory class.
+ */
+public class TestDirectoryAtomicPublishTest {
+  static final String TEST_FILE_NAME = "test.txt";
+  static final String TEST_FILE_BODY = "atomic body";
+
+  @Rule
+  public TestDirectory source = new TestDirectory("target/atomic-source-files");
+
+  @Rule
+  public TestDirectory instance = new TestDirectory().atomicPublish();
+
+  /**
+   * Description of test.
+   *
+   * @throws Exception in the event of a test error.
+   */
+  @Test
+  public void testNewFileWithBody() throws Exception {
+    assertTrue(instance.isAtomicPublish());
+
+    File file = instance.newFileWithBody(TEST_FILE_NAME, TEST_FILE_BODY);
+    assertEquals(new File(instance.toFile(), TEST_FILE_NAME), file);
+    assertEquals(TEST_FILE_BODY, instance.readFile(TEST_FILE_NAME));
+
+    instance.newDirectory("child");
+    instance.newFileWithBody("child" + File.separator + TEST_FILE_NAME, TEST_FILE_BODY);
+    instance.assertChildCountEquals(2);
+    instance.assertChildCountInChildDirectoryEquals("child", 1);
+
+    try {
+      instance.newFileWithBody(TEST_FILE_NAME, "replacement");
+      fail("Operation should have thrown an exception");
+    } catch (IllegalStateException expectedEx) {
+      String expectedMessage = String.format("Failed to create the '%s' file in the '%s' directory - the file already exists", TEST_FILE_NAME, instance.directory);
+      assertEquals(expectedMessage, expectedEx.getMessage());
+    }
+    assertEquals(TEST_FILE_BODY, instance.readFile(TEST_FILE_NAME));
+  }
+
+  /**
+   * Description of test.
+   *
+   * @throws Exception in the event of a test error.
+   */
+  @Test
+  public void testCopyFile() throws Exception {
+    File sourceFile = source.newFileWithBody(TEST_FILE_NAME, TEST_FILE_BODY);
+
+    instance.copyFile(sourceFile);
+    instance.copyFile(sourceFile, "copy.txt");
+    instance.copyFile(source.newFileWithBody("other.txt", "replacement"), "copy.txt");
+
+    instance.assertChildCountEquals(2);
+    assertEquals(TEST_FILE_BODY, instance.readFile(TEST_FILE_NAME));
+    assertEquals("replacement", instance.readFile("copy.txt"));
+    assertEquals(sourceFile.lastModified(), instance.getFile(TEST_FILE_NAME).lastModified());
+  }
+
+  /**
+   * Description of test.
+   *
+   * @throws Exception in the event of a test error.
+   */
+  @Test
+  public void testProducerNeverExposesPartialFiles() throws Exception {
+    final int fileSize = 64 * 1024;
+    FileProducer producer = instance.producer("inbox").rate(2000).burst(10).fileSize(fileSize).fileCount(200);
+    assertTrue(producer.isAtomic());
+
+    final AtomicLong partialReads = new AtomicLong();
+    final AtomicLong fullReads = new AtomicLong();
+    Thread consumer = new Thread(() -> {
+      File inbox = producer.getDirectory();
+      while (producer.isRunning() || fullReads.get() == 0) {
+        File[] files = inbox.listFiles((dir, name) -> !name.startsWith("."));
+        if (files != null) {
+          for (File file : files) {
+            long length = file.length();
+            if (length == fileSize) {
+              fullReads.incrementAndGet();
+            } else if (length != 0 || file.exists()) {
+              partialReads.incrementAndGet();
+            }
+          }
+        }
+      }
+    });
+
+    producer.start();
+    consumer.start();
+    assertTrue(producer.awaitCompletion(10, TimeUnit.SECONDS));
+    consumer.join(TimeUnit.SECONDS.toMillis(10));
+
+    assertEquals(0, partialReads.get());
+    assertTrue(fullReads.get() > 0);
+    instance.assertFileCountInChildDirectoryEquals("inbox", 200);
+  }
+}
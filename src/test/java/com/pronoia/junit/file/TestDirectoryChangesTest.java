@@ -0,0 +1,163 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.pronoia.junit.file;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+/**
+ * Tests for the change tracking methods of the TestDirectory class.
+ */
+public class TestDirectoryChangesTest {
+  static final String TEST_CHILD_DIRECTORY_NAME = "child-directory";
+  static final String TEST_FILE_NAME = "test.txt";
+
+  @Rule
+  public TestDirectory testDirectory = new TestDirectory("target/changes-test-files").trackChanges(true, true);
+
+  @Before
+  public void setUp() throws Exception {
+    testDirectory.newDirectory(TEST_CHILD_DIRECTORY_NAME);
+    testDirectory.newFileWithBody(TEST_FILE_NAME, "original");
+    testDirectory.newFileWithBody(TEST_CHILD_DIRECTORY_NAME + File.separator + TEST_FILE_NAME, "original");
+  }
+
+  /**
+   * Description of test.
+   *
+   * @throws Exception in the event of a test error.
+   */
+  @Test
+  public void testBaselineCapturedBeforeSetUp() throws Exception {
+    assertEquals(Arrays.asList("added " + TEST_CHILD_DIRECTORY_NAME, "added " + TEST_CHILD_DIRECTORY_NAME + File.separator + TEST_FILE_NAME, "added " + TEST_FILE_NAME),
+        testDirectory.changesSinceStart());
+
+    testDirectory.captureBaseline();
+    assertEquals(Collections.emptyList(), testDirectory.changesSinceStart());
+  }
+
+  /**
+   * Description of test.
+   *
+   * @throws Exception in the event of a test error.
+   */
+  @Test
+  public void testIncrementalChanges() throws Exception {
+    testDirectory.captureBaseline();
+    verifyChanges();
+  }
+
+  /**
+   * Description of test.
+   *
+   * @throws Exception in the event of a test error.
+   */
+  @Test
+  public void testRescanChanges() throws Exception {
+    testDirectory.captureBaseline();
+    testDirectory.changeTracker.close();
+    verifyChanges();
+  }
+
+  /**
+   * Description of test.
+   *
+   * @throws Exception in the event of a test error.
+   */
+  @Test
+  public void testSameSizeAndTimestampDetectedWithDigests() throws Exception {
+    testDirectory.captureBaseline();
+
+    File file = testDirectory.getFile(TEST_FILE_NAME);
+    long lastModified = file.lastModified();
+    FileUtils.writeStringToFile(file, "modified", StandardCharsets.UTF_8);
+    file.setLastModified(lastModified);
+
+    assertEquals(Collections.singletonList("modified " + TEST_FILE_NAME), testDirectory.changesSinceStart());
+  }
+
+  /**
+   * Description of test.
+   *
+   * @throws Exception in the event of a test error.
+   */
+  @Test
+  public void testWithoutBaseline() throws Exception {
+    TestDirectory untracked = new TestDirectory("target/changes-test-files");
+    try {
+      untracked.changesSinceStart();
+      fail("Operation should have thrown an exception");
+    } catch (IllegalStateException expectedEx) {
+      String expectedMessage = String.format("Failed to get the changes to the '%s' directory - a change tracking baseline has not been captured", untracked.directory);
+      assertEquals(expectedMessage, expectedEx.getMessage());
+    }
+  }
+
+  void verifyChanges() throws Exception {
+    testDirectory.assertOnlyChanged();
+    testDirectory.assertUnchanged(TEST_CHILD_DIRECTORY_NAME);
+
+    testDirectory.newDirectory("output");
+    testDirectory.newFileWithBody("output" + File.separator + "result.txt", "result");
+    FileUtils.writeStringToFile(testDirectory.getFile(TEST_FILE_NAME), "modified text", StandardCharsets.UTF_8);
+    testDirectory.deleteFile(TEST_CHILD_DIRECTORY_NAME + File.separator + TEST_FILE_NAME);
+
+    assertEquals(Arrays.asList(
+        "removed " + TEST_CHILD_DIRECTORY_NAME + File.separator + TEST_FILE_NAME,
+        "added output",
+        "added output" + File.separator + "result.txt",
+        "modified " + TEST_FILE_NAME), testDirectory.changesSinceStart());
+
+    testDirectory.assertOnlyChanged("output", "output/**", "*.txt", TEST_CHILD_DIRECTORY_NAME + "/*");
+    testDirectory.assertUnchanged("missing.txt");
+
+    try {
+      testDirectory.assertOnlyChanged("output/**", "*.txt");
+      fail("Assertion should have failed");
+    } catch (AssertionError expectedError) {
+      String expectedMessage = String.format("Unexpected changes in directory %s - [removed %s, added output]", testDirectory.directory,
+          TEST_CHILD_DIRECTORY_NAME + File.separator + TEST_FILE_NAME);
+      assertEquals(expectedMessage, expectedError.getMessage());
+    }
+
+    try {
+      testDirectory.assertUnchanged(TEST_CHILD_DIRECTORY_NAME);
+      fail("Assertion should have failed");
+    } catch (AssertionError expectedError) {
+      String expectedMessage = String.format("%s in directory %s has changed - [removed %s]", TEST_CHILD_DIRECTORY_NAME, testDirectory.directory,
+          TEST_CHILD_DIRECTORY_NAME + File.separator + TEST_FILE_NAME);
+      assertEquals(expectedMessage, expectedError.getMessage());
+    }
+
+    testDirectory.deleteDirectory("output");
+    testDirectory.deleteFile(TEST_FILE_NAME);
+    assertTrue(testDirectory.changesSinceStart().contains("removed " + TEST_FILE_NAME));
+    assertEquals(2, testDirectory.changesSinceStart().size());
+  }
+}
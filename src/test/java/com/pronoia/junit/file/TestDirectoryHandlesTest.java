@@ -0,0 +1,136 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.pronoia.junit.file;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.Test;
+import org.junit.runner.Description;
+import org.junit.runners.model.Statement;
+
+/**
+ * Tests for the file handle tracking methods of the TestDirectory class.
+ */
+public class TestDirectoryHandlesTest {
+  static final Description TEST_DESCRIPTION = Description.createTestDescription(TestDirectoryHandlesTest.class, "handlesTest");
+
+  /**
+   * Description of test.
+   *
+   * @throws Throwable in the event of a test error.
+   */
+  @Test
+  public void testTrackedHandles() throws Throwable {
+    final TestDirectory testDirectory = new TestDirectory("target/handles-test-files").failOnHandleLeaks(true);
+
+    testDirectory.apply(new Statement() {
+      @Override
+      public void evaluate() throws Throwable {
+        try (OutputStream output = testDirectory.openOutputStream("test.txt")) {
+          output.write("first".getBytes(StandardCharsets.UTF_8));
+          assertEquals(1, testDirectory.getOpenHandleCount());
+        }
+        try (OutputStream output = testDirectory.openOutputStream("test.txt", true)) {
+          output.write(" second".getBytes(StandardCharsets.UTF_8));
+        }
+        try (InputStream input = testDirectory.openInputStream("test.txt")) {
+          assertEquals('f', input.read());
+        }
+        try (SeekableByteChannel channel = testDirectory.openChannel("test.txt")) {
+          assertEquals(12, channel.size());
+        }
+        try (SeekableByteChannel channel = testDirectory.openChannel("channel.txt", StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+          channel.write(ByteBuffer.wrap("channel".getBytes(StandardCharsets.UTF_8)));
+        }
+        assertEquals(0, testDirectory.getOpenHandleCount());
+        assertEquals("first second", testDirectory.readFile("test.txt"));
+        assertEquals("channel", testDirectory.readFile("channel.txt"));
+      }
+    }, TEST_DESCRIPTION).evaluate();
+  }
+
+  /**
+   * Description of test.
+   *
+   * @throws Throwable in the event of a test error.
+   */
+  @Test
+  public void testLeakedHandlesAreClosed() throws Throwable {
+    final TestDirectory testDirectory = new TestDirectory("target/handles-test-files").failOnHandleLeaks(true);
+    final SeekableByteChannel[] leaked = new SeekableByteChannel[1];
+
+    try {
+      testDirectory.apply(new Statement() {
+        @Override
+        public void evaluate() throws Throwable {
+          testDirectory.newFileWithBody("test.txt", "body");
+          leaked[0] = testDirectory.openChannel("test.txt");
+        }
+      }, TEST_DESCRIPTION).evaluate();
+      fail("Test should have failed");
+    } catch (AssertionError expectedError) {
+      String expectedMessage = String.format("1 handles opened in directory %s were not closed - [channel for %s]", testDirectory.directory, testDirectory.getFile("test.txt"));
+      assertEquals(expectedMessage, expectedError.getMessage());
+    }
+
+    assertFalse(leaked[0].isOpen());
+    assertEquals(0, testDirectory.getOpenHandleCount());
+  }
+
+  /**
+   * Description of test.
+   *
+   * @throws Throwable in the event of a test error.
+   */
+  @Test
+  public void testFileDescriptorSampling() throws Throwable {
+    assumeTrue(FileHandleTracker.countFileDescriptors() >= 0);
+
+    final TestDirectory testDirectory = new TestDirectory("target/handles-test-files").sampleFileDescriptors(true).failOnHandleLeaks(true);
+    final InputStream[] leaked = new InputStream[1];
+
+    try {
+      testDirectory.apply(new Statement() {
+        @Override
+        public void evaluate() throws Throwable {
+          for (int i = 0; i < 16; ++i) {
+            testDirectory.newFileWithBody("test-" + i + ".txt", "body");
+          }
+          leaked[0] = new FileInputStream(testDirectory.getFile("test-0.txt"));
+        }
+      }, TEST_DESCRIPTION).evaluate();
+      fail("Test should have failed");
+    } catch (AssertionError expectedError) {
+      assertTrue(expectedError.getMessage(), expectedError.getMessage().startsWith("Open file descriptor count increased from "));
+    } finally {
+      leaked[0].close();
+    }
+  }
+}
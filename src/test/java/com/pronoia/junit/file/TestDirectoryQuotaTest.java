@@ -0,0 +1,121 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.pronoia.junit.file;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.junit.runner.Description;
+import org.junit.runners.model.Statement;
+
+/**
+ * Tests for the quota methods of the TestDirectory class.
+ */
+public class TestDirectoryQuotaTest {
+  static final Description TEST_DESCRIPTION = Description.createTestDescription(TestDirectoryQuotaTest.class, "quotaTest");
+
+  /**
+   * Description of test.
+   *
+   * @throws Throwable in the event of a test error.
+   */
+  @Test
+  public void testWithinQuota() throws Throwable {
+    final TestDirectory testDirectory = new TestDirectory("target/quota-test-files").quota(1024, 4).quotaSampleInterval(5, TimeUnit.MILLISECONDS);
+
+    testDirectory.apply(new Statement() {
+      @Override
+      public void evaluate() throws Throwable {
+        testDirectory.newFileWithBody("one.txt", "0123456789");
+        testDirectory.newFileWithBody("two.txt", "0123456789");
+        Thread.sleep(50);
+        testDirectory.deleteFile("two.txt");
+      }
+    }, TEST_DESCRIPTION).evaluate();
+
+    assertEquals(20, testDirectory.getPeakBytes());
+    assertEquals(2, testDirectory.getPeakFiles());
+    testDirectory.assertContainsFile("one.txt");
+  }
+
+  /**
+   * Description of test.
+   *
+   * @throws Throwable in the event of a test error.
+   */
+  @Test
+  public void testRunawayTestIsStopped() throws Throwable {
+    final TestDirectory testDirectory = new TestDirectory("target/quota-test-files").quota(64 * 1024, 0).quotaSampleInterval(5, TimeUnit.MILLISECONDS);
+    final boolean[] interrupted = new boolean[1];
+
+    try {
+      testDirectory.apply(new Statement() {
+        @Override
+        public void evaluate() throws Throwable {
+          File file = testDirectory.newFile("runaway.bin");
+          try (OutputStream output = new FileOutputStream(file)) {
+            byte[] block = new byte[4096];
+            long deadline = System.currentTimeMillis() + 10000;
+            while (System.currentTimeMillis() < deadline) {
+              output.write(block);
+              output.flush();
+              Thread.sleep(1);
+            }
+          } catch (InterruptedException interruptedEx) {
+            interrupted[0] = true;
+          }
+          testDirectory.newFile("after-violation.txt");
+        }
+      }, TEST_DESCRIPTION).evaluate();
+      fail("Test should have failed");
+    } catch (AssertionError expectedError) {
+      assertTrue(expectedError.getMessage(), expectedError.getMessage().startsWith(String.format("Disk quota exceeded in directory %s - contains ", testDirectory.directory)));
+      assertTrue(expectedError.getMessage(), expectedError.getMessage().endsWith("but the quota is 65536 bytes and unlimited files"));
+    }
+
+    assertTrue(interrupted[0]);
+    assertFalse(Thread.currentThread().isInterrupted());
+    assertTrue(testDirectory.getPeakBytes() > 64 * 1024);
+    testDirectory.assertIsEmpty();
+  }
+
+  /**
+   * Description of test.
+   *
+   * @throws Exception in the event of a test error.
+   */
+  @Test
+  public void testInvalidQuota() throws Exception {
+    try {
+      new TestDirectory().quota(-1, 0);
+      fail("Operation should have thrown an exception");
+    } catch (IllegalArgumentException expectedEx) {
+      assertEquals("Maximum bytes argument -1 cannot be negative", expectedEx.getMessage());
+    }
+
+    assertFalse(new TestDirectory().quota(0, 0).isQuotaEnabled());
+  }
+}
@@ -18,13 +18,20 @@
 package com.pronoia.junit.file;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import com.pronoia.junit.asserts.file.FileAssert;
 
 import java.io.File;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import org.apache.commons.io.FileUtils;
@@ -248,6 +255,59 @@ public class TestDirectoryTest {
     assertEquals(expected, instance.readFileLines(TEST_FILE_NAME));
   }
 
+  /**
+   * Description of test.
+   *
+   * @throws Exception in the event of a test error.
+   */
+  @Test
+  public void testReadFirstAndLastLines() throws Exception {
+    instance.copyFile(TEST_DATA_FILE);
+
+    assertEquals(Arrays.asList("Some Test Data One", "Some Test Data Two"), instance.readFirstLines(TEST_FILE_NAME, 2));
+    assertEquals(Arrays.asList("Some Test Data Four", "Some Test Data Five"), instance.readLastLines(TEST_FILE_NAME, 2));
+    assertEquals(instance.readFileLines(TEST_FILE_NAME), instance.readLastLines(TEST_FILE_NAME, 100));
+    assertEquals(instance.readFileLines(TEST_FILE_NAME), instance.readFirstLines(TEST_FILE_NAME, 100));
+    assertEquals(Collections.emptyList(), instance.readLastLines(TEST_FILE_NAME, 0));
+
+    // Lines spanning several blocks, mixed terminators and no final terminator
+    StringBuilder body = new StringBuilder();
+    List<String> expected = new ArrayList<>();
+    for (int i = 0; i < 5000; ++i) {
+      String line = "line " + i + " \u00e9";
+      expected.add(line);
+      body.append(line).append(i % 3 == 0 ? "\r\n" : (i % 3 == 1 ? "\n" : "\r"));
+    }
+    body.append("last");
+    expected.add("last");
+    FileUtils.writeStringToFile(new File(instance.toFile(), "large.log"), body.toString(), StandardCharsets.UTF_8);
+
+    assertEquals(expected, FileUtils.readLines(instance.getFile("large.log"), StandardCharsets.UTF_8));
+    for (int count : Arrays.asList(1, 2, 3, 4, 1000, 5001, 6000)) {
+      assertEquals(expected.subList(Math.max(0, expected.size() - count), expected.size()), instance.readLastLines("large.log", count, StandardCharsets.UTF_8));
+      assertEquals(expected.subList(0, Math.min(count, expected.size())), instance.readFirstLines("large.log", count, StandardCharsets.UTF_8));
+    }
+
+    FileUtils.writeStringToFile(new File(instance.toFile(), "utf16.log"), "one\ntwo\nthree\n", StandardCharsets.UTF_16);
+    assertEquals(Arrays.asList("two", "three"), instance.readLastLines("utf16.log", 2, StandardCharsets.UTF_16));
+
+    try {
+      instance.readLastLines(TEST_FILE_NAME, -1);
+      fail("Operation should have thrown an exception");
+    } catch (IllegalArgumentException expectedEx) {
+      String expectedMessage = String.format("Failed to read the last lines of the '%s' file in the '%s' directory - the line count argument -1 cannot be negative", TEST_FILE_NAME, instance.directory);
+      assertEquals(expectedMessage, expectedEx.getMessage());
+    }
+
+    try {
+      instance.readFirstLines("missing.log", 1);
+      fail("Operation should have thrown an exception");
+    } catch (IllegalStateException expectedEx) {
+      String expectedMessage = String.format("Failed to read the first lines of the 'missing.log' file in the '%s' directory - the file does not exist", instance.directory);
+      assertEquals(expectedMessage, expectedEx.getMessage());
+    }
+  }
+
   /**
    * Description of test.
    *
@@ -376,6 +436,53 @@ public class TestDirectoryTest {
     instance.assertNotContainsDirectory(TEST_CHILD_DIRECTORY_NAME);
     instance.newDirectory(TEST_CHILD_DIRECTORY_NAME);
     instance.assertContainsDirectory(TEST_CHILD_DIRECTORY_NAME);
+
+    try {
+      instance.newDirectory(TEST_CHILD_DIRECTORY_NAME);
+      fail("Operation should have thrown an exception");
+    } catch (IllegalStateException expectedEx) {
+      String expectedMessage = String.format("Failed to create a new '%s' child directory in the '%s' directory - the child directory already exists", TEST_CHILD_DIRECTORY_NAME, instance.directory);
+      assertEquals(expectedMessage, expectedEx.getMessage());
+    }
+  }
+
+  /**
+   * Description of test.
+   *
+   * @throws Exception in the event of a test error.
+   */
+  @Test
+  public void testPathOperations() throws Exception {
+    Path childDirectory = instance.newDirectoryPath(TEST_CHILD_DIRECTORY_NAME);
+    assertEquals(new File(instance.directory, TEST_CHILD_DIRECTORY_NAME).toPath(), childDirectory);
+    assertEquals(childDirectory, instance.getDirectoryPath(TEST_CHILD_DIRECTORY_NAME));
+
+    Path file = instance.newFilePath(TEST_FILE_NAME);
+    assertTrue(Files.isRegularFile(file));
+    assertEquals(file, instance.getPath(TEST_FILE_NAME));
+    try {
+      instance.newFilePath(TEST_FILE_NAME);
+      fail("Operation should have thrown an exception");
+    } catch (IllegalStateException expectedEx) {
+      String expectedMessage = String.format("Failed to create the '%s' file in the '%s' directory - the file already exists", TEST_FILE_NAME, instance.directory);
+      assertEquals(expectedMessage, expectedEx.getMessage());
+    }
+
+    Path childFile = instance.newFilePath(TEST_CHILD_DIRECTORY_NAME + File.separator + TEST_FILE_NAME);
+    assertEquals(childFile, instance.getPathFromChildDirectory(TEST_CHILD_DIRECTORY_NAME, TEST_FILE_NAME));
+
+    instance.deleteFile(file.toAbsolutePath());
+    instance.assertNotContainsFile(TEST_FILE_NAME);
+    instance.deleteFile(Paths.get(TEST_CHILD_DIRECTORY_NAME, TEST_FILE_NAME));
+    instance.assertChildDirectoryIsEmpty(TEST_CHILD_DIRECTORY_NAME);
+
+    try {
+      instance.deleteFile(Paths.get("..", TEST_FILE_NAME));
+      fail("Operation should have thrown an exception");
+    } catch (IllegalArgumentException expectedEx) {
+      String expectedMessage = String.format("Failed to delete the '%s' file from the '%s' directory - the file is not in the test directory", Paths.get("..", TEST_FILE_NAME), instance.directory);
+      assertEquals(expectedMessage, expectedEx.getMessage());
+    }
   }
 
 
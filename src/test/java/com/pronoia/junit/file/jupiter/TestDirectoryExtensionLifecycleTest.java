@@ -0,0 +1,67 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.pronoia.junit.file.jupiter;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.pronoia.junit.file.FileLockHolder;
+import com.pronoia.junit.file.TestDirectory;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+/**
+ * Tests for the lifecycle of the directories provided by the TestDirectoryExtension class.
+ */
+public class TestDirectoryExtensionLifecycleTest {
+  static final String TEST_FILE_NAME = "test.txt";
+
+  @RegisterExtension
+  static TestDirectoryExtension testDirectories = new TestDirectoryExtension("target/extension-lifecycle-files")
+      .configure(testDirectory -> testDirectory.journal("target/extension-lifecycle-journals").quota(1024 * 1024, 100));
+
+  static TestDirectory started;
+  static FileLockHolder lock;
+
+  @AfterAll
+  public static void verifyStopped() throws Exception {
+    assertNotNull(started);
+    assertNull(started.getJournal());
+    assertFalse(lock.isHeld());
+  }
+
+  /**
+   * Description of test.
+   *
+   * @throws Exception in the event of a test error.
+   */
+  @Test
+  public void testLifecycle(TestDirectory testDirectory) throws Exception {
+    started = testDirectory;
+    assertTrue(testDirectory.isQuotaEnabled());
+    assertNotNull(testDirectory.getJournal());
+
+    testDirectory.newFile(TEST_FILE_NAME);
+    lock = testDirectory.lockFile(TEST_FILE_NAME, FileLockHolder.Mode.EXCLUSIVE);
+    assertTrue(lock.isHeld());
+  }
+}
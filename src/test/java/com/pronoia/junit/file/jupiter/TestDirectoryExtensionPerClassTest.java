@@ -0,0 +1,59 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.pronoia.junit.file.jupiter;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.pronoia.junit.file.TestDirectory;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+/**
+ * Tests for the TestDirectoryExtension class with a per-class test instance lifecycle.
+ */
+@ExtendWith(TestDirectoryExtension.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class TestDirectoryExtensionPerClassTest {
+  static final String TEST_FILE_NAME = "test.txt";
+
+  final Set<TestDirectory> previous = new HashSet<>();
+
+  TestDirectory injected;
+
+  /**
+   * Every test must see its own directory in the shared instance's field.
+   *
+   * @throws Exception in the event of a test error.
+   */
+  @RepeatedTest(3)
+  public void testFieldInjectionPerClass(TestDirectory testDirectory) throws Exception {
+    assertNotNull(injected);
+    assertSame(testDirectory, injected);
+    assertTrue(previous.add(injected), "The directory of a previous test was injected");
+
+    injected.assertIsEmpty();
+    injected.newFile(TEST_FILE_NAME);
+  }
+}
@@ -0,0 +1,90 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.pronoia.junit.file.jupiter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.pronoia.junit.file.TestDirectory;
+
+import java.io.File;
+
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+
+/**
+ * Tests for the TestDirectoryExtension class.
+ */
+@ExtendWith(TestDirectoryExtension.class)
+@Execution(ExecutionMode.CONCURRENT)
+public class TestDirectoryExtensionTest {
+  static final String TEST_FILE_NAME = "test.txt";
+
+  TestDirectory injected;
+
+  /**
+   * Description of test.
+   *
+   * @throws Exception in the event of a test error.
+   */
+  @Test
+  public void testFieldInjection() throws Exception {
+    assertNotNull(injected);
+    injected.assertIsEmpty();
+
+    File expectedParent = new File(TestDirectory.DEFAULT_DIRECTORY, TestDirectoryExtensionTest.class.getName());
+    assertEquals(expectedParent, injected.toFile().getParentFile());
+    assertTrue(injected.toFile().getName().startsWith("testFieldInjection-"));
+  }
+
+  /**
+   * Description of test.
+   *
+   * @throws Exception in the event of a test error.
+   */
+  @Test
+  public void testParameterInjection(TestDirectory testDirectory) throws Exception {
+    assertSame(injected, testDirectory);
+
+    testDirectory.newFile(TEST_FILE_NAME);
+    injected.assertContainsFile(TEST_FILE_NAME);
+  }
+
+  /**
+   * Concurrently running repetitions must each see an empty, private directory.
+   *
+   * @throws Exception in the event of a test error.
+   */
+  @RepeatedTest(16)
+  public void testConcurrentIsolation(TestDirectory testDirectory) throws Exception {
+    testDirectory.assertIsEmpty();
+
+    for (int i = 0; i < 50; ++i) {
+      testDirectory.newFileWithBody("file-" + i + ".txt", testDirectory.toString());
+      Thread.yield();
+    }
+
+    testDirectory.assertFileCountEquals(50);
+    assertEquals(testDirectory.toString(), testDirectory.readFile("file-49.txt"));
+  }
+}